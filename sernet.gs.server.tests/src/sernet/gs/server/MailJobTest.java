@@ -0,0 +1,86 @@
+package sernet.gs.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+public class MailJobTest {
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<MimeMessage> sentMessages = Collections
+            .synchronizedList(new ArrayList<>());
+
+    @Test
+    public void messagesAreSentInBatches() {
+        List<MimeMessage> messages = createMessages(120);
+
+        createMailJob(null).sendInBatches(messages);
+
+        List<Integer> sizes = new ArrayList<>(batchSizes);
+        Collections.sort(sizes);
+        assertEquals(Arrays.asList(20, 50, 50), sizes);
+        assertEquals(messages.size(), sentMessages.size());
+        assertTrue(sentMessages.containsAll(messages));
+    }
+
+    @Test
+    public void failedBatchDoesNotStopOtherBatches() {
+        List<MimeMessage> messages = createMessages(120);
+
+        createMailJob(messages.get(0)).sendInBatches(messages);
+
+        assertEquals(3, batchSizes.size());
+        assertEquals(70, sentMessages.size());
+        assertTrue(sentMessages.containsAll(messages.subList(50, 120)));
+    }
+
+    @Test
+    public void nothingIsSentWithoutMessages() {
+        createMailJob(null).sendInBatches(Collections.emptyList());
+
+        assertTrue(batchSizes.isEmpty());
+    }
+
+    /**
+     * Returns a mail job with a mail sender which records the sent messages
+     * and fails to send the batch containing the failing message.
+     */
+    private MailJob createMailJob(MimeMessage failingMessage) {
+        MailJob mailJob = new MailJob();
+        mailJob.setMailSender((JavaMailSender) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { JavaMailSender.class },
+                (proxy, method, args) -> {
+                    MimeMessage[] batch = (MimeMessage[]) args[0];
+                    batchSizes.add(batch.length);
+                    List<MimeMessage> batchList = Arrays.asList(batch);
+                    if (batchList.contains(failingMessage)) {
+                        throw new MailSendException("test");
+                    }
+                    sentMessages.addAll(batchList);
+                    return null;
+                }));
+        return mailJob;
+    }
+
+    private static List<MimeMessage> createMessages(int number) {
+        List<MimeMessage> messages = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            messages.add(new MimeMessage((Session) null));
+        }
+        return messages;
+    }
+
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.gs.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.remoting.httpinvoker.HttpInvokerServiceExporter;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
+import org.springframework.web.util.NestedServletException;
+
+import sernet.gs.service.DeduplicatingObjectOutputStream;
+import sernet.gs.service.HttpInvokerCompression;
+
+/**
+ * HttpInvoker exporter which compresses responses and decompresses requests
+ * with gzip. See {@link HttpInvokerCompression} for the negotiation between
+ * client and server.
+ *
+ * Results are serialized with a {@link DeduplicatingObjectOutputStream}, equal
+ * strings like property type ids and option values are written only once.
+ * The result is written to the response while it is serialized, see
+ * {@link ResponseOutputStream}. Byte counts and latency of every invocation
+ * are added to the {@link HttpInvokerMetrics}.
+ */
+public class CompressingHttpInvokerServiceExporter extends HttpInvokerServiceExporter {
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private HttpInvokerMetrics metrics;
+
+    private int minCompressionSize = HttpInvokerCompression.MIN_COMPRESSION_SIZE;
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        long start = System.currentTimeMillis();
+        try {
+            RemoteInvocation invocation = readRemoteInvocation(request);
+            RemoteInvocationResult result = invokeAndCreateResult(invocation, getProxy());
+
+            response.setContentType(getContentType());
+            // tells the client that compressed requests are accepted
+            response.setHeader(HttpInvokerCompression.HEADER_ACCEPT_ENCODING,
+                    HttpInvokerCompression.ENCODING_GZIP);
+            boolean compress = HttpInvokerCompression
+                    .isGzip(request.getHeader(HttpInvokerCompression.HEADER_ACCEPT_ENCODING));
+            ResponseOutputStream out = new ResponseOutputStream(response, compress,
+                    minCompressionSize);
+            writeRemoteInvocationResult(request, response, result, out);
+
+            if (metrics != null) {
+                metrics.addInvocation(
+                        HttpInvokerCompression.getInvocationName(invocation.getMethodName(),
+                                invocation.getArguments()),
+                        Math.max(0, request.getContentLength()), out.getSerializedBytes(),
+                        out.getWireBytes(), System.currentTimeMillis() - start);
+            }
+        } catch (ClassNotFoundException ex) {
+            throw new NestedServletException("Class not found during deserialization", ex);
+        }
+    }
+
+    @Override
+    protected InputStream decorateInputStream(HttpServletRequest request, InputStream is)
+            throws IOException {
+        if (HttpInvokerCompression
+                .isGzip(request.getHeader(HttpInvokerCompression.HEADER_CONTENT_ENCODING))) {
+            return new GZIPInputStream(is);
+        }
+        return is;
+    }
+
+    @Override
+    protected ObjectOutputStream createObjectOutputStream(OutputStream os) throws IOException {
+        return new DeduplicatingObjectOutputStream(os);
+    }
+
+    public HttpInvokerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(HttpInvokerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int getMinCompressionSize() {
+        return minCompressionSize;
+    }
+
+    public void setMinCompressionSize(int minCompressionSize) {
+        this.minCompressionSize = minCompressionSize;
+    }
+
+    /**
+     * Writes the serialized result to the response without buffering the whole
+     * result. The first minCompressionSize bytes are buffered. If the result
+     * is smaller, it is sent uncompressed with a content length. Otherwise the
+     * content encoding header is set and the result is compressed directly
+     * into the response stream.
+     */
+    private static final class ResponseOutputStream extends OutputStream {
+
+        private final HttpServletResponse response;
+
+        private final int minCompressionSize;
+
+        private ByteArrayOutputStream buffer;
+
+        private CountingOutputStream wire;
+
+        private OutputStream out;
+
+        private long serializedBytes = 0;
+
+        private boolean closed = false;
+
+        private ResponseOutputStream(HttpServletResponse response, boolean compress,
+                int minCompressionSize) throws IOException {
+            this.response = response;
+            this.minCompressionSize = minCompressionSize;
+            if (compress) {
+                buffer = new ByteArrayOutputStream(minCompressionSize);
+            } else {
+                wire = new CountingOutputStream(response.getOutputStream());
+                out = wire;
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            serializedBytes += len;
+            if (out == null && buffer.size() + len >= minCompressionSize) {
+                startCompression();
+            }
+            if (out != null) {
+                out.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        private void startCompression() throws IOException {
+            response.setHeader(HttpInvokerCompression.HEADER_CONTENT_ENCODING,
+                    HttpInvokerCompression.ENCODING_GZIP);
+            wire = new CountingOutputStream(response.getOutputStream());
+            out = new GZIPOutputStream(wire, GZIP_BUFFER_SIZE);
+            buffer.writeTo(out);
+            buffer = null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // the gzip stream is flushed when the result is complete
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (out == null) {
+                response.setContentLength(buffer.size());
+                wire = new CountingOutputStream(response.getOutputStream());
+                buffer.writeTo(wire);
+                buffer = null;
+            } else if (out instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) out).finish();
+            }
+            wire.flush();
+        }
+
+        private long getSerializedBytes() {
+            return serializedBytes;
+        }
+
+        private long getWireBytes() {
+            return (wire != null) ? wire.count : 0;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count = 0;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.gs.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Byte counts and latency of the HttpInvoker requests per remote invocation,
+ * e.g. per executed command class. Every invocation is logged with level
+ * DEBUG, a summary of all invocations is logged with level INFO after
+ * {@link #getLogInterval()} invocations.
+ */
+public class HttpInvokerMetrics {
+
+    private static final Logger LOG = Logger.getLogger(HttpInvokerMetrics.class);
+
+    private static final long BYTES_PER_KB = 1024L;
+
+    private static final int DEFAULT_LOG_INTERVAL = 1000;
+
+    private static final int MAX_INVOCATIONS_IN_SUMMARY = 20;
+
+    private final Map<String, InvocationMetrics> metricsByInvocation = new ConcurrentHashMap<>();
+
+    private final AtomicLong invocations = new AtomicLong();
+
+    private int logInterval = DEFAULT_LOG_INTERVAL;
+
+    /**
+     * @param invocationName Name of the invocation, e.g. method and command
+     * @param requestBytes Size of the request on the wire
+     * @param responseBytes Size of the serialized response
+     * @param responseWireBytes Size of the response on the wire
+     * @param duration Time in ms to read, execute and write the invocation
+     */
+    public void addInvocation(String invocationName, long requestBytes, long responseBytes,
+            long responseWireBytes, long duration) {
+        metricsByInvocation.computeIfAbsent(invocationName, InvocationMetrics::new)
+                .add(requestBytes, responseBytes, responseWireBytes, duration);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(invocationName + ", request: " + requestBytes + " bytes, response: "
+                    + responseBytes + " bytes, sent: " + responseWireBytes + " bytes, "
+                    + duration + " ms");
+        }
+        long number = invocations.incrementAndGet();
+        if (logInterval > 0 && number % logInterval == 0 && LOG.isInfoEnabled()) {
+            LOG.info("HttpInvoker metrics after " + number + " invocations:\n" + getSummary());
+        }
+    }
+
+    /**
+     * Returns a summary of the invocations with the most sent bytes.
+     */
+    public String getSummary() {
+        List<InvocationMetrics> metrics = new ArrayList<>(metricsByInvocation.values());
+        metrics.sort((m1, m2) -> Long.compare(m2.responseWireBytes.get(),
+                m1.responseWireBytes.get()));
+        StringBuilder sb = new StringBuilder();
+        for (InvocationMetrics m : metrics.subList(0,
+                Math.min(MAX_INVOCATIONS_IN_SUMMARY, metrics.size()))) {
+            sb.append(m).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public int getLogInterval() {
+        return logInterval;
+    }
+
+    public void setLogInterval(int logInterval) {
+        this.logInterval = logInterval;
+    }
+
+    private static final class InvocationMetrics {
+
+        private final String name;
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong responseBytes = new AtomicLong();
+        private final AtomicLong responseWireBytes = new AtomicLong();
+        private final AtomicLong duration = new AtomicLong();
+
+        private InvocationMetrics(String name) {
+            this.name = name;
+        }
+
+        private void add(long request, long response, long responseWire, long time) {
+            invocations.incrementAndGet();
+            requestBytes.addAndGet(request);
+            responseBytes.addAndGet(response);
+            responseWireBytes.addAndGet(responseWire);
+            duration.addAndGet(time);
+        }
+
+        @Override
+        public String toString() {
+            long number = Math.max(1L, invocations.get());
+            return name + ": " + invocations.get() + " invocations, request: "
+                    + requestBytes.get() / BYTES_PER_KB + " KB, response: "
+                    + responseBytes.get() / BYTES_PER_KB + " KB, sent: "
+                    + responseWireBytes.get() / BYTES_PER_KB + " KB, average time: "
+                    + duration.get() / number + " ms";
+        }
+    }
+}
@@ -23,6 +23,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.InternetAddress;
@@ -56,7 +60,9 @@ import sernet.verinice.service.commands.PrepareNotificationInfo;
  * 
  * <p>The class runs the command that prepares all the neccessary information
  * to prepare the notification mails, then iterates through the results and generates
- * the individual messages and sends them.</p>
+ * the individual messages and sends them. The messages are sent in batches,
+ * every batch is sent with one connection to the mail server. Up to
+ * {@link #MAX_PARALLEL_BATCHES} batches are sent in parallel.</p>
  * 
  * <p>To adjust the content of the notification mail modify the strings in the
  * <code>mailmessages.properties</code> file.</p>
@@ -72,6 +78,10 @@ public class MailJob extends QuartzJobBean implements StatefulJob {
     private static final String EMAIL_CC_PROPERTY = "${veriniceserver.notification.email.cc}";
     private static final String EMAIL_BCC_PROPERTY = "${veriniceserver.notification.email.bcc}";
 
+    private static final int BATCH_SIZE = 50;
+
+    private static final int MAX_PARALLEL_BATCHES = 4;
+
 	private boolean notificationEnabled;
 	
 	private PrepareNotificationInfo pniCommand;
@@ -140,7 +150,8 @@ public class MailJob extends QuartzJobBean implements StatefulJob {
         // Retrieves the notification information.
         commandService.executeCommand(pniCommand);
         
-        // Iterates through the result, generate and send the individual messages.
+        // Iterates through the result and generates the individual messages.
+        List<MimeMessage> messages = new ArrayList<MimeMessage>();
         for (NotificationInfo ei : pniCommand.getNotificationInfos()) {
         	MessageHelper mh = new MessageHelper(
         			notificationEmailReplyTo,
@@ -154,7 +165,48 @@ public class MailJob extends QuartzJobBean implements StatefulJob {
         	
         	
         	mh = prepareMessageHelper(ei, mh);
-        	mailSender.send(mh.createMailMessage());  				
+        	messages.add(mh.createMailMessage());
+        }
+        sendInBatches(messages);
+    }
+
+    void sendInBatches(List<MimeMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<List<MimeMessage>> batches = new ArrayList<List<MimeMessage>>();
+        for (int i = 0; i < messages.size(); i += BATCH_SIZE) {
+            batches.add(messages.subList(i, Math.min(i + BATCH_SIZE, messages.size())));
+        }
+        ExecutorService executor = Executors
+                .newFixedThreadPool(Math.min(batches.size(), MAX_PARALLEL_BATCHES));
+        try {
+            List<Future<?>> results = new ArrayList<Future<?>>(batches.size());
+            for (final List<MimeMessage> batch : batches) {
+                results.add(executor.submit(() -> mailSender
+                        .send(batch.toArray(new MimeMessage[batch.size()]))));
+            }
+            for (Future<?> result : results) {
+                waitForBatch(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(messages.size() + " notification mails sent in " + batches.size()
+                    + " batches.");
+        }
+    }
+
+    private void waitForBatch(Future<?> result) {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            // a failed batch must not stop the other batches
+            LOG.error("Error while sending notification mails.", e.getCause());
+        } catch (InterruptedException e) {
+            LOG.error("Interrupted while sending notification mails.", e);
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.bpm;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.jbpm.api.cmd.Command;
+import org.jbpm.api.cmd.Environment;
+import org.jbpm.pvm.internal.model.ExecutionImpl;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.verinice.interfaces.IDao;
+
+/**
+ * A jBPM command which loads the variables of many executions with one query
+ * for every {@link IDao#QUERY_MAX_ITEMS_IN_LIST} executions.
+ * 
+ * The variables are read inside the command since jBPM needs its environment
+ * to deserialize them. The result contains the variables and the process
+ * definition id of every execution which was found.
+ */
+public class LoadExecutionVariablesCmd
+        implements Command<Map<String, LoadExecutionVariablesCmd.ExecutionVariables>> {
+
+    private static final long serialVersionUID = -3153201858120466318L;
+
+    private static final String HQL = "select distinct execution from ExecutionImpl as execution " //$NON-NLS-1$
+            + "left join fetch execution.variables " //$NON-NLS-1$
+            + "where execution.id in (:ids)"; //$NON-NLS-1$
+
+    private final List<String> executionIds;
+
+    public LoadExecutionVariablesCmd(Collection<String> executionIds) {
+        this.executionIds = new ArrayList<>(executionIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<String, ExecutionVariables> execute(Environment environment) {
+        Session session = environment.get(Session.class);
+        Map<String, ExecutionVariables> result = new HashMap<>(executionIds.size());
+        for (List<String> partition : CollectionUtil.partition(executionIds,
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            List<ExecutionImpl> executions = session.createQuery(HQL)
+                    .setParameterList("ids", partition).list(); //$NON-NLS-1$
+            for (ExecutionImpl execution : executions) {
+                result.put(execution.getId(), new ExecutionVariables(
+                        execution.getProcessDefinitionId(), execution.getVariables()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The variables and the process definition id of an execution.
+     */
+    public static class ExecutionVariables implements Serializable {
+
+        private static final long serialVersionUID = 3541385186326095733L;
+
+        private final String processDefinitionId;
+
+        private final Map<String, Object> variables;
+
+        public ExecutionVariables(String processDefinitionId, Map<String, Object> variables) {
+            this.processDefinitionId = processDefinitionId;
+            this.variables = variables;
+        }
+
+        public String getProcessDefinitionId() {
+            return processDefinitionId;
+        }
+
+        public Map<String, Object> getVariables() {
+            return variables;
+        }
+    }
+}
@@ -22,17 +22,19 @@ package sernet.verinice.bpm;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
 import org.jbpm.api.Execution;
 import org.jbpm.api.ExecutionService;
 import org.jbpm.api.ManagementService;
@@ -42,6 +44,7 @@ import org.jbpm.pvm.internal.task.TaskImpl;
 import org.jbpm.pvm.internal.type.Variable;
 import org.springframework.remoting.httpinvoker.HttpInvokerProxyFactoryBean;
 
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.RetrieveInfo;
 import sernet.gs.service.ServerInitializer;
 import sernet.hui.common.VeriniceContext;
@@ -161,6 +164,8 @@ public class TaskService implements ITaskService {
 
     private Set<String> taskReminderBlacklist;
 
+    private final Map<String, Set<String>> outcomeCache = new ConcurrentHashMap<>();
+
     @Override
     public List<ITask> getCurrentUserTaskList() {
         return doGetTaskList(new TaskParameter(getAuthService().getUsername()));
@@ -227,36 +232,121 @@ public class TaskService implements ITaskService {
     }
 
     private List<ITask> populateTaskList(List<?> jbpmTaskList) {
-        List<ITask> taskList;
-        taskList = new ArrayList<>();
-        Task task = null;
-        for (Iterator<?> iterator = jbpmTaskList.iterator(); iterator.hasNext();) {
-            Object object = iterator.next();
+        List<Task> tasks = new ArrayList<>(jbpmTaskList.size());
+        for (Object object : jbpmTaskList) {
             if (object instanceof Task) {
-                task = (Task) object;
+                tasks.add((Task) object);
             }
             if (object instanceof Object[]) {
-                task = (Task) ((Object[]) object)[0];
+                tasks.add((Task) ((Object[]) object)[0]);
             }
-            if (task != null) {
-                try {
-                    ITask taskInfo = map(task);
-                    taskInfo.setOutcomes(getOutcomeList(task));
-                    taskList.add(taskInfo);
-                } catch (ElementNotFoundException enfe) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("populateTaskList, element not found (no read permission?): " //$NON-NLS-1$
-                                + enfe.getUuid());
-                    }
-                    // ignore task
+        }
+        TaskListData data = loadTaskListData(tasks);
+        List<ITask> taskList = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            try {
+                ITask taskInfo = map(task, data);
+                taskInfo.setOutcomes(getOutcomeList(task, data));
+                taskList.add(taskInfo);
+            } catch (ElementNotFoundException enfe) {
+                if (log.isDebugEnabled()) {
+                    log.debug("populateTaskList, element not found (no read permission?): " //$NON-NLS-1$
+                            + enfe.getUuid());
                 }
+                // ignore task
             }
         }
         return taskList;
     }
 
-    private List<KeyValue> getOutcomeList(Task task) {
-        Set<String> outcomeSet = getTaskService().getOutcomes(task.getId());
+    /**
+     * Loads the process variables, the referenced elements and audits and the
+     * scope titles of all tasks with a few queries instead of several queries
+     * for every task.
+     */
+    private TaskListData loadTaskListData(List<Task> tasks) {
+        TaskListData data = new TaskListData();
+        Set<String> executionIds = new HashSet<>(tasks.size());
+        for (Task task : tasks) {
+            executionIds.add(task.getExecutionId());
+        }
+        data.executions = getProcessEngine()
+                .execute(new LoadExecutionVariablesCmd(executionIds));
+
+        Set<String> elementUuids = new HashSet<>();
+        Set<String> nonAuditElementUuids = new HashSet<>();
+        for (Task task : tasks) {
+            Map<String, Object> varMap = getVariables(task, data);
+            String uuid = (String) varMap.get(IGenericProcess.VAR_UUID);
+            String uuidAudit = (String) varMap.get(IIsaExecutionProcess.VAR_AUDIT_UUID);
+            if (uuid != null) {
+                elementUuids.add(uuid);
+            }
+            if (uuidAudit != null) {
+                elementUuids.add(uuidAudit);
+            } else if (uuid != null) {
+                nonAuditElementUuids.add(uuid);
+            }
+        }
+        data.elements = loadElements(elementUuids);
+        data.scopeTitles = loadScopeTitles(nonAuditElementUuids);
+        return data;
+    }
+
+    private Map<String, CnATreeElement> loadElements(Set<String> uuids) {
+        Map<String, CnATreeElement> elements = new HashMap<>(uuids.size());
+        for (List<String> partition : CollectionUtil.partition(List.copyOf(uuids),
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
+                    .add(Restrictions.in("uuid", partition)); //$NON-NLS-1$
+            RetrieveInfo.getPropertyInstance().configureCriteria(criteria);
+            @SuppressWarnings("unchecked")
+            List<CnATreeElement> result = getElementDao().findByCriteria(criteria);
+            for (CnATreeElement element : result) {
+                elements.put(element.getUuid(), element);
+            }
+        }
+        return elements;
+    }
+
+    private Map<String, String[]> loadScopeTitles(Set<String> elementUuids) {
+        String hql = "select element2.uuid, props.propertyValue, elmt.uuid " //$NON-NLS-1$
+                + "from CnATreeElement elmt " //$NON-NLS-1$
+                + "inner join elmt.entity as entity " //$NON-NLS-1$
+                + "inner join entity.typedPropertyLists as propertyList " //$NON-NLS-1$
+                + "inner join propertyList.properties as props, " //$NON-NLS-1$
+                + "CnATreeElement element2 " //$NON-NLS-1$
+                + "where elmt.dbId = element2.scopeId " //$NON-NLS-1$
+                + "and element2.uuid in (:uuids) " //$NON-NLS-1$
+                + "and props.propertyType in (:titleProperties)"; //$NON-NLS-1$
+        Map<String, List<String[]>> rowsByUuid = new HashMap<>(elementUuids.size());
+        for (List<String> partition : CollectionUtil.partition(List.copyOf(elementUuids),
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            List<?> hqlResult = getElementDao().findByQuery(hql,
+                    new String[] { "uuids", "titleProperties" }, //$NON-NLS-1$ //$NON-NLS-2$
+                    new Object[] { partition,
+                            Arrays.asList(ITVerbund.PROP_NAME, Organization.PROP_NAME) });
+            for (Object row : hqlResult) {
+                Object[] values = (Object[]) row;
+                rowsByUuid.computeIfAbsent((String) values[0], uuid -> new ArrayList<>(1))
+                        .add(new String[] { (String) values[1], (String) values[2] });
+            }
+        }
+        Map<String, String[]> scopeTitles = new HashMap<>(rowsByUuid.size());
+        for (Map.Entry<String, List<String[]>> entry : rowsByUuid.entrySet()) {
+            // the title is only unique if there is exactly one title property
+            if (entry.getValue().size() == 1) {
+                String[] titleAndUuid = entry.getValue().get(0);
+                if (titleAndUuid[0] != null && titleAndUuid[1] != null) {
+                    scopeTitles.put(entry.getKey(), titleAndUuid);
+                }
+            }
+        }
+        return scopeTitles;
+    }
+
+    private List<KeyValue> getOutcomeList(Task task, TaskListData data) {
+        Set<String> outcomeSet = getOutcomes(task, data);
         List<KeyValue> outcomeList = new ArrayList<>(outcomeSet.size());
         for (String id : outcomeSet) {
             if (!getTaskOutcomeBlacklist().contains(id)) {
@@ -266,6 +356,22 @@ public class TaskService implements ITaskService {
         return outcomeList;
     }
 
+    /**
+     * Returns the outcomes of a task. The outcomes only depend on the activity
+     * of the task in the process definition, they are cached by process
+     * definition id and activity name.
+     */
+    private Set<String> getOutcomes(Task task, TaskListData data) {
+        LoadExecutionVariablesCmd.ExecutionVariables execution = data.executions
+                .get(task.getExecutionId());
+        if (execution == null || task.getActivityName() == null) {
+            return getTaskService().getOutcomes(task.getId());
+        }
+        String key = execution.getProcessDefinitionId() + "#" + task.getActivityName(); //$NON-NLS-1$
+        return outcomeCache.computeIfAbsent(key,
+                k -> Collections.unmodifiableSet(getTaskService().getOutcomes(task.getId())));
+    }
+
     private Object[] prepareSearchQuery(ITaskParameter parameter) {
         Object[] retValues = new Object[2];
         StringBuilder sb = new StringBuilder("from org.jbpm.pvm.internal.task.TaskImpl as task "); //$NON-NLS-1$
@@ -402,7 +508,7 @@ public class TaskService implements ITaskService {
                 || (parameter.getRead() || parameter.getUnread()));
     }
 
-    private TaskInformation map(Task task) {
+    private TaskInformation map(Task task, TaskListData data) {
         TaskInformation taskInformation = new TaskInformation();
         taskInformation.setId(task.getId());
         taskInformation.setType(task.getName());
@@ -411,7 +517,7 @@ public class TaskService implements ITaskService {
 
         log.debug("map, setting read status..."); //$NON-NLS-1$
 
-        Map<String, Object> varMap = loadVariables(task);
+        Map<String, Object> varMap = getVariables(task, data);
         taskInformation.setName(loadTaskTitle(task.getName(), varMap));
         taskInformation.setDescription(loadTaskDescription(task.getName(), varMap, false));
 
@@ -428,8 +534,8 @@ public class TaskService implements ITaskService {
             taskInformation.setProperties((Set<String>) value);
         }
 
-        mapElement(taskInformation, varMap);
-        mapAudit(taskInformation, varMap);
+        mapElement(taskInformation, varMap, data);
+        mapAudit(taskInformation, varMap, data);
 
         if (log.isDebugEnabled()) {
             log.debug("map, loading type..."); //$NON-NLS-1$
@@ -478,12 +584,13 @@ public class TaskService implements ITaskService {
         return handler.loadTitle(taskId, varMap);
     }
 
-    private Map<String, Object> loadVariables(Task task) {
-        if (log.isDebugEnabled()) {
-            log.debug("loadVariables, loading element..."); //$NON-NLS-1$
+    private Map<String, Object> getVariables(Task task, TaskListData data) {
+        LoadExecutionVariablesCmd.ExecutionVariables execution = data.executions
+                .get(task.getExecutionId());
+        if (execution == null) {
+            return loadVariablesForProcess(task.getExecutionId());
         }
-        String executionId = task.getExecutionId();
-        return loadVariablesForProcess(executionId);
+        return execution.getVariables();
     }
 
     private Map<String, Object> loadVariablesForProcess(String executionId) {
@@ -491,7 +598,8 @@ public class TaskService implements ITaskService {
         return getExecutionService().getVariables(executionId, varNameSet);
     }
 
-    private TaskInformation mapAudit(TaskInformation taskInformation, Map<String, Object> varMap) {
+    private TaskInformation mapAudit(TaskInformation taskInformation, Map<String, Object> varMap,
+            TaskListData data) {
 
         log.debug("mapAudit, loading audit..."); //$NON-NLS-1$
 
@@ -499,35 +607,31 @@ public class TaskService implements ITaskService {
         String elementUuid = (String) varMap.get(IIsaExecutionProcess.VAR_UUID);
 
         if (uuidAudit != null) {// task references child of Audit
-            return handleAuditElement(taskInformation, uuidAudit);
+            return handleAuditElement(taskInformation, uuidAudit, data);
         } else { // task references child of ITVerbund or Organization
-            return handleNonAuditElement(taskInformation, elementUuid);
+            return handleNonAuditElement(taskInformation, elementUuid, data);
         }
     }
 
     private TaskInformation handleNonAuditElement(TaskInformation taskInformation,
-            String elementUuid) {
+            String elementUuid, TaskListData data) {
 
-        String[] dbResult = getTitlefromDB(elementUuid);
-        String title = dbResult[0];
-        String uuid = dbResult[1];
+        String[] titleAndUuid = elementUuid != null ? data.scopeTitles.get(elementUuid) : null;
 
-        if (title == null || title.equals("")) {
+        if (titleAndUuid == null || titleAndUuid[0].equals("")) {
             taskInformation.setGroupTitle(Messages.getString("TaskService.0")); //$NON-NLS-1$
         } else {
-            taskInformation.setGroupTitle(title);
-            taskInformation.setUuidGroup(uuid);
+            taskInformation.setGroupTitle(titleAndUuid[0]);
+            taskInformation.setUuidGroup(titleAndUuid[1]);
         }
 
         return taskInformation;
     }
 
-    private TaskInformation handleAuditElement(TaskInformation taskInformation, String uuidAudit) {
-        CnATreeElement audit;
+    private TaskInformation handleAuditElement(TaskInformation taskInformation, String uuidAudit,
+            TaskListData data) {
         taskInformation.setUuidGroup(uuidAudit);
-        RetrieveInfo ri = new RetrieveInfo();
-        ri.setProperties(true);
-        audit = getElementDao().findByUuid(uuidAudit, ri);
+        CnATreeElement audit = data.elements.get(uuidAudit);
 
         if (audit != null) {
             taskInformation.setGroupTitle(audit.getTitle());
@@ -536,45 +640,8 @@ public class TaskService implements ITaskService {
         return taskInformation;
     }
 
-    private String[] getTitlefromDB(String elementUuid) {
-        String[] results = null;
-        String hql = "select props.propertyValue, elmt.uuid from CnATreeElement elmt "
-                + "inner join elmt.entity as entity "
-                + "inner join entity.typedPropertyLists as propertyList "
-                + "inner join propertyList.properties as props " + "where  elmt.dbId = ("
-                + "select scopeId from CnATreeElement element2 where element2.uuid = :uuid " + ") "
-                + "AND props.propertyType IN (:titleProperties)";
-        List hqlResult = getElementDao().findByQuery(hql,
-                new String[] { "uuid", "titleProperties" }, new Object[] { elementUuid,
-                        Arrays.asList(ITVerbund.PROP_NAME, Organization.PROP_NAME) });
-        if (hqlResult instanceof Collection && hqlResult.size() == 1) {
-            results = getValuesFromHQLResult(hqlResult);
-        }
-        if (results != null && results.length == 2 && results[0] != null && results[1] != null) {
-            return results;
-        } else {
-            return new String[] { "", "" };
-        }
-    }
-
-    private String[] getValuesFromHQLResult(List hqlResult) {
-        String[] results = new String[2];
-        if (hqlResult.get(0) instanceof Object[]) {
-            Object[] hqlResultArr = (Object[]) hqlResult.get(0);
-            if (hqlResultArr.length == 2) {
-                if (hqlResultArr[0] instanceof String) {
-                    results[0] = (String) hqlResultArr[0];
-                }
-                if (hqlResultArr[1] instanceof String) {
-                    results[1] = (String) hqlResultArr[1];
-                }
-            }
-        }
-        return results;
-    }
-
     private TaskInformation mapElement(TaskInformation taskInformation,
-            Map<String, Object> varMap) {
+            Map<String, Object> varMap, TaskListData data) {
 
         String uuid = (String) varMap.get(IGenericProcess.VAR_UUID);
         taskInformation.setUuid(uuid);
@@ -584,9 +651,7 @@ public class TaskService implements ITaskService {
             return taskInformation;
         }
 
-        RetrieveInfo ri = new RetrieveInfo();
-        ri.setProperties(true);
-        CnATreeElement element = getElementDao().findByUuid(uuid, ri);
+        CnATreeElement element = data.elements.get(uuid);
 
         if (element != null) {
             taskInformation.setElementTitle(element.getTitle());
@@ -998,7 +1063,20 @@ public class TaskService implements ITaskService {
         if (task == null) {
             return null;
         }
-        return map(task);
+        return map(task, loadTaskListData(Collections.singletonList(task)));
+    }
+
+    /**
+     * The data of a list of tasks which is loaded in batches before the tasks
+     * are mapped.
+     */
+    private static final class TaskListData {
+
+        private Map<String, LoadExecutionVariablesCmd.ExecutionVariables> executions;
+
+        private Map<String, CnATreeElement> elements;
+
+        private Map<String, String[]> scopeTitles;
     }
 
 }
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * A size bounded cache for graphs created by {@link GraphService}.
+ *
+ * Changes of elements, links, properties and permissions are reported by
+ * {@link GraphCacheInterceptor} as {@link Changes}. Only the graphs which
+ * contain a changed element or which are loaded from the scope of a changed
+ * element are discarded. The cache is versioned: every change increments the
+ * version and graphs which were created while the version changed are not
+ * added to the cache. Graphs are evicted in least recently used order
+ * when the number of vertices and edges of all cached graphs exceeds
+ * maxSize. A time to live limits the age of a graph for changes which are not
+ * reported to the cache, e.g. bulk HQL updates.
+ *
+ * Cached graphs are created without permission filters, see
+ * {@link GraphService} for the permission view of a cached graph. The cached
+ * graphs are shared by all threads. Their elements must not be handed out or
+ * changed, callers get a copy from {@link GraphService}.
+ */
+public class GraphCache {
+
+    private static final Logger LOG = Logger.getLogger(GraphCache.class);
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<String, CachedGraph> graphMap = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size = 0;
+
+    // Maximum number of vertices and edges of all cached graphs
+    private long maxSize = 1000000;
+
+    // Maximum age of a cached graph in milliseconds
+    private long timeToLive = 10 * 60 * 1000L;
+
+    /**
+     * @return The current version of the cache
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Increments the version and removes all cached graphs.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        synchronized (this) {
+            if (!graphMap.isEmpty() && LOG.isDebugEnabled()) {
+                LOG.debug("Invalidating " + graphMap.size() + " cached graph(s)");
+            }
+            graphMap.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Increments the version and removes the cached graphs affected by the
+     * changes.
+     */
+    public void invalidate(Changes changes) {
+        version.incrementAndGet();
+        synchronized (this) {
+            Iterator<Map.Entry<String, CachedGraph>> iterator = graphMap.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, CachedGraph> entry = iterator.next();
+                if (entry.getValue().isAffectedBy(changes)) {
+                    size -= entry.getValue().getSize();
+                    iterator.remove();
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Graph invalidated: " + entry.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the graph for a key or null if there is no graph for the key or
+     * if the graph is outdated.
+     */
+    public synchronized CachedGraph get(String key) {
+        CachedGraph cachedGraph = graphMap.get(key);
+        if (cachedGraph == null) {
+            return null;
+        }
+        if (isExpired(cachedGraph)) {
+            remove(key);
+            return null;
+        }
+        return cachedGraph;
+    }
+
+    /**
+     * Adds a graph to the cache. The graph is not added if the version changed
+     * while the graph was created or if the graph is larger than maxSize.
+     */
+    public synchronized void put(String key, CachedGraph cachedGraph) {
+        if (cachedGraph.getVersion() != getVersion() || cachedGraph.getSize() > maxSize) {
+            return;
+        }
+        remove(key);
+        graphMap.put(key, cachedGraph);
+        size += cachedGraph.getSize();
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, CachedGraph>> iterator = graphMap.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, CachedGraph> eldest = iterator.next();
+            size -= eldest.getValue().getSize();
+            iterator.remove();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Graph evicted from cache: " + eldest.getKey());
+            }
+        }
+    }
+
+    private void remove(String key) {
+        CachedGraph removed = graphMap.remove(key);
+        if (removed != null) {
+            size -= removed.getSize();
+        }
+    }
+
+    private boolean isExpired(CachedGraph cachedGraph) {
+        return System.currentTimeMillis() - cachedGraph.getCreated() > timeToLive;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * A graph without permission filters and the roles with read access for
+     * each element of the graph.
+     */
+    public static final class CachedGraph {
+
+        private final VeriniceGraph graph;
+        private final Map<Integer, Set<String>> readRolesByDbId;
+        private final Set<Integer> scopeIds;
+        private final Set<Integer> elementIds;
+        private final Set<Integer> entityIds;
+        private final long version;
+        private final long created;
+        private final int size;
+
+        /**
+         * @param scopeIds
+         *            The scopes the elements of the graph are loaded from or
+         *            null if the elements are loaded from all scopes
+         */
+        public CachedGraph(VeriniceGraph graph, Map<Integer, Set<String>> readRolesByDbId,
+                Collection<Integer> scopeIds, long version) {
+            this.graph = graph;
+            this.readRolesByDbId = readRolesByDbId;
+            this.scopeIds = (scopeIds != null) ? new HashSet<>(scopeIds) : null;
+            Set<CnATreeElement> elements = graph.getElements();
+            this.elementIds = new HashSet<>(elements.size());
+            this.entityIds = new HashSet<>(elements.size());
+            for (CnATreeElement element : elements) {
+                elementIds.add(element.getDbId());
+                if (element.getEntity() != null) {
+                    entityIds.add(element.getEntity().getDbId());
+                }
+            }
+            this.version = version;
+            this.created = System.currentTimeMillis();
+            this.size = graph.getGraph().vertexSet().size() + graph.getGraph().edgeSet().size();
+        }
+
+        /**
+         * @return true if the graph contains a changed element or if a
+         *         changed element belongs to a scope the graph is loaded from
+         */
+        boolean isAffectedBy(Changes changes) {
+            if (changes.all || !Collections.disjoint(elementIds, changes.elementIds)
+                    || !Collections.disjoint(entityIds, changes.entityIds)) {
+                return true;
+            }
+            return changes.elementsOfScopeChanged
+                    && (scopeIds == null || !Collections.disjoint(scopeIds, changes.scopeIds));
+        }
+
+        public VeriniceGraph getGraph() {
+            return graph;
+        }
+
+        public Set<String> getReadRoles(Integer dbId) {
+            Set<String> roles = readRolesByDbId.get(dbId);
+            return (roles != null) ? roles : Collections.<String> emptySet();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * The database ids of changed elements, entities and scopes.
+     */
+    public static final class Changes {
+
+        private boolean all = false;
+        private boolean elementsOfScopeChanged = false;
+        private final Set<Integer> scopeIds = new HashSet<>();
+        private final Set<Integer> elementIds = new HashSet<>();
+        private final Set<Integer> entityIds = new HashSet<>();
+
+        /**
+         * An element was saved, changed or deleted. Graphs which contain the
+         * element and graphs which are loaded from one of the scopes are
+         * affected.
+         *
+         * @param scopeIds
+         *            The scope of the element before and after the change,
+         *            null values are ignored
+         */
+        public void addElement(Integer dbId, Integer... scopeIds) {
+            elementsOfScopeChanged = true;
+            addElementId(dbId);
+            for (Integer scopeId : scopeIds) {
+                if (scopeId != null) {
+                    this.scopeIds.add(scopeId);
+                }
+            }
+        }
+
+        /**
+         * The links or permissions of an element were changed. Only graphs
+         * which contain the element are affected.
+         */
+        public void addElementId(Integer dbId) {
+            if (dbId != null) {
+                elementIds.add(dbId);
+            }
+        }
+
+        /**
+         * The properties of an entity were changed. Only graphs which contain
+         * the element of the entity are affected.
+         */
+        public void addEntityId(Integer dbId) {
+            if (dbId != null) {
+                entityIds.add(dbId);
+            }
+        }
+
+        /**
+         * All graphs are affected.
+         */
+        public void addAll() {
+            all = true;
+        }
+
+        public void add(Changes changes) {
+            all |= changes.all;
+            elementsOfScopeChanged |= changes.elementsOfScopeChanged;
+            scopeIds.addAll(changes.scopeIds);
+            elementIds.addAll(changes.elementIds);
+            entityIds.addAll(changes.entityIds);
+        }
+
+        public boolean isEmpty() {
+            return !all && !elementsOfScopeChanged && elementIds.isEmpty()
+                    && entityIds.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.graph;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.collection.PersistentCollection;
+import org.hibernate.type.Type;
+
+import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.PropertyList;
+import sernet.verinice.graph.GraphCache.Changes;
+import sernet.verinice.model.common.CnALink;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.Permission;
+
+/**
+ * A Hibernate interceptor which reports saved, changed or deleted elements,
+ * links, properties and permissions to the {@link GraphCache}. Only the cached
+ * graphs affected by a change are invalidated, see
+ * {@link GraphCache#invalidate(Changes)}.
+ *
+ * The changes are reported when they are flushed and again after the
+ * transaction is completed. The second invalidation discards graphs which
+ * were created by other threads between flush and commit.
+ */
+public class GraphCacheInterceptor extends EmptyInterceptor {
+
+    private static final long serialVersionUID = 3013837093207468217L;
+
+    private static final String PROPERTY_SCOPE_ID = "scopeId";
+
+    private static final ThreadLocal<Changes> CHANGES = new ThreadLocal<>();
+
+    private transient GraphCache graphCache;
+
+    @Override
+    public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames,
+            Type[] types) {
+        changed(entity, null);
+        return false;
+    }
+
+    @Override
+    public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState,
+            Object[] previousState, String[] propertyNames, Type[] types) {
+        Integer previousScopeId = (entity instanceof CnATreeElement)
+                ? getPreviousScopeId(previousState, propertyNames)
+                : null;
+        changed(entity, previousScopeId);
+        return false;
+    }
+
+    @Override
+    public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames,
+            Type[] types) {
+        changed(entity, null);
+    }
+
+    @Override
+    public void onCollectionRecreate(Object collection, Serializable key) {
+        collectionChanged(collection);
+    }
+
+    @Override
+    public void onCollectionRemove(Object collection, Serializable key) {
+        collectionChanged(collection);
+    }
+
+    @Override
+    public void onCollectionUpdate(Object collection, Serializable key) {
+        collectionChanged(collection);
+    }
+
+    @Override
+    public void afterTransactionCompletion(Transaction tx) {
+        Changes changes = CHANGES.get();
+        if (changes != null) {
+            CHANGES.remove();
+            invalidate(changes);
+        }
+    }
+
+    private void collectionChanged(Object collection) {
+        if (collection instanceof PersistentCollection) {
+            changed(((PersistentCollection) collection).getOwner(), null);
+        }
+    }
+
+    private void changed(Object entity, Integer previousScopeId) {
+        Changes changes = createChanges(entity, previousScopeId);
+        if (changes.isEmpty()) {
+            return;
+        }
+        Changes transactionChanges = CHANGES.get();
+        if (transactionChanges == null) {
+            transactionChanges = new Changes();
+            CHANGES.set(transactionChanges);
+        }
+        transactionChanges.add(changes);
+        invalidate(changes);
+    }
+
+    private static Changes createChanges(Object entity, Integer previousScopeId) {
+        Changes changes = new Changes();
+        if (entity instanceof CnATreeElement) {
+            CnATreeElement element = (CnATreeElement) entity;
+            changes.addElement(element.getDbId(), element.getScopeId(), previousScopeId);
+        } else if (entity instanceof CnALink) {
+            CnALink.Id linkId = ((CnALink) entity).getId();
+            changes.addElementId(linkId.getDependantId());
+            changes.addElementId(linkId.getDependencyId());
+        } else if (entity instanceof Permission) {
+            CnATreeElement element = ((Permission) entity).getCnaTreeElement();
+            if (element != null) {
+                changes.addElementId(element.getDbId());
+            } else {
+                changes.addAll();
+            }
+        } else if (entity instanceof Entity) {
+            changes.addEntityId(((Entity) entity).getDbId());
+        } else if (entity instanceof PropertyList) {
+            // lists without an entity id are new, they are reported by the
+            // collection of their entity
+            changes.addEntityId(((PropertyList) entity).getEntityId());
+        }
+        return changes;
+    }
+
+    private static Integer getPreviousScopeId(Object[] previousState, String[] propertyNames) {
+        if (previousState == null) {
+            return null;
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (PROPERTY_SCOPE_ID.equals(propertyNames[i])) {
+                return (Integer) previousState[i];
+            }
+        }
+        return null;
+    }
+
+    private void invalidate(Changes changes) {
+        if (graphCache != null) {
+            graphCache.invalidate(changes);
+        }
+    }
+
+    public GraphCache getGraphCache() {
+        return graphCache;
+    }
+
+    public void setGraphCache(GraphCache graphCache) {
+        this.graphCache = graphCache;
+    }
+}
@@ -19,28 +19,48 @@
  ******************************************************************************/
 package sernet.verinice.graph;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.Filter;
 import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Projections;
+import org.hibernate.impl.FilterImpl;
 import org.hibernate.criterion.Restrictions;
 
 import sernet.gs.service.TimeFormatter;
+import sernet.verinice.graph.GraphCache.CachedGraph;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.graph.CompactVeriniceGraph;
+import sernet.verinice.interfaces.graph.CompactVeriniceGraph.EdgeAttributes;
 import sernet.verinice.interfaces.graph.DirectedVeriniceGraph;
 import sernet.verinice.interfaces.graph.Edge;
+import sernet.verinice.interfaces.graph.HibernateTypeIdManager;
 import sernet.verinice.interfaces.graph.IGraphElementLoader;
 import sernet.verinice.interfaces.graph.IGraphService;
 import sernet.verinice.interfaces.graph.UndirectedVeriniceGraph;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
 import sernet.verinice.model.common.CnALink;
+import sernet.verinice.model.common.CnALink.RiskTreatment;
 import sernet.verinice.model.common.CnATreeElement;
 
 /**
@@ -57,6 +77,10 @@ import sernet.verinice.model.common.CnATreeElement;
  * You have to call "create()" to initialize the service. After that you can
  * start to use the service.
  * 
+ * Read only callers use "createCached()" to share graphs in a
+ * {@link GraphCache}. The cached graph contains the elements of all users, each
+ * call returns a deep copy with the elements visible for the current user.
+ * 
  * @see http://jgrapht.org/
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
@@ -66,10 +90,30 @@ public class GraphService implements IGraphService, Serializable {
     private static final Logger LOG_RUNTIME = Logger
             .getLogger(GraphService.class.getName() + ".runtime");
 
+    private static final String USER_ACCESS_READ_FILTER = "userAccessReadFilter";
+    private static final String SCOPE_FILTER = "scopeFilter";
+    private static final String[] PERMISSION_FILTERS = { USER_ACCESS_READ_FILTER,
+            SCOPE_FILTER };
+
+    // Types which are visible regardless of permission filters, see
+    // CnATreeElement.hbm.xml
+    private static final Set<String> MODEL_TYPES = new HashSet<>(
+            Arrays.asList("bsimodel", "iso27kmodel", "bp_model", "catalog_model"));
+
+    private static final String HQL_READ_ROLES = "select p.cnaTreeElement.dbId, p.role "
+            + "from Permission p where p.readAllowed = true and p.cnaTreeElement.dbId in (:dbIds)";
+
+    private static final String HQL_VERTICES = "select e.dbId, e.objectType, e.parentId, "
+            + "e.scopeId from CnATreeElement e where e.dbId in (:dbIds)";
+
+    private static final int MAX_IN_PARAMETERS = 1000;
+
     private IBaseDao<CnATreeElement, Long> cnaTreeElementDao;
 
     private IBaseDao<CnALink, CnALink.Id> cnaLinkDao;
 
+    private GraphCache graphCache;
+
     @Override
     public VeriniceGraph create(List<? extends IGraphElementLoader> loaderList) {
         return create(loaderList, true);
@@ -114,6 +158,372 @@ public class GraphService implements IGraphService, Serializable {
         return graph;
     }
 
+    @Override
+    public VeriniceGraph createCached(List<? extends IGraphElementLoader> loaderList,
+            String[] relationIds, boolean loadLinks) {
+        return createCached(false, loaderList, relationIds, loadLinks);
+    }
+
+    @Override
+    public VeriniceGraph createCachedDirectedGraph(List<? extends IGraphElementLoader> loaderList,
+            String[] relationIds, boolean loadLinks) {
+        return createCached(true, loaderList, relationIds, loadLinks);
+    }
+
+    @Override
+    public VeriniceGraph createCompactGraph(List<? extends IGraphElementLoader> loaderList,
+            String[] relationIds, boolean loadLinks, boolean directed) {
+        long time = initRuntime();
+        CompactVeriniceGraph graph = new CompactVeriniceGraph(directed,
+                this::loadElementsByDbIds);
+        Set<Integer> dbIds = new HashSet<>();
+        for (IGraphElementLoader loader : loaderList) {
+            loader.setCnaTreeElementDao(getCnaTreeElementDao());
+            dbIds.addAll(loader.loadElementIds());
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(dbIds.size() + " relevant element ids found");
+        }
+        Set<Integer> scopeIds = loadCompactVertices(graph, new ArrayList<>(dbIds));
+        if (loadLinks) {
+            if (graph.getVertexCount() > 0) {
+                loadCompactEdges(graph, relationIds, dbIds, scopeIds);
+            }
+        } else {
+            LOG.info("Loading of links is disabled.");
+        }
+        graph.log();
+        logRuntime("Compact graph generation runtime: ", time);
+        return graph;
+    }
+
+    /**
+     * Adds a vertex for each element and an edge for each parent child
+     * relation if both elements are part of the graph.
+     *
+     * @return The scope ids of the elements
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Integer> loadCompactVertices(CompactVeriniceGraph graph, List<Integer> dbIds) {
+        Set<Integer> scopeIds = new HashSet<>();
+        List<int[]> parentChildList = new ArrayList<>();
+        for (int from = 0; from < dbIds.size(); from += MAX_IN_PARAMETERS) {
+            List<Integer> chunk = dbIds.subList(from,
+                    Math.min(from + MAX_IN_PARAMETERS, dbIds.size()));
+            List<Object[]> rows = (List<Object[]>) getCnaTreeElementDao()
+                    .executeCallback(session -> session.createQuery(HQL_VERTICES)
+                            .setParameterList("dbIds", chunk).list());
+            for (Object[] row : rows) {
+                Integer dbId = (Integer) row[0];
+                graph.addVertex(dbId, HibernateTypeIdManager.getTypeId((String) row[1]));
+                if (row[2] != null) {
+                    parentChildList.add(new int[] { (Integer) row[2], dbId });
+                }
+                if (row[3] != null) {
+                    scopeIds.add((Integer) row[3]);
+                }
+            }
+        }
+        for (int[] parentChild : parentChildList) {
+            if (graph.containsVertex(parentChild[0])) {
+                graph.addEdge(parentChild[0], parentChild[1], Edge.RELATIVES, null);
+            }
+        }
+        return scopeIds;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadCompactEdges(CompactVeriniceGraph graph, String[] relationIds,
+            Set<Integer> dbIds, Set<Integer> scopeIds) {
+        long time = initRuntime();
+        DetachedCriteria linkCrit = DetachedCriteria.forClass(CnALink.class);
+        addLinkRestriction(linkCrit, dbIds, scopeIds);
+        if (relationIds != null && relationIds.length > 0) {
+            linkCrit.add(Restrictions.in("id.typeId", relationIds));
+        }
+        linkCrit.setProjection(Projections.projectionList()
+                .add(Projections.property("id.dependantId"))
+                .add(Projections.property("id.dependencyId"))
+                .add(Projections.property("id.typeId")).add(Projections.property("comment"))
+                .add(Projections.property("riskConfidentiality"))
+                .add(Projections.property("riskIntegrity"))
+                .add(Projections.property("riskAvailability"))
+                .add(Projections.property("riskConfidentialityWithControls"))
+                .add(Projections.property("riskIntegrityWithControls"))
+                .add(Projections.property("riskAvailabilityWithControls"))
+                .add(Projections.property("riskTreatmentValue")));
+        List<Object[]> rows = getCnaLinkDao().findByCriteria(linkCrit);
+        if (LOG.isInfoEnabled()) {
+            LOG.info(rows.size() + " relevant links found");
+        }
+        for (Object[] row : rows) {
+            Integer dependantId = (Integer) row[0];
+            Integer dependencyId = (Integer) row[1];
+            if (!graph.containsVertex(dependantId) || !graph.containsVertex(dependencyId)) {
+                continue;
+            }
+            String relationId = CnALink.Id.NO_TYPE.equals(row[2]) ? "" : (String) row[2];
+            EdgeAttributes attributes = new EdgeAttributes((String) row[3], (Integer) row[4],
+                    (Integer) row[5], (Integer) row[6], (Integer) row[7], (Integer) row[8],
+                    (Integer) row[9],
+                    (row[10] != null) ? RiskTreatment.valueOf((String) row[10]) : null);
+            graph.addEdge(dependantId, dependencyId, relationId,
+                    attributes.isEmpty() ? null : attributes);
+        }
+        logRuntime("Load links runtime: ", time);
+    }
+
+    /**
+     * Loads elements with properties for a {@link CompactVeriniceGraph}.
+     */
+    @SuppressWarnings("unchecked")
+    private List<CnATreeElement> loadElementsByDbIds(Collection<Integer> dbIds) {
+        DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class);
+        crit.add(Restrictions.in("dbId", dbIds));
+        crit.setFetchMode("entity", FetchMode.JOIN);
+        crit.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
+        crit.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
+        crit.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+        return getCnaTreeElementDao().findByCriteria(crit);
+    }
+
+    private VeriniceGraph createCached(boolean directed,
+            List<? extends IGraphElementLoader> loaderList, String[] relationIds,
+            boolean loadLinks) {
+        String key = createCacheKey(directed, loaderList, relationIds, loadLinks);
+        if (getGraphCache() == null || key == null) {
+            VeriniceGraph graph = createGraph(directed);
+            doCreate(graph, loaderList, relationIds, loadLinks);
+            return graph;
+        }
+        CachedGraph cachedGraph = getGraphCache().get(key);
+        if (cachedGraph == null) {
+            cachedGraph = createCachedGraph(directed, loaderList, relationIds, loadLinks);
+            getGraphCache().put(key, cachedGraph);
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug("Graph loaded from cache: " + key);
+        }
+        return createPermissionView(cachedGraph, directed);
+    }
+
+    private static VeriniceGraph createGraph(boolean directed) {
+        return directed ? new DirectedVeriniceGraph() : new UndirectedVeriniceGraph();
+    }
+
+    private static String createCacheKey(boolean directed,
+            List<? extends IGraphElementLoader> loaderList, String[] relationIds,
+            boolean loadLinks) {
+        List<String> loaderKeys = new ArrayList<>(loaderList.size());
+        for (IGraphElementLoader loader : loaderList) {
+            String loaderKey = loader.getCacheKey();
+            if (loaderKey == null) {
+                return null;
+            }
+            loaderKeys.add(loaderKey);
+        }
+        Collections.sort(loaderKeys);
+        StringBuilder sb = new StringBuilder(directed ? "directed" : "undirected");
+        sb.append('|').append(String.join(";", loaderKeys));
+        if (loadLinks) {
+            sb.append("|links:");
+            if (relationIds != null && relationIds.length > 0) {
+                String[] sortedIds = relationIds.clone();
+                Arrays.sort(sortedIds);
+                sb.append(String.join(",", sortedIds));
+            } else {
+                sb.append('*');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates a graph without permission filters for the graph cache. The
+     * filters of the current session are disabled while loading and enabled
+     * afterwards with the same parameters.
+     */
+    private CachedGraph createCachedGraph(boolean directed,
+            List<? extends IGraphElementLoader> loaderList, String[] relationIds,
+            boolean loadLinks) {
+        long version = getGraphCache().getVersion();
+        Map<String, Map<String, Object>> filterParameters = disableFilters();
+        try {
+            VeriniceGraph graph = createGraph(directed);
+            doCreate(graph, loaderList, relationIds, loadLinks);
+            return new CachedGraph(graph, loadReadRoles(graph), getScopeIds(loaderList),
+                    version);
+        } finally {
+            enableFilters(filterParameters);
+        }
+    }
+
+    /**
+     * @return The scope ids of all loaders or null if one of the loaders
+     *         loads elements from all scopes
+     */
+    private static Set<Integer> getScopeIds(List<? extends IGraphElementLoader> loaderList) {
+        Set<Integer> scopeIds = new HashSet<>();
+        for (IGraphElementLoader loader : loaderList) {
+            Integer[] loaderScopeIds = loader.getScopeIds();
+            if (loaderScopeIds == null || loaderScopeIds.length == 0) {
+                return null;
+            }
+            scopeIds.addAll(Arrays.asList(loaderScopeIds));
+        }
+        return scopeIds;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, Set<String>> loadReadRoles(VeriniceGraph graph) {
+        List<Integer> dbIds = new ArrayList<>(graph.getElements().size());
+        for (CnATreeElement element : graph.getElements()) {
+            dbIds.add(element.getDbId());
+        }
+        Map<Integer, Set<String>> readRolesByDbId = new HashMap<>(dbIds.size());
+        for (int from = 0; from < dbIds.size(); from += MAX_IN_PARAMETERS) {
+            List<Integer> chunk = dbIds.subList(from,
+                    Math.min(from + MAX_IN_PARAMETERS, dbIds.size()));
+            List<Object[]> rows = (List<Object[]>) getCnaTreeElementDao()
+                    .executeCallback(session -> session.createQuery(HQL_READ_ROLES)
+                            .setParameterList("dbIds", chunk).list());
+            for (Object[] row : rows) {
+                readRolesByDbId.computeIfAbsent((Integer) row[0], k -> new HashSet<>())
+                        .add((String) row[1]);
+            }
+        }
+        return readRolesByDbId;
+    }
+
+    private Map<String, Map<String, Object>> disableFilters() {
+        Map<String, Map<String, Object>> filterParameters = new HashMap<>();
+        getCnaTreeElementDao().executeCallback(session -> {
+            for (String filterName : PERMISSION_FILTERS) {
+                Filter filter = session.getEnabledFilter(filterName);
+                if (filter instanceof FilterImpl) {
+                    filterParameters.put(filterName,
+                            new HashMap<>(((FilterImpl) filter).getParameters()));
+                    session.disableFilter(filterName);
+                }
+            }
+            return null;
+        });
+        return filterParameters;
+    }
+
+    private void enableFilters(Map<String, Map<String, Object>> filterParameters) {
+        if (filterParameters.isEmpty()) {
+            return;
+        }
+        getCnaTreeElementDao().executeCallback(session -> {
+            for (Map.Entry<String, Map<String, Object>> entry : filterParameters.entrySet()) {
+                Filter filter = session.enableFilter(entry.getKey());
+                for (Map.Entry<String, Object> parameter : entry.getValue().entrySet()) {
+                    if (parameter.getValue() instanceof Collection) {
+                        filter.setParameterList(parameter.getKey(),
+                                (Collection<?>) parameter.getValue());
+                    } else {
+                        filter.setParameter(parameter.getKey(), parameter.getValue());
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns a copy of a cached graph which only contains elements visible
+     * for the current user. Visibility is checked with the parameters of the
+     * permission filters enabled in the current session, so the copy contains
+     * the same elements as a graph loaded with these filters.
+     * 
+     * The elements and edges of the copy are deep copies of the cached ones.
+     * The cached instances are never handed out, so callers in other sessions
+     * and threads do not share them. Uninitialized lazy collections and
+     * proxies of the copies are not attached to a session and throw a
+     * LazyInitializationException when accessed.
+     */
+    @SuppressWarnings("unchecked")
+    private VeriniceGraph createPermissionView(CachedGraph cachedGraph, boolean directed) {
+        Predicate<CnATreeElement> visible = createVisibilityCheck(cachedGraph);
+        VeriniceGraph source = cachedGraph.getGraph();
+        ArrayList<CnATreeElement> visibleElements = new ArrayList<>();
+        for (CnATreeElement element : source.getElements()) {
+            if (visible.test(element)) {
+                visibleElements.add(element);
+            }
+        }
+        Set<CnATreeElement> visibleElementSet = new HashSet<>(visibleElements);
+        ArrayList<Edge> visibleEdges = new ArrayList<>();
+        for (Edge edge : source.getGraph().edgeSet()) {
+            if (visibleElementSet.contains(edge.getSource())
+                    && visibleElementSet.contains(edge.getTarget())) {
+                visibleEdges.add(edge);
+            }
+        }
+        // elements and edges are copied together, so the edges of the copy
+        // reference the copied elements
+        Object[] copy = deepCopy(new Object[] { visibleElements, visibleEdges });
+        VeriniceGraph view = createGraph(directed);
+        for (CnATreeElement element : (List<CnATreeElement>) copy[0]) {
+            view.addVertex(element);
+        }
+        for (Edge edge : (List<Edge>) copy[1]) {
+            view.addEdge(edge);
+        }
+        return view;
+    }
+
+    private static <T extends Serializable> T deepCopy(T object) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(object);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray()))) {
+                @SuppressWarnings("unchecked")
+                T copy = (T) in.readObject();
+                return copy;
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Error while copying cached graph", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<CnATreeElement> createVisibilityCheck(CachedGraph cachedGraph) {
+        Map<String, Map<String, Object>> filterParameters = new HashMap<>();
+        getCnaTreeElementDao().executeCallback(session -> {
+            for (String filterName : PERMISSION_FILTERS) {
+                Filter filter = session.getEnabledFilter(filterName);
+                if (filter instanceof FilterImpl) {
+                    filterParameters.put(filterName, ((FilterImpl) filter).getParameters());
+                }
+            }
+            return null;
+        });
+        Predicate<CnATreeElement> visible = element -> true;
+        Map<String, Object> accessParameters = filterParameters.get(USER_ACCESS_READ_FILTER);
+        if (accessParameters != null) {
+            Set<Object> roles = new HashSet<>(
+                    (Collection<Object>) accessParameters.get("currentRoles"));
+            visible = visible.and(element -> isModel(element) || cachedGraph
+                    .getReadRoles(element.getDbId()).stream().anyMatch(roles::contains));
+        }
+        Map<String, Object> scopeParameters = filterParameters.get(SCOPE_FILTER);
+        if (scopeParameters != null) {
+            Set<Object> scopeIds = new HashSet<>(
+                    (Collection<Object>) scopeParameters.get("scopeIds"));
+            visible = visible
+                    .and(element -> isModel(element) || scopeIds.contains(element.getScopeId()));
+        }
+        return visible;
+    }
+
+    private static boolean isModel(CnATreeElement element) {
+        return MODEL_TYPES.contains(element.getObjectType());
+    }
+
     private void doCreate(VeriniceGraph graph, List<? extends IGraphElementLoader> loaderList,
             String[] relationIds, boolean loadLinks) {
         long time = initRuntime();
@@ -207,13 +617,17 @@ public class GraphService implements IGraphService, Serializable {
 
     public void addLinkRestriction(DetachedCriteria linkCrit,
             Map<Integer, CnATreeElement> elementsByDBId) {
-        if (elementsByDBId.size() <= 1000) {
-            Set<Integer> elementDbIds = elementsByDBId.keySet();
+        Set<Integer> scopeIds = elementsByDBId.values().stream().map(CnATreeElement::getScopeId)
+                .collect(Collectors.toSet());
+        addLinkRestriction(linkCrit, elementsByDBId.keySet(), scopeIds);
+    }
+
+    private static void addLinkRestriction(DetachedCriteria linkCrit, Set<Integer> elementDbIds,
+            Set<Integer> scopeIds) {
+        if (elementDbIds.size() <= MAX_IN_PARAMETERS) {
             linkCrit.add(Restrictions.and(Restrictions.in("id.dependantId", elementDbIds),
                     Restrictions.in("id.dependencyId", elementDbIds)));
         } else {
-            Set<Integer> scopeIds = elementsByDBId.values().stream().map(CnATreeElement::getScopeId)
-                    .collect(Collectors.toSet());
             linkCrit.createAlias("dependant", "dependant").createAlias("dependency", "dependency")
                     .add(Restrictions.and(Restrictions.in("dependant.scopeId", scopeIds),
                             Restrictions.in("dependency.scopeId", scopeIds)));
@@ -245,6 +659,14 @@ public class GraphService implements IGraphService, Serializable {
         this.cnaTreeElementDao = cnaTreeElementDao;
     }
 
+    public GraphCache getGraphCache() {
+        return graphCache;
+    }
+
+    public void setGraphCache(GraphCache graphCache) {
+        this.graphCache = graphCache;
+    }
+
     public IBaseDao<CnALink, CnALink.Id> getCnaLinkDao() {
         return cnaLinkDao;
     }
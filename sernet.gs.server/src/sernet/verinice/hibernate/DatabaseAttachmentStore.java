@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.hibernate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.springframework.orm.hibernate3.HibernateCallback;
+import org.springframework.orm.hibernate3.support.HibernateDaoSupport;
+
+import sernet.verinice.interfaces.IAttachmentStore;
+import sernet.verinice.model.bsi.AttachmentContent;
+
+/**
+ * Stores the file data of attachments in table attachmentcontent, see
+ * {@link AttachmentContent}. The rows of attachments in table note reference
+ * the content by its SHA-256 hash in column contentHash.
+ * 
+ * File data is written and read with JDBC streams. Before the data is
+ * inserted, it is spooled to a temporary file to compute the hash, which is
+ * the primary key of the content.
+ * 
+ * Attachments saved before this store existed have their file data in
+ * column fileData of table note and no content hash. This data is read from
+ * there. It is moved to this store when the attachment is copied or its file
+ * data is replaced.
+ */
+public class DatabaseAttachmentStore extends HibernateDaoSupport implements IAttachmentStore {
+
+    private static final Logger LOG = Logger.getLogger(DatabaseAttachmentStore.class);
+
+    private static final String HASH_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+    private static final String SQL_SELECT_CONTENT_HASH = "select contentHash from note where dbId = ?"; //$NON-NLS-1$
+    private static final String SQL_SELECT_LEGACY_FILE_DATA = "select fileData from note where dbId = ?"; //$NON-NLS-1$
+    private static final String SQL_SELECT_CONTENT = "select fileData from attachmentcontent where contentHash = ?"; //$NON-NLS-1$
+    private static final String SQL_COUNT_CONTENT = "select count(*) from attachmentcontent where contentHash = ?"; //$NON-NLS-1$
+    private static final String SQL_INSERT_CONTENT = "insert into attachmentcontent (contentHash, fileData) values (?, ?)"; //$NON-NLS-1$
+    private static final String SQL_UPDATE_REFERENCE = "update note set contentHash = ?, fileData = null where dbId = ?"; //$NON-NLS-1$
+    private static final String SQL_DELETE_UNREFERENCED = "delete from attachmentcontent where contentHash not in " //$NON-NLS-1$
+            + "(select contentHash from note where contentHash is not null)"; //$NON-NLS-1$
+
+    /*
+     * @see sernet.verinice.interfaces.IAttachmentStore#write(java.lang.Integer,
+     * java.io.InputStream)
+     */
+    @Override
+    public String write(Integer attachmentDbId, InputStream fileData) throws IOException {
+        Path spoolFile = Files.createTempFile("verinice-attachment", null); //$NON-NLS-1$
+        try {
+            MessageDigest digest = createDigest();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(spoolFile),
+                    digest)) {
+                IOUtils.copyLarge(fileData, out);
+            }
+            String contentHash = toHex(digest.digest());
+            execute(connection -> {
+                insertContent(connection, contentHash, spoolFile);
+                updateReference(connection, attachmentDbId, contentHash);
+                return null;
+            });
+            return contentHash;
+        } finally {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.IAttachmentStore#read(java.lang.Integer,
+     * java.io.OutputStream)
+     */
+    @Override
+    public boolean read(Integer attachmentDbId, OutputStream out) throws IOException {
+        return execute(connection -> {
+            String contentHash = selectContentHash(connection, attachmentDbId);
+            if (contentHash != null) {
+                return copyFileData(connection, SQL_SELECT_CONTENT, contentHash, out);
+            }
+            return copyFileData(connection, SQL_SELECT_LEGACY_FILE_DATA, attachmentDbId, out);
+        });
+    }
+
+    /*
+     * @see
+     * sernet.verinice.interfaces.IAttachmentStore#hasFileData(java.lang.Integer)
+     */
+    @Override
+    public boolean hasFileData(Integer attachmentDbId) {
+        try {
+            return execute(connection -> {
+                if (selectContentHash(connection, attachmentDbId) != null) {
+                    return true;
+                }
+                // The legacy file data is not read, the stream is closed
+                // right away. Oracle does not allow LONG RAW columns in a
+                // where clause.
+                try (PreparedStatement statement = connection
+                        .prepareStatement(SQL_SELECT_LEGACY_FILE_DATA)) {
+                    statement.setInt(1, attachmentDbId);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        try (InputStream in = resultSet.getBinaryStream(1)) {
+                            return in != null;
+                        }
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.IAttachmentStore#copy(java.lang.Integer,
+     * java.lang.Integer)
+     */
+    @Override
+    public void copy(Integer sourceDbId, Integer targetDbId) throws IOException {
+        String contentHash = getContentHash(sourceDbId);
+        if (contentHash == null) {
+            contentHash = moveLegacyFileData(sourceDbId);
+        }
+        if (contentHash == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Attachment " + sourceDbId + " has no file data to copy");
+            }
+            return;
+        }
+        final String reference = contentHash;
+        execute(connection -> {
+            updateReference(connection, targetDbId, reference);
+            return null;
+        });
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Attachment " + targetDbId + " references the file data of attachment "
+                    + sourceDbId + ", hash: " + reference);
+        }
+    }
+
+    /*
+     * @see
+     * sernet.verinice.interfaces.IAttachmentStore#getContentHash(java.lang.
+     * Integer)
+     */
+    @Override
+    public String getContentHash(Integer attachmentDbId) {
+        try {
+            return execute(connection -> selectContentHash(connection, attachmentDbId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * @see
+     * sernet.verinice.interfaces.IAttachmentStore#deleteUnreferencedContent()
+     */
+    @Override
+    public int deleteUnreferencedContent() {
+        try {
+            int deleted = execute(connection -> {
+                try (PreparedStatement statement = connection
+                        .prepareStatement(SQL_DELETE_UNREFERENCED)) {
+                    return statement.executeUpdate();
+                }
+            });
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Unreferenced attachment contents deleted: " + deleted);
+            }
+            return deleted;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Moves the file data of an attachment saved before this store existed
+     * from table note to this store.
+     * 
+     * @return The hash of the content or null if the attachment has no file
+     *         data
+     */
+    private String moveLegacyFileData(Integer attachmentDbId) throws IOException {
+        Path spoolFile = Files.createTempFile("verinice-attachment", null); //$NON-NLS-1$
+        try {
+            boolean hasFileData;
+            try (OutputStream out = Files.newOutputStream(spoolFile)) {
+                hasFileData = read(attachmentDbId, out);
+            }
+            if (!hasFileData) {
+                return null;
+            }
+            try (InputStream in = Files.newInputStream(spoolFile)) {
+                return write(attachmentDbId, in);
+            }
+        } finally {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    private static void insertContent(Connection connection, String contentHash, Path spoolFile)
+            throws SQLException, IOException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_COUNT_CONTENT)) {
+            statement.setString(1, contentHash);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next() && resultSet.getLong(1) > 0) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Content is already stored, hash: " + contentHash);
+                    }
+                    return;
+                }
+            }
+        }
+        try (PreparedStatement statement = connection.prepareStatement(SQL_INSERT_CONTENT);
+                InputStream in = Files.newInputStream(spoolFile)) {
+            statement.setString(1, contentHash);
+            statement.setBinaryStream(2, in, (int) Files.size(spoolFile));
+            statement.executeUpdate();
+        }
+    }
+
+    private static void updateReference(Connection connection, Integer attachmentDbId,
+            String contentHash) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_UPDATE_REFERENCE)) {
+            statement.setString(1, contentHash);
+            statement.setInt(2, attachmentDbId);
+            if (statement.executeUpdate() == 0) {
+                LOG.warn("Attachment not found, file data is not referenced, db id: "
+                        + attachmentDbId);
+            }
+        }
+    }
+
+    private static String selectContentHash(Connection connection, Integer attachmentDbId)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_SELECT_CONTENT_HASH)) {
+            statement.setInt(1, attachmentDbId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private static boolean copyFileData(Connection connection, String sql, Object key,
+            OutputStream out) throws SQLException, IOException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                try (InputStream in = resultSet.getBinaryStream(1)) {
+                    if (in == null) {
+                        return false;
+                    }
+                    IOUtils.copyLarge(in, out);
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes a callback with the JDBC connection of the current Hibernate
+     * session. The session is flushed before, so that the callback finds
+     * attachments which were saved but not inserted yet.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T execute(ConnectionCallback<T> callback) throws IOException {
+        try {
+            return (T) getHibernateTemplate().execute(new HibernateCallback() {
+                @Override
+                public Object doInHibernate(Session session) throws SQLException {
+                    session.flush();
+                    try {
+                        return callback.doInConnection(session.connection());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " algorithm not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<T> {
+        T doInConnection(Connection connection) throws SQLException, IOException;
+    }
+
+}
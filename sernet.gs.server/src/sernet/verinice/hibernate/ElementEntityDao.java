@@ -19,6 +19,9 @@
  ******************************************************************************/
 package sernet.verinice.hibernate;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import sernet.hui.common.connect.Entity;
 import sernet.verinice.interfaces.IElementEntityDao;
 import sernet.verinice.model.common.CnATreeElement;
@@ -65,11 +68,12 @@ public class ElementEntityDao extends TreeElementDao<Entity, Integer> implements
             getHibernateTemplate().load(element, element.getDbId());
         }
         
+        Set<CnATreeElement> changedElements = new HashSet<>();
         if (notifyElement) {
-            notifyChangedElement(element);
+            changedElements.addAll(notifyChangedElement(element));
         }
-        
-        index(element);
+        changedElements.add(element);
+        index(changedElements);
 
         return element;
     }
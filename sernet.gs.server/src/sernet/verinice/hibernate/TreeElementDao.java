@@ -18,8 +18,11 @@
 package sernet.verinice.hibernate;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -41,13 +44,14 @@ import sernet.verinice.interfaces.IDao;
 import sernet.verinice.interfaces.IElementTitleCache;
 import sernet.verinice.interfaces.IRetrieveInfo;
 import sernet.verinice.interfaces.search.IJsonBuilder;
-import sernet.verinice.model.common.CascadingTransaction;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.ProtectionRequirementsPropagation;
 import sernet.verinice.model.common.TransactionAbortedException;
 import sernet.verinice.model.iso27k.InheritLogger;
 import sernet.verinice.model.iso27k.ProtectionRequirementUtils;
 import sernet.verinice.search.IElementSearchDao;
+import sernet.verinice.search.IndexQueue;
 
 public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T, ID>
         implements IBaseDao<T, ID> {
@@ -55,6 +59,7 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
     private static final Logger LOG = Logger.getLogger(TreeElementDao.class);
     private static final InheritLogger LOG_INHERIT = InheritLogger.getLogger(TreeElementDao.class);
     private IElementSearchDao searchDao;
+    private IndexQueue indexQueue;
     private IJsonBuilder jsonBuilder;
     private IElementTitleCache titleCache;
 
@@ -104,8 +109,9 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         super.saveOrUpdate(entity);
         if (entity instanceof CnATreeElement) {
             CnATreeElement elmt = (CnATreeElement) entity;
-            index(Set.of(elmt));
-            notifyChangedElement(elmt);
+            Set<CnATreeElement> changedElements = new HashSet<>(notifyChangedElement(elmt));
+            changedElements.add(elmt);
+            index(changedElements);
         }
     }
 
@@ -116,11 +122,10 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         }
         super.saveOrUpdateAll(entities);
         if (!entities.isEmpty() && entities.iterator().next() instanceof CnATreeElement) {
-            index((Collection<CnATreeElement>) entities);
-            for (T entity : entities) {
-                CnATreeElement elmt = (CnATreeElement) entity;
-                notifyChangedElement(elmt);
-            }
+            Set<CnATreeElement> changedElements = new HashSet<>(
+                    notifyChangedElements((Collection<CnATreeElement>) entities));
+            changedElements.addAll((Collection<CnATreeElement>) entities);
+            index(changedElements);
         }
     }
 
@@ -209,17 +214,22 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
 
         if (mergedElement instanceof CnATreeElement) {
             CnATreeElement element = (CnATreeElement) mergedElement;
-            if (updateIndex) {
-                index(element);
-            }
+            Set<CnATreeElement> changedElements = new HashSet<>();
             if (fireChange) {
-                notifyChangedElement(element);
+                changedElements.addAll(notifyChangedElement(element));
+            }
+            if (updateIndex) {
+                changedElements.add(element);
+                index(changedElements);
             }
         }
 
         if (fireChange && mergedElement instanceof CnALink) {
             CnALink link = (CnALink) mergedElement;
-            notifyChangedElement(link.getDependency());
+            Set<CnATreeElement> changedElements = notifyChangedElement(link.getDependency());
+            if (!changedElements.isEmpty()) {
+                index(changedElements);
+            }
         }
 
         return mergedElement;
@@ -249,7 +259,11 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
                             idToJson.put(element.getUuid(), builder.getJson(element));
                         }
                     }
-                    getSearchDao().updateOrIndex(idToJson);
+                    if (getIndexQueue() != null) {
+                        getIndexQueue().updateOrIndex(idToJson);
+                    } else {
+                        getSearchDao().updateOrIndex(idToJson);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -271,15 +285,20 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
     }
 
     protected void indexDelete(CnATreeElement element) {
-        if (getSearchDao() != null) {
+        if (getIndexQueue() != null) {
+            getIndexQueue().delete(Set.of(element.getUuid()));
+        } else if (getSearchDao() != null) {
             getSearchDao().delete(element.getUuid());
         }
     }
 
     protected void indexDelete(List<CnATreeElement> elements) {
-        if (getSearchDao() != null) {
-            getSearchDao().delete(
-                    elements.stream().map(CnATreeElement::getUuid).collect(Collectors.toList()));
+        List<String> uuids = elements.stream().map(CnATreeElement::getUuid)
+                .collect(Collectors.toList());
+        if (getIndexQueue() != null) {
+            getIndexQueue().delete(uuids);
+        } else if (getSearchDao() != null) {
+            getSearchDao().delete(uuids);
         }
     }
 
@@ -289,23 +308,51 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
      * 
      * @param elmt
      *            the element that was changed.
+     * @return the elements whose protection levels were changed by the
+     *         propagation
+     */
+    protected Set<CnATreeElement> notifyChangedElement(CnATreeElement elmt) {
+        return notifyChangedElements(Collections.singleton(elmt));
+    }
+
+    /**
+     * Calls change listener methods on changed elements. Changes in protection
+     * level (schutzbedarf) of all elements are propagated in one pass.
+     * 
+     * @param elements
+     *            the elements that were changed.
+     * @return the elements whose protection levels were changed by the
+     *         propagation
      */
-    protected void notifyChangedElement(CnATreeElement elmt) {
-        elmt.valuesChanged();
+    protected Set<CnATreeElement> notifyChangedElements(Collection<CnATreeElement> elements) {
+        List<CnATreeElement> providers = new ArrayList<>(elements.size());
+        for (CnATreeElement elmt : elements) {
+            elmt.valuesChanged();
+            if (ProtectionRequirementUtils.isProtectionRequirementsProvider(elmt.getTypeId())) {
+                providers.add(elmt);
+            }
+        }
+        if (providers.isEmpty()) {
+            return Collections.emptySet();
+        }
         if (LOG_INHERIT.isDebug()) {
             LOG_INHERIT.debug("fireChange...");
         }
-        if (ProtectionRequirementUtils.isProtectionRequirementsProvider(elmt.getTypeId())) {
-            initializeDeductionTree(elmt);
-            elmt.fireIntegritaetChanged(new CascadingTransaction());
-            elmt.fireVerfuegbarkeitChanged(new CascadingTransaction());
-            elmt.fireVertraulichkeitChanged(new CascadingTransaction());
+        initializeDeductionTree(providers);
+        Set<CnATreeElement> changedElements = ProtectionRequirementsPropagation
+                .propagate(providers);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Protection levels changed of " + changedElements.size() + " elements");
         }
+        return changedElements;
     }
 
-    private void initializeDeductionTree(CnATreeElement elmt) {
+    private void initializeDeductionTree(Collection<CnATreeElement> elements) {
         try {
-            Set<Integer> initializeIDs = collectAffectedIDs(elmt);
+            Set<Integer> initializeIDs = new HashSet<>();
+            for (CnATreeElement elmt : elements) {
+                initializeIDs.addAll(collectAffectedIDs(elmt));
+            }
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Initialize " + initializeIDs.size() + " elements");
             }
@@ -314,7 +361,7 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
             CollectionUtil.partition(List.copyOf(initializeIDs), IDao.QUERY_MAX_ITEMS_IN_LIST)
                     .forEach(partition -> {
                         DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class)
-                                .add(Restrictions.in("dbId", initializeIDs));
+                                .add(Restrictions.in("dbId", partition));
                         RetrieveInfo.getPropertyInstance().configureCriteria(crit);
                         result.addAll((Collection<? extends CnATreeElement>) findByCriteria(crit));
                     });
@@ -335,10 +382,14 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
 
     private void collectAffectedElementsDown(CnATreeElement element,
             Set<CnATreeElement> initializeElements) throws TransactionAbortedException {
-        for (CnALink ld : element.getLinksDown()) {
-            if (ProtectionRequirementUtils.dependencyIsProtectionRequirementsProvider(ld)
-                    && initializeElements.add(ld.getDependency())) {
-                collectAffectedElementsDown(ld.getDependency(), initializeElements);
+        Deque<CnATreeElement> stack = new ArrayDeque<>();
+        stack.push(element);
+        while (!stack.isEmpty()) {
+            for (CnALink ld : stack.pop().getLinksDown()) {
+                if (ProtectionRequirementUtils.dependencyIsProtectionRequirementsProvider(ld)
+                        && initializeElements.add(ld.getDependency())) {
+                    stack.push(ld.getDependency());
+                }
             }
         }
     }
@@ -406,6 +457,14 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         this.searchDao = searchDao;
     }
 
+    public IndexQueue getIndexQueue() {
+        return indexQueue;
+    }
+
+    public void setIndexQueue(IndexQueue indexQueue) {
+        this.indexQueue = indexQueue;
+    }
+
     public IJsonBuilder getJsonBuilder() {
         return jsonBuilder;
     }
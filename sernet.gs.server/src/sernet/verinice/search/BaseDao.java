@@ -22,8 +22,10 @@ package sernet.verinice.search;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -45,15 +47,21 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.engine.DocumentMissingException;
 import org.elasticsearch.index.query.AndFilterBuilder;
+import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.elasticsearch.index.query.MatchAllQueryBuilder;
 import org.elasticsearch.index.query.MatchQueryBuilder;
 import org.elasticsearch.index.query.MatchQueryBuilder.Operator;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.TermFilterBuilder;
 import org.elasticsearch.index.query.TermsFilterBuilder;
 import org.elasticsearch.indices.IndexMissingException;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.metrics.tophits.TopHitsBuilder;
 
+import sernet.hui.common.connect.EntityType;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.ApplicationRoles;
@@ -87,6 +95,13 @@ public abstract class BaseDao implements ISearchDao {
                     ISearchService.ES_FIELD_SOURCE_ID, ISearchService.ES_FIELD_SCOPE_ID,
                     ISearchService.ES_FIELD_PARENT_ID });
 
+    /**
+     * Updates or adds documents in the index.
+     *
+     * @throws ElasticsearchException
+     *             if the index is not available or if documents were not
+     *             written, see {@link IndexWriteException}
+     */
     @Override
     public ActionResponse updateOrIndex(Map<String, String> idToJson) {
         try {
@@ -94,30 +109,36 @@ public abstract class BaseDao implements ISearchDao {
         } catch (ElasticsearchException e) {
             LOG.error("Error while updating elements, reason: " + e.getMessage());
             LOG.error(e.getDetailedMessage());
-            return null;
+            throw e;
         }
 
     }
 
     public ActionResponse update(Map<String, String> idToJson) {
         try {
-            BulkRequestBuilder request = getClient().prepareBulk().setRefresh(true)
+            BulkRequestBuilder request = getClient().prepareBulk()
                     .setTimeout(TimeValue.timeValueSeconds(10));
             idToJson.forEach((id, json) -> request
                     .add(getClient().prepareUpdate(getIndex(), getType(), id).setDoc(json)));
             BulkResponse response = request.execute().actionGet();
             if (response.hasFailures()) {
                 Map<String, String> idToJsonIndex = new HashMap<>(idToJson.size());
+                Set<String> failedIds = new HashSet<>();
                 for (BulkItemResponse item : response.getItems()) {
                     if (item.isFailed()) {
                         if (item.getFailure().getMessage().contains("DocumentMissingException")) {
                             idToJsonIndex.put(item.getId(), idToJson.get(item.getId()));
                         } else {
-                            throw new RuntimeException(item.getFailureMessage());
+                            failedIds.add(item.getId());
                         }
                     }
                 }
-                index(idToJsonIndex);
+                if (!idToJsonIndex.isEmpty()) {
+                    index(idToJsonIndex);
+                }
+                if (!failedIds.isEmpty()) {
+                    throw new IndexWriteException(response.buildFailureMessage(), failedIds);
+                }
             }
             return response;
         } catch (DocumentMissingException e) {
@@ -137,11 +158,11 @@ public abstract class BaseDao implements ISearchDao {
      */
     @Override
     public BulkResponse index(Map<String, String> idToJson) {
-        BulkRequestBuilder request = getClient().prepareBulk().setRefresh(true)
+        BulkRequestBuilder request = getClient().prepareBulk()
                 .setTimeout(TimeValue.timeValueSeconds(10));
         idToJson.forEach((id, json) -> request
                 .add(getClient().prepareIndex(getIndex(), getType(), id).setSource(json)));
-        return request.execute().actionGet();
+        return IndexWriteException.checkFailures(request.execute().actionGet());
     }
 
     /*
@@ -161,14 +182,14 @@ public abstract class BaseDao implements ISearchDao {
 
     @Override
     public BulkResponse delete(List<String> ids) {
-        BulkRequestBuilder request = getClient().prepareBulk().setRefresh(true);
+        BulkRequestBuilder request = getClient().prepareBulk();
         for (String id : ids) {
             DeleteRequestBuilder deleteRequest = getClient().prepareDelete(getIndex(), getType(),
                     id);
             request.add(deleteRequest);
         }
-        request.execute().actionGet();
-        BulkResponse response = request.execute().actionGet();
+        BulkResponse response = IndexWriteException
+                .checkFailures(request.execute().actionGet());
         if (LOG.isDebugEnabled()) {
             LOG.debug("Index removed, uuids: " + ids);
         }
@@ -290,7 +311,8 @@ public abstract class BaseDao implements ISearchDao {
         MultiSearchRequestBuilder requestBuilder = getClient().prepareMultiSearch();
         // only 1 call per query, instead of calling
         // isPermissionHandlingNeeded() from within for-loop
-        boolean permissionHandlingNeeded = isPermissionHandlingNeeded();
+        List<FilterBuilder> restrictions = createRestrictionFilters(query, username,
+                isPermissionHandlingNeeded());
         for (String field : map.keySet()) {
             String value = map.get(field);
             SearchRequestBuilder searchBuilder = getClient().prepareSearch(getIndex())
@@ -311,18 +333,8 @@ public abstract class BaseDao implements ISearchDao {
             TermsFilterBuilder typeBuilder = FilterBuilders
                     .inFilter(ISearchService.ES_FIELD_ELEMENT_TYPE, new String[] { typeId });
             AndFilterBuilder andBuilder = FilterBuilders.andFilter(typeBuilder);
-
-            if (permissionHandlingNeeded) {
-                andBuilder = andBuilder.add(createPermissionFilter(username));
-                if (query.isScopeOnly()) { // scopeOnly is not needed if no
-                                           // permission handling is needed
-                    andBuilder = andBuilder.add(createScopeOnlyFilter(username));
-                }
-            }
-
-            if (query.getScopeId() != -1) {
-                // vermutlich besser als suchkriterium als als filter anwenden
-                andBuilder = andBuilder.add(createScopeIdFilter(query.getScopeId()));
+            for (FilterBuilder restriction : restrictions) {
+                andBuilder = andBuilder.add(restriction);
             }
 
             searchBuilder = searchBuilder.setPostFilter(andBuilder);
@@ -340,6 +352,72 @@ public abstract class BaseDao implements ISearchDao {
         return requestBuilder;
     }
 
+    @Override
+    public SearchResponse findInAllTypes(VeriniceQuery query, int hitsPerType) {
+        Set<String> fields = new HashSet<>(EXTRA_FIELDS);
+        for (EntityType type : HUITypeFactory.getInstance().getAllEntityTypes()) {
+            JsonBuilder.filterIndexRelevantProperties(type).map(PropertyType::getId)
+                    .forEach(fields::add);
+        }
+        QueryBuilder fieldQuery;
+        if (query.isQueryEmpty()) {
+            fieldQuery = QueryBuilders.matchAllQuery();
+        } else {
+            // lenient: the phrase must not fail on numeric or date fields
+            fieldQuery = QueryBuilders
+                    .multiMatchQuery(query.getQuery(), fields.toArray(new String[0]))
+                    .type(MultiMatchQueryBuilder.Type.PHRASE).lenient(true);
+        }
+        // restrictions are part of the query, a post filter is not applied
+        // to aggregations
+        List<FilterBuilder> restrictions = createRestrictionFilters(query,
+                getAuthService().getUsername(), isPermissionHandlingNeeded());
+        FilterBuilder filter = null;
+        if (!restrictions.isEmpty()) {
+            filter = FilterBuilders.andFilter(restrictions.toArray(new FilterBuilder[0]));
+        }
+
+        TopHitsBuilder topHits = AggregationBuilders.topHits(AGGREGATION_TOP_HITS)
+                .setSize(hitsPerType).setHighlighterPreTags(Occurence.HTML_OPEN_TAG)
+                .setHighlighterPostTags(Occurence.HTML_CLOSING_TAG)
+                .setHighlighterRequireFieldMatch(true);
+        for (String field : fields) {
+            topHits.addHighlightedField(field);
+        }
+        SearchRequestBuilder searchBuilder = getClient().prepareSearch(getIndex())
+                .setTypes(getType()).setSearchType(SearchType.DFS_QUERY_THEN_FETCH)
+                .setQuery(QueryBuilders.filteredQuery(fieldQuery, filter)).setSize(0)
+                .addAggregation(AggregationBuilders.terms(AGGREGATION_BY_TYPE)
+                        .field(ISearchService.ES_FIELD_ELEMENT_TYPE).size(0)
+                        .subAggregation(topHits));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Search in all types:\t" + searchBuilder.toString());
+        }
+        try {
+            return searchBuilder.execute().actionGet();
+        } catch (Exception e) {
+            LOG.error("Error while searching in all types", e);
+        }
+        return null;
+    }
+
+    private List<FilterBuilder> createRestrictionFilters(VeriniceQuery query, String username,
+            boolean permissionHandlingNeeded) {
+        List<FilterBuilder> restrictions = new ArrayList<>(3);
+        if (permissionHandlingNeeded) {
+            restrictions.add(createPermissionFilter(username));
+            if (query.isScopeOnly()) { // scopeOnly is not needed if no
+                                       // permission handling is needed
+                restrictions.add(createScopeOnlyFilter(username));
+            }
+        }
+        if (query.getScopeId() != -1) {
+            // vermutlich besser als suchkriterium als als filter anwenden
+            restrictions.add(createScopeIdFilter(query.getScopeId()));
+        }
+        return restrictions;
+    }
+
     private boolean isPermissionHandlingNeeded() {
         return getAuthService() != null && getAuthService().isPermissionHandlingNeeded()
                 && !hasAdminRole(getAuthService().getRoles());
@@ -441,6 +519,14 @@ public abstract class BaseDao implements ISearchDao {
 
     }
 
+    /*
+     * @see sernet.verinice.search.ISearchDao#refresh()
+     */
+    @Override
+    public void refresh() {
+        getClient().admin().indices().prepareRefresh(getIndex()).execute().actionGet();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Collects the documents created by {@link IndexThread}s and sends them to the
+ * index in bulk requests of a maximum size in bytes. Sizing the requests by
+ * bytes instead of by number of elements keeps requests with large text
+ * properties small and requests with small elements large enough.
+ *
+ * <p>
+ * The size of a document is estimated by the length of its JSON string. The
+ * thread which adds the document exceeding the maximum size sends the bulk
+ * request, other threads can add documents to the next request meanwhile.
+ * Call {@link #flush()} to send the remaining documents.
+ * </p>
+ */
+public class BulkIndexBuffer {
+
+    private static final Logger LOG = Logger.getLogger(BulkIndexBuffer.class);
+
+    private final ISearchDao searchDao;
+
+    private final IndexStateDao indexStateDao;
+
+    private final long maxBytes;
+
+    private final IndexingMetrics metrics;
+
+    private Map<String, String> documents = new HashMap<>();
+
+    private Map<String, String> contentHashes = new HashMap<>();
+
+    private long bytes = 0;
+
+    /**
+     * @param searchDao
+     *            the dao the documents are sent to
+     * @param indexStateDao
+     *            the dao the content hashes are saved with, may be null
+     * @param maxBytes
+     *            maximum size of a bulk request in bytes
+     * @param metrics
+     *            the metrics of the indexing run
+     */
+    public BulkIndexBuffer(ISearchDao searchDao, IndexStateDao indexStateDao, long maxBytes,
+            IndexingMetrics metrics) {
+        this.searchDao = searchDao;
+        this.indexStateDao = indexStateDao;
+        this.maxBytes = maxBytes;
+        this.metrics = metrics;
+    }
+
+    public void add(String uuid, String json, String contentHash) {
+        Bulk bulk = null;
+        synchronized (this) {
+            documents.put(uuid, json);
+            contentHashes.put(uuid, contentHash);
+            bytes += json.length();
+            if (bytes >= maxBytes) {
+                bulk = takeBulk();
+            }
+        }
+        if (bulk != null) {
+            send(bulk);
+        }
+    }
+
+    /**
+     * Sends all documents added so far.
+     */
+    public void flush() {
+        Bulk bulk;
+        synchronized (this) {
+            bulk = takeBulk();
+        }
+        if (!bulk.documents.isEmpty()) {
+            send(bulk);
+        }
+    }
+
+    private Bulk takeBulk() {
+        Bulk bulk = new Bulk(documents, contentHashes, bytes);
+        documents = new HashMap<>();
+        contentHashes = new HashMap<>();
+        bytes = 0;
+        return bulk;
+    }
+
+    private void send(Bulk bulk) {
+        Map<String, String> writtenHashes = index(searchDao, bulk.documents,
+                bulk.contentHashes);
+        if (indexStateDao != null) {
+            indexStateDao.saveContentHashes(writtenHashes);
+        }
+        metrics.addBulkRequest(bulk.documents.size(), bulk.bytes);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Bulk request sent, documents: " + bulk.documents.size() + ", bytes: "
+                    + bulk.bytes);
+        }
+    }
+
+    /**
+     * Sends documents to the index and returns the content hashes of the
+     * documents which were written. Documents rejected by the index are
+     * logged, their hashes must not be saved or the next indexing run would
+     * skip them as unchanged.
+     */
+    static Map<String, String> index(ISearchDao searchDao, Map<String, String> documents,
+            Map<String, String> contentHashes) {
+        try {
+            searchDao.index(documents);
+            return contentHashes;
+        } catch (IndexWriteException e) {
+            LOG.error("Documents rejected by the index, uuids: " + e.getFailedIds()
+                    + ", reason: " + e.getMessage());
+            Map<String, String> writtenHashes = new HashMap<>(contentHashes);
+            writtenHashes.keySet().removeAll(e.getFailedIds());
+            return writtenHashes;
+        }
+    }
+
+    private static final class Bulk {
+
+        private final Map<String, String> documents;
+
+        private final Map<String, String> contentHashes;
+
+        private final long bytes;
+
+        private Bulk(Map<String, String> documents, Map<String, String> contentHashes,
+                long bytes) {
+            this.documents = documents;
+            this.contentHashes = contentHashes;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package sernet.verinice.search;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -14,6 +15,7 @@ import org.elasticsearch.action.UnavailableShardsException;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.action.admin.indices.stats.IndicesStatsResponse;
+import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.network.NetworkUtils;
 import org.elasticsearch.common.settings.ImmutableSettings;
@@ -28,6 +30,7 @@ import org.elasticsearch.node.Node;
 import org.elasticsearch.node.NodeBuilder;
 import org.springframework.beans.factory.DisposableBean;
 
+import sernet.gs.service.MD5;
 import sernet.verinice.interfaces.IDirectoryCreator;
 import sernet.verinice.interfaces.IVeriniceConstants;
 
@@ -62,11 +65,19 @@ public class ElasticsearchClientFactory implements DisposableBean {
     private static final String SEPERATOR_LANGUAGE = "_";
     private static final String SEPERATOR_EXTENSION = ".";
     private static final String JSON_EXTENSION = "json";
+    private static final String MAPPING_ELEMENT = "/sernet/verinice/search/mapping.json";
+    private static final String MAPPING_INDEX_STATE = "/sernet/verinice/search/mapping_index_state.json";
+    private static final String MAPPING_CONTENT_HASH = "/sernet/verinice/search/mapping_content_hash.json";
     private static final Locale LOCALE_DEFAULT = Locale.ENGLISH;
 
     private Node node = null;
     private Client client = null;
     private IDirectoryCreator directoryCreator;
+    private String mappingHash;
+    /**
+     * Interval in which changes become visible to searches, e.g. "1s"
+     */
+    private String refreshInterval = "1s";
 
     public void init() {
         if (node == null || node.isClosed()) {
@@ -92,9 +103,17 @@ public class ElasticsearchClientFactory implements DisposableBean {
                     .setWaitForYellowStatus().setTimeout(TimeValue.timeValueMinutes(1)).execute()
                     .actionGet();
             ensureValidIndex();
+            applyRefreshInterval();
         }
     }
 
+    private void applyRefreshInterval() {
+        client.admin().indices().prepareUpdateSettings(ISearchDao.INDEX_NAME)
+                .setSettings(ImmutableSettings.settingsBuilder()
+                        .put("index.refresh_interval", getRefreshInterval()))
+                .execute().actionGet();
+    }
+
     /**
      * Ensure the index can be used further on, create or recreate the index
      * when nessesary.
@@ -108,6 +127,14 @@ public class ElasticsearchClientFactory implements DisposableBean {
                 createIndex();
                 return;
             }
+            if (isMappingChanged()) {
+                LOG.info("Mapping or analysis configuration of index " + ISearchDao.INDEX_NAME
+                        + " changed, recreating index.");
+                client.admin().indices().delete(new DeleteIndexRequest(ISearchDao.INDEX_NAME))
+                        .actionGet();
+                createIndex();
+                return;
+            }
             IndicesStatsResponse indexStatsResponse = client.admin().indices()
                     .prepareStats(ISearchDao.INDEX_NAME).execute().actionGet();
             int successfulShards = indexStatsResponse.getSuccessfulShards();
@@ -144,7 +171,10 @@ public class ElasticsearchClientFactory implements DisposableBean {
                 }
             }
             client.admin().indices().prepareCreate(ISearchDao.INDEX_NAME).setSettings(analysisConf)
-                    .addMapping(ElementDao.TYPE_NAME, getMapping()).execute().actionGet();
+                    .addMapping(ElementDao.TYPE_NAME, getResource(MAPPING_ELEMENT))
+                    .addMapping(IndexStateDao.TYPE_INDEX_STATE, getResource(MAPPING_INDEX_STATE))
+                    .addMapping(IndexStateDao.TYPE_CONTENT_HASH, getResource(MAPPING_CONTENT_HASH))
+                    .execute().actionGet();
         } catch (IndexShardException e) {// we can recover here by deleting the
                                          // index and create again
             client.admin().indices().delete(new DeleteIndexRequest(ISearchDao.INDEX_NAME))
@@ -157,17 +187,56 @@ public class ElasticsearchClientFactory implements DisposableBean {
         }
     }
 
+    /**
+     * Returns true if the index was created with a mapping or analysis
+     * configuration different from the current one. Indexes without a saved
+     * {@link IndexState} are not considered as changed.
+     */
+    private boolean isMappingChanged() {
+        GetResponse response = client
+                .prepareGet(ISearchDao.INDEX_NAME, IndexStateDao.TYPE_INDEX_STATE,
+                        IndexStateDao.ID_INDEX_STATE)
+                .execute().actionGet();
+        if (!response.isExists()) {
+            return false;
+        }
+        Object savedHash = response.getSourceAsMap().get(IndexStateDao.FIELD_MAPPING_HASH);
+        return savedHash != null && !savedHash.equals(getMappingHash());
+    }
+
+    /**
+     * @return A hash of the mapping and the analysis configuration of the
+     *         index. If the hash changes the index has to be rebuilt
+     *         completely.
+     */
+    public synchronized String getMappingHash() {
+        if (mappingHash == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(getResource(MAPPING_ELEMENT));
+            sb.append(getResource(MAPPING_INDEX_STATE));
+            sb.append(getResource(MAPPING_CONTENT_HASH));
+            sb.append(getResource("/" + getAnalysisConfigurationPath()));
+            mappingHash = MD5.getMD5Checksum(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return mappingHash;
+    }
+
     private Builder getAnylysisConf() {
+        String configurationPath = getAnalysisConfigurationPath();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Loading ElasticSearch analysis configuration: " + configurationPath);
+        }
+        return ImmutableSettings.settingsBuilder().loadFromClasspath(configurationPath);
+    }
+
+    private String getAnalysisConfigurationPath() {
         String configurationPath = getSearchAnalysisConfiguration(Locale.getDefault());
         if (!fileExists(configurationPath)) {
             LOG.warn("Can not find ElasticSearch configuration for locale: " + Locale.getDefault()
                     + ". Using configuration for default locale: " + LOCALE_DEFAULT + " instead.");
             configurationPath = getSearchAnalysisConfiguration(LOCALE_DEFAULT);
         }
-        if (LOG.isInfoEnabled()) {
-            LOG.info("Loading ElasticSearch analysis configuration: " + configurationPath);
-        }
-        return ImmutableSettings.settingsBuilder().loadFromClasspath(configurationPath);
+        return configurationPath;
     }
 
     private boolean fileExists(String path) {
@@ -180,16 +249,14 @@ public class ElasticsearchClientFactory implements DisposableBean {
                 .append(JSON_EXTENSION).toString().toLowerCase();
     }
 
-    private String getMapping() {
-        InputStream in = this.getClass()
-                .getResourceAsStream("/sernet/verinice/search/mapping.json");
-        String mapping = null;
-        try {
-            mapping = IOUtils.toString(in, "UTF-8");
+    private String getResource(String path) {
+        String content = null;
+        try (InputStream in = this.getClass().getResourceAsStream(path)) {
+            content = IOUtils.toString(in, "UTF-8");
         } catch (IOException e) {
-            LOG.error("Error while reading mapping file", e);
+            LOG.error("Error while reading file: " + path, e);
         }
-        return mapping;
+        return content;
     }
 
     /*
@@ -221,6 +288,7 @@ public class ElasticsearchClientFactory implements DisposableBean {
                 .put("path.work", getDirectoryCreator().create("work"))
                 .put("path.logs", getDirectoryCreator().create("logs")).put("node.local", true)
                 .put("index.number_of_shards", shards)
+                .put("index.refresh_interval", getRefreshInterval())
                 // disables (false to enable) swapping from memory to disk
                 .put("bootstrap.mlockall", true)
                 // prevents deleting all indexes of cluster by "accident"
@@ -246,6 +314,14 @@ public class ElasticsearchClientFactory implements DisposableBean {
         this.directoryCreator = directoryCreator;
     }
 
+    public String getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(String refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
     /**
      * sets platform dependent fs for storing the index see
      * https://www.elastic.co/guide/en/elasticsearch/reference/current/index-modules-store.html
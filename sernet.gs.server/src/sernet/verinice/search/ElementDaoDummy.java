@@ -96,6 +96,10 @@ public class ElementDaoDummy implements IElementSearchDao {
     public void clear() {
     }
 
+    @Override
+    public void refresh() {
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -220,6 +224,17 @@ public class ElementDaoDummy implements IElementSearchDao {
         return null;
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see sernet.verinice.search.ISearchDao#findInAllTypes(sernet.verinice.
+     * model.search.VeriniceQuery, int)
+     */
+    @Override
+    public SearchResponse findInAllTypes(VeriniceQuery query, int hitsPerType) {
+        return null;
+    }
+
     /*
      * (non-Javadoc)
      * 
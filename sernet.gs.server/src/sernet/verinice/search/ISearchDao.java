@@ -45,6 +45,18 @@ public interface ISearchDao {
     static final String PATTERN_IS_READ_ALLOWED = "^[\\w]+\\(r+.*\\)";
     static final String PATTERN_IS_WRITE_ALLOWED = "^[\\w]+\\(.*w+\\)";
 
+    /**
+     * Name of the terms aggregation which groups the result of
+     * {@link #findInAllTypes(VeriniceQuery, int)} by element type
+     */
+    static final String AGGREGATION_BY_TYPE = "byType";
+
+    /**
+     * Name of the top hits aggregation inside of each
+     * {@link #AGGREGATION_BY_TYPE} bucket
+     */
+    static final String AGGREGATION_TOP_HITS = "topHits";
+
     public String getIndex();
 
     public String getType();
@@ -73,6 +85,11 @@ public interface ISearchDao {
 
     public void clear();
 
+    /**
+     * Makes all changes written to the index visible to searches.
+     */
+    public void refresh();
+
     public SearchResponse findAll();
 
     public SearchResponse find(String title);
@@ -102,4 +119,18 @@ public interface ISearchDao {
      */
     MultiSearchResponse find(String typeId, VeriniceQuery query);
 
+    /**
+     * Searches all element types with a single request. The hits are not
+     * returned directly but grouped by element type in the terms aggregation
+     * {@link #AGGREGATION_BY_TYPE}, each bucket contains the best hits of the
+     * type in the top hits aggregation {@link #AGGREGATION_TOP_HITS}.
+     *
+     * @param query
+     *            the query
+     * @param hitsPerType
+     *            maximum number of hits returned per element type
+     * @return the response or null if the search failed
+     */
+    SearchResponse findInAllTypes(VeriniceQuery query, int hitsPerType);
+
 }
@@ -0,0 +1,504 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Write-behind queue for changes of the search index.
+ *
+ * <p>
+ * Changed and deleted documents are put into a bounded queue which is
+ * coalesced by uuid: if a document is changed again before it was written to
+ * the index, only the latest version is written. A background thread writes
+ * the queue to the index in bulk requests whenever {@link #getBatchSize()}
+ * changes are pending or {@link #getFlushInterval()} milliseconds have passed.
+ * If the queue is full, producers are blocked until the background thread has
+ * written the next batch.
+ * </p>
+ *
+ * <p>
+ * Every change gets a sequence number. {@link #awaitIndexed(long, long)}
+ * waits until all changes up to a sequence number are written to the index
+ * and visible to searches.
+ * </p>
+ *
+ * <p>
+ * If writing a batch fails, its changes are put back into the queue and
+ * written again after {@link #getRetryInterval()} milliseconds, unless a newer
+ * change of the same document is pending. A change which failed
+ * {@link #getMaxAttempts()} times is dropped and reported as failed by
+ * {@link #awaitIndexed(long, long)} until the document is written
+ * successfully.
+ * </p>
+ *
+ * <p>
+ * If write-behind is disabled or the queue is not running, all changes are
+ * written to the index synchronously.
+ * </p>
+ */
+public class IndexQueue implements DisposableBean {
+
+    private static final Logger LOG = Logger.getLogger(IndexQueue.class);
+
+    private static final long SHUTDOWN_TIMEOUT = 60000L;
+
+    private ISearchDao searchDao;
+
+    private boolean writeBehind = true;
+
+    private int capacity = 10000;
+
+    private int batchSize = 500;
+
+    private long flushInterval = 1000L;
+
+    private long retryInterval = 1000L;
+
+    private int maxAttempts = 3;
+
+    private final Object lock = new Object();
+
+    /** Pending changes by uuid, a null JSON document means deletion. */
+    private final LinkedHashMap<String, PendingChange> pending = new LinkedHashMap<>();
+
+    private long lastSequence = 0;
+
+    private long flushedSequence = 0;
+
+    private long refreshedSequence = 0;
+
+    /** Sequence numbers of dropped changes by uuid */
+    private final Map<String, Long> failed = new HashMap<>();
+
+    private boolean flushRequested = false;
+
+    private volatile boolean running = false;
+
+    private volatile Thread worker;
+
+    public void init() {
+        if (!isWriteBehind()) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Write-behind indexing is disabled.");
+            }
+            return;
+        }
+        running = true;
+        worker = new Thread(this::processQueue, "index-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Write-behind indexing started, batch size: " + getBatchSize()
+                    + ", flush interval: " + getFlushInterval() + " ms, capacity: "
+                    + getCapacity());
+        }
+    }
+
+    /**
+     * Stops the background thread after all pending changes are written to
+     * the index.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        worker.join(SHUTDOWN_TIMEOUT);
+        worker = null;
+    }
+
+    /**
+     * Adds or updates documents in the index.
+     *
+     * @param idToJson
+     *            JSON documents by uuid
+     * @return The sequence number of the last change
+     */
+    public long updateOrIndex(Map<String, String> idToJson) {
+        if (!running) {
+            getSearchDao().updateOrIndex(idToJson);
+            return 0;
+        }
+        long sequence = 0;
+        for (Entry<String, String> entry : idToJson.entrySet()) {
+            sequence = enqueue(entry.getKey(), entry.getValue());
+        }
+        return sequence;
+    }
+
+    /**
+     * Removes documents from the index.
+     *
+     * @param uuids
+     *            The uuids of the documents
+     * @return The sequence number of the last change
+     */
+    public long delete(Collection<String> uuids) {
+        if (!running) {
+            try {
+                getSearchDao().delete(new ArrayList<>(uuids));
+            } catch (IndexWriteException e) {
+                LOG.error("Error while deleting from index, elements: " + e.getFailedIds(), e);
+            }
+            return 0;
+        }
+        long sequence = 0;
+        for (String uuid : uuids) {
+            sequence = enqueue(uuid, null);
+        }
+        return sequence;
+    }
+
+    private long enqueue(String uuid, String json) {
+        synchronized (lock) {
+            while (running && pending.size() >= getCapacity() && !pending.containsKey(uuid)) {
+                flushRequested = true;
+                lock.notifyAll();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the index queue",
+                            e);
+                }
+            }
+            lastSequence++;
+            pending.put(uuid, new PendingChange(json, lastSequence));
+            if (pending.size() >= getBatchSize()) {
+                lock.notifyAll();
+            }
+            return lastSequence;
+        }
+    }
+
+    /**
+     * @return The sequence number of the last change added to the queue
+     */
+    public long getLastSequence() {
+        synchronized (lock) {
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Waits until all changes up to the given sequence number are written to
+     * the index and the index is refreshed, so they are visible to searches.
+     * Pending changes are flushed immediately.
+     *
+     * @param sequence
+     *            A sequence number returned by this queue
+     * @param timeout
+     *            Maximum time to wait in milliseconds
+     * @return true if the changes are visible, false if the timeout elapsed
+     *         or if one of the changes could not be written to the index
+     */
+    public boolean awaitIndexed(long sequence, long timeout) {
+        if (worker == null) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + timeout;
+        long flushed;
+        synchronized (lock) {
+            while (flushedSequence < sequence) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                flushRequested = true;
+                lock.notifyAll();
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (isFailed(sequence)) {
+                return false;
+            }
+            if (refreshedSequence >= sequence) {
+                return true;
+            }
+            flushed = flushedSequence;
+        }
+        getSearchDao().refresh();
+        synchronized (lock) {
+            refreshedSequence = Math.max(refreshedSequence, flushed);
+        }
+        return true;
+    }
+
+    private boolean isFailed(long sequence) {
+        for (Long failedSequence : failed.values()) {
+            if (failedSequence <= sequence) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits until all changes currently in the queue are visible to searches.
+     *
+     * @see #awaitIndexed(long, long)
+     */
+    public boolean awaitIndexed(long timeout) {
+        return awaitIndexed(getLastSequence(), timeout);
+    }
+
+    private void processQueue() {
+        while (true) {
+            Map<String, PendingChange> batch;
+            long batchSequence;
+            synchronized (lock) {
+                waitForBatch();
+                if (pending.isEmpty()) {
+                    flushRequested = false;
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+                batch = drainBatch();
+                batchSequence = getFlushableSequence();
+                if (pending.isEmpty()) {
+                    flushRequested = false;
+                }
+                // wake up producers waiting for free capacity
+                lock.notifyAll();
+            }
+            boolean written = write(batch);
+            synchronized (lock) {
+                if (written) {
+                    failed.keySet().removeAll(batch.keySet());
+                } else {
+                    requeue(batch);
+                    batchSequence = Math.min(batchSequence, getFlushableSequence());
+                }
+                flushedSequence = Math.max(flushedSequence, batchSequence);
+                lock.notifyAll();
+                if (!written) {
+                    waitForRetry();
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts the changes of a failed batch back into the queue. Changes which
+     * are replaced by a newer pending change are discarded, changes which
+     * failed too often are dropped and recorded as failed.
+     */
+    private void requeue(Map<String, PendingChange> batch) {
+        for (Entry<String, PendingChange> entry : batch.entrySet()) {
+            String uuid = entry.getKey();
+            PendingChange change = entry.getValue();
+            if (pending.containsKey(uuid)) {
+                continue;
+            }
+            if (change.attempts + 1 < getMaxAttempts()) {
+                pending.put(uuid, change.nextAttempt());
+            } else {
+                LOG.error("Change of element dropped after " + getMaxAttempts()
+                        + " failed attempts, uuid: " + uuid);
+                failed.put(uuid, change.sequence);
+            }
+        }
+    }
+
+    private void waitForRetry() {
+        long retryAt = System.currentTimeMillis() + getRetryInterval();
+        while (running) {
+            long remaining = retryAt - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                lock.wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private void waitForBatch() {
+        long waitUntil = System.currentTimeMillis() + getFlushInterval();
+        while (running && !flushRequested && pending.size() < getBatchSize()) {
+            long remaining = waitUntil - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                lock.wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private Map<String, PendingChange> drainBatch() {
+        Map<String, PendingChange> batch = new LinkedHashMap<>();
+        Iterator<Entry<String, PendingChange>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && batch.size() < getBatchSize()) {
+            Entry<String, PendingChange> entry = iterator.next();
+            batch.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    /**
+     * @return The highest sequence number for which all changes are drained
+     *         from the queue
+     */
+    private long getFlushableSequence() {
+        long minPending = lastSequence + 1;
+        for (PendingChange change : pending.values()) {
+            minPending = Math.min(minPending, change.sequence);
+        }
+        return minPending - 1;
+    }
+
+    /**
+     * @return true if the batch was written, false if writing failed
+     */
+    private boolean write(Map<String, PendingChange> batch) {
+        long start = System.currentTimeMillis();
+        Map<String, String> idToJson = new HashMap<>(batch.size());
+        List<String> deleted = new ArrayList<>();
+        for (Entry<String, PendingChange> entry : batch.entrySet()) {
+            if (entry.getValue().json == null) {
+                deleted.add(entry.getKey());
+            } else {
+                idToJson.put(entry.getKey(), entry.getValue().json);
+            }
+        }
+        try {
+            if (!idToJson.isEmpty()) {
+                getSearchDao().updateOrIndex(idToJson);
+            }
+            if (!deleted.isEmpty()) {
+                getSearchDao().delete(deleted);
+            }
+        } catch (Exception e) {
+            LOG.error("Error while writing to index, elements: " + batch.keySet(), e);
+            return false;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Index updated, changed: " + idToJson.size() + ", deleted: "
+                    + deleted.size() + ", runtime: " + (System.currentTimeMillis() - start)
+                    + " ms");
+        }
+        return true;
+    }
+
+    private static final class PendingChange {
+
+        private final String json;
+        private final long sequence;
+        private final int attempts;
+
+        private PendingChange(String json, long sequence) {
+            this(json, sequence, 0);
+        }
+
+        private PendingChange(String json, long sequence, int attempts) {
+            this.json = json;
+            this.sequence = sequence;
+            this.attempts = attempts;
+        }
+
+        private PendingChange nextAttempt() {
+            return new PendingChange(json, sequence, attempts + 1);
+        }
+    }
+
+    public ISearchDao getSearchDao() {
+        return searchDao;
+    }
+
+    public void setSearchDao(ISearchDao searchDao) {
+        this.searchDao = searchDao;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(long retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+}
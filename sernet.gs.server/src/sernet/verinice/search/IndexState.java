@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.search;
+
+/**
+ * State of the Elasticsearch index which is persisted in the index itself. It
+ * is used by {@link Indexer} to update the index incrementally.
+ */
+public final class IndexState {
+
+    private final int changeLogId;
+    private final String mappingHash;
+
+    /**
+     * @param changeLogId
+     *            Database id of the last change log entry which is
+     *            reflected in the index (high-water mark)
+     * @param mappingHash
+     *            Hash of the index mapping and analysis configuration used to
+     *            build the index
+     */
+    public IndexState(int changeLogId, String mappingHash) {
+        this.changeLogId = changeLogId;
+        this.mappingHash = mappingHash;
+    }
+
+    public int getChangeLogId() {
+        return changeLogId;
+    }
+
+    public String getMappingHash() {
+        return mappingHash;
+    }
+
+    public IndexState withChangeLogId(int changeLogId) {
+        return new IndexState(changeLogId, mappingHash);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexState [changeLogId=" + changeLogId + ", mappingHash=" + mappingHash + "]";
+    }
+
+}
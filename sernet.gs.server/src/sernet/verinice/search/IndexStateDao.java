@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.indices.IndexMissingException;
+
+import sernet.gs.service.MD5;
+
+/**
+ * Reads and writes the {@link IndexState} and the content hashes of the
+ * indexed documents. Both are stored in the verinice index in types of their
+ * own, so they are removed together with the index when the index is
+ * recreated.
+ */
+public class IndexStateDao {
+
+    private static final Logger LOG = Logger.getLogger(IndexStateDao.class);
+
+    public static final String TYPE_INDEX_STATE = "index-state";
+    public static final String TYPE_CONTENT_HASH = "content-hash";
+
+    public static final String FIELD_CHANGE_LOG_ID = "changelog-id";
+    public static final String FIELD_MAPPING_HASH = "mapping-hash";
+    public static final String FIELD_HASH = "hash";
+
+    public static final String ID_INDEX_STATE = "state";
+
+    private ElasticsearchClientFactory clientFactory;
+
+    /**
+     * @return The persisted index state or null if no state was saved or if
+     *         the index was recreated after the state was saved
+     */
+    public IndexState load() {
+        try {
+            GetResponse response = getClient()
+                    .prepareGet(ISearchDao.INDEX_NAME, TYPE_INDEX_STATE, ID_INDEX_STATE)
+                    .setRealtime(true).execute().actionGet();
+            if (!response.isExists()) {
+                return null;
+            }
+            Map<String, Object> source = response.getSourceAsMap();
+            Number changeLogId = (Number) source.get(FIELD_CHANGE_LOG_ID);
+            String mappingHash = (String) source.get(FIELD_MAPPING_HASH);
+            if (changeLogId == null || mappingHash == null) {
+                LOG.warn("Index state is incomplete: " + source);
+                return null;
+            }
+            return new IndexState(changeLogId.intValue(), mappingHash);
+        } catch (IndexMissingException e) {
+            LOG.warn("Index does not exist, no index state available.");
+            return null;
+        }
+    }
+
+    public void save(IndexState state) {
+        Map<String, Object> source = new HashMap<>(2);
+        source.put(FIELD_CHANGE_LOG_ID, state.getChangeLogId());
+        source.put(FIELD_MAPPING_HASH, state.getMappingHash());
+        getClient().prepareIndex(ISearchDao.INDEX_NAME, TYPE_INDEX_STATE, ID_INDEX_STATE)
+                .setSource(source).setTimeout(TimeValue.timeValueSeconds(10)).execute()
+                .actionGet();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Index state saved: " + state);
+        }
+    }
+
+    /**
+     * Removes the index state and all content hashes. After calling this
+     * method the next incremental indexing falls back to a full rebuild.
+     */
+    public void clear() {
+        try {
+            getClient().prepareDeleteByQuery(ISearchDao.INDEX_NAME)
+                    .setTypes(TYPE_INDEX_STATE, TYPE_CONTENT_HASH)
+                    .setQuery(QueryBuilders.matchAllQuery()).execute().actionGet();
+        } catch (IndexMissingException e) {
+            LOG.warn("Index does not exist, nothing to clear.");
+        }
+    }
+
+    /**
+     * @return A map with the uuids of the indexed documents as keys and their
+     *         content hashes as values. Documents without a hash are not
+     *         contained in the map.
+     */
+    public Map<String, String> loadContentHashes(Collection<String> uuids) {
+        Map<String, String> hashes = new HashMap<>(uuids.size());
+        if (uuids.isEmpty()) {
+            return hashes;
+        }
+        MultiGetResponse response = getClient().prepareMultiGet()
+                .add(ISearchDao.INDEX_NAME, TYPE_CONTENT_HASH, uuids).setRealtime(true).execute()
+                .actionGet();
+        for (MultiGetItemResponse item : response) {
+            if (!item.isFailed() && item.getResponse().isExists()) {
+                Object hash = item.getResponse().getSourceAsMap().get(FIELD_HASH);
+                if (hash != null) {
+                    hashes.put(item.getId(), hash.toString());
+                }
+            }
+        }
+        return hashes;
+    }
+
+    public void saveContentHashes(Map<String, String> uuidToHash) {
+        if (uuidToHash.isEmpty()) {
+            return;
+        }
+        BulkRequestBuilder request = getClient().prepareBulk()
+                .setTimeout(TimeValue.timeValueSeconds(10));
+        uuidToHash.forEach((uuid, hash) -> request.add(getClient()
+                .prepareIndex(ISearchDao.INDEX_NAME, TYPE_CONTENT_HASH, uuid)
+                .setSource(FIELD_HASH, hash)));
+        request.execute().actionGet();
+    }
+
+    public void deleteContentHashes(List<String> uuids) {
+        if (uuids.isEmpty()) {
+            return;
+        }
+        BulkRequestBuilder request = getClient().prepareBulk();
+        for (String uuid : uuids) {
+            request.add(getClient().prepareDelete(ISearchDao.INDEX_NAME, TYPE_CONTENT_HASH, uuid));
+        }
+        request.execute().actionGet();
+    }
+
+    /**
+     * @return The hash of the current mapping and analysis configuration of
+     *         the index
+     */
+    public String getMappingHash() {
+        return getClientFactory().getMappingHash();
+    }
+
+    /**
+     * @return The hash of a JSON document which is stored to detect unchanged
+     *         documents
+     */
+    public static String createContentHash(String json) {
+        return MD5.getMD5Checksum(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Client getClient() {
+        return getClientFactory().getClient();
+    }
+
+    public ElasticsearchClientFactory getClientFactory() {
+        return clientFactory;
+    }
+
+    public void setClientFactory(ElasticsearchClientFactory clientFactory) {
+        this.clientFactory = clientFactory;
+    }
+
+}
@@ -19,14 +19,21 @@
  ******************************************************************************/
 package sernet.verinice.search;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.hibernate.FetchMode;
-import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.hibernate.criterion.Restrictions;
+import org.springframework.orm.hibernate3.HibernateCallback;
 
 import sernet.gs.server.security.DummyAuthenticatorCallable;
 import sernet.gs.service.ServerInitializer;
@@ -34,6 +41,7 @@ import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.search.IJsonBuilder;
 import sernet.verinice.interfaces.search.ISearchService;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.Permission;
 
 /**
  * @author Daniel Murygin <dm[at]sernet[dot]de>
@@ -43,9 +51,12 @@ public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementD
     private IBaseDao<CnATreeElement, Integer> elementDao;
     private ISearchDao searchDao;
     private ISearchService searchService;
-    private List<String> ids;
+    private IndexStateDao indexStateDao;
+    private List<Integer> ids;
     private IJsonBuilder jsonBuilder;
     private boolean logIndexedElementDetails = false;
+    private boolean skipUnchangedElements = false;
+    private BulkIndexBuffer bulkIndexBuffer;
 
     /*
      * @see sernet.verinice.search.DummyAuthenticatorCallable#doCall()
@@ -55,37 +66,112 @@ public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementD
         String json = null;
 
         ServerInitializer.inheritVeriniceContextState();
-        List<CnATreeElement> elements = loadElements();
+        ElementLoader loader = new ElementLoader(ids);
+        getElementDao().findByCallback(loader);
+        List<CnATreeElement> elements = loader.elements;
         List<IndexedElementDetails> result = logIndexedElementDetails
                 ? new ArrayList<>(elements.size())
                 : null;
         Map<String, String> updateDetails = new HashMap<>(elements.size());
+        Map<String, String> contentHashes = new HashMap<>(elements.size());
+        Map<String, String> savedContentHashes = loadSavedContentHashes(elements);
         for (CnATreeElement cnATreeElement : elements) {
-            json = getJsonBuilder().getJson(cnATreeElement);
+            Set<Permission> permissions = loader.permissions.get(cnATreeElement.getDbId());
+            json = getJsonBuilder().getJson(cnATreeElement,
+                    permissions != null ? permissions : Collections.<Permission> emptySet());
 
             if (json != null) {
-                updateDetails.put(cnATreeElement.getUuid(), json);
+                String uuid = cnATreeElement.getUuid();
+                String hash = IndexStateDao.createContentHash(json);
+                if (hash.equals(savedContentHashes.get(uuid))) {
+                    continue;
+                }
+                if (bulkIndexBuffer != null) {
+                    bulkIndexBuffer.add(uuid, json, hash);
+                } else {
+                    updateDetails.put(uuid, json);
+                    contentHashes.put(uuid, hash);
+                }
                 if (logIndexedElementDetails) {
-                    result.add(new IndexedElementDetails(cnATreeElement.getUuid(),
-                            cnATreeElement.getTitle()));
+                    result.add(new IndexedElementDetails(uuid, cnATreeElement.getTitle()));
                 }
             }
         }
-        getSearchDao().index(updateDetails);
+        if (!updateDetails.isEmpty()) {
+            Map<String, String> writtenHashes = BulkIndexBuffer.index(getSearchDao(),
+                    updateDetails, contentHashes);
+            if (getIndexStateDao() != null) {
+                getIndexStateDao().saveContentHashes(writtenHashes);
+            }
+        }
         return result;
     }
 
-    private List<CnATreeElement> loadElements() {
-        DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
-        criteria.add(Restrictions.in("dbId", ids));
-        criteria.setFetchMode("permissions", FetchMode.JOIN);
-        criteria.setFetchMode("entity", FetchMode.JOIN);
-        criteria.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
-        criteria.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
-        return getElementDao().findByCriteria(criteria);
+    private Map<String, String> loadSavedContentHashes(List<CnATreeElement> elements) {
+        if (!skipUnchangedElements || getIndexStateDao() == null) {
+            return Collections.emptyMap();
+        }
+        List<String> uuids = new ArrayList<>(elements.size());
+        for (CnATreeElement element : elements) {
+            uuids.add(element.getUuid());
+        }
+        return getIndexStateDao().loadContentHashes(uuids);
     }
 
-    public void setIDs(List<String> ids) {
+    /**
+     * Loads the elements of a chunk without joining all collections in one
+     * query, which would return the cartesian product of permissions and
+     * properties. The elements are loaded with their entities, the property
+     * lists of all entities are loaded by one subselect and the permissions
+     * are loaded by a flat projection.
+     */
+    private static final class ElementLoader implements HibernateCallback {
+
+        private static final String HQL_LOAD_PERMISSIONS = "select p.cnaTreeElement.dbId, "
+                + "p.role, p.readAllowed, p.writeAllowed from Permission p "
+                + "where p.cnaTreeElement.dbId in (:ids)";
+
+        private final List<Integer> ids;
+
+        private List<CnATreeElement> elements;
+
+        private final Map<Integer, Set<Permission>> permissions = new HashMap<>();
+
+        private ElementLoader(List<Integer> ids) {
+            this.ids = ids;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object doInHibernate(Session session) throws HibernateException, SQLException {
+            elements = session.createCriteria(CnATreeElement.class)
+                    .add(Restrictions.in("dbId", ids)).setFetchMode("entity", FetchMode.JOIN)
+                    .list();
+            Map<Integer, CnATreeElement> elementsById = new HashMap<>(elements.size());
+            for (CnATreeElement element : elements) {
+                elementsById.put(element.getDbId(), element);
+                if (element.getEntity() != null) {
+                    Hibernate.initialize(element.getEntity().getTypedPropertyLists());
+                }
+            }
+            List<Object[]> rows = session.createQuery(HQL_LOAD_PERMISSIONS)
+                    .setParameterList("ids", ids).list();
+            for (Object[] row : rows) {
+                CnATreeElement element = elementsById.get(row[0]);
+                String role = (String) row[1];
+                // Permission.equals fails for a missing element or role
+                if (element == null || role == null) {
+                    continue;
+                }
+                permissions.computeIfAbsent(element.getDbId(), id -> new HashSet<>())
+                        .add(Permission.createPermission(element, role, (Boolean) row[2],
+                                (Boolean) row[3]));
+            }
+            return null;
+        }
+    }
+
+    public void setIDs(List<Integer> ids) {
         this.ids = ids;
     }
 
@@ -105,6 +191,14 @@ public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementD
         this.searchDao = searchDao;
     }
 
+    public IndexStateDao getIndexStateDao() {
+        return indexStateDao;
+    }
+
+    public void setIndexStateDao(IndexStateDao indexStateDao) {
+        this.indexStateDao = indexStateDao;
+    }
+
     public ISearchService getSearchService() {
         return searchService;
     }
@@ -126,4 +220,20 @@ public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementD
 
     }
 
+    /**
+     * If set, the documents are added to the buffer instead of being sent to
+     * the index by this thread.
+     */
+    public void setBulkIndexBuffer(BulkIndexBuffer bulkIndexBuffer) {
+        this.bulkIndexBuffer = bulkIndexBuffer;
+    }
+
+    /**
+     * If true, elements whose JSON document has the same content hash as the
+     * one saved in the index are not sent to the index again.
+     */
+    public void setSkipUnchangedElements(boolean skipUnchangedElements) {
+        this.skipUnchangedElements = skipUnchangedElements;
+    }
+
 }
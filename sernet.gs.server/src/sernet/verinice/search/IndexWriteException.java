@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.search;
+package sernet.verinice.search;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+
+/**
+ * Thrown by {@link BaseDao} if documents of a bulk request were not written to
+ * the index. The other documents of the request are written.
+ */
+public class IndexWriteException extends ElasticsearchException {
+
+    private static final long serialVersionUID = -2630465962468003811L;
+
+    private final Set<String> failedIds;
+
+    public IndexWriteException(String message, Set<String> failedIds) {
+        super(message);
+        this.failedIds = failedIds;
+    }
+
+    /**
+     * Throws an {@link IndexWriteException} if a request of a bulk response
+     * failed.
+     *
+     * @return the response if all requests succeeded
+     */
+    public static BulkResponse checkFailures(BulkResponse response) {
+        if (response != null && response.hasFailures()) {
+            Set<String> failedIds = new HashSet<>();
+            for (BulkItemResponse item : response.getItems()) {
+                if (item.isFailed()) {
+                    failedIds.add(item.getId());
+                }
+            }
+            throw new IndexWriteException(response.buildFailureMessage(), failedIds);
+        }
+        return response;
+    }
+
+    /**
+     * @return the ids of the documents which were not written
+     */
+    public Set<String> getFailedIds() {
+        return Collections.unmodifiableSet(failedIds);
+    }
+}
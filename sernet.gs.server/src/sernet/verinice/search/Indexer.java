@@ -19,35 +19,63 @@
  ******************************************************************************/
 package sernet.verinice.search;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 import org.elasticsearch.common.collect.Lists;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.orm.hibernate3.HibernateCallback;
 
 import sernet.gs.server.security.DummyAuthenticationRunnable;
 import sernet.gs.service.ServerInitializer;
 import sernet.gs.service.TimeFormatter;
-import sernet.verinice.concurrency.ClosableCompletionService;
 import sernet.verinice.concurrency.CustomNamedThreadGroupFactory;
-import sernet.verinice.concurrency.TrackableCompletionService;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IElementTitleCache;
 import sernet.verinice.model.bp.elements.ItNetwork;
 import sernet.verinice.model.bsi.ITVerbund;
+import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.iso27k.Organization;
 
 /**
  * Creates Elasticsearch index for verinice.
  *
+ * <p>
+ * The index can be created from scratch (full rebuild) or updated
+ * incrementally. An incremental update reads the {@link ChangeLogEntry} rows
+ * written since the last update (the high-water mark saved in the
+ * {@link IndexState}) and reindexes only changed and deleted elements. The
+ * high-water mark is saved after each successfully processed page of change
+ * log entries, so an interrupted update resumes where it stopped. If there is
+ * no valid
+ * index state or if the mapping of the index has changed, an incremental
+ * update falls back to a full rebuild.
+ * </p>
+ *
+ * <p>
+ * A full rebuild streams the element ids page by page (keyset pagination) and
+ * indexes them in chunks with a fixed number of {@link IndexThread}s. The
+ * documents are sent in bulk requests sized by bytes, see
+ * {@link BulkIndexBuffer}. Throughput is logged as {@link IndexingMetrics}.
+ * </p>
+ *
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  * @author Benjamin Weißenfels <bw[at]sernet[dot]de>
  */
@@ -55,12 +83,46 @@ public class Indexer {
 
     private static final Logger LOG = Logger.getLogger(Indexer.class);
 
-    private static final String HQL_LOAD_IDS = "select dbId from CnATreeElement";
+    private static final String HQL_LOAD_IDS = "select element.dbId from CnATreeElement element "
+            + "where element.dbId > :dbId order by element.dbId";
+
+    private static final String HQL_LOAD_MAX_CHANGE_LOG_ID = "select max(entry.dbId) from ChangeLogEntry entry";
+
+    private static final String HQL_LOAD_CHANGES = "select entry.dbId, entry.elementId, entry.change, entry.uuid "
+            + "from ChangeLogEntry entry where entry.dbId > :dbId order by entry.dbId";
+
+    private static final int ID_PAGE_SIZE = 5000;
+
+    private static final int CHANGE_LOG_PAGE_SIZE = 1000;
 
-    private static final int INDEXING_CHUNK_SIZE = 50;
+    private static final long METRICS_LOG_INTERVAL = 10000L;
+
+    /**
+     * Number of elements loaded and indexed by one {@link IndexThread}
+     */
+    private int chunkSize = 200;
+
+    /**
+     * Maximum size of a bulk request in bytes
+     */
+    private long bulkSize = 5L * 1024 * 1024;
+
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of change log entries before the saved high-water mark which are
+     * read again by an incremental update
+     */
+    private int changeLogSafetyWindow = 1000;
 
     private IBaseDao<CnATreeElement, Integer> elementDao;
 
+    private IBaseDao<ChangeLogEntry, Integer> changeLogEntryDao;
+
+    private ISearchDao searchDao;
+
+    private IndexStateDao indexStateDao;
+
     private IElementTitleCache titleCache;
 
     private long indexingStart;
@@ -90,69 +152,34 @@ public class Indexer {
      *
      */
     public void nonBlockingIndexing() {
-        runIndexingThread();
+        runIndexingThread(false);
     }
 
-    private void runIndexingThread() {
-        DummyAuthenticationRunnable dummyAuthenticationRunnable = new DummyAuthenticationRunnableExtension();
+    /**
+     * Updates the index incrementally in an non blocking way. See
+     * {@link #blockingIncrementalIndexing()} for details.
+     */
+    public void nonBlockingIncrementalIndexing() {
+        runIndexingThread(true);
+    }
+
+    private void runIndexingThread(boolean incremental) {
+        DummyAuthenticationRunnable dummyAuthenticationRunnable = new DummyAuthenticationRunnableExtension(
+                incremental);
         ThreadFactory threadFactory = new CustomNamedThreadGroupFactory("index");
         ExecutorService exeService = Executors.newSingleThreadExecutor(threadFactory);
         exeService.execute(dummyAuthenticationRunnable);
         exeService.shutdown();
     }
 
-    private ClosableCompletionService<List<IndexedElementDetails>> doIndex(
-            boolean logIndexedElementDetails) {
-
-        indexingStart = System.currentTimeMillis();
-
-        ClosableCompletionService<List<IndexedElementDetails>> completionService = TrackableCompletionService
-                .newInstance();
-        List<String> allIDs = geAllCnATreeElementIDS();
-
+    private void doIndex() throws InterruptedException {
         if (LOG.isInfoEnabled()) {
-            LOG.info("Elements: " + allIDs.size() + ", start indexing...");
+            LOG.info("Start indexing all elements...");
         }
-
         getTitleCache().load(ITVerbund.TYPE_ID_HIBERNATE, Organization.TYPE_ID, ItNetwork.TYPE_ID);
-        Collection<IndexThread> indexThreads = createIndexThreadsByIDs(allIDs,
-                logIndexedElementDetails);
-        for (IndexThread indexThread : indexThreads) {
-            completionService.submit(indexThread);
-        }
-
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("All threads created ans submitted to completion service.");
-        }
-
-        completionService.shutDown();
-        return completionService;
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<String> geAllCnATreeElementIDS() {
-        List<String> allUuids;
-
-        ServerInitializer.inheritVeriniceContextState();
-        allUuids = getElementDao().findByQuery(HQL_LOAD_IDS, null);
-
-        return allUuids;
-    }
-
-    private void logNonBlockingIndexingTermination(
-            final ClosableCompletionService<List<IndexedElementDetails>> completionService,
-            boolean logIndexedElementDetails) {
+        IndexingMetrics metrics = indexChunks(new ElementIdChunks(), false);
         if (LOG.isInfoEnabled()) {
-            ExecutorService executor = Executors.newFixedThreadPool(1);
-            executor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    ServerInitializer.inheritVeriniceContextState();
-                    awaitIndexingTermination(completionService, logIndexedElementDetails);
-                    printIndexingTimeConsumption();
-                }
-            });
-            executor.shutdown();
+            LOG.info("Indexing finished, " + metrics);
         }
     }
 
@@ -180,71 +207,306 @@ public class Indexer {
     public void blockingIndexing() {
         try {
             doBlockingIndexing();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.error("blocking indexing interrupted", e);
         } catch (Exception e) {
             LOG.error("blocking indexing failed: " + e.getLocalizedMessage(), e);
         }
     }
 
-    private void doBlockingIndexing() {
+    /**
+     * Removes all documents of the elements from the index together with the
+     * index state and the content hashes. Content hashes which survive the
+     * documents would make an incremental update skip the removed elements.
+     */
+    public void clear() {
+        getSearchDao().clear();
+        getIndexStateDao().clear();
+    }
+
+    private void doBlockingIndexing() throws InterruptedException {
 
         ServerInitializer.inheritVeriniceContextState();
-        boolean logIndexedElementDetails = LOG.isDebugEnabled();
-        ClosableCompletionService<List<IndexedElementDetails>> completionService = doIndex(
-                logIndexedElementDetails);
+        indexingStart = System.currentTimeMillis();
 
-        // This call causes the blocking since it takes every completed task
-        // from the executor queue.
-        awaitIndexingTermination(completionService, logIndexedElementDetails);
+        // Elements changed while indexing are indexed again by the next
+        // incremental update
+        int changeLogId = loadMaxChangeLogId();
+        getIndexStateDao().clear();
+        doIndex();
+        getIndexStateDao()
+                .save(new IndexState(changeLogId, getIndexStateDao().getMappingHash()));
+        getSearchDao().refresh();
 
         printIndexingTimeConsumption();
     }
 
-    private static void awaitIndexingTermination(
-            ClosableCompletionService<List<IndexedElementDetails>> completionService,
-            boolean logIndexedElementDetails) {
-        while (!completionService.isClosed()) {
-            try {
-                Future<List<IndexedElementDetails>> future = completionService.poll(500l,
-                        TimeUnit.MILLISECONDS);
-                if (logIndexedElementDetails && future != null) {
-                    // if the last element was removed from the queue in the
-                    // previous iteration and the current iteration started
-                    // before the executor could properly terminate, the queue
-                    // will be empty. We should be able to exit from the loop
-                    // after the current iteration.
-                    List<IndexedElementDetails> elements = future.get();
-                    for (IndexedElementDetails details : elements) {
-                        LOG.debug("element was indexed " + details.getTitle() + " - uuid "
-                                + details.getUuid());
-                    }
+    /**
+     * Updates the index incrementally in a blocking manner. Only elements
+     * changed or deleted since the last indexing are processed. If the index
+     * was never created completely or if the mapping of the index has changed
+     * a full rebuild is done.
+     */
+    public void blockingIncrementalIndexing() {
+        try {
+            doBlockingIncrementalIndexing();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.error("blocking incremental indexing interrupted", e);
+        } catch (Exception e) {
+            LOG.error("blocking incremental indexing failed: " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    private void doBlockingIncrementalIndexing() throws InterruptedException {
+        ServerInitializer.inheritVeriniceContextState();
+        IndexState state = getIndexStateDao().load();
+        if (state == null || !getIndexStateDao().getMappingHash().equals(state.getMappingHash())) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("No valid index state found, rebuilding the whole index...");
+            }
+            doBlockingIndexing();
+            return;
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Updating index incrementally, last change log entry: "
+                    + state.getChangeLogId());
+        }
+        indexingStart = System.currentTimeMillis();
+        getTitleCache().load(ITVerbund.TYPE_ID_HIBERNATE, Organization.TYPE_ID, ItNetwork.TYPE_ID);
+        int numberOfChanges = 0;
+        // Change log ids are assigned on insert, not on commit. An entry with
+        // an id below the mark may have been committed after the mark was
+        // saved, so the last entries before the mark are read again. Indexing
+        // them again is idempotent, unchanged elements are skipped by their
+        // content hash.
+        int lastChangeLogId = Math.max(0,
+                state.getChangeLogId() - getChangeLogSafetyWindow());
+        List<Object[]> changes = loadChanges(lastChangeLogId);
+        while (!changes.isEmpty()) {
+            indexChanges(changes);
+            numberOfChanges += changes.size();
+            lastChangeLogId = (Integer) changes.get(changes.size() - 1)[0];
+            if (lastChangeLogId > state.getChangeLogId()) {
+                state = state.withChangeLogId(lastChangeLogId);
+                getIndexStateDao().save(state);
+            }
+            changes = loadChanges(lastChangeLogId);
+        }
+        if (numberOfChanges > 0) {
+            getSearchDao().refresh();
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Change log entries processed: " + numberOfChanges);
+        }
+        printIndexingTimeConsumption();
+    }
+
+    private void indexChanges(List<Object[]> changes) throws InterruptedException {
+        Set<Integer> changedIds = new LinkedHashSet<>(changes.size());
+        List<String> deletedUuids = new ArrayList<>();
+        for (Object[] change : changes) {
+            Integer elementId = (Integer) change[1];
+            int changeType = (Integer) change[2];
+            String uuid = (String) change[3];
+            if (changeType == ChangeLogEntry.TYPE_DELETE) {
+                changedIds.remove(elementId);
+                if (uuid != null) {
+                    deletedUuids.add(uuid);
                 }
-            } catch (Exception e) {
-                LOG.error("Indexing failed for an element", e);
+            } else if (changeType != ChangeLogEntry.TYPE_SYSTEM && elementId != null) {
+                changedIds.add(elementId);
             }
         }
+        if (!deletedUuids.isEmpty()) {
+            getSearchDao().delete(deletedUuids);
+            getIndexStateDao().deleteContentHashes(deletedUuids);
+        }
+        if (!changedIds.isEmpty()) {
+            indexChunks(Lists.partition(new ArrayList<>(changedIds), getChunkSize()).iterator(),
+                    true);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Changed elements: " + changedIds.size() + ", deleted elements: "
+                    + deletedUuids.size());
+        }
     }
 
-    private Collection<IndexThread> createIndexThreadsByIDs(List<String> allIDs,
-            boolean logIndexedElementDetails) {
-        List<List<String>> chunks = Lists.partition(allIDs, INDEXING_CHUNK_SIZE);
-        Collection<IndexThread> indexThreads = new ArrayList<>(chunks.size());
-        for (List<String> chunk : chunks) {
-            IndexThread indexThread = (IndexThread) indexThreadFactory.getObject();
-            indexThread.setIDs(chunk);
-            indexThread.setReturnIndexedElementDetails(logIndexedElementDetails);
-            indexThreads.add(indexThread);
+    @SuppressWarnings("unchecked")
+    private List<Object[]> loadChanges(final int lastChangeLogId) {
+        return getChangeLogEntryDao().findByCallback(new HibernateCallback() {
+            @Override
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                return session.createQuery(HQL_LOAD_CHANGES).setInteger("dbId", lastChangeLogId)
+                        .setMaxResults(CHANGE_LOG_PAGE_SIZE).list();
+            }
+        });
+    }
+
+    private int loadMaxChangeLogId() {
+        List<?> result = getChangeLogEntryDao().findByQuery(HQL_LOAD_MAX_CHANGE_LOG_ID, null);
+        if (result.isEmpty() || result.get(0) == null) {
+            return 0;
         }
-        return indexThreads;
+        return ((Number) result.get(0)).intValue();
+    }
+
+    /**
+     * Indexes chunks of element ids with a fixed number of {@link IndexThread}s.
+     * At most two chunks per thread are queued, so the ids of the next chunks
+     * are not loaded before there is a free thread. The documents are sent to
+     * the index by a {@link BulkIndexBuffer}.
+     *
+     * <p>
+     * If a chunk fails no further chunks are submitted. The running chunks
+     * are awaited and the first failure is rethrown, so the caller does not
+     * save an index state which includes the failed chunk.
+     * </p>
+     */
+    private IndexingMetrics indexChunks(Iterator<List<Integer>> chunks,
+            boolean skipUnchangedElements) throws InterruptedException {
+        boolean logIndexedElementDetails = LOG.isDebugEnabled();
+        IndexingMetrics metrics = new IndexingMetrics();
+        BulkIndexBuffer bulkIndexBuffer = new BulkIndexBuffer(getSearchDao(), getIndexStateDao(),
+                getBulkSize(), metrics);
+        ExecutorService executor = Executors.newFixedThreadPool(getNumberOfThreads(),
+                new CustomNamedThreadGroupFactory("index-worker"));
+        CompletionService<List<IndexedElementDetails>> completionService = new ExecutorCompletionService<>(
+                executor);
+        int maxQueuedChunks = 2 * getNumberOfThreads();
+        long lastLog = System.currentTimeMillis();
+        Throwable failure = null;
+        try {
+            while (failure == null && chunks.hasNext()) {
+                while (failure == null && metrics.getQueuedChunks() >= maxQueuedChunks) {
+                    failure = handleIndexedChunk(completionService.take(), metrics,
+                            logIndexedElementDetails);
+                }
+                if (failure != null) {
+                    break;
+                }
+                completionService.submit(createIndexThread(chunks.next(),
+                        logIndexedElementDetails, skipUnchangedElements, bulkIndexBuffer));
+                metrics.chunkQueued();
+                if (LOG.isInfoEnabled()
+                        && System.currentTimeMillis() - lastLog > METRICS_LOG_INTERVAL) {
+                    LOG.info("Indexing, " + metrics);
+                    lastLog = System.currentTimeMillis();
+                }
+            }
+            while (metrics.getQueuedChunks() > 0) {
+                Throwable chunkFailure = handleIndexedChunk(completionService.take(), metrics,
+                        logIndexedElementDetails);
+                if (failure == null) {
+                    failure = chunkFailure;
+                }
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Indexing failed: " + failure.getMessage(),
+                        failure);
+            }
+            bulkIndexBuffer.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        return metrics;
+    }
+
+    /**
+     * @return The cause if indexing of the chunk failed, null otherwise
+     */
+    private static Throwable handleIndexedChunk(Future<List<IndexedElementDetails>> future,
+            IndexingMetrics metrics, boolean logIndexedElementDetails)
+            throws InterruptedException {
+        metrics.chunkDone();
+        try {
+            List<IndexedElementDetails> elements = future.get();
+            if (logIndexedElementDetails && elements != null) {
+                for (IndexedElementDetails details : elements) {
+                    LOG.debug("element was indexed " + details.getTitle() + " - uuid "
+                            + details.getUuid());
+                }
+            }
+            return null;
+        } catch (ExecutionException e) {
+            LOG.error("Indexing failed for a chunk of elements", e.getCause());
+            return e.getCause();
+        }
+    }
+
+    private IndexThread createIndexThread(List<Integer> ids, boolean logIndexedElementDetails,
+            boolean skipUnchangedElements, BulkIndexBuffer bulkIndexBuffer) {
+        IndexThread indexThread = (IndexThread) indexThreadFactory.getObject();
+        indexThread.setIDs(ids);
+        indexThread.setReturnIndexedElementDetails(logIndexedElementDetails);
+        indexThread.setSkipUnchangedElements(skipUnchangedElements);
+        indexThread.setBulkIndexBuffer(bulkIndexBuffer);
+        return indexThread;
+    }
+
+    /**
+     * Iterates over the ids of all elements in chunks. The ids are loaded page
+     * by page ordered by id, each page starts after the last id of the
+     * previous page (keyset pagination).
+     */
+    private final class ElementIdChunks implements Iterator<List<Integer>> {
+
+        private Iterator<List<Integer>> page = Collections.emptyIterator();
+
+        private int lastId = 0;
+
+        private boolean lastPage = false;
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                List<Integer> ids = loadIds(lastId);
+                lastPage = ids.size() < ID_PAGE_SIZE;
+                if (!ids.isEmpty()) {
+                    lastId = ids.get(ids.size() - 1);
+                }
+                page = Lists.partition(ids, getChunkSize()).iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public List<Integer> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> loadIds(final int lastId) {
+        return getElementDao().findByCallback(new HibernateCallback() {
+            @Override
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                return session.createQuery(HQL_LOAD_IDS).setInteger("dbId", lastId)
+                        .setMaxResults(ID_PAGE_SIZE).list();
+            }
+        });
     }
 
     private final class DummyAuthenticationRunnableExtension extends DummyAuthenticationRunnable {
+
+        private final boolean incremental;
+
+        private DummyAuthenticationRunnableExtension(boolean incremental) {
+            this.incremental = incremental;
+        }
+
         @Override
         public void doRun() {
             try {
-                boolean logIndexedElementDetails = LOG.isDebugEnabled();
-                ClosableCompletionService<List<IndexedElementDetails>> completionService = doIndex(
-                        logIndexedElementDetails);
-                logNonBlockingIndexingTermination(completionService, logIndexedElementDetails);
+                if (incremental) {
+                    doBlockingIncrementalIndexing();
+                } else {
+                    doBlockingIndexing();
+                }
             } catch (Exception e) {
                 LOG.error("Error while indexing elements.", e);
             }
@@ -267,6 +529,62 @@ public class Indexer {
         this.elementDao = elementDao;
     }
 
+    public IBaseDao<ChangeLogEntry, Integer> getChangeLogEntryDao() {
+        return changeLogEntryDao;
+    }
+
+    public void setChangeLogEntryDao(IBaseDao<ChangeLogEntry, Integer> changeLogEntryDao) {
+        this.changeLogEntryDao = changeLogEntryDao;
+    }
+
+    public ISearchDao getSearchDao() {
+        return searchDao;
+    }
+
+    public void setSearchDao(ISearchDao searchDao) {
+        this.searchDao = searchDao;
+    }
+
+    public IndexStateDao getIndexStateDao() {
+        return indexStateDao;
+    }
+
+    public void setIndexStateDao(IndexStateDao indexStateDao) {
+        this.indexStateDao = indexStateDao;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public long getBulkSize() {
+        return bulkSize;
+    }
+
+    public void setBulkSize(long bulkSize) {
+        this.bulkSize = bulkSize;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public int getChangeLogSafetyWindow() {
+        return changeLogSafetyWindow;
+    }
+
+    public void setChangeLogSafetyWindow(int changeLogSafetyWindow) {
+        this.changeLogSafetyWindow = changeLogSafetyWindow;
+    }
+
     public IElementTitleCache getTitleCache() {
         return titleCache;
     }
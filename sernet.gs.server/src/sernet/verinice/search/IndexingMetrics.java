@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput metrics of an indexing run: indexed documents per second, sent
+ * bytes per second and the number of chunks waiting for an
+ * {@link IndexThread}.
+ */
+public class IndexingMetrics {
+
+    private static final long BYTES_PER_KB = 1024L;
+
+    private final long start = System.currentTimeMillis();
+
+    private final AtomicLong documents = new AtomicLong();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final AtomicLong bulkRequests = new AtomicLong();
+
+    private final AtomicInteger queuedChunks = new AtomicInteger();
+
+    public void addBulkRequest(int numberOfDocuments, long numberOfBytes) {
+        documents.addAndGet(numberOfDocuments);
+        bytes.addAndGet(numberOfBytes);
+        bulkRequests.incrementAndGet();
+    }
+
+    public void chunkQueued() {
+        queuedChunks.incrementAndGet();
+    }
+
+    public void chunkDone() {
+        queuedChunks.decrementAndGet();
+    }
+
+    public int getQueuedChunks() {
+        return queuedChunks.get();
+    }
+
+    public long getDocuments() {
+        return documents.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getBulkRequests() {
+        return bulkRequests.get();
+    }
+
+    public long getDocumentsPerSecond() {
+        return perSecond(getDocuments());
+    }
+
+    public long getBytesPerSecond() {
+        return perSecond(getBytes());
+    }
+
+    private long perSecond(long value) {
+        long ms = Math.max(1L, System.currentTimeMillis() - start);
+        return value * 1000L / ms;
+    }
+
+    @Override
+    public String toString() {
+        return "documents: " + getDocuments() + " (" + getDocumentsPerSecond() + "/s), "
+                + "data: " + getBytes() / BYTES_PER_KB + " KB ("
+                + getBytesPerSecond() / BYTES_PER_KB + " KB/s), bulk requests: "
+                + getBulkRequests() + ", queued chunks: " + getQueuedChunks();
+    }
+}
@@ -21,6 +21,7 @@ package sernet.verinice.search;
 
 import java.io.IOException;
 import java.text.DateFormat;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
@@ -63,6 +64,15 @@ public class JsonBuilder implements IJsonBuilder {
      * @return A JSON document from an element for indexing in ElasticSearch
      */
     public String getJson(CnATreeElement element) {
+        return getJson(element, (Collection<Permission>) null);
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.search.IJsonBuilder#getJson(sernet.
+     * verinice.model.common.CnATreeElement, java.util.Collection)
+     */
+    @Override
+    public String getJson(CnATreeElement element, Collection<Permission> permissions) {
         if (!isIndexableElement(element)) {
             return null;
         }
@@ -73,7 +83,7 @@ public class JsonBuilder implements IJsonBuilder {
         if (title == null && element.getScopeId() != null) {
             title = element.getScopeId().toString();
         }
-        return getJson(element, title);
+        return getJson(element, title, permissions);
     }
 
     private String getScopeTitle(@NonNull CnATreeElement element) {
@@ -94,10 +104,15 @@ public class JsonBuilder implements IJsonBuilder {
     }
 
     public final String getJson(CnATreeElement element, String scopeTitle) {
+        return getJson(element, scopeTitle, null);
+    }
+
+    private String getJson(CnATreeElement element, String scopeTitle,
+            Collection<Permission> permissions) {
         try {
             String json = null;
             if (isIndexableElement(element)) {
-                json = doGetJson(element, scopeTitle);
+                json = doGetJson(element, scopeTitle, permissions);
             }
             if (LOG.isDebugEnabled()) {
                 LOG.debug(json);
@@ -110,7 +125,8 @@ public class JsonBuilder implements IJsonBuilder {
         }
     }
 
-    private String doGetJson(CnATreeElement element, String scopeTitle) throws IOException {
+    private String doGetJson(CnATreeElement element, String scopeTitle,
+            Collection<Permission> permissions) throws IOException {
         EntityType entityType = element.getEntityType();
         XContentBuilder builder;
         builder = XContentFactory.jsonBuilder().startObject();
@@ -127,7 +143,10 @@ public class JsonBuilder implements IJsonBuilder {
         builder.field(ISearchService.ES_FIELD_PARENT_ID, element.getParentId());
         builder.field(ISearchService.ES_FIELD_ICON_PATH, element.getIconPath());
 
-        addPermissions(builder, element);
+        if (permissions == null) {
+            permissions = Retriever.checkRetrievePermissions(element).getPermissions();
+        }
+        addPermissions(builder, permissions);
 
         if (element.getEntity() != null && element.getEntityType() != null
                 && entityType.getAllPropertyTypeIds() != null) {
@@ -151,14 +170,13 @@ public class JsonBuilder implements IJsonBuilder {
        }
 
     
-    private static void addPermissions(XContentBuilder builder, CnATreeElement element)
-            throws IOException {
-        element = Retriever.checkRetrievePermissions(element);
-        if (element.getPermissions() == null || element.getPermissions().isEmpty()) {
+    private static void addPermissions(XContentBuilder builder,
+            Collection<Permission> permissions) throws IOException {
+        if (permissions == null || permissions.isEmpty()) {
             return;
         }
         builder.startArray(ISearchService.ES_FIELD_PERMISSION_ROLES);
-        for (Permission p : element.getPermissions()) {
+        for (Permission p : permissions) {
             int value = 0;
             if (p.isReadAllowed()) {
                 value = 1;
@@ -19,8 +19,11 @@
  ******************************************************************************/
 package sernet.verinice.search;
 
+import java.util.Collection;
+
 import sernet.verinice.interfaces.search.IJsonBuilder;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.Permission;
 
 /**
  * @author Daniel Murygin <dm[at]sernet[dot]de>
@@ -35,4 +38,12 @@ public class JsonBuilderDummy implements IJsonBuilder {
         return null;
     }
 
+    /* (non-Javadoc)
+     * @see sernet.verinice.interfaces.search.IJsonBuilder#getJson(sernet.verinice.model.common.CnATreeElement, java.util.Collection)
+     */
+    @Override
+    public String getJson(CnATreeElement element, Collection<Permission> permissions) {
+        return null;
+    }
+
 }
@@ -39,7 +39,7 @@ public class OSGIIndexer {
                 LOG.info("Indexing on startup is enabled.");
             }
 
-            indexer.nonBlockingIndexing();
+            indexer.nonBlockingIncrementalIndexing();
         }
     }
 
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.IChangeNotificationService;
+import sernet.verinice.model.common.ChangeEvent;
+import sernet.verinice.model.common.ChangeEvents;
+import sernet.verinice.model.common.ChangeLogEntry;
+
+/**
+ * Keeps the last change events in memory and hands them out to clients
+ * waiting in {@link #waitForChanges(long, String, Set)}. Events are published
+ * by {@link HibernateCommandService} after the transaction of a change
+ * logging command is committed.
+ *
+ * Event ids start with the time the service was created, ids of a restarted
+ * server are therefore greater than the ids a client has received before.
+ * A client which asks for events older than the oldest event in the buffer
+ * gets an incomplete result.
+ */
+public class ChangeNotificationService implements IChangeNotificationService {
+
+    private static final Logger log = Logger.getLogger(ChangeNotificationService.class);
+
+    private static final int DEFAULT_CAPACITY = 10000;
+
+    private static final long DEFAULT_TIMEOUT = 30000;
+
+    private final Object lock = new Object();
+
+    private final Deque<ChangeEvent> events = new ArrayDeque<>();
+
+    private long lastEventId = System.currentTimeMillis();
+
+    // injected by spring
+    private int capacity = DEFAULT_CAPACITY;
+
+    private long timeout = DEFAULT_TIMEOUT;
+
+    /*
+     * @see sernet.verinice.interfaces.IChangeNotificationService#
+     * waitForChanges(long, java.lang.String, java.util.Set)
+     */
+    @Override
+    public ChangeEvents waitForChanges(long lastEventId, String stationId,
+            Set<Integer> scopeIds) {
+        long end = System.currentTimeMillis() + timeout;
+        synchronized (lock) {
+            if (lastEventId == ChangeEvents.NO_EVENT) {
+                return ChangeEvents.empty(this.lastEventId, true);
+            }
+            if (!isKnown(lastEventId)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Events after id " + lastEventId + " are no longer available");
+                }
+                return ChangeEvents.empty(this.lastEventId, false);
+            }
+            long seen = lastEventId;
+            List<ChangeEvent> result = new ArrayList<>();
+            while (true) {
+                seen = collect(seen, stationId, scopeIds, result);
+                long remaining = end - System.currentTimeMillis();
+                if (!result.isEmpty() || remaining <= 0) {
+                    return new ChangeEvents(result, seen, true);
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new ChangeEvents(result, seen, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the events of the changes to the buffer and wakes up the waiting
+     * clients.
+     *
+     * @param newEvents
+     *            The events of the changes
+     */
+    public void publish(Collection<ChangeEvent> newEvents) {
+        if (newEvents.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (ChangeEvent event : newEvents) {
+                lastEventId++;
+                event.setId(lastEventId);
+                events.addLast(event);
+            }
+            while (events.size() > capacity) {
+                events.removeFirst();
+            }
+            lock.notifyAll();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(newEvents.size() + " change events published, last id: " + lastEventId);
+        }
+    }
+
+    /**
+     * Returns true if all events after an id are still in the buffer.
+     */
+    private boolean isKnown(long id) {
+        if (id > lastEventId) {
+            return false;
+        }
+        long firstKnownId = events.isEmpty() ? lastEventId : events.getFirst().getId() - 1;
+        return id >= firstKnownId;
+    }
+
+    private long collect(long after, String stationId, Set<Integer> scopeIds,
+            List<ChangeEvent> result) {
+        if (after == lastEventId) {
+            return after;
+        }
+        List<ChangeEvent> newer = new ArrayList<>();
+        Iterator<ChangeEvent> iterator = events.descendingIterator();
+        while (iterator.hasNext()) {
+            ChangeEvent event = iterator.next();
+            if (event.getId() <= after) {
+                break;
+            }
+            if (isRelevant(event, stationId, scopeIds)) {
+                newer.add(event);
+            }
+        }
+        Collections.reverse(newer);
+        result.addAll(newer);
+        return lastEventId;
+    }
+
+    private static boolean isRelevant(ChangeEvent event, String stationId,
+            Set<Integer> scopeIds) {
+        if (stationId != null && stationId.equals(event.getStationId())) {
+            return false;
+        }
+        return scopeIds == null || event.getScopeId() == null || event.isScope()
+                || event.getChange() == ChangeLogEntry.TYPE_PERMISSION
+                || scopeIds.contains(event.getScopeId());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+}
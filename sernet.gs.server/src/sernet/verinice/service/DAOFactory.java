@@ -29,6 +29,7 @@ import sernet.hui.common.connect.ITypedElement;
 import sernet.hui.common.connect.Property;
 import sernet.hui.common.connect.PropertyList;
 import sernet.verinice.interfaces.IAttachmentDao;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IDAOFactory;
 import sernet.verinice.interfaces.IElementEntityDao;
@@ -168,6 +169,8 @@ public class DAOFactory implements IDAOFactory {
 
     private IAttachmentDao attachmentDao;
 
+    private IAttachmentStore attachmentStore;
+
     private IFinishedRiskAnalysisListsDao finishedRiskAnalysisListsDao;
 
     // injected by spring
@@ -889,6 +892,16 @@ public class DAOFactory implements IDAOFactory {
         this.attachmentDao = attachmentDao;
     }
 
+    @Override
+    public IAttachmentStore getAttachmentStore() {
+        return attachmentStore;
+    }
+
+    @Override
+    public void setAttachmentStore(IAttachmentStore attachmentStore) {
+        this.attachmentStore = attachmentStore;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -20,6 +20,7 @@ package sernet.verinice.service;
 
 import java.io.Serializable;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -32,6 +33,8 @@ import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.security.AccessDeniedException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.ApplicationRoles;
@@ -53,6 +56,7 @@ import sernet.verinice.interfaces.ldap.ILdapCommand;
 import sernet.verinice.interfaces.ldap.ILdapService;
 import sernet.verinice.model.bsi.BSIModel;
 import sernet.verinice.model.catalog.CatalogModel;
+import sernet.verinice.model.common.ChangeEvent;
 import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.commands.UsernameExistsRuntimeException;
@@ -81,6 +85,8 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 
     private ILdapService ldapService;
 
+    private ChangeNotificationService changeNotificationService;
+
     private boolean dbOpen = false;
 
     private VeriniceContext.State workObjects;
@@ -242,6 +248,7 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 
     private void log(IChangeLoggingCommand notifyCommand) {
         List<ElementChange> elementChanges = notifyCommand.getChanges();
+        List<ChangeEvent> events = new ArrayList<>(elementChanges.size());
         for (ElementChange changedElement : elementChanges) {
 
             ChangeLogEntry logEntry = new ChangeLogEntry(changedElement.getElement(),
@@ -254,6 +261,30 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
                         + logEntry.getElementId());
             }
             daoFactory.getDAO(ChangeLogEntry.class).saveOrUpdate(logEntry);
+            CnATreeElement element = changedElement.getElement();
+            events.add(new ChangeEvent(logEntry, element != null ? element.getScopeId() : null));
+        }
+        publishAfterCommit(events);
+    }
+
+    /**
+     * Publishes change events when the current transaction is committed, so
+     * clients are not notified before they can load the changed elements.
+     */
+    private void publishAfterCommit(final List<ChangeEvent> events) {
+        if (changeNotificationService == null || events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            changeNotificationService.publish(events);
+                        }
+                    });
+        } else {
+            changeNotificationService.publish(events);
         }
     }
 
@@ -291,6 +322,15 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
         this.graphService = graphService;
     }
 
+    public ChangeNotificationService getChangeNotificationService() {
+        return changeNotificationService;
+    }
+
+    public void setChangeNotificationService(
+            ChangeNotificationService changeNotificationService) {
+        this.changeNotificationService = changeNotificationService;
+    }
+
     public ILdapService getLdapService() {
         return ldapService;
     }
@@ -87,6 +87,8 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
 
     protected Set<LicenseManagementEntry> existingLicenses = null;
 
+    private volatile LicenseRegistry licenseRegistry = null;
+
     public void init() {
         try {
             watchVNLDirectory();
@@ -98,14 +100,9 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     @Override
     public boolean isCurrentUserValidForLicense(String username, String encryptedLicenseId,
             boolean decrypt) throws LicenseManagementException {
-        LicenseManagementEntry entryToUse = null;
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (entry.getLicenseID().equals(encryptedLicenseId)) {
-                entryToUse = entry;
-                break;
-            }
-        }
-        String plainEntryLicenseId = decrypt(entryToUse, LicenseManagementEntry.COLUMN_LICENSEID);
+        LicenseRegistry registry = getLicenseRegistry();
+        LicenseManagementEntry entryToUse = registry.getEntryByLicenseId(encryptedLicenseId);
+        String plainEntryLicenseId = registry.getLicenseId(entryToUse);
         Configuration configuration = getConfigurationByUsername(username);
         boolean userHasLicense = configuration != null
                 && configuration.getAssignedLicenseIds().contains(plainEntryLicenseId);
@@ -117,12 +114,12 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     public boolean isUserAssignedLicenseStillValid(String user, String encryptedLicenseId,
             boolean decrypt) throws LicenseManagementException {
 
-        LicenseManagementEntry entryToUse = findEntryForLicenseId(encryptedLicenseId, decrypt);
+        LicenseRegistry registry = getLicenseRegistry();
+        LicenseManagementEntry entryToUse = findEntryForLicenseId(registry, encryptedLicenseId,
+                decrypt);
 
         if (entryToUse != null) {
-            Object o = decrypt(entryToUse, LicenseManagementEntry.COLUMN_VALIDUNTIL);
-            LocalDate ld = LocalDate.parse(o.toString());
-            return ld.isAfter(LocalDate.now());
+            return registry.getValidUntil(entryToUse).isAfter(LocalDate.now());
         }
         return false;
     }
@@ -133,36 +130,17 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
      * 
      * Search for entry is possible in en- or decrypted mode (@param decrypt)
      * 
+     * @param registry
      * @param encryptedLicenseId
      * @param decrypt
-     * @param entryToUse
      * @return
-     * @throws LicenseManagementException
      */
-    private LicenseManagementEntry findEntryForLicenseId(String encryptedLicenseId, boolean decrypt)
-            throws LicenseManagementException {
-        LicenseManagementEntry entryToUse = null;
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (decrypt) {
-                String plainLicenseId = getCryptoService().decryptLicenseRestrictedProperty(
-                        getUserPasswordAsString(entry), encryptedLicenseId);
-                String plainEntryLicenseId = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_LICENSEID);
-                if (plainLicenseId.equals(plainEntryLicenseId)) {
-                    entryToUse = entry;
-                }
-
-            } else {
-                if (entry.getLicenseID().equals(encryptedLicenseId)) {
-                    entryToUse = entry;
-                }
-            }
-
-            if (entryToUse != null) {
-                break;
-            }
+    private LicenseManagementEntry findEntryForLicenseId(LicenseRegistry registry,
+            String encryptedLicenseId, boolean decrypt) {
+        if (decrypt) {
+            return registry.getEntryByCypherLicenseId(encryptedLicenseId);
         }
-        return entryToUse;
+        return registry.getEntryByLicenseId(encryptedLicenseId);
     }
 
     @Override
@@ -170,16 +148,12 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
             throws LicenseManagementException {
         int validUsers = 0;
         int assignedUsers = 0;
-        LicenseManagementEntry entry = null;
-        for (LicenseManagementEntry existingEntry : getExistingLicenses()) {
-            if (encryptedLicenseId.equals(existingEntry.getLicenseID())) {
-                entry = existingEntry;
-            }
-        }
+        LicenseRegistry registry = getLicenseRegistry();
+        LicenseManagementEntry entry = registry.getEntryByLicenseId(encryptedLicenseId);
         String decryptedLicenseId = null;
         if (entry != null) {
             validUsers = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUSERS);
-            decryptedLicenseId = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
+            decryptedLicenseId = registry.getLicenseId(entry);
             for (Configuration configuration : getAllConfigurations()) {
                 Set<String> assignedIds = configuration.getAllLicenseIds();
                 if (assignedIds.contains(decryptedLicenseId)) {
@@ -215,11 +189,10 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
      */
     @Override
     public Set<String> getAllLicenseIds(boolean decrypted) throws LicenseManagementException {
+        LicenseRegistry registry = getLicenseRegistry();
         Set<String> allIds = new HashSet<>();
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            String cypherLicenseId = entry.getLicenseID();
-            String plainLicenseId = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
-            allIds.add(decrypted ? plainLicenseId : cypherLicenseId);
+        for (LicenseManagementEntry entry : registry.getEntries()) {
+            allIds.add(decrypted ? registry.getLicenseId(entry) : entry.getLicenseID());
         }
         return allIds;
     }
@@ -229,9 +202,10 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
             String contentId) throws LicenseManagementException {
         Set<LicenseManagementEntry> userLicenses = new HashSet<>();
 
+        LicenseRegistry registry = getLicenseRegistry();
         Configuration configuration = getConfigurationByUsername(user);
-        for (LicenseManagementEntry entry : getLicenseEntriesForContentId(contentId, true)) {
-            String entryLicenseIdPlain = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
+        for (LicenseManagementEntry entry : registry.getEntriesByCypherContentId(contentId)) {
+            String entryLicenseIdPlain = registry.getLicenseId(entry);
             if (configuration != null
                     && configuration.getAssignedLicenseIds().contains(entryLicenseIdPlain)) {
                 userLicenses.add(entry);
@@ -243,73 +217,22 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     @Override
     public Set<LicenseManagementEntry> getLicenseEntriesForContentId(String encryptedContentId,
             boolean decrypt) throws LicenseManagementException {
-        Set<LicenseManagementEntry> uniqueEntryCollection = new HashSet<>();
-
+        LicenseRegistry registry = getLicenseRegistry();
         if (decrypt) {
-            return getLicenseEntriesViaDecryptedContentIds(encryptedContentId,
-                    uniqueEntryCollection);
+            // the contentId is encrypted with the password of the entry
+            return new HashSet<>(registry.getEntriesByCypherContentId(encryptedContentId));
         }
-
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (entry.getContentIdentifier().equals(encryptedContentId)) {
-                uniqueEntryCollection.add(entry);
-            }
-        }
-        return uniqueEntryCollection;
-    }
-
-    /**
-     * 
-     * Iterates over all {@link LicenseManagementEntry} and decrypts their
-     * contentId. Tries to decrypt the given @param encryptedContentId with the
-     * password of the {@link LicenseManagementEntry} and after that compares
-     * both contentIds. If they are equal, the entry will be added to a set that
-     * gets returned after the iteration has finished
-     * 
-     * @param encryptedContentId
-     * @param uniqueEntryCollection
-     * @return
-     * @throws LicenseManagementException
-     */
-    private Set<LicenseManagementEntry> getLicenseEntriesViaDecryptedContentIds(
-            String encryptedContentId, Set<LicenseManagementEntry> uniqueEntryCollection)
-            throws LicenseManagementException {
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            try {
-                String plainContentId = getCryptoService().decryptLicenseRestrictedProperty(
-                        getUserPasswordAsString(entry), encryptedContentId);
-                String plainEntryContentId = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_CONTENTID);
-                if (plainContentId.equals(plainEntryContentId)) {
-                    uniqueEntryCollection.add(entry);
-                }
-            } catch (EncryptionException e) {
-                log.info("Could not decrypt correctly for value:\t" + encryptedContentId
-                        + "with entry (licenseId):\t" + entry.getLicenseID(), e);
-                continue;
-            }
-        }
-        return uniqueEntryCollection;
+        return new HashSet<>(registry.getEntriesByContentId(encryptedContentId));
     }
 
     @Override
     public LicenseManagementEntry getLicenseEntryForLicenseId(String licenseId, boolean decrypt)
             throws LicenseManagementException {
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (!decrypt) { // don't use decryption
-                if (entry.getLicenseID().equals(licenseId)) {
-                    return entry;
-                }
-            } else { // use decryption
-                String plainEntryLicenseId = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_LICENSEID);
-                if (plainEntryLicenseId.equals(licenseId)) {
-                    return entry;
-                }
-            }
-
+        LicenseRegistry registry = getLicenseRegistry();
+        if (decrypt) {
+            return registry.getEntryByPlainLicenseId(licenseId);
         }
-        return null;
+        return registry.getEntryByLicenseId(licenseId);
     }
 
     @Override
@@ -317,41 +240,24 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
             throws LicenseManagementException {
         // unless contentId is crypted with pw and salt, this returns an empty
         // set
+        LicenseRegistry registry = getLicenseRegistry();
+        Set<LicenseManagementEntry> entries = decrypted
+                ? registry.getEntriesByCypherContentId(contentId)
+                : registry.getEntriesByContentId(contentId);
         Set<String> uniqueIds = new HashSet<>();
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            String plainLicenseId = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
-            if (!decrypted) {
-                if (entry.getContentIdentifier().equals(contentId)) {
-                    uniqueIds.add(plainLicenseId);
-                }
-            } else {
-                String plainContentIdEntry = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_CONTENTID);
-                String plainContentIdInput = "";
-                try {
-                    plainContentIdInput = getCryptoService().decryptLicenseRestrictedProperty(
-                            getUserPasswordAsString(entry), contentId);
-                } catch (EncryptionException e) {
-                    // this is try & error, so fails are ok here
-                    continue;
-                }
-                if (plainContentIdEntry.equals(plainContentIdInput)) {
-                    uniqueIds.add(plainLicenseId);
-                }
-            }
+        for (LicenseManagementEntry entry : entries) {
+            uniqueIds.add(registry.getLicenseId(entry));
         }
-
         return uniqueIds;
     }
 
     @Override
     public Set<String> getAllContentIds(boolean decrypted) throws LicenseManagementException {
+        LicenseRegistry registry = getLicenseRegistry();
         Set<String> allIds = new HashSet<>();
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
+        for (LicenseManagementEntry entry : registry.getEntries()) {
             if (decrypted) {
-                Object decryptedValue = decrypt(entry, LicenseManagementEntry.COLUMN_CONTENTID);
-                String decryptedString = String.valueOf(decryptedValue);
-                allIds.add(decryptedString);
+                allIds.add(registry.getContentId(entry));
             } else {
                 allIds.add(entry.getContentIdentifier());
             }
@@ -611,6 +517,7 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
             log.error(msg, e);
             throw new LicenseManagementException(msg);
         }
+        updateLicenseRegistry();
         return existingLicenses;
     }
 
@@ -648,6 +555,28 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
         this.commandService = commandService;
     }
 
+    /**
+     * Replaces the license registry by a new one created from the existing
+     * licenses. Must be called every time the existing licenses were read
+     * from the vnl files.
+     */
+    protected synchronized void updateLicenseRegistry() {
+        licenseRegistry = new LicenseRegistry(this, existingLicenses);
+    }
+
+    /**
+     * Returns the registry with the decrypted and indexed licenses. The vnl
+     * files are only read if there is no registry yet or if it is empty.
+     */
+    private LicenseRegistry getLicenseRegistry() throws LicenseManagementException {
+        LicenseRegistry registry = licenseRegistry;
+        if (registry == null || registry.isEmpty()) {
+            readVNLFiles();
+            registry = licenseRegistry;
+        }
+        return registry;
+    }
+
     /**
      * @return the existingLicenses
      */
@@ -707,12 +636,7 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
         if (StringUtils.isNotEmpty(licenseIdToUse)) { // is user valid for
                                                       // content
             // get related licenceInformation
-            for (LicenseManagementEntry existingEntry : getExistingLicenses()) {
-                if (licenseIdToUse.equals(
-                        this.decrypt(existingEntry, LicenseManagementEntry.COLUMN_LICENSEID))) {
-                    entry = existingEntry;
-                }
-            }
+            entry = getLicenseRegistry().getEntryByPlainLicenseId(licenseIdToUse);
             // decrypt
             try {
                 if (entry != null) {
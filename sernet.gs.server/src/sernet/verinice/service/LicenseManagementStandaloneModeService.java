@@ -168,6 +168,7 @@ public class LicenseManagementStandaloneModeService extends LicenseManagementSer
         }
 
         existingLicenses.addAll(mapVNLFilesToObjects(vnlFiles));
+        updateLicenseRegistry();
         return existingLicenses;
     }
 
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.encryption.EncryptionException;
+import sernet.verinice.interfaces.encryption.IEncryptionService;
+import sernet.verinice.model.licensemanagement.LicenseManagementEntry;
+
+/**
+ * Immutable snapshot of the {@link LicenseManagementEntry} instances read from
+ * the vnl files. License id, content id and the expiration date of every entry
+ * are decrypted once when the registry is created. The entries are indexed by
+ * encrypted and plain license id and by encrypted content id.
+ *
+ * Ids which are encrypted with the password of an entry (e.g. the content id of
+ * a license restricted property) can only be resolved by trying to decrypt them
+ * with every entry. The results of these lookups are cached until the registry
+ * is replaced.
+ *
+ * A new registry is created by {@link LicenseManagementServerModeService}
+ * every time the vnl files are read. Instances can be used by several threads
+ * without locking.
+ */
+final class LicenseRegistry {
+
+    private static final Logger log = Logger.getLogger(LicenseRegistry.class);
+
+    private static final int MAX_CACHED_LOOKUPS = 10000;
+
+    private final IEncryptionService cryptoService;
+
+    private final Set<LicenseManagementEntry> entries;
+
+    private final Map<LicenseManagementEntry, String> passwords = new HashMap<>();
+    private final Map<LicenseManagementEntry, String> licenseIds = new HashMap<>();
+    private final Map<LicenseManagementEntry, String> contentIds = new HashMap<>();
+    private final Map<LicenseManagementEntry, LocalDate> validUntilDates = new HashMap<>();
+
+    private final Map<String, LicenseManagementEntry> entriesByLicenseId = new HashMap<>();
+    private final Map<String, LicenseManagementEntry> entriesByPlainLicenseId = new HashMap<>();
+    private final Map<String, Set<LicenseManagementEntry>> entriesByContentId = new HashMap<>();
+
+    // results of the lookups of ids encrypted with the password of an entry
+    private final ConcurrentMap<String, Optional<LicenseManagementEntry>> entriesByCypherLicenseId;
+    private final ConcurrentMap<String, Set<LicenseManagementEntry>> entriesByCypherContentId;
+
+    LicenseRegistry(LicenseManagementServerModeService service,
+            Collection<LicenseManagementEntry> licenses) {
+        this.cryptoService = service.getCryptoService();
+        this.entriesByCypherLicenseId = new ConcurrentHashMap<>();
+        this.entriesByCypherContentId = new ConcurrentHashMap<>();
+        Set<LicenseManagementEntry> readableEntries = new HashSet<>(licenses.size());
+        for (LicenseManagementEntry entry : licenses) {
+            try {
+                String licenseId = service.decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
+                String contentId = service.decrypt(entry, LicenseManagementEntry.COLUMN_CONTENTID);
+                LocalDate validUntil = service.decrypt(entry,
+                        LicenseManagementEntry.COLUMN_VALIDUNTIL);
+                passwords.put(entry, service.getUserPasswordAsString(entry));
+                licenseIds.put(entry, licenseId);
+                contentIds.put(entry, contentId);
+                validUntilDates.put(entry, validUntil);
+                entriesByLicenseId.putIfAbsent(entry.getLicenseID(), entry);
+                entriesByPlainLicenseId.putIfAbsent(licenseId, entry);
+                entriesByContentId.computeIfAbsent(entry.getContentIdentifier(),
+                        key -> new HashSet<>()).add(entry);
+                readableEntries.add(entry);
+            } catch (EncryptionException e) {
+                log.error("Error while decrypting license " + entry.getLicenseID(), e);
+            }
+        }
+        this.entries = Collections.unmodifiableSet(readableEntries);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public Set<LicenseManagementEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return The entry with an encrypted license id as stored in the vnl
+     *         file or null if there is no such entry
+     */
+    public LicenseManagementEntry getEntryByLicenseId(String licenseId) {
+        return entriesByLicenseId.get(licenseId);
+    }
+
+    /**
+     * @return The entry with a plain license id or null if there is no such
+     *         entry
+     */
+    public LicenseManagementEntry getEntryByPlainLicenseId(String plainLicenseId) {
+        return entriesByPlainLicenseId.get(plainLicenseId);
+    }
+
+    /**
+     * @return The entry with a license id encrypted with the password of the
+     *         entry or null if there is no such entry
+     */
+    public LicenseManagementEntry getEntryByCypherLicenseId(String cypherLicenseId) {
+        Optional<LicenseManagementEntry> entry = entriesByCypherLicenseId.get(cypherLicenseId);
+        if (entry == null) {
+            entry = Optional.ofNullable(findEntryByCypherLicenseId(cypherLicenseId));
+            cache(entriesByCypherLicenseId, cypherLicenseId, entry);
+        }
+        return entry.orElse(null);
+    }
+
+    private LicenseManagementEntry findEntryByCypherLicenseId(String cypherLicenseId) {
+        for (LicenseManagementEntry entry : entries) {
+            String plainLicenseId = decryptWithPassword(entry, cypherLicenseId);
+            if (licenseIds.get(entry).equals(plainLicenseId)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The entries with an encrypted content id as stored in the vnl
+     *         files
+     */
+    public Set<LicenseManagementEntry> getEntriesByContentId(String contentId) {
+        return unmodifiable(entriesByContentId.get(contentId));
+    }
+
+    /**
+     * @return The entries with a content id encrypted with the password of the
+     *         entries
+     */
+    public Set<LicenseManagementEntry> getEntriesByCypherContentId(String cypherContentId) {
+        Set<LicenseManagementEntry> result = entriesByCypherContentId.get(cypherContentId);
+        if (result == null) {
+            result = Collections.unmodifiableSet(findEntriesByCypherContentId(cypherContentId));
+            cache(entriesByCypherContentId, cypherContentId, result);
+        }
+        return result;
+    }
+
+    private Set<LicenseManagementEntry> findEntriesByCypherContentId(String cypherContentId) {
+        Set<LicenseManagementEntry> result = new HashSet<>();
+        for (LicenseManagementEntry entry : entries) {
+            String plainContentId = decryptWithPassword(entry, cypherContentId);
+            if (contentIds.get(entry).equals(plainContentId)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The plain license id of an entry of this registry
+     */
+    public String getLicenseId(LicenseManagementEntry entry) {
+        return licenseIds.get(entry);
+    }
+
+    /**
+     * @return The plain content id of an entry of this registry
+     */
+    public String getContentId(LicenseManagementEntry entry) {
+        return contentIds.get(entry);
+    }
+
+    /**
+     * @return The expiration date of an entry of this registry
+     */
+    public LocalDate getValidUntil(LicenseManagementEntry entry) {
+        return validUntilDates.get(entry);
+    }
+
+    private String decryptWithPassword(LicenseManagementEntry entry, String cypherText) {
+        try {
+            return cryptoService.decryptLicenseRestrictedProperty(passwords.get(entry),
+                    cypherText);
+        } catch (EncryptionException e) {
+            // this is try & error, so fails are ok here
+            if (log.isDebugEnabled()) {
+                log.debug("Could not decrypt value: " + cypherText + " with license: "
+                        + entry.getLicenseID());
+            }
+            return null;
+        }
+    }
+
+    private static Set<LicenseManagementEntry> unmodifiable(Set<LicenseManagementEntry> set) {
+        return (set == null) ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    private static <V> void cache(ConcurrentMap<String, V> cache, String key, V value) {
+        if (cache.size() < MAX_CACHED_LOOKUPS) {
+            cache.putIfAbsent(key, value);
+        }
+    }
+
+}
@@ -17,7 +17,11 @@
  ******************************************************************************/
 package sernet.verinice.service;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -28,8 +32,11 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.MultiSearchResponse.Item;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.tophits.TopHits;
 import org.elasticsearch.search.highlight.HighlightField;
 
 import sernet.gs.service.ServerInitializer;
@@ -47,12 +54,26 @@ import sernet.verinice.model.search.VeriniceSearchResult;
 import sernet.verinice.model.search.VeriniceSearchResultRow;
 import sernet.verinice.model.search.VeriniceSearchResultTable;
 import sernet.verinice.search.IElementSearchDao;
+import sernet.verinice.search.ISearchDao;
+import sernet.verinice.search.IndexQueue;
 import sernet.verinice.search.Indexer;
 
 public class SearchService implements ISearchService {
 
     private static final Logger LOG = Logger.getLogger(SearchService.class);
 
+    /**
+     * Maximum time in milliseconds a query waits for pending changes to be
+     * written to the index
+     */
+    private static final long INDEX_WAIT_TIMEOUT = 5000L;
+
+    /**
+     * Maximum number of hits per element type loaded by a search in all
+     * types, types with more hits are searched separately
+     */
+    private static final int MAX_HITS_PER_TYPE = 1000;
+
     @Resource(name = "searchIndexer")
     protected Indexer searchIndexer;
 
@@ -62,6 +83,9 @@ public class SearchService implements ISearchService {
     @Resource(name = "jsonBuilder")
     protected IJsonBuilder jsonBuilder;
 
+    @Resource(name = "indexQueue")
+    protected IndexQueue indexQueue;
+
     private volatile boolean reindexRunning = false;
 
     /**
@@ -93,6 +117,7 @@ public class SearchService implements ISearchService {
     public VeriniceSearchResult query(VeriniceQuery query, String elementTypeId) {
         long startTime = System.currentTimeMillis();
         ServerInitializer.inheritVeriniceContextState();
+        awaitPendingIndexChanges();
         VeriniceSearchResult results = new VeriniceSearchResult();
         if (StringUtils.isNotEmpty(elementTypeId)) {
             results.addVeriniceSearchTable(processSearchResponse(elementTypeId,
@@ -102,9 +127,15 @@ public class SearchService implements ISearchService {
                         + "):\t" + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
             }
         } else {
-            for (EntityType type : HUITypeFactory.getInstance().getAllEntityTypes()) {
-                results.addVeriniceSearchTable(processSearchResponse(type.getId(),
-                        searchDao.find(type.getId(), query), query.getLimit()));
+            int hitsPerType = getHitsPerType(query);
+            SearchResponse response = searchDao.findInAllTypes(query, hitsPerType);
+            if (response != null) {
+                processAllTypesResponse(results, response, query, hitsPerType);
+            } else {
+                for (EntityType type : HUITypeFactory.getInstance().getAllEntityTypes()) {
+                    results.addVeriniceSearchTable(processSearchResponse(type.getId(),
+                            searchDao.find(type.getId(), query), query.getLimit()));
+                }
             }
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Time for executing query( " + query.getQuery() + ", <allTypeIds>):\t"
@@ -114,6 +145,47 @@ public class SearchService implements ISearchService {
         return results;
     }
 
+    /**
+     * Waits until changes made before this query are visible in the index.
+     */
+    private void awaitPendingIndexChanges() {
+        if (indexQueue != null && !indexQueue.awaitIndexed(INDEX_WAIT_TIMEOUT)) {
+            LOG.warn("Pending changes not written to index after " + INDEX_WAIT_TIMEOUT
+                    + " ms, results may be incomplete.");
+        }
+    }
+
+    private static int getHitsPerType(VeriniceQuery query) {
+        int limit = query.getLimit();
+        return (limit > 0 && limit < MAX_HITS_PER_TYPE) ? limit : MAX_HITS_PER_TYPE;
+    }
+
+    /**
+     * Creates the result tables from the buckets of a search in all types.
+     * Types with more hits than returned in their bucket are searched again
+     * separately if the limit of the query allows more hits.
+     */
+    private void processAllTypesResponse(VeriniceSearchResult results, SearchResponse response,
+            VeriniceQuery query, int hitsPerType) {
+        Terms byType = response.getAggregations().get(ISearchDao.AGGREGATION_BY_TYPE);
+        HUITypeFactory typeFactory = HUITypeFactory.getInstance();
+        for (Terms.Bucket bucket : byType.getBuckets()) {
+            String typeId = bucket.getKey();
+            if (typeFactory.getEntityType(typeId) == null) {
+                LOG.warn("Unknown element type in search index: " + typeId);
+                continue;
+            }
+            if (bucket.getDocCount() > hitsPerType && query.getLimit() > hitsPerType) {
+                results.addVeriniceSearchTable(processSearchResponse(typeId,
+                        searchDao.find(typeId, query), query.getLimit()));
+            } else {
+                TopHits topHits = bucket.getAggregations().get(ISearchDao.AGGREGATION_TOP_HITS);
+                results.addVeriniceSearchTable(createResultTable(typeId,
+                        Arrays.asList(topHits.getHits().getHits()), query.getLimit()));
+            }
+        }
+    }
+
     private String getEntityName(String typeID) {
         ServerInitializer.inheritVeriniceContextState();
         return HUITypeFactory.getInstance().getEntityType(typeID).getName();
@@ -122,14 +194,25 @@ public class SearchService implements ISearchService {
     private VeriniceSearchResultTable processSearchResponse(String elementTypeId,
             MultiSearchResponse msr, int limit) {
         long startTime = System.currentTimeMillis();
-        List<SearchHit> hitList = createHitList(msr, limit);
+        VeriniceSearchResultTable results = createResultTable(elementTypeId,
+                createHitList(msr, limit), limit);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Time for executing processSearchResponse:\t"
+                    + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
+        }
+        return results;
+    }
+
+    private VeriniceSearchResultTable createResultTable(String elementTypeId,
+            List<SearchHit> hitList, int limit) {
         String identifier = "";
         VeriniceSearchResultTable results = new VeriniceSearchResultTable(elementTypeId,
                 getEntityName(elementTypeId), getPropertyIds(elementTypeId));
         results.setLimit(limit);
+        Map<String, String> translations = getHuiTranslations(elementTypeId);
         for (SearchHit hit : hitList) {
             identifier = hit.getId();
-            Occurence occurence = createOccurence(elementTypeId, hit);
+            Occurence occurence = createOccurence(elementTypeId, hit, translations);
             VeriniceSearchResultRow result = new VeriniceSearchResultRow(results, identifier,
                     occurence);
 
@@ -141,21 +224,18 @@ public class SearchService implements ISearchService {
             results.addVeriniceSearchResultRow(result);
 
         }
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("Time for executing processSearchResponse:\t"
-                    + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
-        }
         return results;
     }
 
-    private Occurence createOccurence(String elementTypeId, SearchHit hit) {
+    private Occurence createOccurence(String elementTypeId, SearchHit hit,
+            Map<String, String> translations) {
         Occurence occurence = new Occurence();
         for (Entry<String, HighlightField> entry : hit.getHighlightFields().entrySet()) {
 
             String fieldName = entry.getKey();
             boolean translateFieldName = !ES_FIELD_TITLE.equals(fieldName);
             if (translateFieldName) {
-                fieldName = getHuiTranslation(entry.getKey(), elementTypeId);
+                fieldName = getHuiTranslation(entry.getKey(), elementTypeId, translations);
             }
 
             for (Text textFragment : entry.getValue().fragments()) {
@@ -179,15 +259,28 @@ public class SearchService implements ISearchService {
         return hits.collect(Collectors.toList());
     }
 
-    private String getHuiTranslation(String id, String entityType) {
-        for (PropertyType type : HUITypeFactory.getInstance().getEntityType(entityType)
-                .getAllPropertyTypes()) {
-            if (type.getId().equals(id)) {
-                return type.getName();
-            }
+    private String getHuiTranslation(String id, String entityType,
+            Map<String, String> translations) {
+        String name = translations.get(id);
+        if (name == null) {
+            LOG.warn("No i18n found for id:\t" + id + "\t of type:\t" + entityType);
+            return id;
+        }
+        return name;
+    }
+
+    /**
+     * @return a map with the translated names of all property types of an
+     *         entity type, key is the property type id
+     */
+    private Map<String, String> getHuiTranslations(String entityType) {
+        Collection<PropertyType> propertyTypes = HUITypeFactory.getInstance()
+                .getEntityType(entityType).getAllPropertyTypes();
+        Map<String, String> translations = new HashMap<>(propertyTypes.size());
+        for (PropertyType type : propertyTypes) {
+            translations.put(type.getId(), type.getName());
         }
-        LOG.warn("No i18n found for id:\t" + id + "\t of type:\t" + entityType);
-        return id;
+        return translations;
     }
 
     private String[] getPropertyIds(String typeID) {
@@ -200,7 +293,7 @@ public class SearchService implements ISearchService {
      */
     @Override
     public void reindex() {
-        searchDao.clear();
+        searchIndexer.clear();
         searchIndexer.blockingIndexing();
     }
 
@@ -271,6 +364,14 @@ public class SearchService implements ISearchService {
         this.jsonBuilder = jsonBuilder;
     }
 
+    public IndexQueue getIndexQueue() {
+        return indexQueue;
+    }
+
+    public void setIndexQueue(IndexQueue indexQueue) {
+        this.indexQueue = indexQueue;
+    }
+
     public boolean isReindexRunning() {
         return reindexRunning;
     }
@@ -208,8 +208,8 @@ public class ChartService extends GenericChartService {
         graphElementLoader.setTypeIds(
                 new String[] { Organization.TYPE_ID, ControlGroup.TYPE_ID, Control.TYPE_ID });
         graphElementLoader.setScopeId(scopeId);
-        VeriniceGraph veriniceGraph = graphService
-                .createDirectedGraph(Collections.singletonList(graphElementLoader), false);
+        VeriniceGraph veriniceGraph = graphService.createCachedDirectedGraph(
+                Collections.singletonList(graphElementLoader), null, false);
         ControlGroup controlGroup = (ControlGroup) veriniceGraph.getElement(catalogId);
 
         AggregateIsmsControlsStrategy strategy = new AggregateIsmsControlsStrategyImpl(
@@ -235,8 +235,8 @@ public class ChartService extends GenericChartService {
         graphElementLoader.setTypeIds(
                 new String[] { Organization.TYPE_ID, ControlGroup.TYPE_ID, Control.TYPE_ID });
 
-        VeriniceGraph veriniceGraph = graphService
-                .createDirectedGraph(Collections.singletonList(graphElementLoader), false);
+        VeriniceGraph veriniceGraph = graphService.createCachedDirectedGraph(
+                Collections.singletonList(graphElementLoader), null, false);
 
         List<ControlGroup> catalogs = menuService.getCatalogs();
         List<ControlGroup> catalogsOfScopeId = new ArrayList<>();
@@ -262,7 +262,8 @@ public class ChartService extends GenericChartService {
         if (scopeId != null) {
             graphElementLoader.setScopeId(scopeId);
         }
-        return graphService.create(Collections.singletonList(graphElementLoader), false);
+        return graphService.createCached(Collections.singletonList(graphElementLoader), null,
+                false);
     }
 
     private Integer checkScopeId(String scopeId) {
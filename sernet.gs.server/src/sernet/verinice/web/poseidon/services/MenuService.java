@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,7 +37,6 @@ import org.apache.log4j.Logger;
 import sernet.gs.service.NumericStringComparator;
 import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.graph.GraphElementLoader;
-import sernet.verinice.interfaces.graph.IElementFilter;
 import sernet.verinice.interfaces.graph.IGraphService;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
 import sernet.verinice.model.bsi.ITVerbund;
@@ -175,30 +175,29 @@ public class MenuService implements Serializable {
         GraphElementLoader graphElementLoader = new GraphElementLoader();
         graphElementLoader.setTypeIds(
                 new String[] { ITVerbund.TYPE_ID, Organization.TYPE_ID, ControlGroup.TYPE_ID });
-        graphElementLoader.setElementFilter(new IElementFilter() {
-
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public boolean check(CnATreeElement element) {
-
-                if (element instanceof ControlGroup) {
-                    ControlGroup controlGroup = (ControlGroup) element;
-                    String property = controlGroup.getEntity()
-                            .getPropertyValue(ControlGroup.PROP_IS_CATALOG);
-                    return "1".equals(property);
-                }
-
-                return true;
-            }
-        });
 
         VeriniceGraph veriniceGraph = graphService
-                .create(Collections.singletonList(graphElementLoader), false);
+                .createCached(Collections.singletonList(graphElementLoader), null, false);
 
         itNetworks = sortByTitle(veriniceGraph.getElements(ITVerbund.class));
         organizations = sortByTitle(veriniceGraph.getElements(Organization.class));
-        catalogs = sortByTitle(veriniceGraph.getElements(ControlGroup.class));
+        catalogs = sortByTitle(getCatalogs(veriniceGraph.getElements(ControlGroup.class)));
+    }
+
+    /**
+     * Returns the control groups which are catalogs. The catalog filter is not
+     * set on the graph loader to load the menu data from the graph cache.
+     */
+    private static Set<ControlGroup> getCatalogs(Set<ControlGroup> controlGroups) {
+        Set<ControlGroup> catalogSet = new HashSet<>();
+        for (ControlGroup controlGroup : controlGroups) {
+            String property = controlGroup.getEntity()
+                    .getPropertyValue(ControlGroup.PROP_IS_CATALOG);
+            if ("1".equals(property)) {
+                catalogSet.add(controlGroup);
+            }
+        }
+        return catalogSet;
     }
 
     private <T extends CnATreeElement> List<T> sortByTitle(Set<T> cnATreeElements) {
@@ -0,0 +1,128 @@
+package sernet.verinice.graph;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.graph.GraphCache.CachedGraph;
+import sernet.verinice.graph.GraphCache.Changes;
+import sernet.verinice.interfaces.graph.UndirectedVeriniceGraph;
+import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Test for class {@link GraphCache}.
+ */
+public class GraphCacheTest {
+
+    private GraphCache graphCache;
+
+    private int lastDbId = 0;
+
+    @Before
+    public void setUp() {
+        graphCache = new GraphCache();
+        graphCache.setMaxSize(5);
+    }
+
+    @Test
+    public void testGraphIsReturnedUntilInvalidated() {
+        CachedGraph cachedGraph = createCachedGraph(2);
+        graphCache.put("a", cachedGraph);
+        assertSame(cachedGraph, graphCache.get("a"));
+        graphCache.invalidate();
+        assertNull(graphCache.get("a"));
+    }
+
+    @Test
+    public void testGraphCreatedBeforeInvalidationIsNotCached() {
+        CachedGraph cachedGraph = createCachedGraph(2);
+        graphCache.invalidate();
+        graphCache.put("a", cachedGraph);
+        assertNull(graphCache.get("a"));
+    }
+
+    @Test
+    public void testChangedElementInvalidatesGraphsOfItsScope() {
+        graphCache.put("a", createCachedGraph(1, Collections.singleton(1)));
+        graphCache.put("b", createCachedGraph(1, Collections.singleton(2)));
+        graphCache.put("all", createCachedGraph(1, null));
+        Changes changes = new Changes();
+        changes.addElement(null, 1);
+        graphCache.invalidate(changes);
+        assertNull(graphCache.get("a"));
+        assertNotNull(graphCache.get("b"));
+        assertNull(graphCache.get("all"));
+    }
+
+    @Test
+    public void testChangedLinkInvalidatesGraphsContainingTheElement() {
+        CachedGraph cachedGraph = createCachedGraph(1, Collections.singleton(1));
+        Integer dbId = cachedGraph.getGraph().getElements().iterator().next().getDbId();
+        graphCache.put("a", cachedGraph);
+        graphCache.put("b", createCachedGraph(1, Collections.singleton(1)));
+        Changes changes = new Changes();
+        changes.addElementId(dbId);
+        graphCache.invalidate(changes);
+        assertNull(graphCache.get("a"));
+        assertNotNull(graphCache.get("b"));
+    }
+
+    @Test
+    public void testGraphCreatedBeforeScopedInvalidationIsNotCached() {
+        CachedGraph cachedGraph = createCachedGraph(1, Collections.singleton(1));
+        Changes changes = new Changes();
+        changes.addElement(null, 2);
+        graphCache.invalidate(changes);
+        graphCache.put("a", cachedGraph);
+        assertNull(graphCache.get("a"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedGraphIsEvicted() {
+        graphCache.put("a", createCachedGraph(2));
+        graphCache.put("b", createCachedGraph(2));
+        graphCache.get("a");
+        graphCache.put("c", createCachedGraph(2));
+        assertNotNull(graphCache.get("a"));
+        assertNull(graphCache.get("b"));
+        assertNotNull(graphCache.get("c"));
+    }
+
+    @Test
+    public void testGraphLargerThanMaxSizeIsNotCached() {
+        graphCache.put("a", createCachedGraph(6));
+        assertNull(graphCache.get("a"));
+    }
+
+    private CachedGraph createCachedGraph(int numberOfElements) {
+        return createCachedGraph(numberOfElements, null);
+    }
+
+    private CachedGraph createCachedGraph(int numberOfElements, Collection<Integer> scopeIds) {
+        VeriniceGraph graph = new UndirectedVeriniceGraph();
+        for (int i = 0; i < numberOfElements; i++) {
+            TestElement element = new TestElement();
+            element.setDbId(++lastDbId);
+            graph.addVertex(element);
+        }
+        return new CachedGraph(graph, Collections.emptyMap(), scopeIds,
+                graphCache.getVersion());
+    }
+
+    private static class TestElement extends CnATreeElement {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getTypeId() {
+            return "test";
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package sernet.verinice.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.Filter;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.hibernate.impl.FilterImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.orm.hibernate3.HibernateCallback;
+
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.graph.Edge;
+import sernet.verinice.interfaces.graph.IGraphElementLoader;
+import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Tests that users with different permissions get their own copy of a graph
+ * cached by {@link GraphService}.
+ */
+public class GraphServicePermissionViewTest {
+
+    private static final String ROLE_A = "role-a";
+    private static final String ROLE_B = "role-b";
+
+    private static final Integer SCOPE_ID = 1;
+
+    private final Set<Object> currentRoles = new HashSet<>();
+
+    private GraphService graphService;
+
+    private IGraphElementLoader loader;
+
+    private CnATreeElement elementA;
+    private CnATreeElement elementB;
+    private CnATreeElement elementAB;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        elementA = createElement(1);
+        elementB = createElement(2);
+        elementAB = createElement(3);
+        elementA.getChildren().add(elementAB);
+
+        List<Object[]> readRoles = Arrays.asList(new Object[] { 1, ROLE_A },
+                new Object[] { 2, ROLE_B }, new Object[] { 3, ROLE_A },
+                new Object[] { 3, ROLE_B });
+        Query query = mock(Query.class);
+        when(query.setParameterList(anyString(), anyCollection())).thenReturn(query);
+        when(query.list()).thenReturn(readRoles);
+
+        Map<String, Object> filterParameters = new HashMap<>();
+        filterParameters.put("currentRoles", currentRoles);
+        FilterImpl userAccessReadFilter = mock(FilterImpl.class);
+        when(userAccessReadFilter.getParameters()).thenReturn(filterParameters);
+
+        Session session = mock(Session.class);
+        when(session.createQuery(anyString())).thenReturn(query);
+        when(session.getEnabledFilter("userAccessReadFilter")).thenReturn(userAccessReadFilter);
+        when(session.enableFilter(anyString())).thenReturn(mock(Filter.class));
+
+        IBaseDao<CnATreeElement, Long> elementDao = mock(IBaseDao.class);
+        when(elementDao.executeCallback(any(HibernateCallback.class)))
+                .thenAnswer(invocation -> ((HibernateCallback) invocation.getArguments()[0])
+                        .doInHibernate(session));
+
+        loader = mock(IGraphElementLoader.class);
+        when(loader.getCacheKey()).thenReturn("test");
+        when(loader.getScopeIds()).thenReturn(new Integer[] { SCOPE_ID });
+        when(loader.loadElements()).thenReturn(Arrays.asList(elementA, elementB, elementAB));
+
+        graphService = new GraphService();
+        graphService.setCnaTreeElementDao(elementDao);
+        graphService.setGraphCache(new GraphCache());
+    }
+
+    @Test
+    public void testUsersGetViewsWithTheirReadableElements() {
+        VeriniceGraph graphA = createCachedGraph(ROLE_A);
+        VeriniceGraph graphB = createCachedGraph(ROLE_B);
+
+        verify(loader, times(1)).loadElements();
+        assertEquals(new HashSet<>(Arrays.asList(1, 3)), getDbIds(graphA));
+        assertEquals(new HashSet<>(Arrays.asList(2, 3)), getDbIds(graphB));
+        assertEquals(1, graphA.getGraph().edgeSet().size());
+        assertEquals(0, graphB.getGraph().edgeSet().size());
+    }
+
+    @Test
+    public void testUsersDoNotShareElements() {
+        VeriniceGraph graphA = createCachedGraph(ROLE_A);
+        VeriniceGraph graphB = createCachedGraph(ROLE_B);
+
+        CnATreeElement elementOfA = getElement(graphA, 3);
+        CnATreeElement elementOfB = getElement(graphB, 3);
+        assertNotSame(elementAB, elementOfA);
+        assertNotSame(elementAB, elementOfB);
+        assertNotSame(elementOfA, elementOfB);
+
+        elementOfA.setScopeId(SCOPE_ID + 1);
+        assertEquals(SCOPE_ID, elementOfB.getScopeId());
+        assertEquals(SCOPE_ID, elementAB.getScopeId());
+        assertEquals(SCOPE_ID, getElement(createCachedGraph(ROLE_A), 3).getScopeId());
+    }
+
+    @Test
+    public void testEdgesReferenceTheElementsOfTheView() {
+        VeriniceGraph graphA = createCachedGraph(ROLE_A);
+
+        Edge edge = graphA.getGraph().edgeSet().iterator().next();
+        assertSame(getElement(graphA, 1), edge.getSource());
+        assertSame(getElement(graphA, 3), edge.getTarget());
+    }
+
+    private VeriniceGraph createCachedGraph(String role) {
+        currentRoles.clear();
+        currentRoles.add(role);
+        return graphService.createCached(Collections.singletonList(loader), null, false);
+    }
+
+    private static Set<Integer> getDbIds(VeriniceGraph graph) {
+        return graph.getElements().stream().map(CnATreeElement::getDbId)
+                .collect(Collectors.toSet());
+    }
+
+    private static CnATreeElement getElement(VeriniceGraph graph, Integer dbId) {
+        CnATreeElement element = graph.getElements().stream()
+                .filter(e -> dbId.equals(e.getDbId())).findFirst().orElse(null);
+        assertNotNull("Element not found in graph, db id: " + dbId, element);
+        return element;
+    }
+
+    private static CnATreeElement createElement(Integer dbId) {
+        TestElement element = new TestElement();
+        element.setDbId(dbId);
+        element.setScopeId(SCOPE_ID);
+        return element;
+    }
+
+    private static class TestElement extends CnATreeElement {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getTypeId() {
+            return "test";
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package sernet.verinice.interfaces.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jgrapht.traverse.BreadthFirstIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Test for class {@link CompactVeriniceGraph}. The results are compared with
+ * the JGraphT based graph implementations.
+ */
+public class CompactVeriniceGraphTest {
+
+    private static final String ASSET = "asset";
+    private static final String CONTROL = "control";
+    private static final String REL = "rel_asset_control";
+
+    private Map<Integer, CnATreeElement> elements;
+
+    private List<Integer> loadedDbIds;
+
+    @Before
+    public void setUp() {
+        elements = new HashMap<>();
+        elements.put(1, new TestElement(1, ASSET, 0));
+        elements.put(2, new TestElement(2, ASSET, 1));
+        elements.put(3, new TestElement(3, CONTROL, 1));
+        elements.put(4, new TestElement(4, CONTROL, 0));
+        loadedDbIds = new ArrayList<>();
+    }
+
+    @Test
+    public void testUndirectedGraphEqualsPseudograph() {
+        VeriniceGraph expected = fill(new UndirectedVeriniceGraph());
+        CompactVeriniceGraph graph = createCompactGraph(false);
+        assertSameResults(expected, graph);
+    }
+
+    @Test
+    public void testDirectedGraphEqualsDirectedMultigraph() {
+        VeriniceGraph expected = fill(new DirectedVeriniceGraph());
+        CompactVeriniceGraph graph = createCompactGraph(true);
+        assertSameResults(expected, graph);
+    }
+
+    @Test
+    public void testIncomingEdgesOfNewDirectedGraph() {
+        VeriniceGraph expected = fill(new DirectedVeriniceGraph());
+        CompactVeriniceGraph graph = createCompactGraph(true);
+        // no other method was called, the adjacency arrays are not created yet
+        assertEquals(expected.getGraph().incomingEdgesOf(elements.get(2)),
+                graph.getGraph().incomingEdgesOf(elements.get(2)));
+        graph = createCompactGraph(true);
+        assertEquals(expected.getGraph().inDegreeOf(elements.get(4)),
+                graph.getGraph().inDegreeOf(elements.get(4)));
+    }
+
+    @Test
+    public void testElementsAreLoadedWhenAccessed() {
+        CompactVeriniceGraph graph = createCompactGraph(false);
+        assertEquals(0, loadedDbIds.size());
+        graph.getElements(CONTROL);
+        assertEquals(2, loadedDbIds.size());
+        graph.getLinkTargets(elements.get(3));
+        // only element 1 is loaded additionally
+        assertEquals(3, loadedDbIds.size());
+    }
+
+    @Test
+    public void testDuplicateEdgesAreIgnored() {
+        CompactVeriniceGraph graph = createCompactGraph(false);
+        graph.addEdge(2, 4, REL, null);
+        assertEquals(3, graph.getEdgeCount());
+    }
+
+    @Test
+    public void testSerializedGraphContainsElements() throws Exception {
+        CompactVeriniceGraph graph = createCompactGraph(false);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(graph);
+        }
+        VeriniceGraph copy;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (VeriniceGraph) in.readObject();
+        }
+        assertSameResults(fill(new UndirectedVeriniceGraph()), copy);
+    }
+
+    private void assertSameResults(VeriniceGraph expected, VeriniceGraph graph) {
+        assertEquals(expected.getElements(), new HashSet<>(graph.getElements()));
+        assertEquals(expected.getElements(CONTROL), graph.getElements(CONTROL));
+        assertEquals(expected.getGraph().edgeSet(), new HashSet<>(graph.getGraph().edgeSet()));
+        for (CnATreeElement element : expected.getElements()) {
+            assertEquals(expected.getLinkTargets(element), graph.getLinkTargets(element));
+            assertEquals(expected.getLinkTargets(element, REL),
+                    graph.getLinkTargets(element, REL));
+            assertEquals(expected.getLinkTargetsByElementType(element, CONTROL),
+                    graph.getLinkTargetsByElementType(element, CONTROL));
+            assertEquals(expected.getEdgesByElementType(element, ASSET),
+                    graph.getEdgesByElementType(element, ASSET));
+            assertEquals(expected.getChildren(element), graph.getChildren(element));
+            assertEquals(expected.getParent(element), graph.getParent(element));
+            assertEquals(expected.getGraph().degreeOf(element),
+                    graph.getGraph().degreeOf(element));
+            assertEquals(expected.getGraph().incomingEdgesOf(element),
+                    graph.getGraph().incomingEdgesOf(element));
+            assertEquals(expected.getGraph().inDegreeOf(element),
+                    graph.getGraph().inDegreeOf(element));
+            assertEquals(expected.getGraph().outgoingEdgesOf(element),
+                    graph.getGraph().outgoingEdgesOf(element));
+            assertEquals(expected.getGraph().outDegreeOf(element),
+                    graph.getGraph().outDegreeOf(element));
+            assertEquals(traverse(expected, element), traverse(graph, element));
+        }
+    }
+
+    private static Set<CnATreeElement> traverse(VeriniceGraph graph, CnATreeElement root) {
+        Set<CnATreeElement> visited = new HashSet<>();
+        BreadthFirstIterator<CnATreeElement, Edge> iterator = new BreadthFirstIterator<>(
+                graph.getGraph(), root);
+        while (iterator.hasNext()) {
+            visited.add(iterator.next());
+        }
+        return visited;
+    }
+
+    private VeriniceGraph fill(VeriniceGraph graph) {
+        for (CnATreeElement element : elements.values()) {
+            graph.addVertex(element);
+        }
+        graph.addEdge(new Edge(elements.get(1), elements.get(2)));
+        graph.addEdge(new Edge(elements.get(1), elements.get(3)));
+        graph.addEdge(new Edge(elements.get(2), elements.get(4), REL));
+        return graph;
+    }
+
+    private CompactVeriniceGraph createCompactGraph(boolean directed) {
+        CompactVeriniceGraph graph = new CompactVeriniceGraph(directed, this::loadElements);
+        for (CnATreeElement element : elements.values()) {
+            graph.addVertex(element.getDbId(), element.getTypeId());
+        }
+        graph.addEdge(1, 2, Edge.RELATIVES, null);
+        graph.addEdge(1, 3, Edge.RELATIVES, null);
+        graph.addEdge(2, 4, REL, null);
+        return graph;
+    }
+
+    private List<CnATreeElement> loadElements(Collection<Integer> dbIds) {
+        List<CnATreeElement> loaded = new ArrayList<>();
+        for (Integer dbId : dbIds) {
+            loadedDbIds.add(dbId);
+            loaded.add(elements.get(dbId));
+        }
+        return loaded;
+    }
+
+    private static class TestElement extends CnATreeElement {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String typeId;
+
+        TestElement(int dbId, String typeId, int parentId) {
+            super();
+            this.typeId = typeId;
+            setDbId(dbId);
+            setParentId(parentId);
+        }
+
+        @Override
+        public String getTypeId() {
+            return typeId;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package sernet.verinice.model.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Test;
+
+import sernet.hui.common.connect.Entity;
+import sernet.verinice.interfaces.AbstractReevaluator;
+import sernet.verinice.interfaces.IReevaluator;
+import sernet.verinice.model.iso27k.Asset;
+import sernet.verinice.service.test.ContextConfiguration;
+
+public class ProtectionRequirementsPropagationTest extends ContextConfiguration {
+
+    /**
+     * <pre>
+     * source -> a -> b -> c -> a
+     * </pre>
+     */
+    @Test
+    public void valuesArePropagatedIntoCycle() {
+        TestElement source = new TestElement("source", false);
+        source.values.setConfidentiality(3);
+        source.values.setIntegrity(2);
+        source.values.setAvailability(1);
+        TestElement a = new TestElement("a", true);
+        TestElement b = new TestElement("b", true);
+        TestElement c = new TestElement("c", true);
+        link(source, a);
+        link(a, b);
+        link(b, c);
+        link(c, a);
+
+        Set<CnATreeElement> changed = ProtectionRequirementsPropagation
+                .propagate(Collections.singleton(source));
+
+        assertEquals(3, changed.size());
+        assertTrue(changed.containsAll(Arrays.asList(a, b, c)));
+        for (TestElement element : Arrays.asList(a, b, c)) {
+            assertEquals(3, element.values.getConfidentiality());
+            assertEquals(2, element.values.getIntegrity());
+            assertEquals(1, element.values.getAvailability());
+        }
+    }
+
+    /**
+     * <pre>
+     * a -> b -> c -> a
+     * </pre>
+     */
+    @Test
+    public void cycleWithoutBottomNodeIsEvaluated() {
+        TestElement a = new TestElement("a", true);
+        TestElement b = new TestElement("b", false);
+        TestElement c = new TestElement("c", true);
+        b.values.setConfidentiality(4);
+        link(a, b);
+        link(b, c);
+        link(c, a);
+
+        Set<CnATreeElement> changed = ProtectionRequirementsPropagation
+                .propagate(Collections.singleton(b));
+
+        assertEquals(2, changed.size());
+        assertEquals(4, a.values.getConfidentiality());
+        assertEquals(4, b.values.getConfidentiality());
+        assertEquals(4, c.values.getConfidentiality());
+    }
+
+    /**
+     * <pre>
+     * source -> a -> b -> c -> a
+     * </pre>
+     */
+    @Test(timeout = 10000)
+    public void worklistTerminatesIfValuesDoNotSettle() {
+        TestElement source = new TestElement("source", false);
+        source.values.setConfidentiality(1);
+        TestElement a = new TestElement("a", true);
+        TestElement b = new TestElement("b", true);
+        TestElement c = new TestElement("c", true);
+        a.values = new UnstableValues();
+        b.values = new UnstableValues();
+        c.values = new UnstableValues();
+        link(source, a);
+        link(a, b);
+        link(b, c);
+        link(c, a);
+
+        ProtectionRequirementsPropagation.propagate(Collections.singleton(source));
+
+        // every element of the cycle is evaluated at most once for each
+        // element of the cycle
+        int evaluations = ((UnstableValues) a.values).updates
+                + ((UnstableValues) b.values).updates + ((UnstableValues) c.values).updates;
+        assertTrue("Evaluations: " + evaluations, evaluations > 3);
+        assertTrue("Evaluations: " + evaluations, evaluations <= 3 * 3);
+    }
+
+    private static void link(TestElement dependant, TestElement dependency) {
+        new CnALink(dependant, dependency, null, null);
+    }
+
+    @SuppressWarnings("serial")
+    private static class TestElement extends CnATreeElement {
+
+        private static int nextDbId = 1;
+
+        private final String title;
+        private final boolean deduced;
+        private Values values = new Values();
+
+        TestElement(String title, boolean deduced) {
+            this.title = title;
+            this.deduced = deduced;
+            setDbId(nextDbId++);
+            setEntity(new Entity(Asset.TYPE_ID));
+        }
+
+        @Override
+        public String getTypeId() {
+            return Asset.TYPE_ID;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public IReevaluator getProtectionRequirementsProvider() {
+            return values;
+        }
+
+        @Override
+        public ILinkChangeListener getLinkChangeListener() {
+            return new AbstractLinkChangeListener() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public boolean isInherited(CnALink linkUp) {
+                    return true;
+                }
+
+                @Override
+                public boolean isConfidentialityDeduced() {
+                    return deduced;
+                }
+
+                @Override
+                public boolean isIntegrityDeduced() {
+                    return deduced;
+                }
+
+                @Override
+                public boolean isAvailabilityDeduced() {
+                    return deduced;
+                }
+            };
+        }
+    }
+
+    private static class Values extends AbstractReevaluator {
+        private int confidentiality;
+        private int integrity;
+        private int availability;
+
+        @Override
+        public int getConfidentiality() {
+            return confidentiality;
+        }
+
+        @Override
+        public int getIntegrity() {
+            return integrity;
+        }
+
+        @Override
+        public int getAvailability() {
+            return availability;
+        }
+
+        @Override
+        public void setConfidentiality(int i) {
+            confidentiality = i;
+        }
+
+        @Override
+        public void setIntegrity(int i) {
+            integrity = i;
+        }
+
+        @Override
+        public void setAvailability(int i) {
+            availability = i;
+        }
+    }
+
+    /**
+     * Stores a higher confidentiality than the one set, so the values in a
+     * cycle never settle.
+     */
+    private static class UnstableValues extends Values {
+        private int updates;
+
+        @Override
+        public void setConfidentiality(int i) {
+            updates++;
+            super.setConfidentiality(i + 1);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package sernet.verinice.search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for class {@link BulkIndexBuffer}.
+ */
+public class BulkIndexBufferTest {
+
+    private static final String JSON = "{\"title\":\"0123456789\"}";
+
+    private RecordingSearchDao searchDao;
+
+    private IndexingMetrics metrics;
+
+    private BulkIndexBuffer buffer;
+
+    @Before
+    public void setUp() {
+        searchDao = new RecordingSearchDao();
+        metrics = new IndexingMetrics();
+        // a bulk request is sent with the third document
+        buffer = new BulkIndexBuffer(searchDao, null, 3L * JSON.length(), metrics);
+    }
+
+    @Test
+    public void testBulkRequestIsSentWhenMaxSizeIsReached() {
+        buffer.add("a", JSON, "hash-a");
+        buffer.add("b", JSON, "hash-b");
+        assertEquals(0, searchDao.getBulkSizes().size());
+        buffer.add("c", JSON, "hash-c");
+        assertEquals(1, searchDao.getBulkSizes().size());
+        assertEquals(Integer.valueOf(3), searchDao.getBulkSizes().get(0));
+    }
+
+    @Test
+    public void testFlushSendsRemainingDocuments() {
+        for (int i = 0; i < 4; i++) {
+            buffer.add(String.valueOf(i), JSON, "hash");
+        }
+        buffer.flush();
+        buffer.flush();
+        assertEquals(2, searchDao.getBulkSizes().size());
+        assertEquals(Integer.valueOf(1), searchDao.getBulkSizes().get(1));
+        assertEquals(4, metrics.getDocuments());
+        assertEquals(4L * JSON.length(), metrics.getBytes());
+        assertEquals(2, metrics.getBulkRequests());
+    }
+
+    @Test
+    public void testHashesOfRejectedDocumentsAreNotSaved() {
+        Map<String, String> savedHashes = new HashMap<>();
+        IndexStateDao indexStateDao = new IndexStateDao() {
+            @Override
+            public void saveContentHashes(Map<String, String> uuidToHash) {
+                savedHashes.putAll(uuidToHash);
+            }
+        };
+        buffer = new BulkIndexBuffer(searchDao, indexStateDao, 3L * JSON.length(), metrics);
+        searchDao.setRejectedIds(Collections.singleton("b"));
+        buffer.add("a", JSON, "hash-a");
+        buffer.add("b", JSON, "hash-b");
+        buffer.flush();
+        assertEquals(Collections.singletonMap("a", "hash-a"), savedHashes);
+        assertEquals(Collections.singleton("a"), searchDao.getIndexed().keySet());
+    }
+}
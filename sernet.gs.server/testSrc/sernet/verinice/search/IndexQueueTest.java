@@ -0,0 +1,151 @@
+package sernet.verinice.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.transport.NoNodeAvailableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for class {@link IndexQueue}.
+ */
+public class IndexQueueTest {
+
+    private static final long TIMEOUT = 10000L;
+
+    private RecordingSearchDao searchDao;
+
+    private IndexQueue queue;
+
+    @Before
+    public void setUp() {
+        searchDao = new RecordingSearchDao();
+        queue = new IndexQueue();
+        queue.setSearchDao(searchDao);
+        queue.setBatchSize(3);
+        // long interval: batches are written only if full or requested
+        queue.setFlushInterval(TIMEOUT);
+        queue.setRetryInterval(10);
+        queue.setMaxAttempts(2);
+        queue.init();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        queue.destroy();
+    }
+
+    @Test
+    public void testChangesAreCoalescedByUuid() {
+        queue.updateOrIndex(Collections.singletonMap("a", "{1}"));
+        long sequence = queue.updateOrIndex(Collections.singletonMap("a", "{2}"));
+        assertTrue(queue.awaitIndexed(sequence, TIMEOUT));
+        assertEquals(1, searchDao.getIndexed().size());
+        assertEquals("{2}", searchDao.getIndexed().get("a"));
+        assertEquals(1, searchDao.getRefreshCount());
+    }
+
+    @Test
+    public void testDeletionReplacesPendingUpdate() {
+        queue.updateOrIndex(Collections.singletonMap("a", "{1}"));
+        long sequence = queue.delete(Collections.singletonList("a"));
+        assertTrue(queue.awaitIndexed(sequence, TIMEOUT));
+        assertTrue(searchDao.getIndexed().isEmpty());
+        assertEquals(Collections.singletonList("a"), searchDao.getDeleted());
+    }
+
+    @Test
+    public void testFullBatchIsWrittenWithoutRequest() throws InterruptedException {
+        Map<String, String> idToJson = new HashMap<>();
+        idToJson.put("a", "{a}");
+        idToJson.put("b", "{b}");
+        idToJson.put("c", "{c}");
+        queue.updateOrIndex(idToJson);
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (searchDao.getIndexed().size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, searchDao.getIndexed().size());
+        assertEquals(0, searchDao.getRefreshCount());
+    }
+
+    @Test
+    public void testFailedBatchIsWrittenAgain() {
+        searchDao.setFailingWrites(1);
+        long sequence = queue.updateOrIndex(Collections.singletonMap("a", "{1}"));
+        assertTrue(queue.awaitIndexed(sequence, TIMEOUT));
+        assertEquals("{1}", searchDao.getIndexed().get("a"));
+    }
+
+    @Test
+    public void testDroppedChangeIsReportedAsNotIndexed() {
+        searchDao.setFailingWrites(2);
+        long sequence = queue.updateOrIndex(Collections.singletonMap("a", "{1}"));
+        assertFalse(queue.awaitIndexed(sequence, TIMEOUT));
+        assertTrue(searchDao.getIndexed().isEmpty());
+        assertEquals(0, searchDao.getRefreshCount());
+
+        sequence = queue.updateOrIndex(Collections.singletonMap("a", "{2}"));
+        assertTrue(queue.awaitIndexed(sequence, TIMEOUT));
+        assertEquals("{2}", searchDao.getIndexed().get("a"));
+    }
+
+    @Test
+    public void testUnavailableIndexIsRetriedAndReported() {
+        AtomicInteger attempts = new AtomicInteger();
+        queue.setSearchDao(new ElementDao() {
+            @Override
+            public ActionResponse update(Map<String, String> idToJson) {
+                attempts.incrementAndGet();
+                throw new NoNodeAvailableException("Index is not available");
+            }
+        });
+        long sequence = queue.updateOrIndex(Collections.singletonMap("a", "{1}"));
+        assertFalse(queue.awaitIndexed(sequence, TIMEOUT));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void testFailedDocumentsOfBulkAreReported() {
+        BulkItemResponse written = mock(BulkItemResponse.class);
+        when(written.getId()).thenReturn("a");
+        BulkItemResponse failed = mock(BulkItemResponse.class);
+        when(failed.isFailed()).thenReturn(true);
+        when(failed.getId()).thenReturn("b");
+        BulkResponse response = mock(BulkResponse.class);
+        when(response.hasFailures()).thenReturn(true);
+        when(response.getItems()).thenReturn(new BulkItemResponse[] { written, failed });
+        try {
+            IndexWriteException.checkFailures(response);
+            fail("Failed bulk request was not reported");
+        } catch (IndexWriteException e) {
+            assertEquals(Collections.singleton("b"), e.getFailedIds());
+        }
+    }
+
+    @Test
+    public void testSynchronousWithoutWriteBehind() throws InterruptedException {
+        queue.destroy();
+        queue = new IndexQueue();
+        queue.setSearchDao(searchDao);
+        queue.setWriteBehind(false);
+        queue.init();
+        queue.updateOrIndex(Collections.singletonMap("a", "{1}"));
+        assertEquals("{1}", searchDao.getIndexed().get("a"));
+        assertTrue(queue.awaitIndexed(TIMEOUT));
+    }
+}
@@ -0,0 +1,105 @@
+package sernet.verinice.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+
+/**
+ * Search dao for tests which records the documents sent to the index instead
+ * of sending them to Elasticsearch.
+ */
+class RecordingSearchDao extends ElementDaoDummy {
+
+    private final Map<String, String> indexed = new HashMap<>();
+    private final List<Integer> bulkSizes = new ArrayList<>();
+    private final List<String> deleted = new ArrayList<>();
+    private int refreshCount = 0;
+    private int failingWrites = 0;
+    private Set<String> rejectedIds = Collections.emptySet();
+
+    @Override
+    public synchronized BulkResponse index(Map<String, String> idToJson) {
+        bulkSizes.add(idToJson.size());
+        Set<String> failedIds = new HashSet<>();
+        idToJson.forEach((id, json) -> {
+            if (rejectedIds.contains(id)) {
+                failedIds.add(id);
+            } else {
+                indexed.put(id, json);
+            }
+        });
+        if (!failedIds.isEmpty()) {
+            throw new IndexWriteException("Rejected as requested by the test", failedIds);
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized ActionResponse updateOrIndex(Map<String, String> idToJson) {
+        failIfRequested();
+        indexed.putAll(idToJson);
+        return null;
+    }
+
+    @Override
+    public synchronized BulkResponse delete(List<String> ids) {
+        failIfRequested();
+        deleted.addAll(ids);
+        return null;
+    }
+
+    @Override
+    public synchronized void refresh() {
+        refreshCount++;
+    }
+
+    /**
+     * Lets the next calls of {@link #updateOrIndex(Map)} and
+     * {@link #delete(List)} fail.
+     */
+    synchronized void setFailingWrites(int failingWrites) {
+        this.failingWrites = failingWrites;
+    }
+
+    /**
+     * Lets {@link #index(Map)} reject the documents with the given ids, the
+     * other documents of a request are written.
+     */
+    synchronized void setRejectedIds(Set<String> rejectedIds) {
+        this.rejectedIds = rejectedIds;
+    }
+
+    private void failIfRequested() {
+        if (failingWrites > 0) {
+            failingWrites--;
+            throw new IllegalStateException("Write failed as requested by the test");
+        }
+    }
+
+    synchronized Map<String, String> getIndexed() {
+        return new HashMap<>(indexed);
+    }
+
+    /**
+     * @return The number of documents of each call of
+     *         {@link #index(Map)}
+     */
+    synchronized List<Integer> getBulkSizes() {
+        return new ArrayList<>(bulkSizes);
+    }
+
+    synchronized List<String> getDeleted() {
+        return new ArrayList<>(deleted);
+    }
+
+    synchronized int getRefreshCount() {
+        return refreshCount;
+    }
+}
@@ -0,0 +1,73 @@
+package sernet.verinice.service.linktable.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import sernet.verinice.service.linktable.ILinkTableRowIterator;
+import sernet.verinice.service.linktable.RowComparator;
+
+/**
+ * Test for the external merge sort of link table rows. The sorted rows must be
+ * the same as the rows sorted in memory with the {@link RowComparator}.
+ */
+public class SpillingRowSorterTest {
+
+    private static final List<String> HEADER = Arrays.asList("Title", "Abbreviation", "Note");
+
+    private static final String[] CELLS = { "", "a", "A", "b", "Äpfel", "1", "01", "10", "a2",
+            "a10", "B 1.1", "B 1.10", "Über", "Line\nbreak", "中文", null };
+
+    @Test
+    public void testRowsInMemory() {
+        assertSortedRows(createRows(500), 1000);
+    }
+
+    @Test
+    public void testRowsInFiles() {
+        assertSortedRows(createRows(2500), 100);
+    }
+
+    @Test
+    public void testEmptyTable() {
+        assertSortedRows(new ArrayList<>(), 100);
+    }
+
+    private void assertSortedRows(List<String[]> rows, int maxRowsInMemory) {
+        SpillingRowSorter sorter = new SpillingRowSorter(maxRowsInMemory);
+        List<List<String>> expected = new ArrayList<>();
+        for (String[] row : rows) {
+            sorter.add(row.clone());
+            expected.add(Arrays.asList(row));
+        }
+        expected.sort(new RowComparator());
+        expected.add(0, HEADER);
+
+        List<List<String>> actual = new ArrayList<>();
+        try (ILinkTableRowIterator iterator = sorter.iterator(HEADER)) {
+            iterator.forEachRemaining(actual::add);
+            assertFalse(iterator.hasNext());
+        }
+        assertEquals(expected, actual);
+    }
+
+    private List<String[]> createRows(int number) {
+        Random random = new Random(number);
+        List<String[]> rows = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            String[] row = new String[HEADER.size()];
+            for (int column = 0; column < row.length; column++) {
+                row[column] = CELLS[random.nextInt(CELLS.length)];
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+}
@@ -42,6 +42,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 
 import sernet.gs.service.MD5;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.bsi.Addition;
 import sernet.verinice.model.bsi.Attachment;
@@ -70,6 +71,9 @@ public class AttachmentTest extends CommandServiceProvider {
     @Resource(name = "additionDAO")
     private IBaseDao<Addition, Integer> additionDao;
 
+    @Resource(name = "attachmentStore")
+    private IAttachmentStore attachmentStore;
+
     Map<Integer, String> dbIdHashSumMap = new HashMap<Integer, String>();
 
     @Test
@@ -92,6 +96,52 @@ public class AttachmentTest extends CommandServiceProvider {
         cleanUp(org);
     }
 
+    @Test
+    public void copyAttachmentFile() throws Exception {
+        Organization org = createOrganization(AttachmentTest.class.getSimpleName());
+        checkOrganization(org);
+        Attachment source = createAttachment(org);
+        File f = File.createTempFile("veriniceAttachmentCopy", "test");
+        f.deleteOnExit();
+        Files.write(f.toPath(), new byte[] { 1, 2, 3 });
+        Attachment target = saveAttachment(createAttachment(org, f));
+
+        AttachmentFileCreationFactory.copyAttachmentFile(source, target);
+        dbIdHashSumMap.put(target.getDbId(), dbIdHashSumMap.get(source.getDbId()));
+
+        checkAttachment(source);
+        checkAttachment(target);
+        String contentHash = attachmentStore.getContentHash(source.getDbId());
+        assertNotNull("Source has no content hash", contentHash);
+        assertEquals("Target does not reference the file data of the source", contentHash,
+                attachmentStore.getContentHash(target.getDbId()));
+        cleanUp(org);
+    }
+
+    @Test
+    public void equalFileDataIsStoredOnce() throws Exception {
+        Organization org = createOrganization(AttachmentTest.class.getSimpleName());
+        checkOrganization(org);
+        File f = File.createTempFile("veriniceAttachmentEqual", "test");
+        f.deleteOnExit();
+        Files.write(f.toPath(), new byte[] { 4, 5, 6 });
+        Attachment first = saveAttachment(createAttachment(org, f));
+        attachFileData(f, first);
+        Attachment second = saveAttachment(createAttachment(org, f));
+        attachFileData(f, second);
+        String hashSum = MD5.getMD5Checksum(Files.readAllBytes(f.toPath()));
+        dbIdHashSumMap.put(first.getDbId(), hashSum);
+        dbIdHashSumMap.put(second.getDbId(), hashSum);
+
+        checkAttachment(first);
+        checkAttachment(second);
+        String contentHash = attachmentStore.getContentHash(first.getDbId());
+        assertNotNull("Attachment has no content hash", contentHash);
+        assertEquals("Equal file data is not stored once", contentHash,
+                attachmentStore.getContentHash(second.getDbId()));
+        cleanUp(org);
+    }
+
     private Attachment createAttachment(Organization org) throws Exception {
         File f = File.createTempFile("veriniceAttachment", "test");
         f.deleteOnExit();
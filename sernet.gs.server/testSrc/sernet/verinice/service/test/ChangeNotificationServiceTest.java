@@ -0,0 +1,138 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.model.common.ChangeEvent;
+import sernet.verinice.model.common.ChangeEvents;
+import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.ChangeNotificationService;
+
+/**
+ * Test for class ChangeNotificationService.
+ */
+public class ChangeNotificationServiceTest {
+
+    private static final String STATION_ID = "station";
+
+    private static final String OTHER_STATION_ID = "other-station";
+
+    private ChangeNotificationService service;
+
+    @Before
+    public void setUp() {
+        service = new ChangeNotificationService();
+        service.setTimeout(100);
+        service.setCapacity(3);
+    }
+
+    @Test
+    public void testFirstCallReturnsLastEventId() {
+        ChangeEvents result = service.waitForChanges(ChangeEvents.NO_EVENT, STATION_ID, null);
+        assertTrue(result.isComplete());
+        assertTrue(result.getEvents().isEmpty());
+
+        service.publish(Collections.singletonList(createEvent(1, 10, ChangeLogEntry.TYPE_UPDATE)));
+        ChangeEvents next = service.waitForChanges(result.getLastEventId(), STATION_ID, null);
+        assertEquals(1, next.getEvents().size());
+        assertEquals(result.getLastEventId() + 1, next.getLastEventId());
+    }
+
+    @Test
+    public void testEventsAreFilteredByScopeAndStation() {
+        long start = service.waitForChanges(ChangeEvents.NO_EVENT, STATION_ID, null)
+                .getLastEventId();
+        ChangeEvent otherScope = createEvent(2, 20, ChangeLogEntry.TYPE_UPDATE);
+        ChangeEvent openScope = createEvent(3, 10, ChangeLogEntry.TYPE_UPDATE);
+        service.publish(Arrays.asList(createEvent(1, 10, STATION_ID), otherScope, openScope));
+
+        ChangeEvents result = service.waitForChanges(start, STATION_ID,
+                Collections.singleton(10));
+        List<ChangeEvent> events = result.getEvents();
+        assertEquals(1, events.size());
+        assertEquals(openScope.getElementId(), events.get(0).getElementId());
+        assertEquals(start + 3, result.getLastEventId());
+    }
+
+    @Test
+    public void testWaitingClientIsWokenUp() throws Exception {
+        service.setTimeout(10000);
+        long start = service.waitForChanges(ChangeEvents.NO_EVENT, STATION_ID, null)
+                .getLastEventId();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ChangeEvents> future = executor
+                    .submit(() -> service.waitForChanges(start, STATION_ID, null));
+            Thread.sleep(100);
+            service.publish(
+                    Collections.singletonList(createEvent(1, 10, ChangeLogEntry.TYPE_INSERT)));
+            ChangeEvents result = future.get();
+            assertEquals(1, result.getEvents().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTimeoutReturnsEmptyResult() {
+        long start = service.waitForChanges(ChangeEvents.NO_EVENT, STATION_ID, null)
+                .getLastEventId();
+        ChangeEvents result = service.waitForChanges(start, STATION_ID, null);
+        assertTrue(result.isComplete());
+        assertTrue(result.getEvents().isEmpty());
+        assertEquals(start, result.getLastEventId());
+    }
+
+    @Test
+    public void testEvictedEventsAreIncomplete() {
+        long start = service.waitForChanges(ChangeEvents.NO_EVENT, STATION_ID, null)
+                .getLastEventId();
+        for (int i = 0; i < 5; i++) {
+            service.publish(
+                    Collections.singletonList(createEvent(i, 10, ChangeLogEntry.TYPE_UPDATE)));
+        }
+        ChangeEvents result = service.waitForChanges(start, STATION_ID, null);
+        assertFalse(result.isComplete());
+        assertEquals(start + 5, result.getLastEventId());
+
+        ChangeEvents unknown = service.waitForChanges(result.getLastEventId() + 100, STATION_ID,
+                null);
+        assertFalse(unknown.isComplete());
+    }
+
+    private static ChangeEvent createEvent(int dbId, int scopeId, int change) {
+        return createEvent(dbId, scopeId, change, OTHER_STATION_ID);
+    }
+
+    private static ChangeEvent createEvent(int dbId, int scopeId, String stationId) {
+        return createEvent(dbId, scopeId, ChangeLogEntry.TYPE_UPDATE, stationId);
+    }
+
+    private static ChangeEvent createEvent(int dbId, int scopeId, int change, String stationId) {
+        CnATreeElement element = new CnATreeElement() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getTypeId() {
+                return "asset";
+            }
+        };
+        element.setDbId(dbId);
+        ChangeLogEntry entry = new ChangeLogEntry(element, change, "user", stationId, new Date());
+        return new ChangeEvent(entry, scopeId);
+    }
+
+}
@@ -30,6 +30,7 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Resource;
@@ -251,8 +252,13 @@ public class CommandServiceTest extends CommandServiceProvider {
         CnATreeElement elementWithChildren = command.getElement();
         Set<CnATreeElement> children = elementWithChildren.getChildren();
         assertNotNull("Children set of element is null", children);
+        Map<Integer, Boolean> hasChildrenMap = command.getHasChildrenMap();
+        assertEquals("Wrong has children value", !children.isEmpty(),
+                hasChildrenMap.get(element.getDbId()));
         for (CnATreeElement child : children) {
             assertNotNull("Title of child is null", child.getTitle());
+            assertNotNull("Has children value of child is missing",
+                    hasChildrenMap.get(child.getDbId()));
         }
         for (CnATreeElement child : children) {
             LOG.debug("Loading children of: " + child.getTitle());
@@ -0,0 +1,74 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import sernet.gs.service.DeduplicatingObjectOutputStream;
+import sernet.hui.common.connect.Property;
+
+/**
+ * Test for class DeduplicatingObjectOutputStream.
+ */
+public class DeduplicatingObjectOutputStreamTest {
+
+    private static final int NUMBER_OF_PROPERTIES = 200;
+
+    @Test
+    public void testEqualStringsAreWrittenOnce() throws Exception {
+        List<Property> properties = createProperties();
+
+        byte[] plain = serialize(properties, false);
+        byte[] deduplicated = serialize(properties, true);
+        assertTrue("Deduplicated stream is not smaller: " + deduplicated.length + " >= "
+                + plain.length, deduplicated.length < plain.length);
+
+        List<Property> read = deserialize(deduplicated);
+        assertEquals(NUMBER_OF_PROPERTIES, read.size());
+        for (int i = 0; i < NUMBER_OF_PROPERTIES; i++) {
+            assertEquals(properties.get(i).getPropertyType(), read.get(i).getPropertyType());
+            assertEquals(properties.get(i).getPropertyValue(), read.get(i).getPropertyValue());
+        }
+        assertSame(read.get(0).getPropertyValue(), read.get(2).getPropertyValue());
+    }
+
+    private List<Property> createProperties() {
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_PROPERTIES; i++) {
+            Property property = new Property(null);
+            property.setPropertyType("gsm_prop_" + (i % 2));
+            // new instances of equal values, like strings loaded by Hibernate
+            String value = (i % 2 == 0) ? new String("gsm_prop_option_value_1") : "Title " + i;
+            property.setPropertyValue(value, false);
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    private byte[] serialize(Object object, boolean deduplicate) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = deduplicate ? new DeduplicatingObjectOutputStream(out)
+                : new ObjectOutputStream(out)) {
+            oos.writeObject(object);
+        }
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Property> deserialize(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (List<Property>) ois.readObject();
+        }
+    }
+
+}
@@ -22,8 +22,10 @@ package sernet.verinice.service.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -37,6 +39,8 @@ import org.junit.Test;
 import org.junit.matchers.JUnitMatchers;
 
 import sernet.gs.service.RetrieveInfo;
+import sernet.hui.common.connect.EntityType;
+import sernet.hui.common.connect.HUITypeFactory;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.search.IJsonBuilder;
 import sernet.verinice.interfaces.search.ISearchService;
@@ -51,6 +55,7 @@ import sernet.verinice.model.search.VeriniceSearchResult;
 import sernet.verinice.model.search.VeriniceSearchResultRow;
 import sernet.verinice.model.search.VeriniceSearchResultTable;
 import sernet.verinice.search.IElementSearchDao;
+import sernet.verinice.search.IndexStateDao;
 import sernet.verinice.search.Indexer;
 import sernet.verinice.service.commands.SyncCommand;
 import sernet.verinice.service.commands.SyncParameter;
@@ -83,6 +88,9 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
     @Resource(name = "jsonBuilder")
     protected IJsonBuilder jsonBuilder;
 
+    @Resource(name = "indexStateDao")
+    protected IndexStateDao indexStateDao;
+
     final String NEW_TITEL = "SerNet NOT defined yet";
     final String TITEL = "Cryptography";
 
@@ -113,6 +121,24 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
 
     }
 
+    @Test
+    public void testIncrementalIndexingWithoutStateRebuildsIndex() {
+        searchIndexer.blockingIndexing();
+        searchDao.clear();
+        indexStateDao.clear();
+        searchIndexer.blockingIncrementalIndexing();
+        findAllElementsFromVna(true);
+        assertNotNull("No index state saved after indexing", indexStateDao.load());
+    }
+
+    @Test
+    public void testIncrementalIndexingWithoutChanges() {
+        searchIndexer.blockingIndexing();
+        searchDao.clear();
+        searchIndexer.blockingIncrementalIndexing();
+        findAllElementsFromVna(false);
+    }
+
     @Test
     public void findLongWord() {
         searchIndexer.blockingIndexing();
@@ -158,6 +184,7 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
                 JUnitMatchers.containsString(NEW_TITEL));
 
         searchDao.update(uuid, json);
+        searchDao.refresh();
         result = findByTitle(NEW_TITEL);
         assertThat("No element found with string: " + NEW_TITEL, result.getHits(),
                 CoreMatchers.not(CoreMatchers.equalTo(0)));
@@ -243,6 +270,35 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
 
     }
 
+    @Test
+    public void searchInAllTypesFindsSameElementsAsSearchByType() {
+        searchIndexer.blockingIndexing();
+        String word = "malware";
+
+        VeriniceSearchResult result = searchService
+                .query(new VeriniceQuery(word, VeriniceQuery.MAX_LIMIT));
+        assertThat("Token \"" + word + "\" not found in " + VNA_FILENAME, result.getHits(),
+                CoreMatchers.not(CoreMatchers.equalTo(0)));
+
+        for (EntityType type : HUITypeFactory.getInstance().getAllEntityTypes()) {
+            VeriniceSearchResult resultOfType = searchService
+                    .query(new VeriniceQuery(word, VeriniceQuery.MAX_LIMIT), type.getId());
+            assertEquals("Wrong elements of type " + type.getId(),
+                    getUuids(resultOfType, type.getId()), getUuids(result, type.getId()));
+        }
+    }
+
+    @Test
+    public void searchInAllTypesRespectsLimit() {
+        searchIndexer.blockingIndexing();
+
+        VeriniceSearchResult result = searchService.query(new VeriniceQuery("malware", 1));
+        for (VeriniceSearchResultTable table : result.getAllVeriniceSearchTables()) {
+            assertTrue("Too many hits of type " + table.getEntityTypeId(),
+                    table.getRows().size() <= 1);
+        }
+    }
+
     private void findAllElementsFromVna(boolean expectedResult) {
         List<Object> elementList = elementDao.findByQuery(
                 "select e.uuid from CnATreeElement e where e.sourceId = '1460b5'", new String[] {});
@@ -317,6 +373,17 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
         return null;
     }
 
+    private Set<String> getUuids(VeriniceSearchResult result, String typeId) {
+        Set<String> uuids = new HashSet<>();
+        VeriniceSearchResultTable table = result.getVeriniceSearchObject(typeId);
+        if (table != null) {
+            for (VeriniceSearchResultRow row : table.getRows()) {
+                uuids.add(getUuid(row));
+            }
+        }
+        return uuids;
+    }
+
     private String getUuid(VeriniceSearchResultRow row) {
         return (String) row.getValueFromResultString(ISearchService.ES_FIELD_UUID);
     }
@@ -20,8 +20,11 @@
 package sernet.verinice.service.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.Calendar;
+import java.util.Collections;
 
 import javax.annotation.Resource;
 
@@ -29,9 +32,12 @@ import org.apache.commons.lang.StringUtils;
 import org.junit.Test;
 
 import sernet.gs.service.ServerInitializer;
+import sernet.hui.common.connect.CompactEntity;
 import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.EntityType;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.Property;
+import sernet.hui.common.connect.PropertyList;
 import sernet.snutils.AssertException;
 import sernet.snutils.FormInputParser;
 import sernet.verinice.model.iso27k.Asset;
@@ -110,4 +116,103 @@ public class EntityTest extends ContextConfiguration {
         assertEquals(valueMessages, returnValue);
     }
 
+    /**
+     * Tests that Entity.setPropertyValue(String, String) updates the property
+     * list of a multiselect property in place instead of replacing it
+     */
+    @Test
+    public void testMultiSelectPropertyListIsUpdatedInPlace() {
+        ServerInitializer.inheritVeriniceContextState();
+        Entity entityProcess = new Entity(sernet.verinice.model.iso27k.Process.TYPE_ID);
+        entityProcess.setPropertyValue(sernet.verinice.model.iso27k.Process.PROP_USER,
+                StringUtils.join(PROP_VALUES_USER, ","));
+        PropertyList propertyList = entityProcess
+                .getProperties(sernet.verinice.model.iso27k.Process.PROP_USER);
+        Property firstProperty = propertyList.getProperty(0);
+
+        String value = PROP_VALUES_USER[0] + "," + PROP_VALUES_USER[2];
+        entityProcess.setPropertyValue(sernet.verinice.model.iso27k.Process.PROP_USER, value);
+
+        assertSame(propertyList,
+                entityProcess.getProperties(sernet.verinice.model.iso27k.Process.PROP_USER));
+        assertSame(firstProperty, propertyList.getProperty(0));
+        assertEquals(2, propertyList.getProperties().size());
+        assertEquals(value, entityProcess
+                .getRawPropertyValue(sernet.verinice.model.iso27k.Process.PROP_USER));
+    }
+
+    /**
+     * Tests that Entity.copyEntity(Entity, List) updates existing property
+     * lists of the target entity in place
+     */
+    @Test
+    public void testCopyEntityUpdatesPropertyListInPlace() {
+        ServerInitializer.inheritVeriniceContextState();
+        Entity source = new Entity(Asset.TYPE_ID);
+        source.createNewProperty(Asset.PROP_NAME, "Mail server");
+        Entity target = new Entity(Asset.TYPE_ID);
+        target.createNewProperty(Asset.PROP_NAME, "File server");
+        PropertyList propertyList = target.getProperties(Asset.PROP_NAME);
+
+        target.copyEntity(source, Collections.<String> emptyList());
+
+        assertSame(propertyList, target.getProperties(Asset.PROP_NAME));
+        assertEquals("Mail server", target.getPropertyValue(Asset.PROP_NAME));
+    }
+
+    /**
+     * Tests that a CompactEntity returns the same values as the Entity with
+     * the same properties
+     */
+    @Test
+    public void testCompactEntityHasSameValuesAsEntity() {
+        ServerInitializer.inheritVeriniceContextState();
+        Entity entityAudit = new Entity(Audit.TYPE_ID);
+        entityAudit.createNewProperty(Audit.PROP_NAME, "Audit 2026");
+        entityAudit.createNewProperty(Audit.PROP_STARTDATE,
+                Property.convertCalendarToString(Calendar.getInstance()));
+        Entity entityProcess = new Entity(sernet.verinice.model.iso27k.Process.TYPE_ID);
+        entityProcess.setPropertyValue(sernet.verinice.model.iso27k.Process.PROP_USER,
+                StringUtils.join(PROP_VALUES_USER, ","));
+
+        for (Entity entity : new Entity[] { entityAudit, entityProcess }) {
+            EntityType entityType = huiTypeFactory.getEntityType(entity.getEntityType());
+            CompactEntity.Builder builder = new CompactEntity.Builder(1, entityType);
+            for (PropertyList propertyList : entity.getTypedPropertyLists().values()) {
+                for (Property property : propertyList.getProperties()) {
+                    builder.add(property.getPropertyType(), property.getPropertyValue());
+                }
+            }
+            CompactEntity compactEntity = builder.build();
+            for (String propertyTypeId : entityType.getAllPropertyTypeIDsIncludingGroups()) {
+                assertEquals(entity.getPropertyValue(propertyTypeId),
+                        compactEntity.getPropertyValue(propertyTypeId));
+                assertEquals(entity.getRawPropertyValue(propertyTypeId),
+                        compactEntity.getRawPropertyValue(propertyTypeId));
+                assertEquals(entity.getInt(propertyTypeId), compactEntity.getInt(propertyTypeId));
+            }
+        }
+    }
+
+    /**
+     * Tests that values added to a CompactEntity.Builder after build() do not
+     * change the CompactEntity created before
+     */
+    @Test
+    public void testCompactEntityIsNotChangedByBuilder() {
+        ServerInitializer.inheritVeriniceContextState();
+        CompactEntity.Builder builder = new CompactEntity.Builder(1,
+                huiTypeFactory.getEntityType(Asset.TYPE_ID));
+        builder.add(Asset.PROP_NAME, "Mail server");
+        CompactEntity compactEntity = builder.build();
+
+        builder.add(Asset.PROP_NAME, "File server");
+        builder.add(Asset.PROP_ABBR, "A1");
+
+        assertEquals("Mail server", compactEntity.getPropertyValue(Asset.PROP_NAME));
+        assertNull(compactEntity.getRawPropertyValue(Asset.PROP_ABBR));
+        assertEquals("Mail server, File server",
+                builder.build().getPropertyValue(Asset.PROP_NAME));
+    }
+
 }
@@ -115,6 +115,39 @@ public class HUITypeFactoryTest extends CommandServiceProvider {
         }
     }
 
+    /**
+     * Test method for
+     * {@link sernet.hui.common.connect.HUITypeFactory#getPossibleRelationsTo(java.lang.String)}
+     * . The index of the relations to a type must contain exactly the
+     * relations from all types to this type.
+     */
+    @Test
+    public void testGetPossibleRelationsToIndex() {
+        for (String toTypeID : huiTypeFactory.getAllTypeIds()) {
+            Set<HuiRelation> expected = new HashSet<>();
+            for (String fromTypeID : huiTypeFactory.getAllTypeIds()) {
+                expected.addAll(huiTypeFactory.getPossibleRelations(fromTypeID, toTypeID));
+            }
+            assertEquals("Wrong relations to " + toTypeID, expected,
+                    huiTypeFactory.getPossibleRelationsTo(toTypeID));
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link sernet.hui.common.connect.EntityType#getPossibleRelations(java.lang.String)}
+     * . The returned set is part of the relation index of the entity type and
+     * must not be modifiable by callers.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPossibleRelationsAreUnmodifiable() {
+        for (EntityType entityType : huiTypeFactory.getAllEntityTypes()) {
+            for (HuiRelation relation : entityType.getPossibleRelations()) {
+                entityType.getPossibleRelations(relation.getTo()).clear();
+            }
+        }
+    }
+
     /**
      * Test method for
      * {@link sernet.hui.common.connect.HUITypeFactory#createInstance(java.net.URL)}
@@ -223,6 +223,24 @@ public class LicenseManagementTier3Test extends CommandServiceProvider {
         }
     }
 
+    @Test
+    public void entryIsRemovedWithLicenseFile() throws IOException, LicenseManagementException {
+        LicenseManagementEntry entry = getSingleCryptedEntry();
+        File repoFile = addLicenseToRepository(entry);
+        Assert.assertEquals(entry,
+                licenseManagementService.getLicenseEntryForLicenseId(LICENSE_ID, true));
+        Assert.assertTrue(licenseManagementService
+                .getLicenseIdsForContentId(entry.getContentIdentifier(), false)
+                .contains(LICENSE_ID));
+        Assert.assertTrue(licenseManagementService.getAllContentIds(true).contains(CONTENT_ID));
+
+        FileUtils.forceDelete(repoFile);
+        licenseManagementService.readVNLFiles();
+        Assert.assertNull(
+                licenseManagementService.getLicenseEntryForLicenseId(LICENSE_ID, true));
+        Assert.assertFalse(licenseManagementService.getAllLicenseIds(true).contains(LICENSE_ID));
+    }
+
     private File addLicenseToRepository(LicenseManagementEntry entry)
             throws LicenseManagementException, IOException {
         File vnlFile = null;
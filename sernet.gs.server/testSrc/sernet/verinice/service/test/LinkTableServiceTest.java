@@ -43,6 +43,7 @@ import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.iso27k.Asset;
+import sernet.verinice.model.iso27k.Organization;
 import sernet.verinice.service.commands.LoadCnAElementByEntityTypeId;
 import sernet.verinice.service.commands.SyncParameter;
 import sernet.verinice.service.commands.SyncParameterException;
@@ -67,6 +68,8 @@ public class LinkTableServiceTest extends BeforeAllVNAImportHelper {
     private static final String SOURCE_ID = "dm_20160303";
     private static final String EXT_ID_ORG = "ENTITY_37737";
 
+    private static final int NUMBER_OF_STARTING_POINTS = 70;
+
     private static String ALIAS1 = "auditgroup-name";
     private static String ALIAS2 = "person_relation";
     private static String ALIAS3 = "controlPerson";
@@ -156,6 +159,35 @@ public class LinkTableServiceTest extends BeforeAllVNAImportHelper {
         }
     }
 
+    @Test
+    public void testReportWithManyStartingPoints() throws CommandException {
+        // tables with 64 or more starting points are scanned in parallel
+        Organization organization = createOrganization();
+        try {
+            List<String> assetNames = new LinkedList<>();
+            for (int i = 0; i < NUMBER_OF_STARTING_POINTS; i++) {
+                CnATreeElement asset = createNewElement(
+                        getGroupForClass(organization, Asset.class), Asset.class, i);
+                assetNames.add(asset.getTitle());
+            }
+            service.setLinkTableCreator(new GraphLinkedTableCreator());
+            LinkTableConfiguration.Builder builder = new LinkTableConfiguration.Builder();
+            builder.addScopeId(organization.getScopeId()).addColumnPath("asset.asset_name");
+
+            List<List<String>> resultTable = service.createTable(builder.build());
+
+            List<String> names = new LinkedList<>();
+            for (List<String> row : resultTable.subList(1, resultTable.size())) {
+                names.add(row.get(0));
+            }
+            Collections.sort(assetNames);
+            Collections.sort(names);
+            assertEquals(assetNames, names);
+        } finally {
+            removeElement(organization);
+        }
+    }
+
     @Test
     public void testSzenarioReport() throws CommandException {
         CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
@@ -0,0 +1,115 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Transactional;
+
+import sernet.gs.service.RetrieveInfo;
+import sernet.hui.common.connect.CompactEntity;
+import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.HUITypeFactory;
+import sernet.hui.common.connect.Property;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.iso27k.Asset;
+import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.service.commands.LoadCompactEntities;
+import sernet.verinice.service.commands.LoadElementById;
+import sernet.verinice.service.commands.LoadEntityValues;
+
+/**
+ * Tests that {@link LoadEntityValues} and {@link LoadCompactEntities} return
+ * the same values as the {@link Entity} of the saved elements.
+ */
+@Transactional
+@TransactionConfiguration(transactionManager = "txManager")
+public class LoadEntityValuesTest extends CommandServiceProvider {
+
+    private static final int NUMBER_OF_ASSETS = 3;
+
+    private static final String[] PROPERTY_TYPES = { Asset.PROP_NAME, Asset.PROP_ABBR,
+            "asset_type", "asset_dateOfCollection", Asset.ASSET_VALUE_CONFIDENTIALITY };
+
+    private static final Class<?>[] CLASSES = { String.class, String.class, String.class,
+            String.class, Integer.class };
+
+    @Test
+    public void testCompactEntitiesHaveSameValuesAsEntities() throws CommandException {
+        List<CnATreeElement> assets = createAssets();
+
+        LoadCompactEntities command = new LoadCompactEntities(Asset.TYPE_ID);
+        command = commandService.executeCommand(command);
+        Map<Integer, CompactEntity> compactEntities = new HashMap<>();
+        for (CompactEntity compactEntity : command.getResult()) {
+            compactEntities.put(compactEntity.getDbId(), compactEntity);
+        }
+
+        for (CnATreeElement asset : assets) {
+            Entity entity = asset.getEntity();
+            CompactEntity compactEntity = compactEntities.get(asset.getDbId());
+            assertNotNull("No compact entity for asset " + asset.getDbId(), compactEntity);
+            for (String propertyTypeId : HUITypeFactory.getInstance().getEntityType(Asset.TYPE_ID)
+                    .getAllPropertyTypeIds()) {
+                assertEquals(propertyTypeId, entity.getPropertyValue(propertyTypeId),
+                        compactEntity.getPropertyValue(propertyTypeId));
+                assertEquals(propertyTypeId, entity.getRawPropertyValue(propertyTypeId),
+                        compactEntity.getRawPropertyValue(propertyTypeId));
+                assertEquals(propertyTypeId, entity.getInt(propertyTypeId),
+                        compactEntity.getInt(propertyTypeId));
+            }
+        }
+    }
+
+    @Test
+    public void testLoadEntityValues() throws CommandException {
+        List<CnATreeElement> assets = createAssets();
+
+        LoadEntityValues command = new LoadEntityValues(Asset.TYPE_ID, PROPERTY_TYPES, CLASSES);
+        command = commandService.executeCommand(command);
+        List<List<String>> result = command.getResult();
+
+        for (CnATreeElement asset : assets) {
+            List<String> expected = LoadEntityValues.retrievePropertyValues(asset.getEntity(),
+                    PROPERTY_TYPES, CLASSES);
+            assertTrue("Values of asset " + asset.getTitle() + " not found: " + expected,
+                    result.contains(expected));
+        }
+    }
+
+    /**
+     * Creates assets with text, option, date and numeric values and returns
+     * them reloaded from the database.
+     */
+    private List<CnATreeElement> createAssets() throws CommandException {
+        Organization organization = createOrganization();
+        List<CnATreeElement> assets = new ArrayList<>(NUMBER_OF_ASSETS);
+        for (int i = 0; i < NUMBER_OF_ASSETS; i++) {
+            Asset asset = (Asset) createNewElement(getGroupForClass(organization, Asset.class),
+                    Asset.class, i);
+            asset.setAbbreviation("A" + i);
+            asset.setSimpleProperty("asset_type", "asset_type_software");
+            Calendar date = Calendar.getInstance();
+            date.add(Calendar.DAY_OF_MONTH, i);
+            asset.setSimpleProperty("asset_dateOfCollection",
+                    Property.convertCalendarToString(date));
+            asset.setNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY, i);
+            updateElement(asset);
+
+            LoadElementById<CnATreeElement> load = new LoadElementById<>(asset.getDbId(),
+                    RetrieveInfo.getPropertyInstance());
+            assets.add(commandService.executeCommand(load).getElement());
+        }
+        return assets;
+    }
+
+}
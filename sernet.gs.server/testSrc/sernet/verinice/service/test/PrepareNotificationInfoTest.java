@@ -0,0 +1,176 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Transactional;
+
+import sernet.gs.service.RetrieveInfo;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.model.bsi.Person;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.configuration.Configuration;
+import sernet.verinice.service.commands.CreateConfiguration;
+import sernet.verinice.service.commands.LoadElementsByUuid;
+import sernet.verinice.service.commands.NotificationInfo;
+import sernet.verinice.service.commands.PrepareNotificationInfo;
+import sernet.verinice.service.commands.SaveConfiguration;
+import sernet.verinice.service.commands.SyncCommand;
+import sernet.verinice.service.test.helper.vnaimport.VNAImportHelper;
+
+/**
+ * Tests that {@link PrepareNotificationInfo} finds the accounts which have to
+ * be notified of expiring measures of the imported IT network.
+ */
+@Transactional
+@TransactionConfiguration(transactionManager = "txManager")
+public class PrepareNotificationInfoTest extends CommandServiceProvider {
+
+    private static final String VNA_FILENAME = "IT_Network.vna";
+
+    private static final int EXPIRATION_DAYS = 7;
+
+    private static final int NUMBER_OF_ASSIGNED_MEASURES = 3;
+
+    private Person person;
+
+    private List<MassnahmenUmsetzung> measures;
+
+    @Before
+    public void importData() throws IOException, CommandException {
+        SyncCommand syncCommand = VNAImportHelper.importFile(VNA_FILENAME);
+        LoadElementsByUuid<CnATreeElement> command = new LoadElementsByUuid<>(
+                new ArrayList<>(syncCommand.getImportedElementUUIDs()),
+                RetrieveInfo.getPropertyInstance());
+        command = commandService.executeCommand(command);
+
+        measures = new ArrayList<>();
+        for (CnATreeElement element : command.getElements()) {
+            if (element instanceof Person) {
+                person = (Person) element;
+            } else if (element instanceof MassnahmenUmsetzung) {
+                measures.add((MassnahmenUmsetzung) element);
+            }
+        }
+        assertNotNull("No person imported", person);
+        assertTrue("Not enough measures imported",
+                measures.size() > NUMBER_OF_ASSIGNED_MEASURES);
+    }
+
+    @Test
+    public void testResponsiblePersonIsNotifiedOfExpiringCompletion() throws CommandException {
+        assignMeasuresToPerson();
+        Configuration account = createAccount("responsible", false);
+
+        NotificationInfo info = findNotificationInfo(prepareNotificationInfo(), account);
+
+        assertNotNull("Responsible person is not notified", info);
+        assertTrue(info.isCompletionExpired());
+        assertTrue(info.getGlobalExpiredCompletions().isEmpty());
+    }
+
+    @Test
+    public void testGlobalNotifeeIsNotifiedOfAllExpiringCompletions() throws CommandException {
+        assignMeasuresToPerson();
+        Configuration account = createAccount("global", true);
+
+        NotificationInfo info = findNotificationInfo(prepareNotificationInfo(), account);
+
+        assertNotNull("Global notifee is not notified", info);
+        assertFalse(info.isCompletionExpired());
+        Set<Integer> notifiedMeasures = new HashSet<>();
+        for (MassnahmenUmsetzung measure : info.getGlobalExpiredCompletions()) {
+            notifiedMeasures.add(measure.getDbId());
+        }
+        for (MassnahmenUmsetzung measure : measures) {
+            if (!measure.isCompleted() && isExpiring(measure)) {
+                assertTrue("Measure " + measure.getTitle() + " is missing",
+                        notifiedMeasures.contains(measure.getDbId()));
+            }
+        }
+    }
+
+    @Test
+    public void testAccountOfEachPersonIsNotifiedOnce() throws CommandException {
+        assignMeasuresToPerson();
+        Configuration account = createAccount("responsible", false);
+
+        int numberOfInfos = 0;
+        for (NotificationInfo info : prepareNotificationInfo()) {
+            if (account.getUser().equals(info.getConfiguration().getUser())) {
+                numberOfInfos++;
+            }
+        }
+
+        assertEquals(1, numberOfInfos);
+    }
+
+    /**
+     * Makes the person directly responsible for some measures which have to
+     * be completed by tomorrow.
+     */
+    private void assignMeasuresToPerson() throws CommandException {
+        Calendar tomorrow = Calendar.getInstance();
+        tomorrow.add(Calendar.DAY_OF_MONTH, 1);
+        for (int i = 0; i < NUMBER_OF_ASSIGNED_MEASURES; i++) {
+            MassnahmenUmsetzung measure = measures.get(i);
+            measure.setUmsetzung(MassnahmenUmsetzung.P_UMSETZUNG_NEIN);
+            measure.setUmsetzungBis(tomorrow.getTime());
+            measure.addUmsetzungDurch(person);
+            measures.set(i, (MassnahmenUmsetzung) updateElement(measure));
+        }
+    }
+
+    private Configuration createAccount(String name, boolean global) throws CommandException {
+        CreateConfiguration createConfiguration = new CreateConfiguration(person);
+        createConfiguration = commandService.executeCommand(createConfiguration);
+        Configuration configuration = createConfiguration.getConfiguration();
+        configuration.setUser(name);
+        configuration.setNotificationEnabled(true);
+        configuration.setNotificationExpirationEnabled(true);
+        configuration.setNotificationExpirationDays(EXPIRATION_DAYS);
+        configuration.setNotificationGlobal(global);
+        SaveConfiguration<Configuration> saveConfiguration = new SaveConfiguration<>(
+                configuration, false);
+        return commandService.executeCommand(saveConfiguration).getElement();
+    }
+
+    private Iterable<NotificationInfo> prepareNotificationInfo() throws CommandException {
+        PrepareNotificationInfo command = new PrepareNotificationInfo();
+        command = commandService.executeCommand(command);
+        return command.getNotificationInfos();
+    }
+
+    private static NotificationInfo findNotificationInfo(Iterable<NotificationInfo> infos,
+            Configuration account) {
+        for (NotificationInfo info : infos) {
+            if (account.getUser().equals(info.getConfiguration().getUser())) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isExpiring(MassnahmenUmsetzung measure) {
+        if (measure.getUmsetzungBis() == null) {
+            return true;
+        }
+        Calendar limit = Calendar.getInstance();
+        limit.add(Calendar.DAY_OF_WEEK, EXPIRATION_DAYS);
+        return limit.getTime().after(measure.getUmsetzungBis());
+    }
+
+}
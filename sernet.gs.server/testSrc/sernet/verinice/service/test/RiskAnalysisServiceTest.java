@@ -18,6 +18,7 @@
 package sernet.verinice.service.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 import java.io.IOException;
 import java.util.Set;
@@ -28,11 +29,13 @@ import org.junit.Test;
 import org.springframework.test.context.transaction.TransactionConfiguration;
 import org.springframework.transaction.annotation.Transactional;
 
+import sernet.gs.service.RetrieveInfo;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.iso27k.Asset;
 import sernet.verinice.model.iso27k.IncidentScenario;
 import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.service.commands.LoadElementById;
 import sernet.verinice.service.risk.RiskAnalysisConfiguration;
 import sernet.verinice.service.risk.RiskAnalysisService;
 import sernet.verinice.service.test.helper.vnaimport.VNAImportHelper;
@@ -50,6 +53,8 @@ public class RiskAnalysisServiceTest extends CommandServiceProvider {
     private static final String EXT_ID_ORGANIZATION = "3107a3aa-efdc-49d7-bddd-7fc7e581bbbb";
     private static final String EXT_ID_ASSET = "fce4e1c2-039c-4b0d-8709-1a7347765a57";
 
+    private static final int OUTDATED_RISK = 99;
+
     @Resource(name = "riskAnalysisService")
     RiskAnalysisService riskAnalysisService;
 
@@ -70,6 +75,35 @@ public class RiskAnalysisServiceTest extends CommandServiceProvider {
         }
     }
 
+    @Test
+    public void testIncrementalRiskAnalysis() throws CommandException, IOException {
+        VNAImportHelper.importFile(VNA_FILENAME);
+        Organization org = (Organization) loadElement(SOURCE_ID, EXT_ID_ORGANIZATION);
+        Asset unrelatedAsset = (Asset) createNewElement(getGroupForClass(org, Asset.class),
+                Asset.class);
+        unrelatedAsset.setNumericProperty(Asset.ASSET_RISK_C, OUTDATED_RISK);
+        unrelatedAsset = (Asset) updateElement(unrelatedAsset);
+        Asset asset = (Asset) loadElement(SOURCE_ID, EXT_ID_ASSET);
+        Integer scenarioDbId = null;
+        for (CnALink link : asset.getLinksUp()) {
+            if (IncidentScenario.REL_INCSCEN_ASSET.equals(link.getRelationId())) {
+                scenarioDbId = link.getDependant().getDbId();
+            }
+        }
+        assertNotNull("Asset is not linked to a scenario", scenarioDbId);
+        asset.setNumericProperty(Asset.ASSET_RISK_C, OUTDATED_RISK);
+        updateElement(asset);
+
+        riskAnalysisService.runRiskAnalysis(org.getDbId(), scenarioDbId);
+
+        checkRiskValues((Asset) loadElement(SOURCE_ID, EXT_ID_ASSET));
+        LoadElementById<Asset> command = new LoadElementById<>(unrelatedAsset.getDbId(),
+                RetrieveInfo.getPropertyInstance());
+        command = commandService.executeCommand(command);
+        assertEquals("Asset which does not depend on the scenario was analyzed", OUTDATED_RISK,
+                command.getElement().getNumericProperty(Asset.ASSET_RISK_C));
+    }
+
     public void checkRiskValues(Asset asset) {
         assertEquals(1, asset.getNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS));
         assertEquals(2,
@@ -0,0 +1,62 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import sernet.verinice.service.linktable.RowComparator;
+
+/**
+ * Test for the sort keys of class RowComparator. Sorting rows by their keys
+ * must return the same order as sorting rows with the comparator.
+ */
+public class RowComparatorTest {
+
+    private static final String[] CELLS = { "", "a", "A", "b", "Äpfel", "Apfel", "1", "01",
+            "2", "10", "a1", "a01", "a2", "a10", "1.2.3", "1.10.3", "Über", "uber", "über1",
+            "B 1.1", "B 1.10", "b 1.2", null };
+
+    @Test
+    public void testSortKeysHaveSameOrderAsComparator() {
+        Random random = new Random(4711);
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String[] row = new String[3];
+            for (int column = 0; column < row.length; column++) {
+                row[column] = CELLS[random.nextInt(CELLS.length)];
+            }
+            rows.add(row);
+        }
+
+        RowComparator comparator = new RowComparator();
+        for (int i = 0; i + 1 < rows.size(); i++) {
+            String[] row1 = rows.get(i);
+            String[] row2 = rows.get(i + 1);
+            assertEquals(Integer.signum(comparator.compare(Arrays.asList(row1),
+                    Arrays.asList(row2))),
+                    Integer.signum(RowComparator.compareSortKeys(
+                            RowComparator.createSortKeys(row1),
+                            RowComparator.createSortKeys(row2))));
+        }
+
+        List<List<String>> sortedByComparator = new ArrayList<>();
+        for (String[] row : rows) {
+            sortedByComparator.add(Arrays.asList(row));
+        }
+        sortedByComparator.sort(comparator);
+
+        List<String[]> sortedByKeys = new ArrayList<>(rows);
+        sortedByKeys.sort((row1, row2) -> RowComparator.compareSortKeys(
+                RowComparator.createSortKeys(row1), RowComparator.createSortKeys(row2)));
+
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(sortedByComparator.get(i), Arrays.asList(sortedByKeys.get(i)));
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sernet.hui.common.connect.EntityType;
+import sernet.hui.common.connect.HUITypeFactory;
+import sernet.hui.common.connect.HuiRelation;
+import sernet.hui.common.connect.PropertyType;
+import sernet.hui.common.multiselectionlist.IMLPropertyOption;
+
+/**
+ * Tests the binary snapshot of SNCA.xml which is created by
+ * {@link HUITypeFactory} after parsing the XML file.
+ */
+public class SncaSnapshotTest {
+
+    private static final String SNAPSHOT_DIR_PROPERTY = "verinice.snca.snapshot.dir";
+
+    private static final String SNCA_PATH = new File("").getAbsolutePath()
+            + "/testSrc/SNCA.xml";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private URL sncaUrl;
+
+    private String snapshotDir;
+
+    @Before
+    public void setUp() throws IOException {
+        sncaUrl = Paths.get(SNCA_PATH).toUri().toURL();
+        snapshotDir = System.getProperty(SNAPSHOT_DIR_PROPERTY);
+        System.setProperty(SNAPSHOT_DIR_PROPERTY, folder.getRoot().getPath());
+    }
+
+    @After
+    public void tearDown() {
+        if (snapshotDir == null) {
+            System.clearProperty(SNAPSHOT_DIR_PROPERTY);
+        } else {
+            System.setProperty(SNAPSHOT_DIR_PROPERTY, snapshotDir);
+        }
+    }
+
+    @Test
+    public void snapshotContainsSameTypesAsParsedFile() throws Exception {
+        HUITypeFactory parsed = HUITypeFactory.createInstance(sncaUrl);
+        assertEquals(1, getSnapshots().size());
+
+        HUITypeFactory loaded = HUITypeFactory.createInstance(sncaUrl);
+
+        assertEquals(describe(parsed), describe(loaded));
+    }
+
+    @Test
+    public void staleSnapshotIsDeleted() throws Exception {
+        Path stale = folder.newFile("verinice-snca-1-0-0.bin").toPath();
+
+        HUITypeFactory.createInstance(sncaUrl);
+
+        List<Path> snapshots = getSnapshots();
+        assertEquals(1, snapshots.size());
+        assertFalse(snapshots.contains(stale));
+    }
+
+    @Test
+    public void corruptSnapshotIsIgnored() throws Exception {
+        HUITypeFactory parsed = HUITypeFactory.createInstance(sncaUrl);
+        Path snapshot = getSnapshots().get(0);
+        // valid header with a string length which must not be allocated
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(snapshot))) {
+            out.writeInt(0x534E4341);
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+
+        HUITypeFactory loaded = HUITypeFactory.createInstance(sncaUrl);
+
+        assertEquals(describe(parsed), describe(loaded));
+        // the snapshot is saved again after parsing the file
+        assertTrue(Files.size(snapshot) > 12);
+    }
+
+    private List<Path> getSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".bin"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns a sorted description of the entity types, property types,
+     * options and relations of a type factory.
+     */
+    private static SortedSet<String> describe(HUITypeFactory typeFactory) {
+        SortedSet<String> description = new TreeSet<>();
+        for (EntityType entityType : typeFactory.getAllEntityTypes()) {
+            description.add("entity " + entityType.getId() + " " + entityType.getName());
+            for (PropertyType propertyType : entityType.getAllPropertyTypes()) {
+                List<String> options = new ArrayList<>();
+                for (IMLPropertyOption option : propertyType.getOptions()) {
+                    options.add(option.getId());
+                }
+                description.add("property " + entityType.getId() + " " + propertyType.getId()
+                        + " " + propertyType.getInputName() + " " + propertyType.getTags() + " "
+                        + options);
+            }
+            for (HuiRelation relation : entityType.getPossibleRelations()) {
+                description.add("relation " + relation.getId() + " " + relation.getFrom() + " "
+                        + relation.getTo() + " " + relation.getName() + " "
+                        + relation.getReversename());
+            }
+        }
+        return description;
+    }
+}
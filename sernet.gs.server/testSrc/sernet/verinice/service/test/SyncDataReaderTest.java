@@ -0,0 +1,113 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.bind.JAXB;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.sync.SyncRequest;
+import sernet.verinice.service.sync.SyncDataReader;
+import sernet.verinice.service.sync.SyncDataReader.SyncElementIterator;
+import sernet.verinice.service.sync.VeriniceArchive;
+
+/**
+ * Compares the content read by {@link SyncDataReader} with the content
+ * unmarshalled by JAXB.
+ */
+public class SyncDataReaderTest {
+
+    private static final String VNA_FILE = "cnalink-one-to-many-relations.vna";
+
+    private VeriniceArchive archive;
+
+    private SyncRequest expected;
+
+    private SyncDataReader reader;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream(VNA_FILE)) {
+            archive = new VeriniceArchive(is);
+        }
+        try (InputStream is = archive.getVeriniceXml()) {
+            expected = JAXB.unmarshal(is, SyncRequest.class);
+        }
+        reader = new SyncDataReader(archive::getVeriniceXml);
+    }
+
+    @After
+    public void tearDown() {
+        archive.clear();
+    }
+
+    @Test
+    public void testReadHeader() {
+        SyncRequest header = reader.readHeader();
+        assertEquals(expected.getSourceId(), header.getSourceId());
+        assertNull(header.getSyncData());
+        assertEquals(expected.getSyncMapping().getMapObjectType().size(),
+                header.getSyncMapping().getMapObjectType().size());
+        assertEquals(expected.getSyncVnaSchemaVersion().getVnaSchemaVersion(),
+                header.getSyncVnaSchemaVersion().getVnaSchemaVersion());
+        assertEquals(expected.getSyncVnaSchemaVersion().getCompatibleVersions(),
+                header.getSyncVnaSchemaVersion().getCompatibleVersions());
+    }
+
+    @Test
+    public void testReadSyncObjects() {
+        List<SyncObject> expectedObjects = expected.getSyncData().getSyncObject();
+        List<SyncObject> objects = new ArrayList<>();
+        try (SyncElementIterator<SyncObject> iterator = reader.readSyncObjects()) {
+            iterator.forEachRemaining(objects::add);
+        }
+        assertEquals(expectedObjects.size(), objects.size());
+        for (int i = 0; i < objects.size(); i++) {
+            assertEquals(collectExtIds(expectedObjects.get(i), new ArrayList<>()),
+                    collectExtIds(objects.get(i), new ArrayList<>()));
+        }
+    }
+
+    @Test
+    public void testReadSyncLinks() {
+        List<SyncLink> expectedLinks = expected.getSyncData().getSyncLink();
+        List<SyncLink> links = new ArrayList<>();
+        try (SyncElementIterator<SyncLink> iterator = reader.readSyncLinks()) {
+            iterator.forEachRemaining(links::add);
+            assertFalse(iterator.hasNext());
+        }
+        assertFalse(links.isEmpty());
+        assertEquals(expectedLinks, links);
+
+        Set<String> linkedExtIds = reader.readLinkedExtIds();
+        Set<String> expectedExtIds = new HashSet<>();
+        for (SyncLink link : expectedLinks) {
+            expectedExtIds.add(link.getDependant());
+            expectedExtIds.add(link.getDependency());
+        }
+        assertEquals(expectedExtIds, linkedExtIds);
+        assertTrue(linkedExtIds.size() > 1);
+    }
+
+    private static List<String> collectExtIds(SyncObject syncObject, List<String> extIds) {
+        extIds.add(syncObject.getExtId() + ":" + syncObject.getSyncAttribute().size());
+        for (SyncObject child : syncObject.getChildren()) {
+            collectExtIds(child, extIds);
+        }
+        return extIds;
+    }
+}
@@ -0,0 +1,106 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXB;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.sync.SyncRequest;
+import sernet.verinice.service.sync.SyncDataReader;
+import sernet.verinice.service.sync.SyncDataWriter;
+import sernet.verinice.service.sync.VeriniceArchive;
+
+/**
+ * Writes the content of an archive with {@link SyncDataWriter} and compares
+ * it with the original content.
+ */
+public class SyncDataWriterTest {
+
+    private static final String VNA_FILE = "cnalink-one-to-many-relations.vna";
+
+    private VeriniceArchive archive;
+
+    private SyncRequest expected;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream(VNA_FILE)) {
+            archive = new VeriniceArchive(is);
+        }
+        try (InputStream is = archive.getVeriniceXml()) {
+            expected = JAXB.unmarshal(is, SyncRequest.class);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        archive.clear();
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SyncDataWriter writer = new SyncDataWriter(out)) {
+            writer.writeStart(expected.getSourceId());
+            List<SyncObject> syncObjects = expected.getSyncData().getSyncObject();
+            // the first object is streamed, the others are written at once
+            writeStreamed(writer, syncObjects.get(0));
+            for (SyncObject syncObject : syncObjects.subList(1, syncObjects.size())) {
+                writer.writeSyncObject(syncObject);
+            }
+            for (SyncLink syncLink : expected.getSyncData().getSyncLink()) {
+                writer.writeSyncLink(syncLink);
+            }
+            writer.writeEnd(expected.getSyncMapping(), expected.getSyncVnaSchemaVersion());
+        }
+
+        SyncRequest written = JAXB.unmarshal(new ByteArrayInputStream(out.toByteArray()),
+                SyncRequest.class);
+        assertEquals(expected.getSourceId(), written.getSourceId());
+        assertEquals(collectExtIds(expected.getSyncData().getSyncObject()),
+                collectExtIds(written.getSyncData().getSyncObject()));
+        assertEquals(expected.getSyncData().getSyncLink(), written.getSyncData().getSyncLink());
+        assertEquals(expected.getSyncMapping().getMapObjectType().size(),
+                written.getSyncMapping().getMapObjectType().size());
+        assertEquals(expected.getSyncVnaSchemaVersion().getVnaSchemaVersion(),
+                written.getSyncVnaSchemaVersion().getVnaSchemaVersion());
+
+        SyncDataReader reader = new SyncDataReader(
+                () -> new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(collectExtIds(expected.getSyncData().getSyncObject()),
+                collectExtIds(reader.readSyncData().getSyncObject()));
+    }
+
+    private static void writeStreamed(SyncDataWriter writer, SyncObject syncObject) {
+        List<SyncObject> children = new ArrayList<>(syncObject.getChildren());
+        syncObject.getChildren().clear();
+        writer.startSyncObject(syncObject);
+        for (SyncObject child : children) {
+            writeStreamed(writer, child);
+        }
+        writer.endSyncObject(syncObject);
+        syncObject.getChildren().addAll(children);
+    }
+
+    private static List<String> collectExtIds(List<SyncObject> syncObjects) {
+        List<String> extIds = new ArrayList<>();
+        for (SyncObject syncObject : syncObjects) {
+            extIds.add(syncObject.getExtId() + ":" + syncObject.getExtObjectType() + ":"
+                    + syncObject.getSyncAttribute().size() + ":" + syncObject.getFile().size());
+            extIds.addAll(collectExtIds(syncObject.getChildren()));
+        }
+        return extIds;
+    }
+}
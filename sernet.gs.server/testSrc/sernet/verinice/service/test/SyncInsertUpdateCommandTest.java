@@ -0,0 +1,93 @@
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Transactional;
+
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.service.commands.SyncInsertUpdateCommand;
+import sernet.verinice.service.commands.SyncParameter;
+import sernet.verinice.service.commands.SyncParameterException;
+import sernet.verinice.service.sync.VeriniceArchive;
+
+/**
+ * Tests that {@link SyncInsertUpdateCommand} flushes and clears the session
+ * in batches while it imports the nested children of a single scope.
+ */
+@Transactional
+@TransactionConfiguration(transactionManager = "txManager")
+public class SyncInsertUpdateCommandTest extends CommandServiceProvider {
+
+    /**
+     * Contains a single IT network with all elements nested below one
+     * top-level syncObject.
+     */
+    private static final String VNA_FILENAME = "IT_Network.vna";
+
+    private static final int BATCH_SIZE = 10;
+
+    @Test
+    public void testSingleScopeIsImportedInBatches()
+            throws IOException, CommandException, SyncParameterException {
+        VeriniceArchive archive = loadArchive();
+        try {
+            SyncParameter parameter = new SyncParameter(true, false, false, false);
+            parameter.setBatchSize(BATCH_SIZE);
+            FlushRecordingCommand command = new FlushRecordingCommand(archive, parameter);
+            command = commandService.executeCommand(command);
+
+            int inserted = command.getInserted();
+            assertTrue("Archive is not larger than the batch size", inserted > BATCH_SIZE);
+            assertFalse("Session was not flushed during the import",
+                    command.insertedAtFlush.isEmpty());
+            assertTrue("Session was not flushed before the scope was imported completely",
+                    command.insertedAtFlush.get(0) < inserted);
+            // a batch ends at the next child boundary, so it may be a bit
+            // larger than the batch size
+            assertTrue("Session was not flushed after every batch",
+                    command.insertedAtFlush.size() >= inserted / (2 * BATCH_SIZE));
+        } finally {
+            archive.clear();
+        }
+    }
+
+    private static VeriniceArchive loadArchive() throws IOException {
+        try (InputStream is = SyncInsertUpdateCommandTest.class
+                .getResourceAsStream(VNA_FILENAME)) {
+            return new VeriniceArchive(IOUtils.toByteArray(is));
+        }
+    }
+
+    /**
+     * Records the number of inserted elements whenever the session is
+     * flushed.
+     */
+    private static final class FlushRecordingCommand extends SyncInsertUpdateCommand {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Integer> insertedAtFlush = new ArrayList<>();
+
+        FlushRecordingCommand(VeriniceArchive archive, SyncParameter parameter) {
+            super(archive.getSourceId(), archive.getSyncDataReader(), archive.getSyncMapping(),
+                    "admin", parameter, new ArrayList<>());
+            setTempDirName(archive.getTempDirName());
+        }
+
+        @Override
+        protected void flushAndClear() {
+            super.flushAndClear();
+            insertedAtFlush.add(getInserted());
+        }
+    }
+
+}
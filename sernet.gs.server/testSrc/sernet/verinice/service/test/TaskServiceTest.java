@@ -20,6 +20,7 @@
 package sernet.verinice.service.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -222,6 +223,29 @@ public class TaskServiceTest extends CommandServiceProvider {
         assertEquals("Size of task list is not 2", 2, taskListCheck.size());
     }
 
+    @Test
+    public void testTaskListContainsElementAndScopeData() throws CommandException {
+        List<ITask> taskList = getTaskList();
+        assertEquals("Size of task list is not " + NUMBER_OF_ASSETS, NUMBER_OF_ASSETS,
+                taskList.size());
+        for (ITask task : taskList) {
+            LoadElementByUuid<CnATreeElement> command = new LoadElementByUuid<CnATreeElement>(
+                    task.getUuid());
+            CnATreeElement asset = commandService.executeCommand(command).getElement();
+            assertEquals("Wrong element title", asset.getTitle(), task.getElementTitle());
+            assertEquals("Wrong element type", Asset.TYPE_ID, task.getElementType());
+            assertEquals("Wrong scope title", organization.getTitle(), task.getGroupTitle());
+            assertEquals("Wrong scope uuid", organization.getUuid(), task.getUuidGroup());
+            assertFalse("No outcomes", task.getOutcomes().isEmpty());
+
+            ITask singleTask = taskService.findTask(task.getId());
+            assertEquals(task.getElementTitle(), singleTask.getElementTitle());
+            assertEquals(task.getGroupTitle(), singleTask.getGroupTitle());
+            assertEquals(task.getUuidGroup(), singleTask.getUuidGroup());
+            assertEquals(task.getDescription(), singleTask.getDescription());
+        }
+    }
+
     private List<ITask> getTaskListForPerson(String login) {
         ITaskParameter searchParameter = new TaskParameter();
         searchParameter.setUsername(login);
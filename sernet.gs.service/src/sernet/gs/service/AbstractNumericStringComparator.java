@@ -123,10 +123,29 @@ public abstract class AbstractNumericStringComparator<T> implements Comparator<T
         return compareString(s1, s2);
     }
 
+    /**
+     * Returns the sort key of a string. Comparing two keys with
+     * {@link #compareKeys(String, String)} returns the same result as
+     * comparing the strings with {@link #compare(Object, Object)}. Create the
+     * keys once if the same strings are compared many times, e.g. while
+     * sorting a large table.
+     */
+    public static String createKey(String string) {
+        return string.toLowerCase();
+    }
+
+    /**
+     * Compares two keys created by {@link #createKey(String)}.
+     */
+    public int compareKeys(String key1, String key2) {
+        return compareLowerCaseString(key1, key2);
+    }
+
     private int compareString(String string1, String string2) {
-        string1 = string1.toLowerCase();
-        string2 = string2.toLowerCase();
+        return compareLowerCaseString(createKey(string1), createKey(string2));
+    }
 
+    private int compareLowerCaseString(String string1, String string2) {
         // find the first digit.
         int idx1 = getFirstDigitIndex(string1);
         int idx2 = getFirstDigitIndex(string2);
@@ -176,7 +195,8 @@ public abstract class AbstractNumericStringComparator<T> implements Comparator<T
             if (edx1 != -1) {
                 if (edx2 > -1) {
                     try {
-                        int comp = compareString(string1.substring(edx1), string2.substring(edx2));
+                        int comp = compareLowerCaseString(string1.substring(edx1),
+                                string2.substring(edx2));
                         if (comp != 0) {
                             ret = comp;
                         }
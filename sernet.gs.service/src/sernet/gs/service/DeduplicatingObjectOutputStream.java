@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.gs.service;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An object output stream which writes equal short strings only once.
+ *
+ * Java serialization writes a back reference for an object which was already
+ * written to the stream, but only if it is the same instance. Strings loaded
+ * by Hibernate are different instances even if they are equal, e.g. the
+ * property type ids and the option values of the properties of many entities.
+ * This stream replaces every string with the first equal string written to
+ * the stream. The format of the stream is not changed, every
+ * {@link java.io.ObjectInputStream} can read it and the read strings are
+ * shared instances as well.
+ */
+public class DeduplicatingObjectOutputStream extends ObjectOutputStream {
+
+    /**
+     * Longer strings are written without looking them up.
+     */
+    public static final int MAX_DEDUPLICATED_LENGTH = 256;
+
+    private static final int MAX_POOL_SIZE = 100000;
+
+    private final Map<String, String> pool = new HashMap<>();
+
+    private int deduplicatedStrings = 0;
+
+    public DeduplicatingObjectOutputStream(OutputStream out) throws IOException {
+        super(out);
+        enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) throws IOException {
+        if (obj instanceof String && ((String) obj).length() <= MAX_DEDUPLICATED_LENGTH) {
+            String string = (String) obj;
+            String pooled = pool.get(string);
+            if (pooled != null) {
+                if (pooled != string) {
+                    deduplicatedStrings++;
+                }
+                return pooled;
+            }
+            if (pool.size() < MAX_POOL_SIZE) {
+                pool.put(string, string);
+            }
+        }
+        return obj;
+    }
+
+    /**
+     * Returns the number of strings which were replaced by an equal string
+     * written before.
+     */
+    public int getDeduplicatedStrings() {
+        return deduplicatedStrings;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.gs.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import sernet.verinice.interfaces.ICommand;
+
+/**
+ * Constants and helper methods for the gzip compression of the HttpInvoker
+ * requests and responses between verinice client and server.
+ *
+ * The client sends "Accept-Encoding: gzip" with every request and the server
+ * compresses the response. The server sends "Accept-Encoding: gzip" with
+ * every response (RFC 7694) to tell the client that it can decompress
+ * requests. The client compresses requests only after it received this
+ * header, so new clients still work with old servers.
+ */
+public final class HttpInvokerCompression {
+
+    public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    public static final String ENCODING_GZIP = "gzip";
+
+    /**
+     * Smaller requests and responses are not compressed.
+     */
+    public static final int MIN_COMPRESSION_SIZE = 1024;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private HttpInvokerCompression() {
+        super();
+    }
+
+    /**
+     * Returns true if the value of an encoding header contains gzip.
+     */
+    public static boolean isGzip(String headerValue) {
+        return headerValue != null && headerValue.toLowerCase().contains(ENCODING_GZIP);
+    }
+
+    public static byte[] gzip(ByteArrayOutputStream data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(
+                Math.max(data.size() / 4, BUFFER_SIZE));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, BUFFER_SIZE)) {
+            data.writeTo(gzip);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Returns a name of a remote invocation for log messages: the method name
+     * and the class name of the command if a command is executed.
+     */
+    public static String getInvocationName(String methodName, Object[] arguments) {
+        if (arguments != null && arguments.length > 0 && arguments[0] instanceof ICommand) {
+            return methodName + " " + arguments[0].getClass().getSimpleName();
+        }
+        return methodName;
+    }
+
+}
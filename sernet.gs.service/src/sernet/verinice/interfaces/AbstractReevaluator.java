@@ -19,16 +19,6 @@
  ******************************************************************************/
 package sernet.verinice.interfaces;
 
-import java.util.Set;
-
-import org.apache.log4j.Logger;
-
-import sernet.verinice.model.common.CascadingTransaction;
-import sernet.verinice.model.common.CnALink;
-import sernet.verinice.model.common.CnATreeElement;
-import sernet.verinice.model.common.TransactionAbortedException;
-import sernet.verinice.model.iso27k.ProtectionRequirementUtils;
-
 /**
  * Convenient class to implement a {@link IReevaluator} to spare the override of
  * methods.
@@ -37,39 +27,6 @@ import sernet.verinice.model.iso27k.ProtectionRequirementUtils;
  *
  */
 public abstract class AbstractReevaluator implements IReevaluator {
-    private static final Logger LOG = Logger.getLogger(AbstractReevaluator.class);
-
-    /**
-     * Collects all downwards linked {@link CnATreeElement} which don't have any
-     * further links in the given bottomNodes Set.
-     */
-    protected void findBottomNodes(CnATreeElement downwardElement, Set<CnATreeElement> bottomNodes,
-            CascadingTransaction downwardsTA) {
-        if (downwardsTA.hasBeenVisited(downwardElement)) {
-            return;
-        }
-
-        try {
-            downwardsTA.enter(downwardElement);
-        } catch (TransactionAbortedException e) {
-            LOG.error("Aborted while determining bottom node for object: " //$NON-NLS-1$
-                    + downwardElement.getTitle(), e);
-            return;
-        }
-
-        int countLinks = 0;
-        for (CnALink link : downwardElement.getLinksDown()) {
-            if (ProtectionRequirementUtils.dependencyIsProtectionRequirementsProvider(link)) {
-                countLinks++;
-                findBottomNodes(link.getDependency(), bottomNodes, downwardsTA);
-            }
-        }
-
-        // could not go further down, so add this node:
-        if (countLinks == 0) {
-            bottomNodes.add(downwardElement);
-        }
-    }
 
     @Override
     public int getConfidentiality() {
@@ -140,16 +97,4 @@ public abstract class AbstractReevaluator implements IReevaluator {
     public void setAvailabilityDescription(String text) {
     }
 
-    @Override
-    public void updateConfidentiality(CascadingTransaction ta) {
-    }
-
-    @Override
-    public void updateIntegrity(CascadingTransaction ta) {
-    }
-
-    @Override
-    public void updateAvailability(CascadingTransaction ta) {
-    }
-
 }
@@ -45,6 +45,7 @@ public class GraphCommand extends GenericCommand implements IGraphCommand {
     private List<IGraphElementLoader> elementLoaderList;
     private boolean loadLinks = true;
     private List<String> relationIdList;
+    private boolean useGraphCache = false;
 
     private transient IGraphService graphService;
 
@@ -70,7 +71,10 @@ public class GraphCommand extends GenericCommand implements IGraphCommand {
     }
 
     protected void initGraph() {
-        if (loadLinks) {
+        if (useGraphCache) {
+            this.graph = getGraphService().createCached(getLoader(), getRelationIdArray(),
+                    loadLinks);
+        } else if (loadLinks) {
             String[] relationIds = null;
             if (relationIdList != null && !relationIdList.isEmpty()) {
                 relationIds = relationIdList.toArray(new String[relationIdList.size()]);
@@ -81,6 +85,13 @@ public class GraphCommand extends GenericCommand implements IGraphCommand {
         }
     }
 
+    private String[] getRelationIdArray() {
+        if (relationIdList == null || relationIdList.isEmpty()) {
+            return null;
+        }
+        return relationIdList.toArray(new String[relationIdList.size()]);
+    }
+
     @Override
     public List<IGraphElementLoader> getLoader() {
         if (elementLoaderList == null) {
@@ -103,6 +114,15 @@ public class GraphCommand extends GenericCommand implements IGraphCommand {
         this.loadLinks = loadLinks;
     }
 
+    /**
+     * If set to true the graph is loaded from the graph cache of the
+     * {@link IGraphService}. Elements of a cached graph are shared with other
+     * commands, use this only if the command does not change the elements.
+     */
+    public void setUseGraphCache(boolean useGraphCache) {
+        this.useGraphCache = useGraphCache;
+    }
+
     @Override
     public List<String> getRelationIds() {
         if (relationIdList == null) {
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import sernet.verinice.model.bsi.Attachment;
+
+/**
+ * Stores the file data of attachments. The file data is written and read as
+ * streams, an implementation does not keep a whole file in memory.
+ * 
+ * Each distinct file content is stored once and identified by a hash of the
+ * content. An {@link Attachment} references the content by its hash. When
+ * the same file is stored for several attachments, or when an attachment is
+ * copied, only a reference is added.
+ * 
+ * All methods take the database id of an {@link Attachment}. The attachment
+ * must be saved before file data is stored for it.
+ */
+public interface IAttachmentStore {
+
+    /**
+     * Stores the file data of an attachment. Existing file data of the
+     * attachment is replaced.
+     * 
+     * @param attachmentDbId
+     *            The database id of an attachment
+     * @param fileData
+     *            The file data, the stream is not closed
+     * @return The hash of the content
+     */
+    String write(Integer attachmentDbId, InputStream fileData) throws IOException;
+
+    /**
+     * Writes the file data of an attachment to a stream.
+     * 
+     * @param attachmentDbId
+     *            The database id of an attachment
+     * @param out
+     *            The stream the file data is written to, the stream is not
+     *            closed
+     * @return true if the attachment has file data, false if not
+     */
+    boolean read(Integer attachmentDbId, OutputStream out) throws IOException;
+
+    /**
+     * @return true if the attachment has file data, false if not
+     */
+    boolean hasFileData(Integer attachmentDbId);
+
+    /**
+     * Adds a reference to the file data of the source attachment to the
+     * target attachment. The file data itself is not copied.
+     * 
+     * @param sourceDbId
+     *            The database id of the attachment which file data is copied
+     * @param targetDbId
+     *            The database id of the attachment which references the file
+     *            data afterwards
+     */
+    void copy(Integer sourceDbId, Integer targetDbId) throws IOException;
+
+    /**
+     * @return The hash of the content of an attachment or null if the
+     *         attachment has no file data in the store
+     */
+    String getContentHash(Integer attachmentDbId);
+
+    /**
+     * Deletes all stored contents which are not referenced by an attachment
+     * anymore.
+     * 
+     * @return The number of deleted contents
+     */
+    int deleteUnreferencedContent();
+
+}
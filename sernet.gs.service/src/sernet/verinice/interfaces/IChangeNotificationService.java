@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.util.Set;
+
+import sernet.verinice.model.common.ChangeEvents;
+
+/**
+ * Pushes changes of elements from the server to the clients. Clients wait
+ * for changes by long polling: a call returns as soon as there are new events
+ * for the client or after a timeout set on the server.
+ * 
+ * The service replaces polling the transaction log with
+ * {@link sernet.verinice.service.commands.task.GetChangesSince}.
+ */
+public interface IChangeNotificationService {
+
+    /**
+     * Waits for changes which happened after an event.
+     * 
+     * @param lastEventId
+     *            The id of the last event received by the client or
+     *            {@link ChangeEvents#NO_EVENT} to start receiving events
+     * @param stationId
+     *            The station id of the client, changes made by the client
+     *            itself are not returned
+     * @param scopeIds
+     *            The database ids of the scopes opened by the client or null
+     *            for all scopes. Changes of scopes, changes of permissions and
+     *            changes of elements without scope are always returned.
+     * @return The events, an empty result if the timeout expired
+     */
+    ChangeEvents waitForChanges(long lastEventId, String stationId, Set<Integer> scopeIds);
+
+}
@@ -537,6 +537,13 @@ public interface IDAOFactory {
 
     void setAttachmentDao(IAttachmentDao attachmentDao);
 
+    /**
+     * @return The store for the file data of attachments
+     */
+    IAttachmentStore getAttachmentStore();
+
+    void setAttachmentStore(IAttachmentStore attachmentStore);
+
     IFinishedRiskAnalysisListsDao getFinishedRiskAnalysisListsDao();
 
     void setFinishedRiskAnalysisListsDao(IFinishedRiskAnalysisListsDao dao);
@@ -18,8 +18,8 @@
  ******************************************************************************/
 package sernet.verinice.interfaces;
 
-import sernet.verinice.model.common.CascadingTransaction;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.ProtectionRequirementsPropagation;
 
 /**
  * This contract is used by the {@link CnATreeElement} to trigger a reevaluation
@@ -27,11 +27,10 @@ import sernet.verinice.model.common.CnATreeElement;
  * CnATreeElement need to propagate a property value change to linked elements
  * this element need an instance of the {@link IReevaluator} @see
  * {@link CnATreeElement#isProtectionRequirementsProvider()} and
- * {@link CnATreeElement#getProtectionRequirementsProvider()}. The reevaluate
- * signal is invoked by the corresponding
- * {@link CnATreeElement#fireXXXChanged(CascadingTransaction ta)} in
- * CnATreeElement which should be called in the event of changes to the values
- * of the CnATreeElement properties. @see
+ * {@link CnATreeElement#getProtectionRequirementsProvider()}. The reevaluation
+ * is done by {@link ProtectionRequirementsPropagation} which is started by
+ * {@link CnATreeElement#fireProtectionRequirementsChanged()} in the event of
+ * changes to the values of the CnATreeElement properties. @see
  * {@link sernet.verinice.hibernate.TreeElementDao#fireChange(CnATreeElement elmt)}
  * and @see {@link sernet.verinice.model.common.CnALink#remove()}.<br/>
  * There are currently two use cases for this kind of reevaluation: <br/>
@@ -62,8 +61,4 @@ public interface IReevaluator {
 	void setConfidentialityDescription(String text);
 	void setIntegrityDescription(String text);
 	void setAvailabilityDescription(String text);
-
-	void updateConfidentiality(CascadingTransaction ta);
-	void updateIntegrity(CascadingTransaction ta);
-	void updateAvailability(CascadingTransaction ta);
 }
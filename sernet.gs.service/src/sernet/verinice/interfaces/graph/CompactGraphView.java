@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.GraphType;
+import org.jgrapht.graph.AbstractGraph;
+import org.jgrapht.graph.DefaultGraphType;
+
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * A read-only JGraphT view of a {@link CompactVeriniceGraph}. The view is
+ * used by JGraphT algorithms like traversal iterators. Methods which change
+ * the graph throw an {@link UnsupportedOperationException}.
+ */
+class CompactGraphView extends AbstractGraph<CnATreeElement, Edge> {
+
+    private static final String READ_ONLY = "The graph view is read-only";
+
+    private final CompactVeriniceGraph graph;
+
+    CompactGraphView(CompactVeriniceGraph graph) {
+        super();
+        this.graph = graph;
+    }
+
+    @Override
+    public Set<Edge> getAllEdges(CnATreeElement sourceVertex, CnATreeElement targetVertex) {
+        return graph.getEdges(sourceVertex, targetVertex);
+    }
+
+    @Override
+    public Edge getEdge(CnATreeElement sourceVertex, CnATreeElement targetVertex) {
+        Set<Edge> edges = graph.getEdges(sourceVertex, targetVertex);
+        return (edges == null || edges.isEmpty()) ? null : edges.iterator().next();
+    }
+
+    @Override
+    public EdgeFactory<CnATreeElement, Edge> getEdgeFactory() {
+        return null;
+    }
+
+    @Override
+    public Supplier<CnATreeElement> getVertexSupplier() {
+        return null;
+    }
+
+    @Override
+    public Supplier<Edge> getEdgeSupplier() {
+        return null;
+    }
+
+    @Override
+    public Edge addEdge(CnATreeElement sourceVertex, CnATreeElement targetVertex) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public boolean addEdge(CnATreeElement sourceVertex, CnATreeElement targetVertex, Edge e) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public CnATreeElement addVertex() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public boolean addVertex(CnATreeElement v) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public boolean containsEdge(Edge e) {
+        return e != null && graph.containsEdge(e);
+    }
+
+    @Override
+    public boolean containsVertex(CnATreeElement v) {
+        return graph.containsVertex(v);
+    }
+
+    @Override
+    public Set<Edge> edgeSet() {
+        return new AbstractSet<Edge>() {
+
+            @Override
+            public int size() {
+                return graph.getEdgeCount();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Edge && graph.containsEdge((Edge) o);
+            }
+
+            @Override
+            public Iterator<Edge> iterator() {
+                final int count = graph.getEdgeCount();
+                return new Iterator<Edge>() {
+
+                    private int edgeNumber = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return edgeNumber < count;
+                    }
+
+                    @Override
+                    public Edge next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return graph.getEdge(edgeNumber++);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public int degreeOf(CnATreeElement vertex) {
+        return graph.getDegree(vertex, true, true);
+    }
+
+    @Override
+    public Set<Edge> edgesOf(CnATreeElement vertex) {
+        return graph.getEdgeSet(vertex, true, true);
+    }
+
+    @Override
+    public int inDegreeOf(CnATreeElement vertex) {
+        return graph.getDegree(vertex, false, true);
+    }
+
+    @Override
+    public Set<Edge> incomingEdgesOf(CnATreeElement vertex) {
+        return graph.getEdgeSet(vertex, false, true);
+    }
+
+    @Override
+    public int outDegreeOf(CnATreeElement vertex) {
+        return graph.getDegree(vertex, true, false);
+    }
+
+    @Override
+    public Set<Edge> outgoingEdgesOf(CnATreeElement vertex) {
+        return graph.getEdgeSet(vertex, true, false);
+    }
+
+    @Override
+    public Edge removeEdge(CnATreeElement sourceVertex, CnATreeElement targetVertex) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public boolean removeEdge(Edge e) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public boolean removeVertex(CnATreeElement v) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public Set<CnATreeElement> vertexSet() {
+        return graph.getElements();
+    }
+
+    @Override
+    public CnATreeElement getEdgeSource(Edge e) {
+        return e.getSource();
+    }
+
+    @Override
+    public CnATreeElement getEdgeTarget(Edge e) {
+        return e.getTarget();
+    }
+
+    @Override
+    public GraphType getType() {
+        return graph.isDirected() ? DefaultGraphType.directedMultigraph()
+                : DefaultGraphType.pseudograph();
+    }
+
+    @Override
+    public double getEdgeWeight(Edge e) {
+        return DEFAULT_EDGE_WEIGHT;
+    }
+
+    @Override
+    public void setEdgeWeight(Edge e, double weight) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
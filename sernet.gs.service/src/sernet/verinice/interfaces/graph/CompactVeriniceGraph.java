@@ -0,0 +1,847 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jgrapht.Graph;
+
+import sernet.verinice.model.common.CnALink.RiskTreatment;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * A verinice graph which stores vertices and edges in primitive arrays
+ * instead of a JGraphT graph. Vertices are numbered, edges are kept in
+ * compressed sparse row (CSR) adjacency arrays and type ids and relation ids
+ * are interned.
+ *
+ * Vertices can be added by database id and type id only. The element of such
+ * a vertex is loaded by an {@link IElementResolver} when it is accessed for
+ * the first time. {@link Edge} objects are created when they are accessed.
+ * Use this graph for large scopes if only a part of the elements is read.
+ *
+ * A directed graph behaves like {@link DirectedVeriniceGraph}, an undirected
+ * graph like {@link UndirectedVeriniceGraph}. {@link #getGraph()} returns a
+ * read-only JGraphT view of this graph.
+ *
+ * Loading of elements and creation of edges is synchronized. Call
+ * {@link #getElements()} to load all elements before the graph is read by
+ * more than one thread.
+ */
+public class CompactVeriniceGraph extends AbstractVeriniceGraph implements Serializable {
+
+    private static final long serialVersionUID = 2712360487421867795L;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final int RESOLVE_BATCH_SIZE = 500;
+
+    private final boolean directed;
+
+    // Vertices by vertex number
+    private int vertexCount = 0;
+    private int[] vertexDbIds = new int[INITIAL_CAPACITY];
+    private int[] vertexTypes = new int[INITIAL_CAPACITY];
+    private CnATreeElement[] vertexElements = new CnATreeElement[INITIAL_CAPACITY];
+    private final IntIndex vertexNumbers = new IntIndex();
+
+    // Edges by edge number
+    private int edgeCount = 0;
+    private int[] edgeSources = new int[INITIAL_CAPACITY];
+    private int[] edgeTargets = new int[INITIAL_CAPACITY];
+    private int[] edgeTypes = new int[INITIAL_CAPACITY];
+    private Edge[] edgeObjects = new Edge[INITIAL_CAPACITY];
+    private Map<Integer, EdgeAttributes> edgeAttributes = new HashMap<>();
+
+    // Interned type ids and relation ids
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, Integer> idNumbers = new HashMap<>();
+
+    // CSR adjacency, created again after edges are added
+    private transient boolean adjacencyValid = false;
+    private transient int[] outOffsets;
+    private transient int[] outEdges;
+    private transient int[] inOffsets;
+    private transient int[] inEdges;
+
+    private transient IElementResolver elementResolver;
+
+    private transient Graph<CnATreeElement, Edge> graphView;
+
+    public CompactVeriniceGraph(boolean directed) {
+        this(directed, null);
+    }
+
+    public CompactVeriniceGraph(boolean directed, IElementResolver elementResolver) {
+        super();
+        this.directed = directed;
+        this.elementResolver = elementResolver;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public void setElementResolver(IElementResolver elementResolver) {
+        this.elementResolver = elementResolver;
+    }
+
+    @Override
+    public synchronized void addVertex(CnATreeElement element) {
+        if (element.getDbId() == null) {
+            throw new IllegalArgumentException("Element without database id: " + element);
+        }
+        int vertex = addVertex(element.getDbId(), element.getTypeId());
+        if (vertexElements[vertex] == null) {
+            vertexElements[vertex] = element;
+        }
+    }
+
+    /**
+     * Adds a vertex without an element. The element is loaded by the element
+     * resolver when it is accessed.
+     *
+     * @return The number of the vertex
+     */
+    public synchronized int addVertex(int dbId, String typeId) {
+        int vertex = vertexNumbers.get(dbId);
+        if (vertex >= 0) {
+            return vertex;
+        }
+        if (vertexCount == vertexDbIds.length) {
+            int capacity = vertexCount * 2;
+            vertexDbIds = Arrays.copyOf(vertexDbIds, capacity);
+            vertexTypes = Arrays.copyOf(vertexTypes, capacity);
+            vertexElements = Arrays.copyOf(vertexElements, capacity);
+        }
+        vertex = vertexCount++;
+        vertexDbIds[vertex] = dbId;
+        vertexTypes[vertex] = intern(typeId);
+        vertexNumbers.put(dbId, vertex);
+        return vertex;
+    }
+
+    @Override
+    public synchronized void addEdge(Edge edge) {
+        int source = getExistingVertex(edge.getSource());
+        int target = getExistingVertex(edge.getTarget());
+        int edgeNumber = addEdge(source, target, edge.getType());
+        if (edgeNumber >= 0) {
+            edgeObjects[edgeNumber] = edge;
+        }
+    }
+
+    /**
+     * Adds an edge between two vertices which are added before.
+     *
+     * @param attributes
+     *            Description and risk values of the edge or null
+     */
+    public synchronized void addEdge(int sourceDbId, int targetDbId, String type,
+            EdgeAttributes attributes) {
+        int source = getExistingVertex(sourceDbId);
+        int target = getExistingVertex(targetDbId);
+        int edgeNumber = addEdge(source, target, type);
+        if (edgeNumber >= 0 && attributes != null) {
+            edgeAttributes.put(edgeNumber, attributes);
+        }
+    }
+
+    private int addEdge(int source, int target, String type) {
+        if (directed && source == target) {
+            throw new IllegalArgumentException("loops not allowed");
+        }
+        if (edgeCount == edgeSources.length) {
+            int capacity = edgeCount * 2;
+            edgeSources = Arrays.copyOf(edgeSources, capacity);
+            edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+            edgeTypes = Arrays.copyOf(edgeTypes, capacity);
+            edgeObjects = Arrays.copyOf(edgeObjects, capacity);
+        }
+        int edgeNumber = edgeCount++;
+        edgeSources[edgeNumber] = source;
+        edgeTargets[edgeNumber] = target;
+        edgeTypes[edgeNumber] = intern(type);
+        adjacencyValid = false;
+        return edgeNumber;
+    }
+
+    @Override
+    public Set<CnATreeElement> getElements() {
+        return new VertexSet();
+    }
+
+    @Override
+    public synchronized Set<CnATreeElement> getElements(String typeId) {
+        Set<CnATreeElement> elements = new HashSet<>();
+        int type = getIdNumber(typeId);
+        if (type < 0) {
+            return elements;
+        }
+        int[] vertices = new int[vertexCount];
+        int count = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (vertexTypes[vertex] == type) {
+                vertices[count++] = vertex;
+            }
+        }
+        addElements(elements, vertices, count);
+        return elements;
+    }
+
+    @Override
+    public synchronized CnATreeElement getElement(Integer dbId) {
+        if (dbId == null) {
+            return null;
+        }
+        int vertex = vertexNumbers.get(dbId);
+        return (vertex >= 0) ? getVertexElement(vertex) : null;
+    }
+
+    @Override
+    public synchronized Set<CnATreeElement> getLinkTargets(CnATreeElement source,
+            String linkTypeId) {
+        int vertex = getExistingVertex(source);
+        int type = getIdNumber(linkTypeId);
+        Set<CnATreeElement> linkTargets = new HashSet<>();
+        if (linkTypeId != null && type < 0) {
+            return linkTargets;
+        }
+        int[] targets = new int[degree(vertex, directed)];
+        int count = 0;
+        for (int edgeNumber : edgesOf(vertex, directed)) {
+            if (type < 0 || edgeTypes[edgeNumber] == type) {
+                targets[count++] = getOpposite(edgeNumber, vertex);
+            }
+        }
+        addElements(linkTargets, targets, count);
+        return linkTargets;
+    }
+
+    @Override
+    public synchronized Set<CnATreeElement> getLinkTargetsByElementType(CnATreeElement source,
+            String elementTypeId) {
+        int vertex = getExistingVertex(source);
+        int type = getIdNumber(elementTypeId);
+        Set<CnATreeElement> linkTargets = new HashSet<>();
+        if (elementTypeId != null && type < 0) {
+            return linkTargets;
+        }
+        int[] targets = new int[degree(vertex, false)];
+        int count = 0;
+        for (int edgeNumber : edgesOf(vertex, false)) {
+            // A directed graph returns the target of incoming edges, too
+            int target = directed ? edgeTargets[edgeNumber] : getOpposite(edgeNumber, vertex);
+            if (type < 0 || vertexTypes[target] == type) {
+                targets[count++] = target;
+            }
+        }
+        addElements(linkTargets, targets, count);
+        return linkTargets;
+    }
+
+    @Override
+    public synchronized Set<Edge> getEdgesByElementType(CnATreeElement source,
+            String elementTypeId) {
+        int vertex = getExistingVertex(source);
+        int type = getIdNumber(elementTypeId);
+        Set<Edge> edgeSet = new HashSet<>();
+        if (elementTypeId != null && type < 0) {
+            return edgeSet;
+        }
+        int[] selectedEdges = new int[degree(vertex, directed)];
+        int count = 0;
+        for (int edgeNumber : edgesOf(vertex, directed)) {
+            if (type < 0 || vertexTypes[getOpposite(edgeNumber, vertex)] == type) {
+                selectedEdges[count++] = edgeNumber;
+            }
+        }
+        addEdges(edgeSet, selectedEdges, count);
+        return edgeSet;
+    }
+
+    @Override
+    public synchronized Graph<CnATreeElement, Edge> getGraph() {
+        if (graphView == null) {
+            graphView = new CompactGraphView(this);
+        }
+        return graphView;
+    }
+
+    /**
+     * @return True if there is a vertex for the database id
+     */
+    public synchronized boolean containsVertex(int dbId) {
+        return vertexNumbers.get(dbId) >= 0;
+    }
+
+    /**
+     * @return The number of vertices
+     */
+    public synchronized int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return The number of edges
+     */
+    public synchronized int getEdgeCount() {
+        ensureAdjacency();
+        return edgeCount;
+    }
+
+    // Methods used by CompactGraphView
+
+    synchronized boolean containsVertex(CnATreeElement element) {
+        return element != null && element.getDbId() != null
+                && vertexNumbers.get(element.getDbId()) >= 0;
+    }
+
+    synchronized Set<Edge> getEdgeSet(CnATreeElement element, boolean outgoing,
+            boolean incoming) {
+        ensureAdjacency();
+        int vertex = getExistingVertex(element);
+        Set<Edge> edgeSet = new HashSet<>();
+        if (!directed || (outgoing && incoming)) {
+            addEdges(edgeSet, edgesOf(vertex, false), degree(vertex, false));
+        } else if (outgoing) {
+            addEdges(edgeSet, edgesOf(vertex, true), degree(vertex, true));
+        } else {
+            int[] incomingEdges = Arrays.copyOfRange(inEdges, inOffsets[vertex],
+                    inOffsets[vertex + 1]);
+            addEdges(edgeSet, incomingEdges, incomingEdges.length);
+        }
+        return edgeSet;
+    }
+
+    synchronized int getDegree(CnATreeElement element, boolean outgoing, boolean incoming) {
+        int vertex = getExistingVertex(element);
+        if (!directed) {
+            // Loops are counted twice like in JGraphT
+            int degree = 0;
+            for (int edgeNumber : edgesOf(vertex, false)) {
+                degree += (edgeSources[edgeNumber] == edgeTargets[edgeNumber]) ? 2 : 1;
+            }
+            return degree;
+        }
+        if (outgoing && incoming) {
+            return degree(vertex, false);
+        }
+        if (outgoing) {
+            return degree(vertex, true);
+        }
+        ensureAdjacency();
+        return inOffsets[vertex + 1] - inOffsets[vertex];
+    }
+
+    synchronized Set<Edge> getEdges(CnATreeElement sourceElement,
+            CnATreeElement targetElement) {
+        if (!containsVertex(sourceElement) || !containsVertex(targetElement)) {
+            return null;
+        }
+        Set<Edge> edgeSet = new HashSet<>();
+        int source = getExistingVertex(sourceElement);
+        int target = getExistingVertex(targetElement);
+        int[] selectedEdges = new int[degree(source, directed)];
+        int count = 0;
+        for (int edgeNumber : edgesOf(source, directed)) {
+            if (directed ? edgeTargets[edgeNumber] == target
+                    : getOpposite(edgeNumber, source) == target) {
+                selectedEdges[count++] = edgeNumber;
+            }
+        }
+        addEdges(edgeSet, selectedEdges, count);
+        return edgeSet;
+    }
+
+    synchronized boolean containsEdge(Edge edge) {
+        if (!containsVertex(edge.getSource()) || !containsVertex(edge.getTarget())) {
+            return false;
+        }
+        int source = getExistingVertex(edge.getSource());
+        int target = getExistingVertex(edge.getTarget());
+        int type = getIdNumber(edge.getType());
+        for (int edgeNumber : edgesOf(source, true)) {
+            if (edgeTargets[edgeNumber] == target && edgeTypes[edgeNumber] == type
+                    && edgeSources[edgeNumber] == source) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized Edge getEdge(int edgeNumber) {
+        ensureAdjacency();
+        if (edgeObjects[edgeNumber] == null) {
+            addEdges(new ArrayList<>(1), new int[] { edgeNumber }, 1);
+        }
+        return edgeObjects[edgeNumber];
+    }
+
+    private void addElements(Set<CnATreeElement> elements, int[] vertices, int count) {
+        resolve(vertices, count);
+        for (int i = 0; i < count; i++) {
+            CnATreeElement element = vertexElements[vertices[i]];
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+    }
+
+    private void addEdges(Collection<Edge> edgeSet, int[] edgeNumbers, int count) {
+        int[] vertices = new int[count * 2];
+        int vertexCountToResolve = 0;
+        for (int i = 0; i < count; i++) {
+            if (edgeObjects[edgeNumbers[i]] == null) {
+                vertices[vertexCountToResolve++] = edgeSources[edgeNumbers[i]];
+                vertices[vertexCountToResolve++] = edgeTargets[edgeNumbers[i]];
+            }
+        }
+        resolve(vertices, vertexCountToResolve);
+        for (int i = 0; i < count; i++) {
+            Edge edge = createEdge(edgeNumbers[i]);
+            if (edge != null) {
+                edgeSet.add(edge);
+            }
+        }
+    }
+
+    private Edge createEdge(int edgeNumber) {
+        Edge edge = edgeObjects[edgeNumber];
+        if (edge != null) {
+            return edge;
+        }
+        CnATreeElement source = vertexElements[edgeSources[edgeNumber]];
+        CnATreeElement target = vertexElements[edgeTargets[edgeNumber]];
+        if (source == null || target == null) {
+            return null;
+        }
+        edge = new Edge(source, target, ids.get(edgeTypes[edgeNumber]));
+        EdgeAttributes attributes = edgeAttributes.remove(edgeNumber);
+        if (attributes != null) {
+            attributes.copyTo(edge);
+        }
+        edgeObjects[edgeNumber] = edge;
+        return edge;
+    }
+
+    private CnATreeElement getVertexElement(int vertex) {
+        if (vertexElements[vertex] == null) {
+            resolve(new int[] { vertex }, 1);
+        }
+        return vertexElements[vertex];
+    }
+
+    /**
+     * Loads the elements of vertices without element with the element
+     * resolver.
+     */
+    private void resolve(int[] vertices, int count) {
+        List<Integer> dbIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (vertexElements[vertices[i]] == null) {
+                dbIds.add(vertexDbIds[vertices[i]]);
+            }
+        }
+        for (int from = 0; from < dbIds.size(); from += RESOLVE_BATCH_SIZE) {
+            if (elementResolver == null) {
+                throw new IllegalStateException(
+                        "Elements are not loaded and no element resolver is set");
+            }
+            List<Integer> batch = dbIds.subList(from,
+                    Math.min(from + RESOLVE_BATCH_SIZE, dbIds.size()));
+            for (CnATreeElement element : elementResolver.loadElements(batch)) {
+                int vertex = vertexNumbers.get(element.getDbId());
+                if (vertex >= 0 && vertexElements[vertex] == null) {
+                    vertexElements[vertex] = element;
+                }
+            }
+        }
+        if (log.isDebugEnabled() && !dbIds.isEmpty()) {
+            log.debug(dbIds.size() + " elements loaded by element resolver");
+        }
+    }
+
+    private synchronized void resolveAll() {
+        int[] vertices = new int[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            vertices[vertex] = vertex;
+        }
+        resolve(vertices, vertexCount);
+    }
+
+    private int getExistingVertex(CnATreeElement element) {
+        if (element == null || element.getDbId() == null) {
+            throw new IllegalArgumentException("no such vertex in graph: " + element);
+        }
+        return getExistingVertex(element.getDbId());
+    }
+
+    private int getExistingVertex(int dbId) {
+        int vertex = vertexNumbers.get(dbId);
+        if (vertex < 0) {
+            throw new IllegalArgumentException("no such vertex in graph, db-id: " + dbId);
+        }
+        return vertex;
+    }
+
+    private int getOpposite(int edgeNumber, int vertex) {
+        int source = edgeSources[edgeNumber];
+        return (source == vertex) ? edgeTargets[edgeNumber] : source;
+    }
+
+    private int getIdNumber(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer number = idNumbers.get(id);
+        return (number != null) ? number : -1;
+    }
+
+    private int intern(String id) {
+        Integer number = idNumbers.get(id);
+        if (number == null) {
+            number = ids.size();
+            ids.add(id);
+            idNumbers.put(id, number);
+        }
+        return number;
+    }
+
+    /**
+     * Returns the numbers of the outgoing edges of a vertex if outgoingOnly
+     * is true, all edges of the vertex otherwise.
+     */
+    private int[] edgesOf(int vertex, boolean outgoingOnly) {
+        ensureAdjacency();
+        int[] outgoing = Arrays.copyOfRange(outEdges, outOffsets[vertex],
+                outOffsets[vertex + 1]);
+        if (outgoingOnly || !directed) {
+            return outgoing;
+        }
+        int inDegree = inOffsets[vertex + 1] - inOffsets[vertex];
+        int[] all = Arrays.copyOf(outgoing, outgoing.length + inDegree);
+        System.arraycopy(inEdges, inOffsets[vertex], all, outgoing.length, inDegree);
+        return all;
+    }
+
+    private int degree(int vertex, boolean outgoingOnly) {
+        ensureAdjacency();
+        int degree = outOffsets[vertex + 1] - outOffsets[vertex];
+        if (!outgoingOnly && directed) {
+            degree += inOffsets[vertex + 1] - inOffsets[vertex];
+        }
+        return degree;
+    }
+
+    /**
+     * Creates the CSR adjacency arrays if edges were added after the last
+     * call. Duplicate edges with same source, target and type are removed
+     * first, the edge added first is kept like in a JGraphT graph.
+     */
+    private void ensureAdjacency() {
+        if (adjacencyValid) {
+            return;
+        }
+        removeDuplicateEdges();
+        if (directed) {
+            outOffsets = new int[vertexCount + 1];
+            outEdges = groupEdges(edgeSources, null, outOffsets);
+            inOffsets = new int[vertexCount + 1];
+            inEdges = groupEdges(edgeTargets, null, inOffsets);
+        } else {
+            // Every edge is added to source and target, loops are added once
+            outOffsets = new int[vertexCount + 1];
+            outEdges = groupEdges(edgeSources, edgeTargets, outOffsets);
+            inOffsets = outOffsets;
+            inEdges = outEdges;
+        }
+        adjacencyValid = true;
+    }
+
+    /**
+     * Groups the edge numbers by the vertices in firstVertices and
+     * secondVertices (counting sort). The order of edges of a vertex is the
+     * order in which the edges were added.
+     */
+    private int[] groupEdges(int[] firstVertices, int[] secondVertices, int[] offsets) {
+        for (int edgeNumber = 0; edgeNumber < edgeCount; edgeNumber++) {
+            offsets[firstVertices[edgeNumber] + 1]++;
+            if (secondVertices != null
+                    && secondVertices[edgeNumber] != firstVertices[edgeNumber]) {
+                offsets[secondVertices[edgeNumber] + 1]++;
+            }
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            offsets[vertex + 1] += offsets[vertex];
+        }
+        int[] next = Arrays.copyOf(offsets, vertexCount);
+        int[] grouped = new int[offsets[vertexCount]];
+        for (int edgeNumber = 0; edgeNumber < edgeCount; edgeNumber++) {
+            grouped[next[firstVertices[edgeNumber]]++] = edgeNumber;
+            if (secondVertices != null
+                    && secondVertices[edgeNumber] != firstVertices[edgeNumber]) {
+                grouped[next[secondVertices[edgeNumber]]++] = edgeNumber;
+            }
+        }
+        return grouped;
+    }
+
+    private void removeDuplicateEdges() {
+        int[] offsets = new int[vertexCount + 1];
+        int[] grouped = groupEdges(edgeSources, null, offsets);
+        boolean[] duplicate = new boolean[edgeCount];
+        int duplicates = 0;
+        Set<Long> targetsAndTypes = new HashSet<>();
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            targetsAndTypes.clear();
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                int edgeNumber = grouped[i];
+                long targetAndType = ((long) edgeTargets[edgeNumber] << 32)
+                        | (edgeTypes[edgeNumber] & 0xFFFFFFFFL);
+                if (!targetsAndTypes.add(targetAndType)) {
+                    duplicate[edgeNumber] = true;
+                    duplicates++;
+                }
+            }
+        }
+        if (duplicates > 0) {
+            removeEdges(duplicate);
+        }
+    }
+
+    private void removeEdges(boolean[] removed) {
+        Map<Integer, EdgeAttributes> remainingAttributes = new HashMap<>();
+        int remaining = 0;
+        for (int edgeNumber = 0; edgeNumber < edgeCount; edgeNumber++) {
+            if (removed[edgeNumber]) {
+                continue;
+            }
+            edgeSources[remaining] = edgeSources[edgeNumber];
+            edgeTargets[remaining] = edgeTargets[edgeNumber];
+            edgeTypes[remaining] = edgeTypes[edgeNumber];
+            edgeObjects[remaining] = edgeObjects[edgeNumber];
+            EdgeAttributes attributes = edgeAttributes.get(edgeNumber);
+            if (attributes != null) {
+                remainingAttributes.put(remaining, attributes);
+            }
+            remaining++;
+        }
+        Arrays.fill(edgeObjects, remaining, edgeCount, null);
+        edgeCount = remaining;
+        edgeAttributes = remainingAttributes;
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        // Elements can not be loaded after deserialization
+        resolveAll();
+        ensureAdjacency();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * A view of all elements of the graph. The elements are loaded when the
+     * set is iterated for the first time.
+     */
+    private final class VertexSet extends AbstractSet<CnATreeElement> {
+
+        @Override
+        public int size() {
+            return getVertexCount();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof CnATreeElement && containsVertex((CnATreeElement) o);
+        }
+
+        @Override
+        public Iterator<CnATreeElement> iterator() {
+            resolveAll();
+            return new Iterator<CnATreeElement>() {
+
+                private final int count = getVertexCount();
+                private int vertex = nextVertex(0);
+
+                private int nextVertex(int start) {
+                    int next = start;
+                    while (next < count && vertexElements[next] == null) {
+                        next++;
+                    }
+                    return next;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return vertex < count;
+                }
+
+                @Override
+                public CnATreeElement next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    CnATreeElement element = vertexElements[vertex];
+                    vertex = nextVertex(vertex + 1);
+                    return element;
+                }
+            };
+        }
+    }
+
+    /**
+     * Description and risk values of an edge which is not created yet.
+     */
+    public static final class EdgeAttributes implements Serializable {
+
+        private static final long serialVersionUID = -2310945387218307741L;
+
+        private String description;
+        private Integer riskConfidentiality;
+        private Integer riskIntegrity;
+        private Integer riskAvailability;
+        private Integer riskConfidentialityWithControls;
+        private Integer riskIntegrityWithControls;
+        private Integer riskAvailabilityWithControls;
+        private RiskTreatment riskTreatment;
+
+        public EdgeAttributes(String description, Integer riskConfidentiality,
+                Integer riskIntegrity, Integer riskAvailability,
+                Integer riskConfidentialityWithControls, Integer riskIntegrityWithControls,
+                Integer riskAvailabilityWithControls, RiskTreatment riskTreatment) {
+            this.description = description;
+            this.riskConfidentiality = riskConfidentiality;
+            this.riskIntegrity = riskIntegrity;
+            this.riskAvailability = riskAvailability;
+            this.riskConfidentialityWithControls = riskConfidentialityWithControls;
+            this.riskIntegrityWithControls = riskIntegrityWithControls;
+            this.riskAvailabilityWithControls = riskAvailabilityWithControls;
+            this.riskTreatment = riskTreatment;
+        }
+
+        /**
+         * @return True if all attributes are null
+         */
+        public boolean isEmpty() {
+            return description == null && riskConfidentiality == null && riskIntegrity == null
+                    && riskAvailability == null && riskConfidentialityWithControls == null
+                    && riskIntegrityWithControls == null && riskAvailabilityWithControls == null
+                    && riskTreatment == null;
+        }
+
+        void copyTo(Edge edge) {
+            edge.setDescription(description);
+            edge.setRiskConfidentiality(riskConfidentiality);
+            edge.setRiskIntegrity(riskIntegrity);
+            edge.setRiskAvailability(riskAvailability);
+            edge.setRiskConfidentialityWithControls(riskConfidentialityWithControls);
+            edge.setRiskIntegrityWithControls(riskIntegrityWithControls);
+            edge.setRiskAvailabilityWithControls(riskAvailabilityWithControls);
+            edge.setRiskTreatment(riskTreatment);
+        }
+    }
+
+    /**
+     * A map from int keys to non negative int values with open addressing.
+     */
+    private static final class IntIndex implements Serializable {
+
+        private static final long serialVersionUID = 5150683434386575406L;
+
+        private int[] keys = new int[INITIAL_CAPACITY];
+        private int[] values = newValues(INITIAL_CAPACITY);
+        private int size = 0;
+
+        private static int[] newValues(int capacity) {
+            int[] values = new int[capacity];
+            Arrays.fill(values, -1);
+            return values;
+        }
+
+        /**
+         * @return The value of the key or -1 if there is no value
+         */
+        int get(int key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] >= 0) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(int key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            if (insert(keys, values, key, value)) {
+                size++;
+            }
+        }
+
+        private void resize() {
+            int[] newKeys = new int[keys.length * 2];
+            int[] newValues = newValues(keys.length * 2);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] >= 0) {
+                    insert(newKeys, newValues, keys[slot], values[slot]);
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        private static boolean insert(int[] keys, int[] values, int key, int value) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] >= 0) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            return true;
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
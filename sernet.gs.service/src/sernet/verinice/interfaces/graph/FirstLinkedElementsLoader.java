@@ -27,6 +27,7 @@ import org.apache.commons.lang.ArrayUtils;
 import org.hibernate.FetchMode;
 import org.hibernate.SQLQuery;
 import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 
 import sernet.verinice.model.common.CnATreeElement;
@@ -51,6 +52,24 @@ public final class FirstLinkedElementsLoader extends GraphElementLoader {
         return getObjects(getLinkedObjectsOutsideOfScope());
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Integer> loadElementIds() {
+        if (ArrayUtils.isEmpty(getScopeIds())) {
+            throw new IllegalArgumentException(
+                    "This graph loader only works on a set of scopes. The scopes are currently set to: "
+                            + getScopeIds());
+        }
+        Collection<String> uuidToLoad = getLinkedObjectsOutsideOfScope();
+        if (uuidToLoad == null || uuidToLoad.isEmpty()) {
+            return Collections.emptyList();
+        }
+        DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
+        criteria.add(Restrictions.in("uuid", uuidToLoad));
+        criteria.setProjection(Projections.property("dbId"));
+        return getCnaTreeElementDao().findByCriteria(criteria);
+    }
+
     /**
      * Loads all the elements in the uuidToLoad collection.
      */
@@ -21,13 +21,16 @@ package sernet.verinice.interfaces.graph;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
 import org.hibernate.FetchMode;
 import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 
 import sernet.verinice.interfaces.GraphCommand;
@@ -62,12 +65,7 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
     @Override
     public List<CnATreeElement> loadElements() {
         DetachedCriteria crit = createDefaultCriteria();
-        if (getScopeIds() != null && getScopeIds().length > 0) {
-            crit.add(Restrictions.in("scopeId", getScopeIds()));
-        }
-        if (getTypeIds() != null && getTypeIds().length > 0) {
-            crit.add(Restrictions.in("objectType", getTypeIds()));
-        }
+        addRestrictions(crit);
         @SuppressWarnings("unchecked") // daos does not use generics
         List<CnATreeElement> elementList = getCnaTreeElementDao().findByCriteria(crit);
         elementList = filterElements(elementList);
@@ -77,6 +75,36 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
         return elementList;
     }
     
+    /**
+     * Loads the ids with a projection if there is no element filter.
+     *
+     * @see sernet.verinice.interfaces.graph.IGraphElementLoader#loadElementIds()
+     */
+    @Override
+    public List<Integer> loadElementIds() {
+        if (getElementFilter() != null) {
+            return IGraphElementLoader.super.loadElementIds();
+        }
+        DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class);
+        addRestrictions(crit);
+        crit.setProjection(Projections.property("dbId"));
+        @SuppressWarnings("unchecked") // daos does not use generics
+        List<Integer> dbIdList = getCnaTreeElementDao().findByCriteria(crit);
+        if (LOG.isInfoEnabled()) {
+            LOG.info(dbIdList.size() + " relevant object ids found");
+        }
+        return dbIdList;
+    }
+
+    private void addRestrictions(DetachedCriteria crit) {
+        if (getScopeIds() != null && getScopeIds().length > 0) {
+            crit.add(Restrictions.in("scopeId", getScopeIds()));
+        }
+        if (getTypeIds() != null && getTypeIds().length > 0) {
+            crit.add(Restrictions.in("objectType", getTypeIds()));
+        }
+    }
+
     private List<CnATreeElement> filterElements(List<CnATreeElement> elementList) {
         if(getElementFilter()==null) {
             return elementList;
@@ -90,6 +118,30 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
         return filteredList;
     }
     
+    /**
+     * Returns a key built from class, scope ids and type ids of this loader.
+     * Loaders with an element filter are not cached since the filter can not
+     * be compared.
+     *
+     * @see sernet.verinice.interfaces.graph.IGraphElementLoader#getCacheKey()
+     */
+    @Override
+    public String getCacheKey() {
+        if (getElementFilter() != null) {
+            return null;
+        }
+        return getClass().getSimpleName() + ":" + toSortedString(getScopeIds()) + ":"
+                + toSortedString(getTypeIds());
+    }
+
+    private static String toSortedString(Object[] values) {
+        if (values == null || values.length == 0) {
+            return "*";
+        }
+        return Arrays.stream(values).map(String::valueOf).sorted()
+                .collect(Collectors.joining(","));
+    }
+
     private DetachedCriteria createDefaultCriteria() {
         DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class);
         crit.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
@@ -98,6 +150,7 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
         return crit;
     }
     
+    @Override
     public Integer[] getScopeIds() {
         return scopeIds;
     }
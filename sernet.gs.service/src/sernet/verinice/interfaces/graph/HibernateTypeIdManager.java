@@ -39,6 +39,7 @@ import sernet.verinice.model.bsi.TKKategorie;
 import sernet.verinice.model.bsi.TelefonKomponente;
 import sernet.verinice.model.bsi.risikoanalyse.FinishedRiskAnalysis;
 import sernet.verinice.model.bsi.risikoanalyse.GefaehrdungsUmsetzung;
+import sernet.verinice.model.bsi.risikoanalyse.RisikoMassnahmenUmsetzung;
 import sernet.verinice.model.iso27k.IncidentGroup;
 
 /**
@@ -92,6 +93,16 @@ public abstract class HibernateTypeIdManager {
 
     }
 
+    private static final Map<String, String> HIBERNATE_TYPE_TYPE_MAP;
+    static {
+        HIBERNATE_TYPE_TYPE_MAP = new HashMap<>();
+        for (Map.Entry<String, String> entry : TYPE_HIBERNATE_TYPE_MAP.entrySet()) {
+            HIBERNATE_TYPE_TYPE_MAP.put(entry.getValue(), entry.getKey());
+        }
+        HIBERNATE_TYPE_TYPE_MAP.put(RisikoMassnahmenUmsetzung.HIBERNATE_TYPE_ID,
+                RisikoMassnahmenUmsetzung.TYPE_ID);
+    }
+
     private HibernateTypeIdManager() {
         super();
     }
@@ -104,4 +115,13 @@ public abstract class HibernateTypeIdManager {
     public static final String getHibernateTypeId(String typeId) {
         return TYPE_HIBERNATE_TYPE_MAP.getOrDefault(typeId, typeId);
     }
+
+    /**
+     * @param hibernateTypeId
+     *            A Hibernate type id from a *.hbm.xml file
+     * @return The type id from SNCA.xml for a Hibernate type id
+     */
+    public static final String getTypeId(String hibernateTypeId) {
+        return HIBERNATE_TYPE_TYPE_MAP.getOrDefault(hibernateTypeId, hibernateTypeId);
+    }
 }
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import java.util.Collection;
+import java.util.List;
+
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Loads the elements of a {@link CompactVeriniceGraph} when they are accessed
+ * for the first time.
+ */
+public interface IElementResolver {
+
+    /**
+     * Loads elements with properties by database id. Elements which are not
+     * found are missing in the returned list.
+     *
+     * @param dbIds
+     *            Database ids of the elements
+     * @return A list of elements
+     */
+    List<CnATreeElement> loadElements(Collection<Integer> dbIds);
+}
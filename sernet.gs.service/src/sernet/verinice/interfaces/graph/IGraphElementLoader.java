@@ -21,6 +21,7 @@ package sernet.verinice.interfaces.graph;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.common.CnATreeElement;
@@ -50,6 +51,14 @@ public interface IGraphElementLoader extends Serializable {
      *            Scope-id / organization db-id
      */
     void setScopeId(Integer scopeId);
+
+    /**
+     * @return The scopes / organizations the elements are loaded from or null
+     *         if the elements are loaded from all scopes
+     */
+    default Integer[] getScopeIds() {
+        return null;
+    }
     
     /**
      * If this parameter is set only elements with specified type-id
@@ -76,4 +85,28 @@ public interface IGraphElementLoader extends Serializable {
      * @return A list of elements
      */
     List<CnATreeElement> loadElements();
+
+    /**
+     * Loads and returns the database ids of the elements specified by
+     * parameters and element filter. Override this method if the ids can be
+     * loaded without loading the elements.
+     *
+     * @return A list of database ids
+     */
+    default List<Integer> loadElementIds() {
+        return loadElements().stream().map(CnATreeElement::getDbId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a key which identifies the elements loaded by this loader. Two
+     * loaders with the same key must load the same elements. Graphs are only
+     * cached by {@link IGraphService} if all loaders return a key.
+     *
+     * @return A key for the graph cache or null if the elements of this
+     *         loader must not be cached
+     */
+    default String getCacheKey() {
+        return null;
+    }
 }
@@ -105,4 +105,47 @@ public interface IGraphService {
     VeriniceGraph createDirectedGraph(List<? extends IGraphElementLoader> loaderList,
             String[] relationIds, boolean loadLinks);
 
+    /**
+     * Returns a VeriniceGraph from the graph cache or creates and caches it if
+     * it is not cached yet. Only elements which are visible for the current
+     * user are part of the returned graph.
+     *
+     * The elements of the returned graph are shared with other callers of
+     * this method and must not be changed. If one of the loaders does not
+     * return a cache key the graph is created like in
+     * {@link #create(List, String[], boolean)}.
+     *
+     * @param loadLinks
+     *            Disables the loading of links if {@code false} regardless of
+     *            the relation ids.
+     * @see IGraphElementLoader#getCacheKey()
+     */
+    VeriniceGraph createCached(List<? extends IGraphElementLoader> loaderList,
+            String[] relationIds, boolean loadLinks);
+
+    /**
+     * Returns a directed VeriniceGraph from the graph cache, see
+     * {@link #createCached(List, String[], boolean)}.
+     *
+     * @param loadLinks
+     *            Disables the loading of links if {@code false} regardless of
+     *            the relation ids.
+     */
+    VeriniceGraph createCachedDirectedGraph(List<? extends IGraphElementLoader> loaderList,
+            String[] relationIds, boolean loadLinks);
+
+    /**
+     * Creates a {@link CompactVeriniceGraph}. Only database ids, type ids and
+     * links are loaded when the graph is created. Elements are loaded in the
+     * current Hibernate session when they are accessed for the first time.
+     *
+     * @param directed
+     *            Creates a directed graph if {@code true}
+     * @param loadLinks
+     *            Disables the loading of links if {@code false} regardless of
+     *            the relation ids.
+     */
+    VeriniceGraph createCompactGraph(List<? extends IGraphElementLoader> loaderList,
+            String[] relationIds, boolean loadLinks, boolean directed);
+
 }
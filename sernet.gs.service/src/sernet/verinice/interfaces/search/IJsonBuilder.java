@@ -19,9 +19,12 @@
  ******************************************************************************/
 package sernet.verinice.interfaces.search;
 
+import java.util.Collection;
+
 import sernet.verinice.model.bp.groups.ImportBpGroup;
 import sernet.verinice.model.bsi.ImportBsiGroup;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.Permission;
 import sernet.verinice.model.iso27k.ImportIsoGroup;
 
 /**
@@ -36,6 +39,15 @@ public interface IJsonBuilder {
      */
     String getJson(CnATreeElement element);
 
+    /**
+     * @param permissions
+     *            the permissions of the element, used instead of
+     *            {@link CnATreeElement#getPermissions()} which does not need to
+     *            be initialized
+     * @return A JSON document from an element for indexing in ElasticSearch
+     */
+    String getJson(CnATreeElement element, Collection<Permission> permissions);
+
     default boolean isIndexableElement(CnATreeElement element) {
         return !(element instanceof ImportIsoGroup || element instanceof ImportBsiGroup
                 || element instanceof ImportBpGroup);
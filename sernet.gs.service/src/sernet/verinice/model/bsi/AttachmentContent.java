@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.bsi;
+
+import java.io.Serializable;
+
+import sernet.verinice.interfaces.IAttachmentStore;
+
+/**
+ * The file content of one or more attachments, identified by a hash of the
+ * content. Attachments reference a content by
+ * {@link AttachmentFile#getContentHash()}.
+ * 
+ * The file data is read and written as a stream by the
+ * {@link IAttachmentStore}. This class is not used to load the file data.
+ */
+@SuppressWarnings("serial")
+public class AttachmentContent implements Serializable {
+
+    private String contentHash;
+
+    private byte[] fileData;
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public byte[] getFileData() {
+        return fileData;
+    }
+
+    public void setFileData(byte[] fileData) {
+        this.fileData = fileData;
+    }
+
+    @Override
+    public int hashCode() {
+        return (contentHash == null) ? 0 : contentHash.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        AttachmentContent other = (AttachmentContent) obj;
+        return contentHash != null && contentHash.equals(other.contentHash);
+    }
+
+}
@@ -40,6 +40,8 @@ public class AttachmentFile implements Serializable, ITypedElement {
 
     private byte[] fileData;
 
+    private String contentHash;
+
     public static final String TYPE_ID = "attachmentfile";
 
     public AttachmentFile() {
@@ -54,12 +56,34 @@ public class AttachmentFile implements Serializable, ITypedElement {
         this.dbId = dbId;
     }
 
+    /**
+     * Returns the file data. The array is not copied because file data can be
+     * up to 100 MB. Callers must not modify the array.
+     */
     public byte[] getFileData() {
-        return (fileData != null) ? fileData.clone() : null;
+        return fileData;
     }
 
+    /**
+     * Sets the file data. The array is not copied, see
+     * {@link #getFileData()}.
+     */
     public void setFileData(byte[] fileData) {
-        this.fileData = (fileData != null) ? fileData.clone() : null;
+        this.fileData = fileData;
+    }
+
+    /**
+     * Returns the hash of the content this attachment references in the
+     * {@link sernet.verinice.interfaces.IAttachmentStore}. Null means the
+     * file data is stored in {@link #getFileData()}, as it was before the
+     * attachment store existed.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
     }
 
     public void writeFileData(String path) throws IOException {
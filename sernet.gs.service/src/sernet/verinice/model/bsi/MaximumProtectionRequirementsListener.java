@@ -18,18 +18,17 @@
 package sernet.verinice.model.bsi;
 
 import java.io.Serializable;
-import java.util.function.IntConsumer;
-import java.util.function.IntSupplier;
 
 import sernet.verinice.model.common.CascadingTransaction;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.ILinkChangeListener;
+import sernet.verinice.model.common.ProtectionRequirementsPropagation;
 import sernet.verinice.model.common.TransactionAbortedException;
 
 /**
- * On a change event, iterates through all linked items, searching for the
- * maximum protection level to apply.
+ * Decides which linked items are searched for the maximum protection level
+ * to apply. The levels are set by {@link ProtectionRequirementsPropagation}.
  * 
  * @author koderman[at]sernet[dot]de
  * @version $Rev$ $LastChangedDate$ $LastChangedBy$
@@ -44,114 +43,26 @@ public class MaximumProtectionRequirementsListener implements ILinkChangeListene
     }
 
     @Override
-    public void determineIntegrity(CascadingTransaction ta) throws TransactionAbortedException {
-        if (hasBeenVisited(ta)) {
-            return;
-        }
-        ta.enter(sbTarget);
-
-        // get protection level from upward links:
-        int highestValue = 0;
-        for (CnALink link : sbTarget.getLinksUp()) {
-            CnATreeElement upwardElmt = link.getDependant();
-            if (upwardElmt.isProtectionRequirementsProvider()) {
-                // upwardElement might depend on maximum level itself, so
-                // recurse up:
-                upwardElmt.getLinkChangeListener().determineIntegrity(ta);
-
-                int value = upwardElmt.getProtectionRequirementsProvider().getIntegrity();
-                if (value > highestValue) {
-                    highestValue = value;
-                }
-            }
-        }
-
-        // if we don't use the maximum principle, keep current level:
-        if (!Schutzbedarf.isMaximumPrinzip(
-                sbTarget.getProtectionRequirementsProvider().getIntegrityDescription())) {
-            return;
-        }
-        updateValue(sbTarget.getProtectionRequirementsProvider()::getIntegrity,
-                sbTarget.getProtectionRequirementsProvider()::setIntegrity, highestValue);
-    }
-
-    private boolean hasBeenVisited(CascadingTransaction ta) {
-        return ta.hasBeenVisited(sbTarget);
+    public boolean isInherited(CnALink linkUp) {
+        return linkUp.getDependant().isProtectionRequirementsProvider();
     }
 
     @Override
-    public void determineAvailability(CascadingTransaction ta) throws TransactionAbortedException {
-        if (hasBeenVisited(ta)) {
-            return;
-        }
-        ta.enter(sbTarget);
-
-        // otherwise get protection level from upward links:
-        int highestValue = 0;
-        for (CnALink link : sbTarget.getLinksUp()) {
-            CnATreeElement upwardElmt = link.getDependant();
-            if (upwardElmt.isProtectionRequirementsProvider()) {
-
-                // upwardElement might depend on maximum level itself, so
-                // recurse up:
-                upwardElmt.getLinkChangeListener().determineAvailability(ta);
-
-                int value = upwardElmt.getProtectionRequirementsProvider().getAvailability();
-                if (value > highestValue) {
-                    highestValue = value;
-                }
-            }
-        }
-
-        // if we don't use the maximum principle, keep current level:
-        if (!Schutzbedarf.isMaximumPrinzip(
-                sbTarget.getProtectionRequirementsProvider().getAvailabilityDescription())) {
-            return;
-        }
-        updateValue(sbTarget.getProtectionRequirementsProvider()::getAvailability,
-                sbTarget.getProtectionRequirementsProvider()::setAvailability, highestValue);
+    public boolean isConfidentialityDeduced() {
+        return Schutzbedarf.isMaximumPrinzip(
+                sbTarget.getProtectionRequirementsProvider().getConfidentialityDescription());
     }
 
     @Override
-    public void determineConfidentiality(CascadingTransaction ta)
-            throws TransactionAbortedException {
-
-        if (hasBeenVisited(ta)) {
-            return;
-        }
-        ta.enter(sbTarget);
-
-        // otherwise get protection level from upward links:
-        int highestValue = 0;
-        for (CnALink link : sbTarget.getLinksUp()) {
-            CnATreeElement upwardElmt = link.getDependant();
-            if (upwardElmt.isProtectionRequirementsProvider()) {
-
-                // upwardElement might depend on maximum level itself, so
-                // recurse up:
-                upwardElmt.getLinkChangeListener().determineConfidentiality(ta);
-
-                int value = upwardElmt.getProtectionRequirementsProvider().getConfidentiality();
-                if (value > highestValue) {
-                    highestValue = value;
-                }
-            }
-        }
-        // if we don't use the maximum principle, keep current level:
-        if (!Schutzbedarf.isMaximumPrinzip(
-                sbTarget.getProtectionRequirementsProvider().getConfidentialityDescription())) {
-            return;
-        }
-        updateValue(sbTarget.getProtectionRequirementsProvider()::getConfidentiality,
-                sbTarget.getProtectionRequirementsProvider()::setConfidentiality, highestValue);
+    public boolean isIntegrityDeduced() {
+        return Schutzbedarf.isMaximumPrinzip(
+                sbTarget.getProtectionRequirementsProvider().getIntegrityDescription());
     }
 
-    private void updateValue(IntSupplier getter, IntConsumer setter, int newValue) {
-        int oldValue = getter.getAsInt();
-        if (oldValue != newValue) {
-            setter.accept(newValue);
-            sbTarget.getEntity().trackChange("system");
-        }
+    @Override
+    public boolean isAvailabilityDeduced() {
+        return Schutzbedarf.isMaximumPrinzip(
+                sbTarget.getProtectionRequirementsProvider().getAvailabilityDescription());
     }
 
     @Override
@@ -18,20 +18,13 @@
 package sernet.verinice.model.bsi;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Set;
-
-import org.apache.log4j.Logger;
 
 import sernet.hui.common.connect.EntityType;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.PropertyList;
 import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.IReevaluator;
-import sernet.verinice.model.common.CascadingTransaction;
-import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
-import sernet.verinice.model.common.TransactionAbortedException;
 
 /**
  * Adapter for elements that provide or receive protection levels.
@@ -43,8 +36,6 @@ import sernet.verinice.model.common.TransactionAbortedException;
 @SuppressWarnings("serial")
 public class ProtectionRequirementsAdapter implements IReevaluator, Serializable {
 
-    private static final Logger log = Logger.getLogger(ProtectionRequirementsAdapter.class);
-
     private CnATreeElement cnaTreeElement;
 
     public ProtectionRequirementsAdapter(CnATreeElement parent) {
@@ -159,127 +150,6 @@ public class ProtectionRequirementsAdapter implements IReevaluator, Serializable
                         text);
     }
 
-    private void fireVerfuegbarkeitChanged(CascadingTransaction ta) {
-
-        try {
-            // 1st step: traverse down:
-            // find bottom nodes from which to start:
-            CascadingTransaction downwardsTA = new CascadingTransaction();
-            Set<CnATreeElement> bottomNodes = new HashSet<>();
-            findBottomNodes(cnaTreeElement, bottomNodes, downwardsTA);
-
-            // 2nd step: traverse up:
-            for (CnATreeElement bottomNode : bottomNodes) {
-                // determine protection level from parents (or keep own
-                // depending on description):
-                bottomNode.getLinkChangeListener().determineAvailability(ta);
-
-            }
-
-        } catch (TransactionAbortedException tae) {
-            log.debug("Reeavluation of availability aborted."); //$NON-NLS-1$
-            throw new RuntimeException(tae);
-        } catch (RuntimeException e) {
-            ta.abort();
-            throw e;
-        } catch (Exception e) {
-            ta.abort();
-            throw new RuntimeException(e);
-        }
-    }
-
-    private void fireVertraulichkeitChanged(CascadingTransaction ta) {
-
-        try {
-            // 1st step: traverse down:
-            // find bottom nodes from which to start:
-            CascadingTransaction downwardsTA = new CascadingTransaction();
-            Set<CnATreeElement> bottomNodes = new HashSet<>();
-            findBottomNodes(cnaTreeElement, bottomNodes, downwardsTA);
-
-            // 2nd step: traverse up:
-            for (CnATreeElement bottomNode : bottomNodes) {
-                // determine protection level from parents (or keep own
-                // depending on description):
-                bottomNode.getLinkChangeListener().determineConfidentiality(ta);
-
-            }
-
-        } catch (TransactionAbortedException tae) {
-            log.debug("Reeavluation of confidentiality aborted."); //$NON-NLS-1$
-            throw new RuntimeException(tae);
-        } catch (RuntimeException e) {
-            ta.abort();
-            throw e;
-        } catch (Exception e) {
-            ta.abort();
-            throw new RuntimeException(e);
-        }
-    }
-
-    private void fireIntegritaetChanged(CascadingTransaction ta) {
-
-        try {
-            // 1st step: traverse down:
-            // find bottom nodes from which to start:
-            CascadingTransaction downwardsTA = new CascadingTransaction();
-            Set<CnATreeElement> bottomNodes = new HashSet<>();
-            findBottomNodes(cnaTreeElement, bottomNodes, downwardsTA);
-
-            // 2nd step: traverse up:
-            for (CnATreeElement bottomNode : bottomNodes) {
-                // determine protection level from parents (or keep own
-                // depending on description):
-                bottomNode.getLinkChangeListener().determineIntegrity(ta);
-
-            }
-
-        } catch (TransactionAbortedException tae) {
-            log.debug("Reeavluation of integrity aborted."); //$NON-NLS-1$
-            throw new RuntimeException(tae);
-        } catch (RuntimeException e) {
-            ta.abort();
-            throw e;
-        } catch (Exception e) {
-            ta.abort();
-            throw new RuntimeException(e);
-        }
-    }
-
-    /**
-     * @param downwardElement
-     * @param downwardsTA
-     * @param bottomNodes
-     * @return
-     */
-    private void findBottomNodes(CnATreeElement downwardElement, Set<CnATreeElement> bottomNodes,
-            CascadingTransaction downwardsTA) {
-        if (downwardsTA.hasBeenVisited(downwardElement)) {
-            return;
-        }
-
-        try {
-            downwardsTA.enter(downwardElement);
-        } catch (TransactionAbortedException e) {
-            Logger.getLogger(this.getClass())
-                    .error(Messages.SchutzbedarfAdapter_3 + downwardElement.getTitle(), e);
-            return;
-        }
-
-        int countLinks = 0;
-        for (CnALink link : downwardElement.getLinksDown()) {
-            if (link.getDependency().isProtectionRequirementsProvider()) {
-                countLinks++;
-                findBottomNodes(link.getDependency(), bottomNodes, downwardsTA);
-            }
-        }
-
-        // could not go further down, so add this node:
-        if (countLinks == 0) {
-            bottomNodes.add(downwardElement);
-        }
-    }
-
     public CnATreeElement getParent() {
         return cnaTreeElement;
     }
@@ -288,21 +158,6 @@ public class ProtectionRequirementsAdapter implements IReevaluator, Serializable
         this.cnaTreeElement = parent;
     }
 
-    @Override
-    public void updateIntegrity(CascadingTransaction ta) {
-        fireIntegritaetChanged(ta);
-    }
-
-    @Override
-    public void updateAvailability(CascadingTransaction ta) {
-        fireVerfuegbarkeitChanged(ta);
-    }
-
-    @Override
-    public void updateConfidentiality(CascadingTransaction ta) {
-        fireVertraulichkeitChanged(ta);
-    }
-
     /*
      * (non-Javadoc)
      *
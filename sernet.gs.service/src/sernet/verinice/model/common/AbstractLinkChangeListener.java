@@ -39,17 +39,4 @@ public abstract class AbstractLinkChangeListener implements ILinkChangeListener,
     public void determineValue(CascadingTransaction ta) throws TransactionAbortedException {
     }
 
-    @Override
-    public void determineConfidentiality(CascadingTransaction ta)
-            throws TransactionAbortedException {
-    }
-
-    @Override
-    public void determineIntegrity(CascadingTransaction ta) throws TransactionAbortedException {
-    }
-
-    @Override
-    public void determineAvailability(CascadingTransaction ta) throws TransactionAbortedException {
-    }
-
 }
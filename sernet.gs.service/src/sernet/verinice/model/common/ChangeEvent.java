@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.common;
+
+import java.io.Serializable;
+
+/**
+ * A compact notification of a change of an element which is pushed from the
+ * server to the clients. In contrast to a {@link ChangeLogEntry} an event
+ * contains the scope of the changed element, clients use it to receive only
+ * the events of the scopes they have opened.
+ * 
+ * Events are numbered consecutively by the server, see
+ * {@link sernet.verinice.interfaces.IChangeNotificationService}.
+ */
+public class ChangeEvent implements Serializable {
+
+    private static final long serialVersionUID = -6279342208736128436L;
+
+    private long id;
+
+    private int change;
+
+    private Integer elementId;
+
+    private String uuid;
+
+    private String elementClass;
+
+    private Integer scopeId;
+
+    private String stationId;
+
+    private String username;
+
+    public ChangeEvent(ChangeLogEntry entry, Integer scopeId) {
+        this.change = entry.getChange();
+        this.elementId = entry.getElementId();
+        this.uuid = entry.getUuid();
+        this.elementClass = entry.getElementClass();
+        this.scopeId = scopeId;
+        this.stationId = entry.getStationId();
+        this.username = entry.getUsername();
+    }
+
+    /**
+     * Returns true if the changed element is a scope. The scope id of a scope
+     * is its own database id.
+     */
+    public boolean isScope() {
+        return elementId != null && elementId.equals(scopeId);
+    }
+
+    /**
+     * Returns a change log entry with the data of this event. The change time
+     * of the entry is not set.
+     */
+    public ChangeLogEntry toChangeLogEntry() {
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setChange(change);
+        entry.setElementId(elementId);
+        entry.setUuid(uuid);
+        entry.setElementClass(elementClass);
+        entry.setStationId(stationId);
+        entry.setUsername(username);
+        return entry;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getChange() {
+        return change;
+    }
+
+    public Integer getElementId() {
+        return elementId;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getElementClass() {
+        return elementClass;
+    }
+
+    public Integer getScopeId() {
+        return scopeId;
+    }
+
+    public String getStationId() {
+        return stationId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent [id=" + id + ", change=" + change + ", elementId=" + elementId //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                + ", scopeId=" + scopeId + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+}
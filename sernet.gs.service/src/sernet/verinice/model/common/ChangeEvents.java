@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.common;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of waiting for change events, see
+ * {@link sernet.verinice.interfaces.IChangeNotificationService}.
+ * 
+ * If the result is not complete, the server no longer knows all events which
+ * happened since the last event received by the client, e.g. after a restart
+ * of the server. A client must reload its data in this case.
+ */
+public class ChangeEvents implements Serializable {
+
+    private static final long serialVersionUID = 2785946129305425437L;
+
+    /**
+     * Id to pass if the client has not received any event yet.
+     */
+    public static final long NO_EVENT = -1;
+
+    private final List<ChangeEvent> events;
+
+    private final long lastEventId;
+
+    private final boolean complete;
+
+    public ChangeEvents(List<ChangeEvent> events, long lastEventId, boolean complete) {
+        this.events = events;
+        this.lastEventId = lastEventId;
+        this.complete = complete;
+    }
+
+    public static ChangeEvents empty(long lastEventId, boolean complete) {
+        return new ChangeEvents(Collections.emptyList(), lastEventId, complete);
+    }
+
+    /**
+     * Returns the events ordered by their id.
+     */
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the id of the last event the server has seen. Pass this id when
+     * waiting for the next events.
+     */
+    public long getLastEventId() {
+        return lastEventId;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+}
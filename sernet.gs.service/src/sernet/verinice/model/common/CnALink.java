@@ -355,11 +355,7 @@ public class CnALink implements Serializable, ITypedElement {
         dependant.linkRemoved(this);
         dependency.linkRemoved(this);
 
-        if (dependency.isProtectionRequirementsProvider()) {
-            dependency.fireIntegritaetChanged(new CascadingTransaction());
-            dependency.fireVerfuegbarkeitChanged(new CascadingTransaction());
-            dependency.fireVertraulichkeitChanged(new CascadingTransaction());
-        }
+        dependency.fireProtectionRequirementsChanged();
     }
 
     public CnATreeElement getDependant() {
@@ -723,32 +723,23 @@ public abstract class CnATreeElement implements Serializable, IBSIModelListener,
         return value;
     }
 
-    public void fireVertraulichkeitChanged(CascadingTransaction ta) {
-        if (isProtectionRequirementsProvider()) {
-            if (LOG_INHERIT.isInfo()) {
-                LOG_INHERIT.info(this.getTypeId() + " is provider, update confidentiality");
-            }
-            getProtectionRequirementsProvider().updateConfidentiality(ta);
-        }
-    }
-
-    public void fireVerfuegbarkeitChanged(CascadingTransaction ta) {
-        if (isProtectionRequirementsProvider()) {
-            if (LOG_INHERIT.isInfo()) {
-                LOG_INHERIT.info(this.getTypeId() + " is provider, update availability");
-            }
-            getProtectionRequirementsProvider().updateAvailability(ta);
+    /**
+     * Propagates the protection levels of this element to all elements which
+     * inherit them. Confidentiality, integrity and availability are determined
+     * in one pass.
+     *
+     * @return the elements whose protection levels were changed
+     * @see ProtectionRequirementsPropagation
+     */
+    public Set<CnATreeElement> fireProtectionRequirementsChanged() {
+        if (!isProtectionRequirementsProvider()) {
+            return Collections.emptySet();
         }
-    }
-
-    public void fireIntegritaetChanged(CascadingTransaction ta) {
-        if (isProtectionRequirementsProvider()) {
-            if (LOG_INHERIT.isInfo()) {
-                LOG_INHERIT.info(
-                        this.getTypeId() + " is provider, update integrity of: " + this.getTitle());
-            }
-            getProtectionRequirementsProvider().updateIntegrity(ta);
+        if (LOG_INHERIT.isInfo()) {
+            LOG_INHERIT.info(this.getTypeId() + " is provider, update protection requirements of: "
+                    + this.getTitle());
         }
+        return ProtectionRequirementsPropagation.propagate(Collections.singleton(this));
     }
 
     /**
@@ -33,34 +33,41 @@ import sernet.verinice.interfaces.IReevaluator;
 public interface ILinkChangeListener {
 
 	/**
-	 * Determine protection level, either by going upwards through <code>CnALinks</code> for
-	 * maximum protection level or by just sticking with the current one, depending
-	 * on the description and thereby the rules set by the user.
-	 *
-	 * @param ta
+	 * Determine an arbitrate value by going upwards through <code>CnALinks</code>.
 	 */
-	public void determineConfidentiality(CascadingTransaction ta) throws TransactionAbortedException ;
+	public void determineValue(CascadingTransaction ta) throws TransactionAbortedException ;
 
 	/**
-	 * Determine protection level, either by going upwards through <code>CnALinks</code> for
-	 * maximum protection level or by just sticking with the current one, depending
-	 * on the description and thereby the rules set by the user.
+	 * Returns true if the element of this listener inherits the protection
+	 * levels of the dependant of the given upward link.
 	 *
-	 * @param ta
+	 * @see ProtectionRequirementsPropagation
 	 */
-	public void determineIntegrity(CascadingTransaction ta) throws TransactionAbortedException ;
+	default boolean isInherited(CnALink linkUp) {
+		return false;
+	}
 
 	/**
-	 * Determine protection level, either by going upwards through <code>CnALinks</code> for
-	 * maximum protection level or by just sticking with the current one, depending
-	 * on the description and thereby the rules set by the user.
-	 *
-	 * @param ta
+	 * Returns true if the confidentiality of the element of this listener is
+	 * deduced from the upward links (maximum principle).
 	 */
-	public void determineAvailability(CascadingTransaction ta) throws TransactionAbortedException ;
+	default boolean isConfidentialityDeduced() {
+		return false;
+	}
 
 	/**
-	 * Determine an arbitrate value by going upwards through <code>CnALinks</code>.
+	 * Returns true if the integrity of the element of this listener is
+	 * deduced from the upward links (maximum principle).
 	 */
-	public void determineValue(CascadingTransaction ta) throws TransactionAbortedException ;
+	default boolean isIntegrityDeduced() {
+		return false;
+	}
+
+	/**
+	 * Returns true if the availability of the element of this listener is
+	 * deduced from the upward links (maximum principle).
+	 */
+	default boolean isAvailabilityDeduced() {
+		return false;
+	}
 }
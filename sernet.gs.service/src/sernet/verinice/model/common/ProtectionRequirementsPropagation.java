@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+import sernet.verinice.interfaces.IReevaluator;
+import sernet.verinice.model.iso27k.InheritLogger;
+import sernet.verinice.model.iso27k.ProtectionRequirementUtils;
+
+/**
+ * Propagates the protection levels (confidentiality, integrity and
+ * availability) of changed elements to all elements which inherit them by the
+ * maximum principle.
+ *
+ * The propagation works without recursion in three steps:
+ * <ol>
+ * <li>Starting from the changed elements the links down are followed to find
+ * the bottom nodes, elements without further linked protection requirements
+ * providers. If all elements found are part of a cycle, they are all used as
+ * bottom nodes.</li>
+ * <li>Starting from the bottom nodes the inherited links up are followed to
+ * collect the affected subgraph.</li>
+ * <li>The subgraph is sorted topologically, every element is evaluated after
+ * all elements it inherits from. All three protection levels are determined
+ * in the same pass. Elements on a cycle and elements which depend on a cycle
+ * are evaluated with a worklist until no value changes anymore.</li>
+ * </ol>
+ *
+ * Which links are inherited and which levels are deduced is decided by the
+ * {@link ILinkChangeListener} of an element.
+ */
+public final class ProtectionRequirementsPropagation {
+
+    private static final InheritLogger LOG_INHERIT = InheritLogger
+            .getLogger(ProtectionRequirementsPropagation.class);
+
+    private static final String CHANGED_BY = "system";
+
+    private ProtectionRequirementsPropagation() {
+        // do not instantiate this class
+    }
+
+    /**
+     * Propagates the protection levels of the given changed elements.
+     *
+     * @param changedElements
+     *            elements whose protection levels or links were changed
+     * @return all elements whose protection levels were changed by the
+     *         propagation
+     */
+    public static Set<CnATreeElement> propagate(
+            Collection<? extends CnATreeElement> changedElements) {
+        Set<CnATreeElement> bottomNodes = findBottomNodes(changedElements);
+        if (bottomNodes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Map<CnATreeElement, List<CnATreeElement>> inheritedFrom = collectAffectedElements(
+                bottomNodes);
+        if (LOG_INHERIT.isDebug()) {
+            LOG_INHERIT.debug("Propagating protection levels, bottom nodes: " + bottomNodes.size()
+                    + ", affected elements: " + inheritedFrom.size());
+        }
+        return evaluate(inheritedFrom);
+    }
+
+    private static Set<CnATreeElement> findBottomNodes(
+            Collection<? extends CnATreeElement> changedElements) {
+        Set<CnATreeElement> bottomNodes = new LinkedHashSet<>();
+        Set<CnATreeElement> visited = new HashSet<>();
+        Deque<CnATreeElement> stack = new ArrayDeque<>();
+        for (CnATreeElement element : changedElements) {
+            if (element.isProtectionRequirementsProvider() && visited.add(element)) {
+                stack.push(element);
+            }
+        }
+        while (!stack.isEmpty()) {
+            CnATreeElement element = stack.pop();
+            boolean isBottomNode = true;
+            for (CnALink link : element.getLinksDown()) {
+                if (ProtectionRequirementUtils.dependencyIsProtectionRequirementsProvider(link)) {
+                    isBottomNode = false;
+                    if (visited.add(link.getDependency())) {
+                        stack.push(link.getDependency());
+                    }
+                }
+            }
+            if (isBottomNode) {
+                bottomNodes.add(element);
+            }
+        }
+        if (bottomNodes.isEmpty()) {
+            // every element found links down into a cycle
+            return visited;
+        }
+        return bottomNodes;
+    }
+
+    /**
+     * Returns a map with all elements reachable upwards from the bottom nodes.
+     * The value of an entry contains the elements the key inherits from.
+     */
+    private static Map<CnATreeElement, List<CnATreeElement>> collectAffectedElements(
+            Set<CnATreeElement> bottomNodes) {
+        Map<CnATreeElement, List<CnATreeElement>> inheritedFrom = new LinkedHashMap<>();
+        Deque<CnATreeElement> queue = new ArrayDeque<>(bottomNodes);
+        while (!queue.isEmpty()) {
+            CnATreeElement element = queue.poll();
+            if (inheritedFrom.containsKey(element)) {
+                continue;
+            }
+            ILinkChangeListener listener = element.getLinkChangeListener();
+            List<CnATreeElement> dependants = new ArrayList<>();
+            for (CnALink link : element.getLinksUp()) {
+                if (listener.isInherited(link)) {
+                    dependants.add(link.getDependant());
+                    if (!inheritedFrom.containsKey(link.getDependant())) {
+                        queue.add(link.getDependant());
+                    }
+                }
+            }
+            inheritedFrom.put(element, dependants);
+        }
+        return inheritedFrom;
+    }
+
+    private static Set<CnATreeElement> evaluate(
+            Map<CnATreeElement, List<CnATreeElement>> inheritedFrom) {
+        Map<CnATreeElement, List<CnATreeElement>> inheritedBy = new HashMap<>(
+                inheritedFrom.size());
+        Map<CnATreeElement, Integer> unresolvedDependants = new HashMap<>(inheritedFrom.size());
+        Deque<CnATreeElement> ready = new ArrayDeque<>();
+        inheritedFrom.forEach((element, dependants) -> {
+            for (CnATreeElement dependant : dependants) {
+                inheritedBy.computeIfAbsent(dependant, key -> new ArrayList<>()).add(element);
+            }
+            unresolvedDependants.put(element, dependants.size());
+            if (dependants.isEmpty()) {
+                ready.add(element);
+            }
+        });
+
+        Set<CnATreeElement> changedElements = new LinkedHashSet<>();
+        while (!ready.isEmpty()) {
+            CnATreeElement element = ready.poll();
+            unresolvedDependants.remove(element);
+            if (evaluate(element, inheritedFrom.get(element))) {
+                changedElements.add(element);
+            }
+            for (CnATreeElement dependency : inheritedBy.getOrDefault(element,
+                    Collections.emptyList())) {
+                if (unresolvedDependants.merge(dependency, -1, Integer::sum) == 0) {
+                    ready.add(dependency);
+                }
+            }
+        }
+
+        if (!unresolvedDependants.isEmpty()) {
+            evaluateCycles(unresolvedDependants.keySet(), inheritedFrom, inheritedBy,
+                    changedElements);
+        }
+        return changedElements;
+    }
+
+    private static void evaluateCycles(Set<CnATreeElement> cyclicElements,
+            Map<CnATreeElement, List<CnATreeElement>> inheritedFrom,
+            Map<CnATreeElement, List<CnATreeElement>> inheritedBy,
+            Set<CnATreeElement> changedElements) {
+        if (LOG_INHERIT.isInfo()) {
+            LOG_INHERIT.info("Loop detected, " + cyclicElements.size()
+                    + " elements are evaluated until their values are stable");
+        }
+        // every element may be evaluated once for each element of the cycles
+        // before the values must have settled
+        int remainingEvaluations = cyclicElements.size() * cyclicElements.size();
+        Deque<CnATreeElement> worklist = new ArrayDeque<>(cyclicElements);
+        Set<CnATreeElement> queued = new HashSet<>(cyclicElements);
+        while (!worklist.isEmpty()) {
+            if (remainingEvaluations-- == 0) {
+                LOG_INHERIT.warn("Values did not settle, stopping evaluation of loop with "
+                        + cyclicElements.size() + " elements");
+                return;
+            }
+            CnATreeElement element = worklist.poll();
+            queued.remove(element);
+            if (!evaluate(element, inheritedFrom.get(element))) {
+                continue;
+            }
+            changedElements.add(element);
+            for (CnATreeElement dependency : inheritedBy.getOrDefault(element,
+                    Collections.emptyList())) {
+                if (cyclicElements.contains(dependency) && queued.add(dependency)) {
+                    worklist.add(dependency);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines all three protection levels of an element from the elements
+     * it inherits from.
+     *
+     * @return true if at least one value was changed
+     */
+    private static boolean evaluate(CnATreeElement element, List<CnATreeElement> dependants) {
+        int confidentiality = 0;
+        int integrity = 0;
+        int availability = 0;
+        for (CnATreeElement dependant : dependants) {
+            IReevaluator provider = dependant.getProtectionRequirementsProvider();
+            confidentiality = Math.max(confidentiality, provider.getConfidentiality());
+            integrity = Math.max(integrity, provider.getIntegrity());
+            availability = Math.max(availability, provider.getAvailability());
+        }
+
+        ILinkChangeListener listener = element.getLinkChangeListener();
+        IReevaluator provider = element.getProtectionRequirementsProvider();
+        boolean changed = false;
+        if (listener.isConfidentialityDeduced()) {
+            changed |= updateValue(provider::getConfidentiality, provider::setConfidentiality,
+                    confidentiality);
+        }
+        if (listener.isIntegrityDeduced()) {
+            changed |= updateValue(provider::getIntegrity, provider::setIntegrity, integrity);
+        }
+        if (listener.isAvailabilityDeduced()) {
+            changed |= updateValue(provider::getAvailability, provider::setAvailability,
+                    availability);
+        }
+        if (changed) {
+            if (LOG_INHERIT.isInfo()) {
+                LOG_INHERIT.info("Setting maximum protection levels " + confidentiality + "/"
+                        + integrity + "/" + availability + " for " + element.getTitle());
+            }
+            element.getEntity().trackChange(CHANGED_BY);
+        }
+        return changed;
+    }
+
+    private static boolean updateValue(IntSupplier getter, IntConsumer setter, int newValue) {
+        if (getter.getAsInt() == newValue) {
+            return false;
+        }
+        setter.accept(newValue);
+        return true;
+    }
+}
@@ -18,8 +18,6 @@
 package sernet.verinice.model.iso27k;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Set;
 
 import org.apache.log4j.Logger;
 
@@ -28,9 +26,7 @@ import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.PropertyList;
 import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.AbstractReevaluator;
-import sernet.verinice.model.common.CascadingTransaction;
 import sernet.verinice.model.common.CnATreeElement;
-import sernet.verinice.model.common.TransactionAbortedException;
 
 /**
  * Let the contained {@link CnATreeElement} reeavluate the values for the
@@ -164,111 +160,6 @@ public class ProtectionRequirementsValueAdapter extends AbstractReevaluator
         this.cnaTreeElement = parent;
     }
 
-    /*
-     * (non-Javadoc)
-     * 
-     * @see sernet.verinice.model.bsi.IProtectionRequirementsProvider#
-     * updateIntegritaet(sernet.verinice.model.common.CascadingTransaction)
-     */
-    @Override
-    public void updateIntegrity(CascadingTransaction ta) {
-        try {
-            // 1st step: traverse down:
-            // find bottom nodes from which to start:
-            CascadingTransaction downwardsTA = new CascadingTransaction();
-            Set<CnATreeElement> bottomNodes = new HashSet<>();
-            findBottomNodes(cnaTreeElement, bottomNodes, downwardsTA);
-
-            // 2nd step: traverse up:
-            for (CnATreeElement bottomNode : bottomNodes) {
-                // determine protection level from parents (or keep own
-                // depending on description):
-                bottomNode.getLinkChangeListener().determineIntegrity(ta);
-
-            }
-
-        } catch (TransactionAbortedException tae) {
-            LOG.debug("Reevaluation of integrity aborted."); //$NON-NLS-1$
-        } catch (RuntimeException e) {
-            LOG.error(Messages.AssetValueAdapter_11, e);
-            ta.abort();
-            throw e;
-        } catch (java.lang.Exception e) {
-            LOG.error(Messages.AssetValueAdapter_11, e);
-            ta.abort();
-            throw new RuntimeException(e);
-        }
-    }
-
-    /*
-     * (non-Javadoc)
-     * 
-     * @see sernet.verinice.model.bsi.IProtectionRequirementsProvider#
-     * updateVerfuegbarkeit(sernet.verinice.model.common.CascadingTransaction)
-     */
-    @Override
-    public void updateAvailability(CascadingTransaction ta) {
-        try {
-            // 1st step: traverse down:
-            // find bottom nodes from which to start:
-            CascadingTransaction downwardsTA = new CascadingTransaction();
-            Set<CnATreeElement> bottomNodes = new HashSet<>();
-            findBottomNodes(cnaTreeElement, bottomNodes, downwardsTA);
-
-            // 2nd step: traverse up:
-            for (CnATreeElement bottomNode : bottomNodes) {
-                // determine protection level from parents (or keep own
-                // depending on settings):
-                bottomNode.getLinkChangeListener().determineAvailability(ta);
-            }
-
-        } catch (TransactionAbortedException tae) {
-            LOG.debug("Reevaluation of availability aborted."); //$NON-NLS-1$
-        } catch (RuntimeException e) {
-            LOG.error(Messages.AssetValueAdapter_7, e);
-            ta.abort();
-            throw e;
-        } catch (java.lang.Exception e) {
-            LOG.error(Messages.AssetValueAdapter_11, e);
-            ta.abort();
-            throw new RuntimeException(e);
-        }
-    }
-
-    /*
-     * (non-Javadoc)
-     * 
-     * @see sernet.verinice.model.bsi.IProtectionRequirementsProvider#
-     * updateVertraulichkeit(sernet.verinice.model.common.CascadingTransaction)
-     */
-    @Override
-    public void updateConfidentiality(CascadingTransaction ta) {
-        try {
-            // 1st step: traverse down:
-            // find bottom nodes from which to start:
-            CascadingTransaction downwardsTA = new CascadingTransaction();
-            Set<CnATreeElement> bottomNodes = new HashSet<>();
-            findBottomNodes(cnaTreeElement, bottomNodes, downwardsTA);
-
-            // 2nd step: traverse up:
-            for (CnATreeElement bottomNode : bottomNodes) {
-                // determine protection level from parents (or keep own
-                // depending on description):
-                bottomNode.getLinkChangeListener().determineConfidentiality(ta);
-            }
-        } catch (TransactionAbortedException tae) {
-            LOG.debug("Reevaluation of confidentiality aborted."); //$NON-NLS-1$
-        } catch (RuntimeException e) {
-            LOG.error(Messages.AssetValueAdapter_9, e);
-            ta.abort();
-            throw e;
-        } catch (java.lang.Exception e) {
-            LOG.error(Messages.AssetValueAdapter_11, e);
-            ta.abort();
-            throw new RuntimeException(e);
-        }
-    }
-
     /*
      * (non-Javadoc)
      *
@@ -55,4 +55,17 @@ public class AttachmentFileCreationFactory {
         saveFileCommand.clear();
     }
 
+    /**
+     * copies the file data of @param sourceAttachment to the already saved
+     * attachment @param targetAttachment without loading the data, see
+     * {@link CopyAttachmentFile}
+     **/
+    public static void copyAttachmentFile(Attachment sourceAttachment,
+            Attachment targetAttachment) throws CommandException {
+        CopyAttachmentFile copyFileCommand = new CopyAttachmentFile(sourceAttachment.getDbId(),
+                targetAttachment.getDbId());
+        ((ICommandService) VeriniceContext.get(VeriniceContext.COMMAND_SERVICE))
+                .executeCommand(copyFileCommand);
+    }
+
 }
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentStore;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.bsi.Attachment;
+
+/**
+ * Copies the file data of an attachment to another attachment.
+ *
+ * The file data is not copied. The target attachment references the content
+ * of the source attachment in the {@link IAttachmentStore}, see
+ * {@link IAttachmentStore#copy(Integer, Integer)}.
+ *
+ * The target attachment must be saved before this command is executed.
+ */
+public class CopyAttachmentFile extends GenericCommand {
+
+    private static final long serialVersionUID = 2750356410928213735L;
+
+    private Integer sourceDbId;
+
+    private Integer targetDbId;
+
+    /**
+     * @param sourceDbId
+     *            The db id of the attachment which file data is copied
+     * @param targetDbId
+     *            The db id of the attachment the file data is copied to
+     */
+    public CopyAttachmentFile(Integer sourceDbId, Integer targetDbId) {
+        this.sourceDbId = sourceDbId;
+        this.targetDbId = targetDbId;
+    }
+
+    @Override
+    public void execute() {
+        // the target attachment may not be inserted yet
+        IBaseDao<Attachment, Serializable> attachmentDao = getDaoFactory()
+                .getDAO(Attachment.class);
+        attachmentDao.flush();
+        try {
+            getDaoFactory().getAttachmentStore().copy(sourceDbId, targetDbId);
+        } catch (IOException e) {
+            throw new RuntimeCommandException("Error while copying file data of attachment "
+                    + sourceDbId + " to attachment " + targetDbId, e);
+        }
+    }
+
+}
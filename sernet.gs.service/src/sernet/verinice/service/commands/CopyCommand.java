@@ -352,7 +352,7 @@ public class CopyCommand extends GenericCommand {
     }
 
     private void copyAttachments(final CnATreeElement destinationElement,
-            final Collection<Attachment> attachmentsToCopy) throws CommandException, IOException {
+            final Collection<Attachment> attachmentsToCopy) throws CommandException {
         IBaseDao<Attachment, Serializable> attachmentDao = getDaoFactory().getDAO(Attachment.class);
 
         for (final Attachment attachment : attachmentsToCopy) {
@@ -363,19 +363,16 @@ public class CopyCommand extends GenericCommand {
     /**
      * creates a copy of a given @param attachment (including the
      * {@link AttachmentFile} and references it from the newly created
-     * {@link CnATreeElement} @param destinationElement
-     * 
-     * @throws IOException
+     * {@link CnATreeElement} @param destinationElement. The new attachment
+     * references the file data of the source, see {@link CopyAttachmentFile}.
      */
     private void handleSourceAttachment(final CnATreeElement destinationElement,
             IBaseDao<Attachment, Serializable> dao, final Attachment attachment)
-            throws CommandException, IOException {
+            throws CommandException {
         final Attachment newAttachmentEntity = createAttachmentCopy(destinationElement, attachment);
         dao.saveOrUpdate(newAttachmentEntity);
-        LoadAttachmentFile attachmentFileLoader = new LoadAttachmentFile(attachment.getDbId());
-        attachmentFileLoader = getCommandService().executeCommand(attachmentFileLoader);
-        AttachmentFileCreationFactory.createAttachmentFile(newAttachmentEntity,
-                attachmentFileLoader.getAttachmentFile().getFileData());
+        getCommandService().executeCommand(
+                new CopyAttachmentFile(attachment.getDbId(), newAttachmentEntity.getDbId()));
     }
 
     /**
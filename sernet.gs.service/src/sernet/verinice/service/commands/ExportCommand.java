@@ -19,36 +19,50 @@
 
 package sernet.verinice.service.commands;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.log4j.Logger;
 import org.eclipse.jdt.annotation.NonNull;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.hibernate.criterion.DetachedCriteria;
-import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.springframework.orm.hibernate3.HibernateCallback;
 
-import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncLink;
 import de.sernet.sync.data.SyncObject;
 import de.sernet.sync.mapping.SyncMapping;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType.MapAttributeType;
 import de.sernet.sync.risk.Risk;
-import de.sernet.sync.sync.SyncRequest;
 import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
 import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.PermissionException;
 import sernet.gs.service.RetrieveInfo;
 import sernet.gs.service.RuntimeCommandException;
 import sernet.hui.common.VeriniceContext;
@@ -57,9 +71,13 @@ import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentStore;
+import sernet.verinice.interfaces.IAuthAwareCommand;
+import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IChangeLoggingCommand;
 import sernet.verinice.interfaces.IDao;
+import sernet.verinice.interfaces.IVeriniceConstants;
 import sernet.verinice.model.bsi.Attachment;
 import sernet.verinice.model.bsi.risikoanalyse.FinishedRiskAnalysis;
 import sernet.verinice.model.bsi.risikoanalyse.FinishedRiskAnalysisLists;
@@ -68,19 +86,44 @@ import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.sync.StreamFactory;
+import sernet.verinice.service.sync.SyncDataWriter;
 import sernet.verinice.service.sync.VeriniceArchive;
 import sernet.verinice.service.sync.VnaSchemaVersion;
 
 /**
  * Creates an VNA or XML representation for the given list of CnATreeElements.
  * 
+ * The elements are loaded page by page while the result is written to a
+ * temporary file. Kept in memory for the whole export are the ids of the
+ * exported elements, the file names of the attachments and, if the export is
+ * prepared for a re-import, the changed elements.
+ * 
  * @author <andreas[at]becker[dot]name>
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
 @SuppressWarnings("serial")
-public class ExportCommand extends GenericCommand implements IChangeLoggingCommand {
+public class ExportCommand extends GenericCommand
+        implements IChangeLoggingCommand, IAuthAwareCommand {
     private static final Logger log = Logger.getLogger(ExportCommand.class);
 
+    private static final String RESULT_FILE_PREFIX = "verinice-export-";
+
+    private static final String HQL_LOAD_CHILD_IDS = "select element.dbId "
+            + "from CnATreeElement element where element.parentId = :parentId "
+            + "and element.dbId > :dbId order by element.dbId";
+
+    /**
+     * Export results kept on the server are deleted after this time in
+     * milliseconds if they were not loaded.
+     */
+    private static final long RESULT_TIME_TO_LIVE = 24L * 60 * 60 * 1000;
+
+    /**
+     * The names of the users who created the export results kept on the
+     * server by result id
+     */
+    private static final Map<String, String> RESULT_OWNERS = new ConcurrentHashMap<>();
+
     // Configuration fields set by client
     private final List<CnATreeElement> elements;
     private final String sourceId;
@@ -90,21 +133,23 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
     private Map<String, String> entityTypesBlackList;
     private Map<Class, Class> entityClassBlackList;
 
+    private boolean keepResultOnServer = false;
+
     // Result fields
     private byte[] result;
+    private String resultId;
+    private long resultSize;
     private List<CnATreeElement> changedElements;
     private final String stationId;
 
     // Fields used on server only
-    private transient Set<CnALink> linkSet;
-    private transient Set<Attachment> attachmentSet;
+    private transient Map<Integer, String> attachmentFileNames;
     private transient Set<Integer> riskAnalysisIdSet;
     private transient Set<EntityType> exportedEntityTypes;
     private transient Set<String> exportedTypes;
     private transient Set<Integer> exportedElementIds;
-    private transient Map<Integer, List<Attachment>> attachmentsByElementId = null;
     private transient IBaseDao<CnATreeElement, Serializable> dao;
-    private transient Map<Integer, Collection<CnATreeElement>> elementsByParentId;
+    private transient IAuthService authService;
 
     public ExportCommand(final List<CnATreeElement> elements, final String sourceId,
             final boolean reImport) {
@@ -121,19 +166,16 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         } else {
             this.exportFormat = SyncParameter.EXPORT_FORMAT_DEFAULT;
         }
-        this.attachmentSet = new HashSet<>();
         this.stationId = ChangeLogEntry.STATION_ID;
     }
 
     private void createFields() {
         this.changedElements = new LinkedList<>();
-        this.linkSet = new HashSet<>();
-        this.attachmentSet = new HashSet<>();
+        this.attachmentFileNames = new LinkedHashMap<>();
         this.exportedElementIds = new HashSet<>();
         this.riskAnalysisIdSet = new HashSet<>();
         this.exportedTypes = new HashSet<>();
         this.exportedEntityTypes = new HashSet<>();
-        this.elementsByParentId = new HashMap<>();
     }
 
     /*
@@ -143,142 +185,227 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
      */
     @Override
     public void execute() {
+        Path resultFile = null;
         try {
             createFields();
-            SyncRequest syncRequest = export();
-            Risk risk = exportRiskAnalyses();
-            if (isReImport()) {
-                if (log.isInfoEnabled()) {
-                    log.info("Prepare reimport is enabled. Saving the IDS of "
-                            + changedElements.size() + " elements ...");
-                }
-                saveChangedElements();
+            if (isKeepResultOnServer()) {
+                deleteExpiredResults();
             }
-
-            if (isVeriniceArchive()) {
-                result = createVeriniceArchive(syncRequest, risk);
-            } else {
-                try (final ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-                    ExportFactory.marshal(syncRequest, bos);
-                    result = bos.toByteArray();
+            resultId = UUID.randomUUID().toString();
+            if (isKeepResultOnServer()) {
+                RESULT_OWNERS.put(resultId, getAuthService().getUsername());
+            }
+            resultFile = getResultPath(resultId);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(resultFile))) {
+                if (isVeriniceArchive()) {
+                    createVeriniceArchive(out);
+                } else {
+                    export(out);
+                    exportRiskAnalyses();
+                    saveChangedElements();
                 }
             }
+            resultSize = Files.size(resultFile);
+            if (!isKeepResultOnServer()) {
+                result = Files.readAllBytes(resultFile);
+                Files.delete(resultFile);
+                resultId = null;
+            }
         } catch (final RuntimeException re) {
+            deleteResultFile(resultFile);
             log.error("Runtime exception while exporting", re);
             throw re;
         } catch (final Exception e) {
+            deleteResultFile(resultFile);
             log.error("Exception while exporting", e);
             throw new RuntimeCommandException("Exception while exporting", e);
         } finally {
-            elementsByParentId = null;
-            attachmentsByElementId = null;
+            attachmentFileNames = null;
+        }
+
+    }
+
+    private void deleteResultFile(Path resultFile) {
+        if (resultId != null) {
+            RESULT_OWNERS.remove(resultId);
+        }
+        resultId = null;
+        if (resultFile != null) {
+            try {
+                Files.deleteIfExists(resultFile);
+            } catch (IOException e) {
+                log.error("Error while deleting export file " + resultFile, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the path of the temporary file of an export result.
+     * 
+     * @throws IllegalArgumentException
+     *             If resultId is not a valid id of an export result
+     */
+    static Path getResultPath(String resultId) {
+        UUID uuid = UUID.fromString(resultId);
+        return getResultDirectory().resolve(RESULT_FILE_PREFIX + uuid.toString());
+    }
+
+    private static Path getResultDirectory() {
+        return Paths.get(System.getProperty(IVeriniceConstants.JAVA_IO_TMPDIR));
+    }
+
+    /**
+     * Returns the path of the temporary file of an export result if the
+     * result was created by a user.
+     * 
+     * @throws PermissionException
+     *             If the result was not created by the user or if it does
+     *             not exist anymore
+     */
+    static Path getResultPath(String resultId, String username) {
+        String owner = RESULT_OWNERS.get(resultId);
+        if (owner == null || !owner.equals(username)) {
+            throw new PermissionException("Export result " + resultId
+                    + " does not exist or was not created by user " + username);
+        }
+        return getResultPath(resultId);
+    }
+
+    /**
+     * Removes an export result after it was loaded.
+     */
+    static void removeResult(String resultId) {
+        RESULT_OWNERS.remove(resultId);
+        deleteFile(getResultPath(resultId));
+    }
+
+    /**
+     * Deletes the export results which were kept on the server for more than
+     * {@link #RESULT_TIME_TO_LIVE} milliseconds. Called when the server is
+     * started and before a result is kept on the server.
+     */
+    public static void deleteExpiredResults() {
+        long expired = System.currentTimeMillis() - RESULT_TIME_TO_LIVE;
+        try (DirectoryStream<Path> results = Files.newDirectoryStream(getResultDirectory(),
+                RESULT_FILE_PREFIX + "*")) {
+            for (Path result : results) {
+                if (Files.getLastModifiedTime(result).toMillis() < expired) {
+                    RESULT_OWNERS.remove(result.getFileName().toString()
+                            .substring(RESULT_FILE_PREFIX.length()));
+                    deleteFile(result);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error while deleting expired export results", e);
         }
+    }
 
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.error("Error while deleting export result " + file, e);
+        }
     }
 
     /**
      * Export (i.e. "create XML representation of" the given cnATreeElement and
      * its successors. For this, child elements are exported recursively. All
-     * elements that have been processed are returned as a list of
+     * elements that have been processed are written to the output stream as
      * {@code syncObject}s with their respective attributes, represented as
      * {@code syncAttribute}s.
      * 
-     * @return XML representation of elements
+     * The children of an element are loaded in pages of
+     * {@link IDao#QUERY_MAX_ITEMS_IN_LIST} elements. The Hibernate session is
+     * cleared after each page, so the memory used does not grow with the size
+     * of the exported scope. Each {@code syncObject} is written as soon as it
+     * is created.
+     * 
      * @throws CommandException
      */
-    private SyncRequest export() throws CommandException {
+    private void export(OutputStream out) throws CommandException {
 
         final SyncVnaSchemaVersion formatVersion = createVersionData();
 
-        final SyncData syncData = new SyncData();
-
         if (log.isInfoEnabled()) {
             log.info("Exporting elements...");
         }
 
-        for (final CnATreeElement element : elements) {
-            loadData(element.getScopeId());
-            CnATreeElement elementWithProperties = elementsByParentId.get(element.getParentId())
-                    .stream().filter(e -> e.getDbId().equals(element.getDbId())).findFirst()
-                    .orElseThrow(() -> new RuntimeException(
-                            "Requested object with db ID " + element.getDbId() + " not found."));
-            SyncObject exported = exportElement(elementWithProperties);
-            syncData.getSyncObject().add(exported);
-        }
-
-        if (log.isInfoEnabled()) {
-            log.info("Exporting links...");
-        }
-        elementsByParentId.clear();
-        exportLinks(syncData);
-
-        final SyncMapping syncMapping = new SyncMapping();
-        createMapping(syncMapping.getMapObjectType());
+        try (SyncDataWriter writer = new SyncDataWriter(out)) {
+            writer.writeStart(sourceId);
+            for (final CnATreeElement element : elements) {
+                List<CnATreeElement> elementWithProperties = loadElements(
+                        Collections.singletonList(element.getDbId()));
+                if (elementWithProperties.isEmpty()) {
+                    throw new RuntimeException(
+                            "Requested object with db ID " + element.getDbId() + " not found.");
+                }
+                exportElement(elementWithProperties.get(0), writer);
+                flushAndClearHibernateSession();
+            }
 
-        final SyncRequest syncRequest = new SyncRequest();
-        syncRequest.setSourceId(sourceId);
-        syncRequest.setSyncData(syncData);
-        syncRequest.setSyncMapping(syncMapping);
-        syncRequest.setSyncVnaSchemaVersion(formatVersion);
+            if (log.isInfoEnabled()) {
+                log.info("Exporting links...");
+            }
+            exportLinks(writer);
 
-        return syncRequest;
+            final SyncMapping syncMapping = new SyncMapping();
+            createMapping(syncMapping.getMapObjectType());
+            writer.writeEnd(syncMapping, formatVersion);
+        }
     }
 
-    private void loadData(Integer scopeId) {
-        loadElements(scopeId);
-        attachmentsByElementId = loadAttachments(scopeId);
+    /**
+     * Returns the ids of a page of children of an element. The children are
+     * ordered by their id, the page starts after lastChildId.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Integer> loadChildIds(final Integer parentId, final int lastChildId) {
+        return getDao().findByCallback(new HibernateCallback() {
+            @Override
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                return session.createQuery(HQL_LOAD_CHILD_IDS).setInteger("parentId", parentId)
+                        .setInteger("dbId", lastChildId)
+                        .setMaxResults(IDao.QUERY_MAX_ITEMS_IN_LIST).list();
+            }
+        });
     }
 
-    private void loadElements(Integer scopeId) {
+    /**
+     * Loads the elements with their properties ordered by their id.
+     */
+    private List<CnATreeElement> loadElements(List<Integer> elementIds) {
+        DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
+                .add(Restrictions.in("id", elementIds));
+        RetrieveInfo.getPropertyInstance().configureCriteria(criteria);
         @SuppressWarnings("unchecked")
-        List<Integer> elementIDs = getDao().findByCriteria(DetachedCriteria
-                .forClass(CnATreeElement.class).add(Restrictions.eq("scopeId", scopeId))
-                .setProjection(Projections.property("id")));
-        Thread loadElementsThread = new Thread(() -> CollectionUtil
-                .partition(elementIDs, IDao.QUERY_MAX_ITEMS_IN_LIST).forEach(partition -> {
-                    DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
-                            .add(Restrictions.in("id", partition));
-                    RetrieveInfo retrieveInfo = RetrieveInfo.getPropertyInstance();
-                    retrieveInfo.configureCriteria(criteria);
-                    @SuppressWarnings("unchecked")
-                    List<CnATreeElement> elementsToCache = getDao().findByCriteria(criteria);
-                    elementsToCache.forEach(element -> elementsByParentId
-                            .computeIfAbsent(element.getParentId(), parentId -> new LinkedList<>())
-                            .add(element));
-                }), "export-" + scopeId + "-load-elements");
-        loadElementsThread.start();
-
-        loadLinks(elementIDs);
-        try {
-            loadElementsThread.join();
-        } catch (InterruptedException e) {
-            throw new RuntimeException("Interrupted while seeding caches for scopeId " + scopeId,
-                    e);
-        }
+        List<CnATreeElement> loadedElements = getDao().findByCriteria(criteria);
+        // the joined properties may return an element more than once
+        Map<Integer, CnATreeElement> elementsById = new TreeMap<>();
+        loadedElements.forEach(element -> elementsById.put(element.getDbId(), element));
+        return new ArrayList<>(elementsById.values());
     }
 
-    private Map<Integer, List<Attachment>> loadAttachments(Integer scopeId) {
+    private Map<Integer, List<Attachment>> loadAttachments(Collection<CnATreeElement> elements) {
+        if (!isVeriniceArchive() || elements.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Integer> elementIds = elements.stream().map(CnATreeElement::getDbId)
+                .collect(Collectors.toList());
         @NonNull
         IBaseDao<Attachment, Serializable> attachmentDao = getDaoFactory().getDAO(Attachment.class);
-        @SuppressWarnings("unchecked")
-        List<Attachment> attachments = attachmentDao.findByCriteria(
-                DetachedCriteria.forClass(Attachment.class).createAlias("cnATreeElement", "element")
-                        .add(Restrictions.eq("element.scopeId", scopeId)));
-        return attachments.stream().collect(
-                Collectors.groupingBy(attachment -> attachment.getCnATreeElement().getDbId()));
-    }
-
-    private void loadLinks(List<Integer> elementIDs) {
-        @NonNull
-        IBaseDao<CnALink, Serializable> linkDao = getDaoFactory().getDAO(CnALink.class);
-        CollectionUtil.partition(elementIDs, IDao.QUERY_MAX_ITEMS_IN_LIST).forEach(partition -> {
-            DetachedCriteria criteria = DetachedCriteria.forClass(CnALink.class)
-                    .add(Restrictions.in("id.dependantId", partition));
-            linkSet.addAll(linkDao.findByCriteria(criteria));
-            criteria = DetachedCriteria.forClass(CnALink.class)
-                    .add(Restrictions.in("id.dependencyId", partition));
-            linkSet.addAll(linkDao.findByCriteria(criteria));
+        Map<Integer, List<Attachment>> attachmentsByElementId = new HashMap<>();
+        CollectionUtil.partition(elementIds, IDao.QUERY_MAX_ITEMS_IN_LIST).forEach(partition -> {
+            @SuppressWarnings("unchecked")
+            List<Attachment> attachments = attachmentDao.findByCriteria(DetachedCriteria
+                    .forClass(Attachment.class).createAlias("cnATreeElement", "element")
+                    .add(Restrictions.in("element.dbId", partition)));
+            attachments.forEach(attachment -> attachmentsByElementId
+                    .computeIfAbsent(attachment.getCnATreeElement().getDbId(),
+                            id -> new LinkedList<>())
+                    .add(attachment));
         });
+        return attachmentsByElementId;
     }
 
     private SyncVnaSchemaVersion createVersionData() {
@@ -317,68 +444,103 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         this.exportRiskAnalysis = exportRiskAnalysis;
     }
 
-    private SyncObject exportElement(final CnATreeElement element) throws CommandException {
+    private void exportElement(final CnATreeElement element, final SyncDataWriter writer)
+            throws CommandException {
         final ExportTask task = new ExportTask(element);
-        configureTask(task);
+        configureTask(task,
+                loadAttachments(Collections.singletonList(element)).get(element.getDbId()));
         SyncObject syncObject = task.export();
         getValuesFromTask(task);
-        syncObject.getChildren().addAll(exportChildren(task.getElement()));
-        return syncObject;
+        if (syncObject != null) {
+            writer.startSyncObject(syncObject);
+            exportChildren(task.getElement(), writer);
+            writer.endSyncObject(syncObject);
+        }
     }
 
-    private void exportLinks(final SyncData syncData) {
-        for (final CnALink link : linkSet) {
-            if (!exportedElementIds.contains(link.getId().getDependantId())) {
-                log.warn("Dependant of link not found. Check access rights. " + link.getId());
-                continue;
-            }
-            if (!exportedElementIds.contains(link.getId().getDependencyId())) {
-                log.warn("Dependency of link not found. Check access rights. " + link.getId());
-                continue;
-            }
-            ExportFactory.transform(link, syncData.getSyncLink());
-        }
+    /**
+     * Exports the links of the exported elements. The links are loaded for
+     * {@link IDao#QUERY_MAX_ITEMS_IN_LIST} elements at a time.
+     */
+    private void exportLinks(final SyncDataWriter writer) {
+        @NonNull
+        IBaseDao<CnALink, Serializable> linkDao = getDaoFactory().getDAO(CnALink.class);
+        final List<SyncLink> syncLinks = new ArrayList<>(1);
+        CollectionUtil.partition(new ArrayList<>(exportedElementIds), IDao.QUERY_MAX_ITEMS_IN_LIST)
+                .forEach(partition -> {
+                    @SuppressWarnings("unchecked")
+                    List<CnALink> links = linkDao.findByCriteria(
+                            DetachedCriteria.forClass(CnALink.class)
+                                    .add(Restrictions.in("id.dependantId", partition)));
+                    for (final CnALink link : links) {
+                        if (!exportedElementIds.contains(link.getId().getDependencyId())) {
+                            log.warn("Dependency of link not found. Check access rights. "
+                                    + link.getId());
+                            continue;
+                        }
+                        ExportFactory.transform(link, syncLinks);
+                        writer.writeSyncLink(syncLinks.get(0));
+                        syncLinks.clear();
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<CnALink> linksUp = linkDao.findByCriteria(
+                            DetachedCriteria.forClass(CnALink.class)
+                                    .add(Restrictions.in("id.dependencyId", partition)));
+                    for (final CnALink link : linksUp) {
+                        if (!exportedElementIds.contains(link.getId().getDependantId())) {
+                            log.warn("Dependant of link not found. Check access rights. "
+                                    + link.getId());
+                        }
+                    }
+                    flushAndClearHibernateSession();
+                });
     }
 
-    private Collection<? extends SyncObject> exportChildren(final CnATreeElement element)
+    private void exportChildren(final CnATreeElement element, final SyncDataWriter writer)
             throws CommandException {
         if (log.isDebugEnabled()) {
             log.debug("Call exportChildren in ExportCommand hashcode " + this.hashCode()
                     + "for object " + element.getTitle());
         }
-        final Collection<CnATreeElement> children = getElementChildren(element);
+        List<Integer> childIds;
+        int lastChildId = Integer.MIN_VALUE;
+        do {
+            childIds = loadChildIds(element.getDbId(), lastChildId);
+            if (!childIds.isEmpty()) {
+                exportChildPage(loadElements(childIds), writer);
+                lastChildId = childIds.get(childIds.size() - 1);
+            }
+        } while (childIds.size() == IDao.QUERY_MAX_ITEMS_IN_LIST);
         if (FinishedRiskAnalysis.TYPE_ID.equals(element.getTypeId())) {
-            children.addAll(getRiskAnalysisOrphanElements(element));
-        }
-
-        if (children.isEmpty()) {
-            return Collections.emptySet();
+            exportChildPage(getRiskAnalysisOrphanElements(element), writer);
         }
-        final List<SyncObject> exportedChildren = new ArrayList<>(children.size());
+    }
 
+    /**
+     * Exports a page of children and their subtrees. The Hibernate session is
+     * cleared afterwards.
+     */
+    private void exportChildPage(final Collection<CnATreeElement> children,
+            final SyncDataWriter writer) throws CommandException {
+        Map<Integer, List<Attachment>> attachmentsByElementId = loadAttachments(children);
         for (final CnATreeElement child : children) {
             if (log.isDebugEnabled()) {
                 log.debug("Create export job for child " + child.getDbId());
             }
             final ExportTask task = new ExportTask(child);
-            configureTask(task);
+            configureTask(task, attachmentsByElementId.get(child.getDbId()));
 
             SyncObject exportedChild = task.export();
             if (exportedChild != null) {
-                exportedChildren.add(exportedChild);
+                writer.startSyncObject(exportedChild);
                 if (checkElement(child)) {
-                    exportedChild.getChildren().addAll(exportChildren(task.getElement()));
+                    exportChildren(task.getElement(), writer);
                 }
+                writer.endSyncObject(exportedChild);
             }
             getValuesFromTask(task);
         }
-
-        return exportedChildren;
-    }
-
-    protected Collection<CnATreeElement> getElementChildren(final CnATreeElement element) {
-        return elementsByParentId.getOrDefault(element.getDbId(), Collections.emptySet());
-
+        flushAndClearHibernateSession();
     }
 
     private boolean checkElement(final CnATreeElement element) {
@@ -400,20 +562,22 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
     }
 
     /**
-     * Creates the verinice archive after createXmlData() was called.
+     * Exports the elements and writes the verinice archive to an output
+     * stream.
      * 
-     * @return the verinice archive as byte[]
      * @throws CommandException
      */
-    private byte[] createVeriniceArchive(SyncRequest syncRequest, Risk risk)
-            throws CommandException {
-        try (final ByteArrayOutputStream byteOut = new ByteArrayOutputStream()) {
-            try (final ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+    private void createVeriniceArchive(OutputStream out) throws CommandException {
+        try {
+            try (final ZipOutputStream zipOut = new ZipOutputStream(out)) {
 
-                ExportFactory.createZipEntry(zipOut, VeriniceArchive.VERINICE_XML, syncRequest);
+                zipOut.putNextEntry(new ZipEntry(VeriniceArchive.VERINICE_XML));
+                export(zipOut);
+                Risk risk = exportRiskAnalyses();
                 if (isRiskAnalysis()) {
                     ExportFactory.createZipEntry(zipOut, VeriniceArchive.RISK_XML, risk);
                 }
+                saveChangedElements();
                 ExportFactory.createZipEntry(zipOut, VeriniceArchive.DATA_XSD,
                         StreamFactory.getDataXsdAsStream());
                 ExportFactory.createZipEntry(zipOut, VeriniceArchive.MAPPING_XSD,
@@ -425,20 +589,16 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
                 ExportFactory.createZipEntry(zipOut, VeriniceArchive.README_TXT,
                         StreamFactory.getReadmeAsStream());
 
-                for (final Attachment attachment : getAttachmentSet()) {
-                    LoadAttachmentFile command = new LoadAttachmentFile(attachment.getDbId(), true);
-                    command = getCommandService().executeCommand(command);
-                    if (command.getAttachmentFile() != null
-                            && command.getAttachmentFile().getFileData() != null) {
-                        ExportFactory.createZipEntry(zipOut,
-                                ExportFactory.createZipFileName(attachment),
-                                command.getAttachmentFile().getFileData());
+                IAttachmentStore attachmentStore = getDaoFactory().getAttachmentStore();
+                for (Entry<Integer, String> attachment : attachmentFileNames.entrySet()) {
+                    // the file data is streamed from the store to the archive
+                    if (attachmentStore.hasFileData(attachment.getKey())) {
+                        zipOut.putNextEntry(new ZipEntry(attachment.getValue()));
+                        attachmentStore.read(attachment.getKey(), zipOut);
                     }
-                    command.setAttachmentFile(null);
                 }
                 zipOut.closeEntry();
             }
-            return byteOut.toByteArray();
         } catch (final IOException e) {
             log.error("Error while creating zip output stream", e);
             throw new RuntimeCommandException(e);
@@ -446,6 +606,13 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
     }
 
     private void saveChangedElements() {
+        if (!isReImport()) {
+            return;
+        }
+        if (log.isInfoEnabled()) {
+            log.info("Prepare reimport is enabled. Saving the IDS of " + changedElements.size()
+                    + " elements ...");
+        }
         int number = changedElements.size();
         int i = 0;
         for (CnATreeElement element : changedElements) {
@@ -513,9 +680,9 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         }
     }
 
-    private void configureTask(final ExportTask task) {
+    private void configureTask(final ExportTask task, final List<Attachment> attachments) {
         task.setCommandService(getCommandService());
-        task.setAttachments(attachmentsByElementId.get(task.getElement().getDbId()));
+        task.setAttachments(attachments);
         task.setAttachmentDao(getDaoFactory().getDAO(Attachment.class));
         task.setHuiTypeFactory(getHuiTypeFactory());
         task.setSourceId(sourceId);
@@ -526,7 +693,8 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
     }
 
     private void getValuesFromTask(final ExportTask exportTask) {
-        attachmentSet.addAll(exportTask.getAttachmentSet());
+        exportTask.getAttachmentSet().forEach(attachment -> attachmentFileNames
+                .put(attachment.getDbId(), ExportFactory.createZipFileName(attachment)));
         exportedEntityTypes.addAll(exportTask.getExportedEntityTypes());
         exportedTypes.addAll(exportTask.getExportedTypes());
         changedElements.addAll(exportTask.getChangedElementList());
@@ -595,10 +763,49 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         return getDaoFactory().getDAO(CnATreeElement.class);
     }
 
+    /**
+     * Returns the exported VNA or XML file. Returns null if the result was
+     * kept on the server, see {@link #setKeepResultOnServer(boolean)}.
+     */
     public byte[] getResult() {
         return result;
     }
 
+    /**
+     * Returns the id of the exported file if it was kept on the server. Load
+     * the file with {@link LoadExportResult}.
+     */
+    public String getResultId() {
+        return resultId;
+    }
+
+    public long getResultSize() {
+        return resultSize;
+    }
+
+    public boolean isKeepResultOnServer() {
+        return keepResultOnServer;
+    }
+
+    /**
+     * If true the exported file is kept on the server instead of returning
+     * it with the command. Load the file afterwards in chunks with
+     * {@link LoadExportResult}.
+     */
+    public void setKeepResultOnServer(boolean keepResultOnServer) {
+        this.keepResultOnServer = keepResultOnServer;
+    }
+
+    @Override
+    public IAuthService getAuthService() {
+        return authService;
+    }
+
+    @Override
+    public void setAuthService(IAuthService authService) {
+        this.authService = authService;
+    }
+
     protected HUITypeFactory getHuiTypeFactory() {
         return (HUITypeFactory) VeriniceContext.get(VeriniceContext.HUI_TYPE_FACTORY);
     }
@@ -645,11 +852,4 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         this.exportFormat = exportFormat;
     }
 
-    public Set<Attachment> getAttachmentSet() {
-        if (attachmentSet == null) {
-            attachmentSet = new HashSet<>();
-        }
-        return attachmentSet;
-    }
-
 }
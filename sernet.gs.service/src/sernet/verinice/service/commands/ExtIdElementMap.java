@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.hibernate.HibernateUtil;
+
+/**
+ * Maps the external ids of imported elements to the elements.
+ *
+ * The map keeps only the database ids of the elements for the whole import.
+ * An element is kept in memory until {@link #clearElements()} is called
+ * after the Hibernate session was cleared. Afterwards the element is loaded
+ * again from the database when it is requested.
+ */
+class ExtIdElementMap extends AbstractMap<String, CnATreeElement> {
+
+    private final IBaseDao<CnATreeElement, Serializable> dao;
+
+    private final Map<String, Integer> dbIds = new HashMap<>();
+
+    private final Map<String, CnATreeElement> elements = new HashMap<>();
+
+    ExtIdElementMap(IBaseDao<CnATreeElement, Serializable> dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public CnATreeElement put(String extId, CnATreeElement element) {
+        dbIds.put(extId, element.getDbId());
+        return elements.put(extId, element);
+    }
+
+    @Override
+    public CnATreeElement get(Object extId) {
+        CnATreeElement element = elements.get(extId);
+        if (element == null) {
+            Integer dbId = dbIds.get(extId);
+            if (dbId != null) {
+                element = HibernateUtil.unproxy(dao.findById(dbId));
+                elements.put((String) extId, element);
+            }
+        }
+        return element;
+    }
+
+    @Override
+    public boolean containsKey(Object extId) {
+        return dbIds.containsKey(extId);
+    }
+
+    @Override
+    public int size() {
+        return dbIds.size();
+    }
+
+    @Override
+    public Set<Entry<String, CnATreeElement>> entrySet() {
+        return dbIds.keySet().stream().map(extId -> new SimpleImmutableEntry<>(extId, get(extId)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Removes the loaded elements from memory, the database ids are kept.
+     */
+    void clearElements() {
+        elements.clear();
+    }
+}
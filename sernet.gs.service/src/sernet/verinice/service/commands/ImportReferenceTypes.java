@@ -53,7 +53,11 @@ public class ImportReferenceTypes {
 
     private static final Logger LOG = Logger.getLogger(ImportReferenceTypes.class);
 
-    private final Map<CnATreeElement, List<SyncAttribute>> cnaTreeElement2SyncAttributes;
+    /**
+     * Sync attributes with references by uuid of the element. The elements
+     * are not kept, since the session is cleared during the import.
+     */
+    private final Map<String, List<SyncAttribute>> cnaTreeElement2SyncAttributes;
 
     private final IBaseDao<CnATreeElement, Serializable> dao;
 
@@ -110,11 +114,9 @@ public class ImportReferenceTypes {
     }
 
     private void mapCnATreeElement2SyncAttributes(CnATreeElement cnaTreeElement, SyncAttribute syncAttribute) {
-        if (!cnaTreeElement2SyncAttributes.containsKey(cnaTreeElement)) {
-            cnaTreeElement2SyncAttributes.put(cnaTreeElement, new ArrayList<SyncAttribute>());
-        }
-
-        cnaTreeElement2SyncAttributes.get(cnaTreeElement).add(syncAttribute);
+        cnaTreeElement2SyncAttributes
+                .computeIfAbsent(cnaTreeElement.getUuid(), uuid -> new ArrayList<>())
+                .add(syncAttribute);
     }
 
     /**
@@ -128,9 +130,9 @@ public class ImportReferenceTypes {
      */
     public void replaceExternalIdsWithDbIds() {
 
-        Set<Entry<CnATreeElement, List<SyncAttribute>>> entrySet = cnaTreeElement2SyncAttributes.entrySet();
+        Set<Entry<String, List<SyncAttribute>>> entrySet = cnaTreeElement2SyncAttributes.entrySet();
 
-        for (Map.Entry<CnATreeElement, List<SyncAttribute>> syncElement : entrySet) {
+        for (Map.Entry<String, List<SyncAttribute>> syncElement : entrySet) {
 
             CnATreeElement hydratedElement = hydrateCnaTreeElement(syncElement);
             List<SyncAttribute> syncAttributes = syncElement.getValue();
@@ -188,8 +190,8 @@ public class ImportReferenceTypes {
         }
     }
 
-    private CnATreeElement hydrateCnaTreeElement(Map.Entry<CnATreeElement, List<SyncAttribute>> syncElement) {
-        String uuid = syncElement.getKey().getUuid();
+    private CnATreeElement hydrateCnaTreeElement(Map.Entry<String, List<SyncAttribute>> syncElement) {
+        String uuid = syncElement.getKey();
         RetrieveInfo ri = RetrieveInfo.getPropertyChildrenInstance();
         return dao.findByUuid(uuid, ri);
     }
@@ -35,7 +35,9 @@ import javax.imageio.stream.ImageInputStream;
 
 import org.apache.log4j.Logger;
 
+import sernet.gs.service.RuntimeCommandException;
 import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.bsi.AttachmentFile;
 import sernet.verinice.model.common.CnATreeElement;
@@ -88,21 +90,40 @@ public class LoadAttachmentFile extends GenericCommand {
 			log.debug("executing, id is: " + getDbId() + "...");
 		}
 		if(getDbId()!=null) {
-			IBaseDao<AttachmentFile, Serializable> dao = getDaoFactory().getDAO(AttachmentFile.class);		
-			setAttachmentFile(dao.retrieve(getDbId(),null));	
+			setAttachmentFile(readAttachmentFile());
 			if(flush) {
+			    IBaseDao<AttachmentFile, Serializable> dao = getDaoFactory().getDAO(AttachmentFile.class);
 			    dao.flush();
                 dao.clear();
 			}
 			if(scaleSize!=null) {
-			    // clear dao otherwise scaled image is saved
-			    dao.clear();
 			    scaleImage();
 			}
 		}
 		
 	}
 
+    /**
+     * Reads the file data from the {@link IAttachmentStore}.
+     * 
+     * @return The file or null if the attachment has no file data
+     */
+    private AttachmentFile readAttachmentFile() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (!getDaoFactory().getAttachmentStore().read(getDbId(), out)) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new RuntimeCommandException("Error while loading file data of attachment "
+                    + getDbId(), e);
+        }
+        AttachmentFile file = new AttachmentFile();
+        file.setDbId(getDbId());
+        file.setFileData(out.toByteArray());
+        return file;
+    }
+
     /**
      * For images you can set a scale-size. If set images are scaled before send to the
      * client. Width or height is set to the scale-size by keeping the ratio.
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import sernet.hui.common.connect.CompactEntity;
+import sernet.hui.common.connect.EntityType;
+import sernet.hui.common.connect.HUITypeFactory;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Loads the property values of all elements of a type as read-only
+ * {@link CompactEntity} views.
+ *
+ * The values are selected with a single projection query, no elements,
+ * entities and property lists are loaded into the Hibernate session. Use this
+ * command for read paths which only need the property values of many
+ * elements, e.g. reports. Elements the user is not allowed to read are missing
+ * in the result.
+ */
+public class LoadCompactEntities extends GenericCommand {
+
+    private static final long serialVersionUID = -4381519263707125394L;
+
+    private static final Logger log = Logger.getLogger(LoadCompactEntities.class);
+
+    private static final String QUERY = "select elmt.dbId, entity.entityType, "
+            + "props.propertyType, props.propertyValue " //-NLS-1$
+            + "from %s elmt " //-NLS-1$
+            + "join elmt.entity as entity " //-NLS-1$
+            + "left join entity.typedPropertyLists as propertyList " //-NLS-1$
+            + "left join propertyList.properties as props " //-NLS-1$
+            + "order by elmt.dbId, propertyList.dbId, index(props)"; //-NLS-1$
+
+    private String typeId;
+
+    private List<CompactEntity> result;
+
+    /**
+     * @param typeId
+     *            The type id of the elements
+     */
+    public LoadCompactEntities(String typeId) {
+        this.typeId = typeId;
+    }
+
+    @Override
+    public void execute() {
+        @SuppressWarnings("unchecked")
+        IBaseDao<CnATreeElement, Serializable> dao = getDaoFactory().getDAO(typeId);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = dao.findByQuery(String.format(QUERY, dao.getType().getName()),
+                new Object[] {});
+        result = new ArrayList<>();
+        Map<String, EntityType> entityTypes = new HashMap<>();
+        CompactEntity.Builder builder = null;
+        Integer currentDbId = null;
+        for (Object[] row : rows) {
+            Integer dbId = (Integer) row[0];
+            if (!dbId.equals(currentDbId)) {
+                addToResult(builder);
+                currentDbId = dbId;
+                EntityType entityType = entityTypes.computeIfAbsent((String) row[1],
+                        HUITypeFactory.getInstance()::getEntityType);
+                builder = (entityType != null) ? new CompactEntity.Builder(dbId, entityType)
+                        : null;
+                if (entityType == null) {
+                    log.warn("Unknown entity type " + row[1] + " of element " + dbId);
+                }
+            }
+            if (builder != null && row[2] != null) {
+                builder.add((String) row[2], (String) row[3]);
+            }
+        }
+        addToResult(builder);
+        if (log.isDebugEnabled()) {
+            log.debug(result.size() + " elements of type " + typeId + " loaded, "
+                    + rows.size() + " rows");
+        }
+    }
+
+    private void addToResult(CompactEntity.Builder builder) {
+        if (builder != null) {
+            result.add(builder.build());
+        }
+    }
+
+    public List<CompactEntity> getResult() {
+        return result;
+    }
+
+}
@@ -17,14 +17,14 @@
  ******************************************************************************/
 package sernet.verinice.service.commands;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-import sernet.hui.common.connect.Entity;
+import sernet.gs.service.RuntimeCommandException;
+import sernet.hui.common.connect.CompactEntity;
+import sernet.hui.common.connect.IEntityValues;
+import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
-import sernet.verinice.interfaces.IBaseDao;
-import sernet.verinice.model.common.CnATreeElement;
 
 /**
  * Generic command to retrieve arbitrary cna tree elements and their property
@@ -35,6 +35,11 @@ import sernet.verinice.model.common.CnATreeElement;
  * property values.
  * </p>
  * 
+ * <p>
+ * The values are loaded by {@link LoadCompactEntities} without loading the
+ * elements into the Hibernate session.
+ * </p>
+ * 
  * @author Robert Schuster
  *
  * @param <T>
@@ -58,15 +63,17 @@ public class LoadEntityValues extends GenericCommand {
         this.classes = (classes != null) ? classes.clone() : null;
     }
 
-    @SuppressWarnings("unchecked")
     public void execute() {
-        IBaseDao<CnATreeElement, Serializable> dao = (IBaseDao<CnATreeElement, Serializable>) getDaoFactory()
-                .getDAO(typeId);
-        List<CnATreeElement> elements = dao.findAll();
+        List<CompactEntity> entities;
+        try {
+            entities = getCommandService().executeCommand(new LoadCompactEntities(typeId))
+                    .getResult();
+        } catch (CommandException e) {
+            throw new RuntimeCommandException(e);
+        }
 
-        result = new ArrayList<List<String>>(elements.size());
-        for (CnATreeElement element : elements) {
-            Entity e = element.getEntity();
+        result = new ArrayList<List<String>>(entities.size());
+        for (CompactEntity e : entities) {
             result.add(retrievePropertyValues(e, propertyTypes, classes));
         }
     }
@@ -80,7 +87,7 @@ public class LoadEntityValues extends GenericCommand {
      * other parts of the application.
      * </p>
      */
-    public static List<String> retrievePropertyValues(Entity e, String[] propertyTypes,
+    public static List<String> retrievePropertyValues(IEntityValues e, String[] propertyTypes,
             Class<?>[] classes) {
         ArrayList<String> values = new ArrayList<String>(propertyTypes.length);
 
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.log4j.Logger;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAuthAwareCommand;
+import sernet.verinice.interfaces.IAuthService;
+import sernet.verinice.interfaces.ICommandService;
+
+/**
+ * Loads a chunk of an export result which was kept on the server by
+ * {@link ExportCommand#setKeepResultOnServer(boolean)}. The file of the
+ * result is deleted on the server after the last chunk was loaded. Only the
+ * user who created the result can load it.
+ * 
+ * Use {@link #download(ICommandService, String, OutputStream)} to load all
+ * chunks of a result.
+ */
+@SuppressWarnings("serial")
+public class LoadExportResult extends GenericCommand implements IAuthAwareCommand {
+
+    private static final Logger log = Logger.getLogger(LoadExportResult.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final String resultId;
+    private final long offset;
+    private final int chunkSize;
+
+    private byte[] data;
+    private boolean last;
+
+    private transient IAuthService authService;
+
+    public LoadExportResult(String resultId, long offset) {
+        this(resultId, offset, DEFAULT_CHUNK_SIZE);
+    }
+
+    public LoadExportResult(String resultId, long offset, int chunkSize) {
+        super();
+        this.resultId = resultId;
+        this.offset = offset;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void execute() {
+        Path resultFile = ExportCommand.getResultPath(resultId,
+                getAuthService().getUsername());
+        try (FileChannel channel = FileChannel.open(resultFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int length = (int) Math.max(0, Math.min(chunkSize, size - offset));
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            data = buffer.array();
+            last = offset + length >= size;
+        } catch (IOException e) {
+            log.error("Error while reading export result " + resultId, e);
+            throw new RuntimeCommandException("Error while reading export result", e);
+        }
+        if (last) {
+            ExportCommand.removeResult(resultId);
+        }
+    }
+
+    /**
+     * Loads all chunks of an export result and writes them to an output
+     * stream.
+     */
+    public static void download(ICommandService commandService, String resultId,
+            OutputStream out) throws CommandException, IOException {
+        long offset = 0;
+        LoadExportResult command;
+        do {
+            command = commandService.executeCommand(new LoadExportResult(resultId, offset));
+            out.write(command.getData());
+            offset += command.getData().length;
+        } while (!command.isLast());
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    @Override
+    public IAuthService getAuthService() {
+        return authService;
+    }
+
+    @Override
+    public void setAuthService(IAuthService authService) {
+        this.authService = authService;
+    }
+}
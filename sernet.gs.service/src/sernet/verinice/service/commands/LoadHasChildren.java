@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Criteria;
+import org.hibernate.criterion.ProjectionList;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Determines which elements have children without loading the children.
+ *
+ * The children are counted with one grouped SQL statement per
+ * {@link IDao#QUERY_MAX_ITEMS_IN_LIST} elements. Only children the user is
+ * allowed to read are counted.
+ */
+public class LoadHasChildren extends GenericCommand {
+
+    private static final long serialVersionUID = -2961372548157045291L;
+
+    private List<Integer> dbIds;
+
+    /*
+     * Key: db id Value: true if element with db id has children, false if not
+     */
+    private Map<Integer, Boolean> hasChildrenMap;
+
+    public LoadHasChildren(Collection<Integer> dbIds) {
+        super();
+        this.dbIds = new ArrayList<>(dbIds);
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.ICommand#execute()
+     */
+    @Override
+    public void execute() {
+        hasChildrenMap = new HashMap<>(dbIds.size());
+        for (Integer dbId : dbIds) {
+            hasChildrenMap.put(dbId, Boolean.FALSE);
+        }
+        for (List<Integer> chunk : CollectionUtil.partition(dbIds, IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            for (Object[] row : countChildren(chunk)) {
+                Integer parentId = (Integer) row[0];
+                Number count = (Number) row[1];
+                hasChildrenMap.put(parentId, count.longValue() > 0);
+            }
+        }
+        dbIds = null;
+    }
+
+    private List<Object[]> countChildren(List<Integer> parentIds) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = (List<Object[]>) getElementDAO().executeCallback(session -> {
+            Criteria criteria = session.createCriteria(CnATreeElement.class);
+            criteria.add(Restrictions.in("parentId", parentIds));
+            ProjectionList projectionList = Projections.projectionList();
+            projectionList.add(Projections.groupProperty("parentId"));
+            projectionList.add(Projections.rowCount());
+            criteria.setProjection(projectionList);
+            return criteria.list();
+        });
+        return result;
+    }
+
+    /**
+     * Returns a map to determine if elements have children. Map contains one
+     * entry per element passed to the constructor.
+     *
+     * Key of the map: db id, value of the map: true if element with id has
+     * children, false if not
+     *
+     * @return the hasChildrenMap
+     */
+    public Map<Integer, Boolean> getHasChildrenMap() {
+        return hasChildrenMap;
+    }
+
+    private IBaseDao<CnATreeElement, Serializable> getElementDAO() {
+        return getDaoFactory().getDAO(CnATreeElement.class);
+    }
+
+}
@@ -20,11 +20,15 @@
 package sernet.verinice.service.commands;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import sernet.gs.service.RetrieveInfo;
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.common.CnATreeElement;
@@ -70,19 +74,23 @@ public class LoadTreeItem extends GenericCommand {
         element = dao.retrieve(dbId, ri);
         ElementFilter.filterChildrenOfElement(element, parameter);
 
-        hasChildrenMap = new HashMap<>();
         Set<CnATreeElement> children = element.getChildren();
-        hasChildrenMap.put(element.getDbId(), (children != null && !children.isEmpty()));
+        List<Integer> childIds = new ArrayList<>();
         if (children != null) {
             for (CnATreeElement child : children) {
-                Set<CnATreeElement> grandchildren = child.getChildren();
-                // calling grandchildren.size() is starting the hibernate
-                // initialization of set grand children
-                // if grand children is set to false in RetrieveInfo
-                hasChildrenMap.put(child.getDbId(),
-                        (grandchildren != null && !grandchildren.isEmpty()));
+                childIds.add(child.getDbId());
             }
         }
+        // the grandchildren are counted with one grouped query instead of
+        // initializing the children set of each child
+        LoadHasChildren loadHasChildren = new LoadHasChildren(childIds);
+        try {
+            loadHasChildren = getCommandService().executeCommand(loadHasChildren);
+        } catch (CommandException e) {
+            throw new RuntimeCommandException("Error while loading children of children", e);
+        }
+        hasChildrenMap = new HashMap<>(loadHasChildren.getHasChildrenMap());
+        hasChildrenMap.put(element.getDbId(), !childIds.isEmpty());
     }
 
     /**
@@ -24,16 +24,20 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.log4j.Logger;
 
+import sernet.gs.service.CollectionUtil;
 import sernet.hui.common.connect.Property;
 import sernet.hui.common.connect.PropertyList;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IDao;
 import sernet.verinice.model.bsi.BausteinUmsetzung;
 import sernet.verinice.model.bsi.MassnahmenUmsetzung;
 import sernet.verinice.model.bsi.Person;
@@ -58,6 +62,11 @@ import sernet.verinice.service.commands.task.FindResponsiblePerson;
  * <p>The result can be retrieved as a {@link Collection} instance
  * containing {@link NotificationInfo} instances. This class makes
  * it simple to access the required information.</p>
+ *
+ * <p>The accounts of the responsible persons are taken from the list of all
+ * accounts which is loaded once. Persons directly responsible for a measure
+ * are loaded in chunks for all measures at once. Persons responsible by role
+ * are looked up once per parent element and set of roles.</p>
  * 
  * @author Robert Schuster <r.schuster@tarent.de>
  */
@@ -68,7 +77,14 @@ public class PrepareNotificationInfo extends GenericCommand {
 
 	private Map<Configuration, NotificationInfo> resultMap = new HashMap<Configuration, NotificationInfo>();
 	
-	private Map<CnATreeElement, Configuration> personCache = new HashMap<CnATreeElement, Configuration>(); 
+	// accounts by the database id of their person
+	private Map<Integer, Configuration> personCache = new HashMap<Integer, Configuration>();
+	
+	// persons by the database id of their entity, null if an entity id is not a person
+	private Map<Integer, Person> personsByEntityId = new HashMap<Integer, Person>();
+	
+	// persons responsible by role, keyed by the parent element of the measures and the roles
+	private Map<String, List<Person>> personsByRoles = new HashMap<String, List<Person>>();
 	
 	public PrepareNotificationInfo() {
 		// Intentionally does nothing.
@@ -89,6 +105,12 @@ public class PrepareNotificationInfo extends GenericCommand {
 			throw new RuntimeException(e);
 		}
 		
+		for (Configuration c : lc.getElements()) {
+		    if (c.getPerson() != null) {
+		        personCache.put(c.getPerson().getDbId(), c);
+		    }
+		}
+		
 		collectExpirationNotifees(lc.getElements());
 		
 		// The following command rely upon inspection of the ChangeLogEntry instances.
@@ -138,6 +160,7 @@ public class PrepareNotificationInfo extends GenericCommand {
         try {
             LoadCnAElementByType<MassnahmenUmsetzung> lmu = new LoadCnAElementByType<MassnahmenUmsetzung>(MassnahmenUmsetzung.class, true);
 			lmu = getCommandService().executeCommand(lmu);	
+			loadPersonsDirectlyResponsible(lmu.getElements());
     		for (MassnahmenUmsetzung mu : lmu.getElements())
     		{
     			if (mu.isCompleted())
@@ -158,37 +181,24 @@ public class PrepareNotificationInfo extends GenericCommand {
         }
     }
 	
+	/**
+	 * Returns the account of a person or null if the person has no account.
+	 */
 	private Configuration retrieveConfiguration(CnATreeElement p)
 	{
-		Configuration result = personCache.get(p);
-		if (result == null)
-		{
-			LoadConfiguration lc = new LoadConfiguration(p, false);
-			try {
-				lc = getCommandService().executeCommand(lc);
-			} catch (CommandException e) {
-			    log.error("Error while loading account.", e);
-				throw new RuntimeException(e);
-			}
-			
-			result = lc.getConfiguration();
-			if (result == null){
-				result = new Configuration();
-			}
-			personCache.put(p, result);
-		}
-		
-		return result;
+		return personCache.get(p.getDbId());
 	}
 	
 	@Override
     public void clear()
 	{
 		personCache.clear();
+		personsByEntityId.clear();
+		personsByRoles.clear();
 	}
 	
 	public void reset() {
-        personCache.clear();
+        clear();
         resultMap.clear();
     }
 	
@@ -274,6 +284,26 @@ public class PrepareNotificationInfo extends GenericCommand {
 	 * @return
 	 */
 	private List<Person> retrievePersonsDirectlyResponsible(MassnahmenUmsetzung mu, boolean isCompletion)
+	{
+		Set<Integer> ids = getEntityIdsOfResponsiblePersons(mu, isCompletion);
+		if (ids.isEmpty())
+		{
+			return Collections.emptyList();
+		}
+		loadPersons(ids);
+		List<Person> result = new ArrayList<Person>(ids.size());
+		for (Integer id : ids)
+		{
+			Person person = personsByEntityId.get(id);
+			if (person != null)
+			{
+				result.add(person);
+			}
+		}
+		return result;
+	}
+	
+	private Set<Integer> getEntityIdsOfResponsiblePersons(MassnahmenUmsetzung mu, boolean isCompletion)
 	{
 		String field = (isCompletion ? MassnahmenUmsetzung.P_UMSETZUNGDURCH_LINK : MassnahmenUmsetzung.P_NAECHSTEREVISIONDURCH_LINK);
 		PropertyList pl = mu.getEntity().getProperties(field);
@@ -282,15 +312,51 @@ public class PrepareNotificationInfo extends GenericCommand {
 		if (pl != null){
 			props = pl.getProperties();
 		}
-		if (props != null && !props.isEmpty())
+		if (props == null || props.isEmpty())
+		{
+			return Collections.emptySet();
+		}
+		Set<Integer> ids = new LinkedHashSet<Integer>(props.size());
+		for (Property p : props)
+		{
+			ids.add(Integer.valueOf(p.getPropertyValue()));
+		}
+		return ids;
+	}
+	
+	/**
+	 * Loads the persons directly responsible for completing or revising any of the
+	 * given measures with as few queries as possible.
+	 */
+	private void loadPersonsDirectlyResponsible(List<MassnahmenUmsetzung> measures)
+	{
+		Set<Integer> ids = new HashSet<Integer>();
+		for (MassnahmenUmsetzung mu : measures)
+		{
+			ids.addAll(getEntityIdsOfResponsiblePersons(mu, true));
+			ids.addAll(getEntityIdsOfResponsiblePersons(mu, false));
+		}
+		loadPersons(ids);
+	}
+	
+	/**
+	 * Loads all persons with the given entity ids which are not loaded yet.
+	 * The ids are split in chunks of {@link IDao#QUERY_MAX_ITEMS_IN_LIST}.
+	 */
+	private void loadPersons(Set<Integer> entityIds)
+	{
+		List<Integer> missingIds = new ArrayList<Integer>(entityIds.size());
+		for (Integer id : entityIds)
 		{
-			List<Integer> ids = new ArrayList<Integer>(props.size());
-			for (Property p : props)
+			if (!personsByEntityId.containsKey(id))
 			{
-				ids.add(Integer.valueOf(p.getPropertyValue()));
+				missingIds.add(id);
+				personsByEntityId.put(id, null);
 			}
-			
-			LoadCnAElementsByEntityIds<Person> le = new LoadCnAElementsByEntityIds<Person>(Person.class, ids);
+		}
+		for (List<Integer> chunk : CollectionUtil.partition(missingIds, IDao.QUERY_MAX_ITEMS_IN_LIST))
+		{
+			LoadCnAElementsByEntityIds<Person> le = new LoadCnAElementsByEntityIds<Person>(Person.class, chunk);
 			try
 			{
 				le = getCommandService().executeCommand(le);
@@ -300,11 +366,11 @@ public class PrepareNotificationInfo extends GenericCommand {
 			    log.error("Error while executing command: LoadCnAElementsByEntityIds", ce);
 				throw new RuntimeException("Error while executing command: LoadCnAElementsByEntityIds", ce);
 			}
-			
-			return le.getElements();
+			for (Person person : le.getElements())
+			{
+				personsByEntityId.put(person.getEntity().getDbId(), person);
+			}
 		}
-		
-		return Collections.emptyList();
 	}
 	
 	/**
@@ -320,6 +386,34 @@ public class PrepareNotificationInfo extends GenericCommand {
 	{
 		List<Person> res = retrievePersonsDirectlyResponsible(mu, true);
 		if (res.isEmpty())
+		{
+			res = retrievePersonsResponsibleByRoles(mu);
+		}
+		
+		return res;
+	}
+	
+	/**
+	 * Returns a list of {@link Person} which are responsible to complete the given measure by
+	 * their role. The result only depends on the parent element of the measure's module
+	 * and the roles of the measure, so {@link FindResponsiblePerson} is executed once per
+	 * parent element and set of roles.
+	 */
+	private List<Person> retrievePersonsResponsibleByRoles(MassnahmenUmsetzung mu)
+	{
+		PropertyList roles = mu.getEntity().getProperties(MassnahmenUmsetzung.P_VERANTWORTLICHE_ROLLEN_UMSETZUNG);
+		if (roles == null || roles.getProperties() == null || roles.getProperties().isEmpty())
+		{
+			return Collections.emptyList();
+		}
+		Set<String> roleValues = new TreeSet<String>();
+		for (Property role : roles.getProperties())
+		{
+			roleValues.add(String.valueOf(role.getPropertyValue()));
+		}
+		String key = mu.getParent().getParent().getDbId() + ":" + roleValues;
+		List<Person> res = personsByRoles.get(key);
+		if (res == null)
 		{
 			FindResponsiblePerson frp = new FindResponsiblePerson(mu.getDbId(), MassnahmenUmsetzung.P_VERANTWORTLICHE_ROLLEN_UMSETZUNG);
 			
@@ -331,8 +425,8 @@ public class PrepareNotificationInfo extends GenericCommand {
                 log.error("Error while loading responsible person.", e);
 				throw new RuntimeException(e);
 			}
+			personsByRoles.put(key, res);
 		}
-		
 		return res;
 	}
 
@@ -440,9 +534,15 @@ public class PrepareNotificationInfo extends GenericCommand {
 			throw new RuntimeException(e);
 		}
 		
+		List<MassnahmenUmsetzung> changedMeasures = new ArrayList<MassnahmenUmsetzung>();
 		for (CnATreeElement cte : gces.getChangedElements())
 		{
-			MassnahmenUmsetzung mu = (MassnahmenUmsetzung) cte;
+			changedMeasures.add((MassnahmenUmsetzung) cte);
+		}
+		loadPersonsDirectlyResponsible(changedMeasures);
+		
+		for (MassnahmenUmsetzung mu : changedMeasures)
+		{
 			handleChangedMeasure(mu, globalNotifees);
 		}
 		
@@ -512,13 +612,14 @@ public class PrepareNotificationInfo extends GenericCommand {
 			throw new RuntimeException(e);
 		}
 		
+		List<MassnahmenUmsetzung> assignedMeasures = new ArrayList<MassnahmenUmsetzung>();
 		for (CnATreeElement cte : gces.getChangedElements())
 		{
 				for (CnATreeElement child : cte.getChildren())
 				{
 					if (child instanceof MassnahmenUmsetzung)
 					{
-						handleAssignedMeasure((MassnahmenUmsetzung) child, globalNotifees);
+						assignedMeasures.add((MassnahmenUmsetzung) child);
 					}
 					else
 					{
@@ -527,6 +628,12 @@ public class PrepareNotificationInfo extends GenericCommand {
 				}
 				
 		}
+		loadPersonsDirectlyResponsible(assignedMeasures);
+		
+		for (MassnahmenUmsetzung mu : assignedMeasures)
+		{
+			handleAssignedMeasure(mu, globalNotifees);
+		}
 		
 		// FIXME New assignment can also happen (and in fact do so in a more straightforward
 		// way) when someone adds a new link of type 'responsible for'. However no changelog entries
@@ -17,10 +17,16 @@
  ******************************************************************************/
 package sernet.verinice.service.commands;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.model.bsi.AttachmentFile;
 
 /**
- * Saves AttachmentFiles in database.
+ * Saves AttachmentFiles in the {@link IAttachmentStore}.
  * Sets element to null in clear to remove
  * large file data.
  * 
@@ -43,6 +49,23 @@ public class SaveAttachment extends SaveElement<AttachmentFile> {
         super();
     }
 
+    /* (non-Javadoc)
+     * @see sernet.verinice.service.commands.SaveElement#execute()
+     */
+    @Override
+    public void execute() {
+        if (element.getFileData() == null) {
+            return;
+        }
+        try (InputStream in = new ByteArrayInputStream(element.getFileData())) {
+            element.setContentHash(
+                    getDaoFactory().getAttachmentStore().write(element.getDbId(), in));
+        } catch (IOException e) {
+            throw new RuntimeCommandException("Error while saving file data of attachment "
+                    + element.getDbId(), e);
+        }
+    }
+
     /* (non-Javadoc)
 	 * @see sernet.gs.ui.rcp.main.service.crudcommands.SaveElement#clear()
 	 */
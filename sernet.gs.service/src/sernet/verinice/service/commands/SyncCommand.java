@@ -37,6 +37,7 @@ import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
 
+import de.sernet.sync.data.SyncObject;
 import de.sernet.sync.sync.SyncRequest;
 import sernet.gs.service.RuntimeCommandException;
 import sernet.gs.service.TimeFormatter;
@@ -50,6 +51,8 @@ import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.sync.IVeriniceArchive;
 import sernet.verinice.service.sync.PureXml;
+import sernet.verinice.service.sync.SyncDataReader;
+import sernet.verinice.service.sync.SyncDataReader.SyncElementIterator;
 import sernet.verinice.service.sync.VeriniceArchive;
 import sernet.verinice.service.sync.VnaSchemaVersion;
 
@@ -184,10 +187,17 @@ public class SyncCommand extends GenericCommand
     }
 
     private void doInsertAndUpdate() throws CommandException {
-        SyncInsertUpdateCommand cmdInsertUpdate = new SyncInsertUpdateCommand(
-                veriniceArchive.getSourceId(), veriniceArchive.getSyncData(),
-                veriniceArchive.getSyncMapping(), getAuthService().getUsername(), parameter,
-                errors);
+        SyncDataReader syncDataReader = veriniceArchive.getSyncDataReader();
+        SyncInsertUpdateCommand cmdInsertUpdate;
+        if (syncDataReader != null) {
+            cmdInsertUpdate = new SyncInsertUpdateCommand(veriniceArchive.getSourceId(),
+                    syncDataReader, veriniceArchive.getSyncMapping(),
+                    getAuthService().getUsername(), parameter, errors);
+        } else {
+            cmdInsertUpdate = new SyncInsertUpdateCommand(veriniceArchive.getSourceId(),
+                    veriniceArchive.getSyncData(), veriniceArchive.getSyncMapping(),
+                    getAuthService().getUsername(), parameter, errors);
+        }
         cmdInsertUpdate.setRisk(veriniceArchive.getSyncRiskAnalysis());
         cmdInsertUpdate.setTempDirName(veriniceArchive.getTempDirName());
         cmdInsertUpdate = getCommandService().executeCommand(cmdInsertUpdate);
@@ -207,13 +217,29 @@ public class SyncCommand extends GenericCommand
 
     private void doDelete() throws CommandException {
         if (parameter.isDelete()) {
-            SyncDeleteCommand cmdDelete = new SyncDeleteCommand(veriniceArchive.getSourceId(),
-                    veriniceArchive.getSyncData(), errors);
+            SyncDataReader syncDataReader = veriniceArchive.getSyncDataReader();
+            SyncDeleteCommand cmdDelete;
+            if (syncDataReader != null) {
+                cmdDelete = new SyncDeleteCommand(veriniceArchive.getSourceId(),
+                        readExtIds(syncDataReader), errors);
+            } else {
+                cmdDelete = new SyncDeleteCommand(veriniceArchive.getSourceId(),
+                        veriniceArchive.getSyncData(), errors);
+            }
             cmdDelete = getCommandService().executeCommand(cmdDelete);
             deleted += cmdDelete.getDeleted();
         }
     }
 
+    private static Set<String> readExtIds(SyncDataReader syncDataReader) {
+        Set<String> extIds = new HashSet<>();
+        try (SyncElementIterator<SyncObject> syncObjects = syncDataReader.readSyncObjects()) {
+            syncObjects.forEachRemaining(syncObject -> SyncDeleteCommand
+                    .collectExtIds(Collections.singletonList(syncObject), extIds));
+        }
+        return extIds;
+    }
+
     /*
      * @see sernet.verinice.interfaces.GenericCommand#clear()
      */
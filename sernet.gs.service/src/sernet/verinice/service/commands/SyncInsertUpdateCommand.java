@@ -21,12 +21,14 @@ package sernet.verinice.service.commands;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -36,9 +38,8 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.log4j.Logger;
-import org.hibernate.FetchMode;
-import org.hibernate.Hibernate;
 import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 
 import de.sernet.sync.data.SyncAttribute;
@@ -51,11 +52,13 @@ import de.sernet.sync.mapping.SyncMapping.MapObjectType;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType.MapAttributeType;
 import de.sernet.sync.risk.Risk;
 import de.sernet.sync.risk.SyncRiskAnalysis;
+import sernet.gs.service.RetrieveInfo;
 import sernet.gs.service.RuntimeCommandException;
 import sernet.hui.common.VeriniceContext;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.interfaces.IAuthAwareCommand;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
@@ -67,7 +70,6 @@ import sernet.verinice.model.bp.elements.ItNetwork;
 import sernet.verinice.model.bp.elements.Safeguard;
 import sernet.verinice.model.bp.groups.ImportBpGroup;
 import sernet.verinice.model.bsi.Attachment;
-import sernet.verinice.model.bsi.AttachmentFile;
 import sernet.verinice.model.bsi.BSIModel;
 import sernet.verinice.model.bsi.BausteinUmsetzung;
 import sernet.verinice.model.bsi.IBSIStrukturElement;
@@ -86,9 +88,12 @@ import sernet.verinice.model.iso27k.ISO27KModel;
 import sernet.verinice.model.iso27k.ImportIsoGroup;
 import sernet.verinice.model.iso27k.Organization;
 import sernet.verinice.service.bp.LoadBpModel;
+import sernet.verinice.service.hibernate.HibernateUtil;
 import sernet.verinice.service.iso27k.LoadImportObjectsHolder;
 import sernet.verinice.service.model.LoadModel;
 import sernet.verinice.service.sync.IVeriniceArchive;
+import sernet.verinice.service.sync.SyncDataReader;
+import sernet.verinice.service.sync.SyncDataReader.SyncElementIterator;
 import sernet.verinice.service.sync.VeriniceArchiveNotValidException;
 
 /**
@@ -111,6 +116,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     private boolean sourceIdExists;
     private transient SyncMapping syncMapping;
     private transient SyncData syncData;
+    private transient SyncDataReader syncDataReader;
     private transient Risk risk;
     private String userName;
     private String tempDirName;
@@ -121,13 +127,17 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
 
     private int inserted = 0, potentiallyUpdated = 0, merged = 0;
 
+    private int mergedAtLastFlush = 0;
+
+    private int numberOfFlushes = 0;
+
     private long globalStart = 0;
 
     private Map<Class<?>, CnATreeElement> containerMap = new HashMap<>(3);
 
     private Set<CnATreeElement> elementSet = new HashSet<>();
 
-    private transient Map<String, CnATreeElement> idElementMap = new HashMap<>();
+    private transient ExtIdElementMap idElementMap;
 
     private transient Map<String, Attachment> attachmentMap;
 
@@ -137,7 +147,15 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
 
     private transient Map<Integer, Map<Integer, Set<String>>> existingLinksForScope;
 
-    private transient Map<String, List<CnATreeElement>> existingElementsForScope;
+    /**
+     * Database ids of the elements of the scope which existed before the
+     * import by external id. The elements are loaded when they are requested
+     * and kept in {@link #loadedExistingElements} until the session is
+     * cleared.
+     */
+    private transient Map<String, List<Integer>> existingElementsForScope;
+
+    private transient Map<String, CnATreeElement> loadedExistingElements = new HashMap<>();
 
     private ImportReferenceTypes importReferenceTypes;
 
@@ -153,6 +171,19 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         attachmentMap = new HashMap<>();
     }
 
+    /**
+     * Creates a command which reads the sync data with a {@link SyncDataReader}
+     * instead of keeping the unmarshalled data in memory. The Hibernate
+     * session is flushed and cleared after every
+     * {@link SyncParameter#getBatchSize()} imported elements.
+     */
+    public SyncInsertUpdateCommand(String sourceId, SyncDataReader syncDataReader,
+            SyncMapping syncMapping, String userName, SyncParameter parameter,
+            List<String> errorList) {
+        this(sourceId, (SyncData) null, syncMapping, userName, parameter, errorList);
+        this.syncDataReader = syncDataReader;
+    }
+
     /**
      * Processes the given <syncData> and <syncMapping> elements in order to
      * insert and/or update objects in(to) the database, according to the flags
@@ -170,6 +201,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     public void execute() {
 
         IBaseDao<CnATreeElement, Serializable> iBaseDao = getDao(CnATreeElement.class);
+        idElementMap = new ExtIdElementMap(iBaseDao);
         importReferenceTypes = new ImportReferenceTypes(iBaseDao, getCommandService(),
                 idElementMap);
 
@@ -178,6 +210,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                 globalStart = System.currentTimeMillis();
             }
             merged = 0;
+            mergedAtLastFlush = 0;
             sourceIdExists = false;
             if (!parameter.isImportAsCatalog()) {
                 sourceIdExists = isSourceIdInDatabase(sourceId);
@@ -200,37 +233,15 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                     existingElementsForScope = loadExistingElements(sourceId);
                 }
             }
-            List<SyncObject> soList = syncData.getSyncObject();
-            Set<String> idsOfObjectsWithLinks = syncData.getSyncLink().stream()
-                    .flatMap(l -> Stream.of(l.getDependant(), l.getDependency()))
-                    .collect(Collectors.toUnmodifiableSet());
-
-            for (SyncObject so : soList) {
-                importObject(null, so, idsOfObjectsWithLinks);
-            } // for <syncObject>
-
-            importReferenceTypes.replaceExternalIdsWithDbIds();
-
-            if (logrt.isDebugEnabled()) {
-                logrt.debug("Elements: " + merged);
-            }
-
-            Set<SyncLink> importedLinks = new HashSet<>(syncData.getSyncLink().size());
-            Set<CnALink> importedCnALinks = new HashSet<>(syncData.getSyncLink().size());
-            for (SyncLink syncLink : syncData.getSyncLink()) {
-                if (importedLinks.contains(syncLink)) {
-                    log.warn("Ignoring duplicate link " + syncLink);
-                    continue;
-                }
-                CnALink cnaLink = importLink(syncLink);
-                if (cnaLink != null) {
-                    importedCnALinks.add(cnaLink);
-                }
-                importedLinks.add(syncLink);
+            if (syncDataReader != null) {
+                importObjectsAndLinks();
+            } else {
+                Set<String> idsOfObjectsWithLinks = syncData.getSyncLink().stream()
+                        .flatMap(l -> Stream.of(l.getDependant(), l.getDependency()))
+                        .collect(Collectors.toUnmodifiableSet());
+                importObjects(syncData.getSyncObject().iterator(), idsOfObjectsWithLinks);
+                importLinks(syncData.getSyncLink().iterator());
             }
-
-            IBaseDao<CnALink, Serializable> linkDao = getDao(CnALink.class);
-            linkDao.saveOrUpdateAll(importedCnALinks);
             importRiskAnalysis();
 
             finalizeDaos();
@@ -243,25 +254,106 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         }
     }
 
-    protected Map<String, List<CnATreeElement>> loadExistingElements(String sourceId) {
+    private void importObjectsAndLinks() throws CommandException {
+        Set<String> idsOfObjectsWithLinks = syncDataReader.readLinkedExtIds();
+        try (SyncElementIterator<SyncObject> syncObjects = syncDataReader.readSyncObjects()) {
+            importObjects(syncObjects, idsOfObjectsWithLinks);
+        }
+        try (SyncElementIterator<SyncLink> syncLinks = syncDataReader.readSyncLinks()) {
+            importLinks(syncLinks);
+        }
+    }
+
+    private void importObjects(Iterator<SyncObject> syncObjects,
+            Set<String> idsOfObjectsWithLinks) throws CommandException {
+        while (syncObjects.hasNext()) {
+            importObject(null, syncObjects.next(), idsOfObjectsWithLinks);
+            flushAndClearAfterBatch();
+        } // for <syncObject>
+
+        importReferenceTypes.replaceExternalIdsWithDbIds();
+
+        if (logrt.isDebugEnabled()) {
+            logrt.debug("Elements: " + merged);
+        }
+    }
+
+    private void importLinks(Iterator<SyncLink> syncLinks) {
+        IBaseDao<CnALink, Serializable> linkDao = getDao(CnALink.class);
+        Set<SyncLink> importedLinks = new HashSet<>();
+        Set<CnALink> importedCnALinks = new HashSet<>();
+        while (syncLinks.hasNext()) {
+            SyncLink syncLink = syncLinks.next();
+            if (importedLinks.contains(syncLink)) {
+                log.warn("Ignoring duplicate link " + syncLink);
+                continue;
+            }
+            CnALink cnaLink = importLink(syncLink);
+            if (cnaLink != null) {
+                importedCnALinks.add(cnaLink);
+            }
+            importedLinks.add(syncLink);
+            if (importedCnALinks.size() >= parameter.getBatchSize()) {
+                linkDao.saveOrUpdateAll(importedCnALinks);
+                importedCnALinks.clear();
+                flushAndClear();
+            }
+        }
+        linkDao.saveOrUpdateAll(importedCnALinks);
+    }
+
+    /**
+     * Flushes and clears the Hibernate session if
+     * {@link SyncParameter#getBatchSize()} elements were imported since the
+     * last flush. This is done at the boundary of every syncObject, including
+     * the nested children, so that a single scope with all elements below
+     * one top-level syncObject is imported in batches, too.
+     */
+    private void flushAndClearAfterBatch() {
+        if (merged - mergedAtLastFlush >= parameter.getBatchSize()) {
+            flushAndClear();
+            mergedAtLastFlush = merged;
+        }
+    }
+
+    /**
+     * Flushes and clears the Hibernate session to release the imported and
+     * the updated elements. Elements are loaded again by their database id
+     * when they are requested.
+     */
+    protected void flushAndClear() {
+        IBaseDao<CnATreeElement, Serializable> dao = getDao(CnATreeElement.class);
+        dao.flush();
+        dao.clear();
+        numberOfFlushes++;
+        idElementMap.clearElements();
+        loadedExistingElements.clear();
+        containerMap.replaceAll((clazz, container) -> {
+            CnATreeElement attached = dao.findById(container.getDbId());
+            attached.getParent().getTitle();
+            return attached;
+        });
+        if (log.isDebugEnabled()) {
+            log.debug("Session cleared after " + merged + " elements");
+        }
+    }
+
+    /**
+     * @return The database ids of the elements of a scope by external id
+     */
+    protected Map<String, List<Integer>> loadExistingElements(String sourceId) {
         log.info("Loading existing elements for scope " + sourceId);
         DetachedCriteria criteriaExistingElements = DetachedCriteria.forClass(CnATreeElement.class)
                 .add(Restrictions.eq("sourceId", sourceId)).add(Restrictions.isNotNull("extId"))
-                .setFetchMode("linksDown", FetchMode.JOIN).setFetchMode("linksUp", FetchMode.JOIN);
+                .setProjection(Projections.projectionList().add(Projections.property("extId"))
+                        .add(Projections.property("dbId")));
 
         @SuppressWarnings("unchecked")
-        List<CnATreeElement> resultExistingElements = getDao(CnATreeElement.class)
+        List<Object[]> resultExistingElements = getDao(CnATreeElement.class)
                 .findByCriteria(criteriaExistingElements);
-        return resultExistingElements.stream().map(element -> {
-            Optional.ofNullable(element.getEntity()).ifPresent(entity -> {
-                Hibernate.initialize(entity);
-                Hibernate.initialize(entity.getTypedPropertyLists());
-                entity.getTypedPropertyLists().forEach((key, value) -> {
-                    value.getProperties().forEach(Hibernate::initialize);
-                });
-            });
-            return element;
-        }).collect(Collectors.groupingBy(CnATreeElement::getExtId));
+        return resultExistingElements.stream()
+                .collect(Collectors.groupingBy(row -> (String) row[0],
+                        Collectors.mapping(row -> (Integer) row[1], Collectors.toList())));
     }
 
     private boolean isSourceIdInDatabase(String id) throws CommandException {
@@ -455,7 +547,13 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                 log.debug("Child found, type: " + child.getExtObjectType() + ", extId: "
                         + child.getExtId());
             }
+            int flushesBeforeChild = numberOfFlushes;
             importObject(elementInDB, child, idsOfObjectsWithLinks);
+            flushAndClearAfterBatch();
+            if (elementInDB != null && numberOfFlushes != flushesBeforeChild) {
+                // the parent of the remaining children was detached
+                elementInDB = getDao(CnATreeElement.class).findById(elementInDB.getDbId());
+            }
         }
     }
 
@@ -639,22 +737,24 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
      * Imports all file data from a verinice Archive (zipFileData). Call
      * importFileList before calling this method!
      * 
-     * Danger: Out-of-memory trouble for large file...
+     * The file data is streamed from the archive to the
+     * {@link IAttachmentStore}.
      * 
      * @param zipFileData
      *            a verinice Archive
-     * @throws IOException
      * @throws CommandException
      */
     public void importFileData(IVeriniceArchive veriniceArchive) throws CommandException {
-        SaveAttachment saveFileCommand = new SaveAttachment();
-        IBaseDao<AttachmentFile, Serializable> dao = getDao(AttachmentFile.class);
+        IAttachmentStore attachmentStore = getDaoFactory().getAttachmentStore();
         for (Entry<String, Attachment> entry : attachmentMap.entrySet()) {
             String fileName = entry.getKey();
             Attachment attachment = entry.getValue();
-            AttachmentFile attachmentFile = dao.findById(attachment.getDbId());
-            try {
-                attachmentFile.setFileData(veriniceArchive.getFileData(fileName).readAllBytes());
+            try (InputStream fileData = veriniceArchive.getFileData(fileName)) {
+                if (fileData != null) {
+                    attachmentStore.write(attachment.getDbId(), fileData);
+                } else {
+                    log.warn("File was not imported. No file data: " + fileName);
+                }
             } catch (IllegalArgumentException e) {
                 throw new VeriniceArchiveNotValidException(
                         "Unable to retrieve file data for " + fileName + ", VNA file is corrupt",
@@ -663,15 +763,6 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                 throw new RuntimeCommandException("Unable to retrieve file data for " + fileName,
                         e);
             }
-            if (attachmentFile.getFileData() != null) {
-                saveFileCommand.setElement(attachmentFile);
-                saveFileCommand = getCommandService().executeCommand(saveFileCommand);
-                saveFileCommand.clear();
-                dao.flush();
-                dao.clear();
-            } else {
-                log.warn("File was not imported. No file data: " + fileName);
-            }
         }
     }
 
@@ -869,10 +960,11 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         if (existingElementsForScope == null) {
             return null;
         }
-        List<CnATreeElement> foundElements = existingElementsForScope.get(externalId);
+        List<Integer> foundElements = existingElementsForScope.get(externalId);
         if (foundElements != null) {
             if (foundElements.size() == 1) {
-                return foundElements.get(0);
+                return loadedExistingElements.computeIfAbsent(externalId,
+                        extId -> loadExistingElement(foundElements.get(0)));
             }
             if (foundElements.size() > 1) {
                 final String message = "Found more than one element with source-id: " + sourceId
@@ -884,6 +976,13 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         return null;
     }
 
+    private CnATreeElement loadExistingElement(Integer dbId) {
+        RetrieveInfo ri = RetrieveInfo.getPropertyInstance().setParent(true).setLinksDown(true)
+                .setLinksUp(true);
+        IBaseDao<CnATreeElement, Serializable> dao = getDao(CnATreeElement.class);
+        return HibernateUtil.unproxy(dao.retrieve(dbId, ri));
+    }
+
     /**
      * If during the import action an object has to be created for which no
      * parent is available (or can be found) the artificial 'rootImportObject'
@@ -1114,6 +1213,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         super.clear();
         existingLinksForScope = null;
         existingElementsForScope = null;
+        loadedExistingElements.clear();
     }
 
 }
@@ -46,6 +46,14 @@ public class SyncParameter implements Serializable {
 
     private boolean importAsCatalog;
 
+    /**
+     * Number of imported elements after which the Hibernate session is
+     * flushed and cleared
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
     public SyncParameter(boolean insert, boolean update, boolean delete, boolean integrate,
             boolean importAsCatalog, Integer format) throws SyncParameterException {
         super();
@@ -130,4 +138,12 @@ public class SyncParameter implements Serializable {
     public void setImportAsCatalog(boolean importAsCatalog) {
         this.importAsCatalog = importAsCatalog;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
 }
@@ -24,6 +24,7 @@ import org.apache.log4j.Logger;
 import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.bsi.Addition;
+import sernet.verinice.model.bsi.Attachment;
 import sernet.verinice.model.bsi.Note;
 
 public class DeleteNote extends GenericCommand {
@@ -47,6 +48,10 @@ private static final Logger log = Logger.getLogger(DeleteNote.class);
 			if (log.isDebugEnabled()) {
 				log.debug("Addition deleted, id: " + getNote().getDbId());
 			}
+			if(getNote() instanceof Attachment) {
+			    // file data is stored once for all attachments referencing it
+			    getDaoFactory().getAttachmentStore().deleteUnreferencedContent();
+			}
 		}
 	}
 	
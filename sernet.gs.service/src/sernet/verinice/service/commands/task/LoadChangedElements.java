@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands.task;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.RetrieveInfo;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Loads the elements of change events received from the
+ * {@link sernet.verinice.interfaces.IChangeNotificationService}. The elements
+ * are loaded with their properties, children and parent like in
+ * {@link GetChangesSince}.
+ *
+ * In contrast to {@link GetChangesSince} this command is subject to access
+ * control: elements the user is not allowed to read are missing in the result.
+ */
+public class LoadChangedElements extends GenericCommand {
+
+    private static final long serialVersionUID = 7209571496284737391L;
+
+    private List<Integer> dbIds;
+
+    private Map<Integer, CnATreeElement> changedElements;
+
+    public LoadChangedElements(Collection<Integer> dbIds) {
+        this.dbIds = new ArrayList<>(dbIds);
+    }
+
+    @Override
+    public void execute() {
+        changedElements = new HashMap<>(dbIds.size());
+        IBaseDao<CnATreeElement, Serializable> dao = getDaoFactory()
+                .getDAO(CnATreeElement.class);
+        for (List<Integer> chunk : CollectionUtil.partition(dbIds, IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
+                    .add(Restrictions.in("dbId", chunk));
+            RetrieveInfo.getPropertyChildrenInstance().setParent(true).configureCriteria(criteria);
+            @SuppressWarnings("unchecked")
+            List<CnATreeElement> elements = dao.findByCriteria(criteria);
+            for (CnATreeElement element : elements) {
+                changedElements.put(element.getDbId(), element);
+            }
+        }
+        dbIds = null;
+    }
+
+    public Map<Integer, CnATreeElement> getChangedElements() {
+        return changedElements;
+    }
+
+}
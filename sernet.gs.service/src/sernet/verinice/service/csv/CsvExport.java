@@ -19,10 +19,15 @@
  ******************************************************************************/
 package sernet.verinice.service.csv;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -71,6 +76,29 @@ public class CsvExport implements ICsvExport {
         }
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see sernet.verinice.service.csv.ICsvExport#exportToFile(java.util.Iterator)
+     */
+    @Override
+    public void exportToFile(Iterator<List<String>> rows) throws CsvExportException {
+        // like String.getBytes the writer replaces characters the charset can not encode
+        try (Writer fileWriter = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(filePath), getCharset()));
+                ICSVWriter writer = new CSVWriterBuilder(fileWriter).withSeparator(getSeperator())
+                        .build()) {
+            while (rows.hasNext()) {
+                List<String> row = rows.next();
+                writer.writeNext(row.toArray(new String[row.size()]));
+            }
+        } catch (RuntimeException e) {
+            throw new CsvExportException(ERROR_MESSAGE, e);
+        } catch (Exception e) {
+            throw new CsvExportException(ERROR_MESSAGE, e);
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
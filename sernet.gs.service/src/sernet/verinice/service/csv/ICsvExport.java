@@ -20,6 +20,7 @@
 package sernet.verinice.service.csv;
 
 import java.nio.charset.Charset;
+import java.util.Iterator;
 import java.util.List;
 
 
@@ -64,6 +65,16 @@ public interface ICsvExport {
      */
     void exportToFile(List<String[]> table)  throws CsvExportException;
 
+    /**
+     * Exports rows of Strings to a CSV table. CSV table is saved as a file.
+     * The rows are written while iterating, the table is not held in memory.
+     * Set file path with <code>setFilePath(path)</code>.
+     *
+     * @param rows An iterator over the rows of a table
+     * @throws CsvExportException
+     */
+    void exportToFile(Iterator<List<String>> rows) throws CsvExportException;
+
     List<String[]> convert(List<List<String>> table);
 
     /**
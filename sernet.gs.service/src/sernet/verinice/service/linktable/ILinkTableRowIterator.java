@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Iterates over the rows of a Link Table. The first row is the header of the
+ * table. The rows are created while iterating, so large tables are not held in
+ * memory at once.
+ *
+ * Always close the iterator to release the resources of the table, e.g.
+ * temporary files created while sorting the rows.
+ *
+ * @see ILinkTableService#createRowIterator(ILinkTableConfiguration)
+ */
+public interface ILinkTableRowIterator extends Iterator<List<String>>, Closeable {
+
+    @Override
+    void close();
+
+}
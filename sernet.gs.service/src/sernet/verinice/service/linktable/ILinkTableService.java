@@ -20,6 +20,7 @@
 package sernet.verinice.service.linktable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -99,6 +100,29 @@ public interface ILinkTableService {
      * @return A Link Table
      */
     List<List<String>> createTable(String vltFilePath);
+
+    /**
+     * Creates a Link Table with the configuration defined in a configuration
+     * and returns an iterator over its rows. The first row is the header of
+     * the table. Use this method for large tables: the rows are created while
+     * iterating and the table is not held in memory at once.
+     *
+     * Close the iterator after use, e.g. in a try-with-resources statement.
+     *
+     * @param configuration A Link Table configuration
+     * @return An iterator over the rows of the Link Table
+     */
+    ILinkTableRowIterator createRowIterator(ILinkTableConfiguration configuration);
+
+    /**
+     * Creates a Link Table with the configuration defined in a configuration
+     * and passes every row to a consumer. The first row is the header of the
+     * table.
+     *
+     * @param configuration A Link Table configuration
+     * @param rowConsumer Consumer of the rows
+     */
+    void createTable(ILinkTableConfiguration configuration, Consumer<List<String>> rowConsumer);
     
     /**
      * Sets strategy for calculating the linked table.
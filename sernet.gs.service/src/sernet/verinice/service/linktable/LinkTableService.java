@@ -21,6 +21,7 @@ package sernet.verinice.service.linktable;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.log4j.Logger;
@@ -61,6 +62,20 @@ public class LinkTableService implements ILinkTableService {
         return linkedTableCreator.createTable(graph, configuration);
     }
 
+    @Override
+    public ILinkTableRowIterator createRowIterator(ILinkTableConfiguration configuration) {
+        VeriniceGraph graph = getVeriniceGraph(configuration);
+        return linkedTableCreator.createRowIterator(graph, configuration);
+    }
+
+    @Override
+    public void createTable(ILinkTableConfiguration configuration,
+            Consumer<List<String>> rowConsumer) {
+        try (ILinkTableRowIterator rows = createRowIterator(configuration)) {
+            rows.forEachRemaining(rowConsumer);
+        }
+    }
+
     private VeriniceGraph getVeriniceGraph(ILinkTableConfiguration configuration) {
 
         GraphCommand graphCommand = createCommand(configuration);
@@ -82,6 +97,8 @@ public class LinkTableService implements ILinkTableService {
 
     protected GraphCommand createCommand(ILinkTableConfiguration configuration) {
         GraphCommand command = new GraphCommand();
+        // Link tables do not change elements, the graph can be shared
+        command.setUseGraphCache(true);
         GraphElementLoader loader = new GraphElementLoader();
         loader.setScopeIds(configuration.getScopeIdArray());
         Set<String> objectTypeIds = configuration.getObjectTypeIds();
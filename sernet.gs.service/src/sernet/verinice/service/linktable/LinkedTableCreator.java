@@ -19,6 +19,7 @@
  ******************************************************************************/
 package sernet.verinice.service.linktable;
 
+import java.util.Iterator;
 import java.util.List;
 
 import sernet.gs.service.NumericStringComparator;
@@ -97,4 +98,42 @@ public interface LinkedTableCreator {
      *         of strings.
      */
     List<List<String>> createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf);
+
+    /**
+     * Creates the same table as
+     * {@link #createTable(VeriniceGraph, ILinkTableConfiguration)} and returns
+     * an iterator over its rows. The first row is the header of the table.
+     *
+     * The default implementation creates the whole table in memory.
+     * Implementations can override this method to create the rows while
+     * iterating.
+     *
+     * @param veriniceGraph
+     *            The graph the table is created for.
+     * @param conf
+     *            The configuration. Contains the column pathes, which are the
+     *            header of the table.
+     * @return An iterator over the rows of the table, close it after use.
+     */
+    default ILinkTableRowIterator createRowIterator(VeriniceGraph veriniceGraph,
+            ILinkTableConfiguration conf) {
+        Iterator<List<String>> rows = createTable(veriniceGraph, conf).iterator();
+        return new ILinkTableRowIterator() {
+
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public List<String> next() {
+                return rows.next();
+            }
+
+            @Override
+            public void close() {
+                // nothing to release
+            }
+        };
+    }
 }
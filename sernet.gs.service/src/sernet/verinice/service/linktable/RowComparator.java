@@ -60,4 +60,42 @@ public final class RowComparator implements Comparator<List<String>> {
         }
         return value;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the sort keys of all cells of a row. Comparing the keys of two
+     * rows with {@link #compareSortKeys(String[], String[])} returns the same
+     * result as comparing the rows with this comparator.
+     */
+    public static String[] createSortKeys(String[] row) {
+        String[] keys = new String[row.length];
+        for (int i = 0; i < row.length; i++) {
+            keys[i] = (row[i] != null) ? NumericStringComparator.createKey(row[i]) : null;
+        }
+        return keys;
+    }
+
+    /**
+     * Compares the sort keys of two rows created by
+     * {@link #createSortKeys(String[])}.
+     */
+    public static int compareSortKeys(String[] keys1, String[] keys2) {
+        for (int column = 0; column < keys1.length; column++) {
+            String s1 = keys1[column];
+            String s2 = keys2[column];
+            int value = 0;
+            if (s1 == null && s2 != null) {
+                value = 1;
+            }
+            if (s1 != null && s2 == null) {
+                value = -1;
+            }
+            if (s1 != null && s2 != null) {
+                value = NSC.compareKeys(s1, s2);
+            }
+            if (value != 0) {
+                return value;
+            }
+        }
+        return 0;
+    }
+}
@@ -23,26 +23,28 @@ import static sernet.verinice.interfaces.graph.DepthFirstConditionalSearchPathes
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
+import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.graph.DepthFirstConditionalSearchPathes;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
 import sernet.verinice.interfaces.graph.VeriniceGraphFilter;
 import sernet.verinice.model.bp.risk.configuration.RiskConfigurationCache;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.linktable.BpRiskValuePropertyAdapter;
 import sernet.verinice.service.linktable.ColumnPathParser;
 import sernet.verinice.service.linktable.ILinkTableConfiguration;
+import sernet.verinice.service.linktable.ILinkTableRowIterator;
 import sernet.verinice.service.linktable.LinkedTableCreator;
-import sernet.verinice.service.linktable.RowComparator;
 import sernet.verinice.service.linktable.generator.mergepath.VqlAst;
 import sernet.verinice.service.linktable.generator.mergepath.VqlNode;
 
@@ -83,6 +85,18 @@ import sernet.verinice.service.linktable.generator.mergepath.VqlNode;
  * verinice graph are valid.
  * </p>
  *
+ * <p>
+ * The graph is read-only during the traversal, so the starting points are
+ * scanned in parallel by a {@link ForkJoinPool} of this class. The tasks set
+ * the {@link VeriniceContext} of the calling thread in the worker threads,
+ * because the property values of the elements are read with the
+ * {@link sernet.hui.common.connect.HUITypeFactory}. The rows of all
+ * starting points are merged in the order of the starting points, the table is
+ * the same as the table of a sequential scan. Queries with risk values of
+ * threats are scanned sequentially, because the risk configuration is loaded
+ * by a command in the thread of the caller.
+ * </p>
+ *
  * 
  * @author Benjamin Weißenfels <bw[at]sernet[dot]de>
  *
@@ -95,12 +109,57 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
     private Map<String, Integer> columnPath2TablePosition;
 
     private static final Logger LOG = Logger.getLogger(GraphLinkedTableCreator.class);
-    private LtrPrintRowsTraversalListener traversalListener;
-    private LtrTraversalFilter filter;
+
+    /**
+     * Tables with less starting points are scanned sequentially.
+     */
+    private static final int MIN_ROOTS_FOR_PARALLEL_SCAN = 64;
+
+    /**
+     * Number of starting points which are scanned by a single fork-join task.
+     */
+    private static final int ROOTS_PER_TASK = 16;
+
+    /**
+     * Number of starting points which are scanned before the rows are passed
+     * to the sorter by {@link #createRowIterator(VeriniceGraph, ILinkTableConfiguration)}.
+     */
+    private static final int ROOTS_PER_BATCH = 1024;
+
+    private static final ForkJoinPool SCAN_POOL = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
 
     @Override
     public List<List<String>> createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf) {
+        List<CnATreeElement> roots = init(veriniceGraph, conf);
+
+        List<Map<String, String>> table = doCreateTable(roots);
+
+        return convertToTable(table);
+    }
 
+    /**
+     * Creates the table like {@link #createTable(VeriniceGraph, ILinkTableConfiguration)}
+     * but holds only a batch of starting points and the rows of the sorter in
+     * memory. Large tables are sorted in temporary files.
+     */
+    @Override
+    public ILinkTableRowIterator createRowIterator(VeriniceGraph veriniceGraph,
+            ILinkTableConfiguration conf) {
+        List<CnATreeElement> roots = init(veriniceGraph, conf);
+
+        SpillingRowSorter sorter = new SpillingRowSorter();
+        for (int from = 0; from < roots.size(); from += ROOTS_PER_BATCH) {
+            int to = Math.min(from + ROOTS_PER_BATCH, roots.size());
+            for (Map<String, String> map : doCreateTable(roots.subList(from, to))) {
+                sorter.add(createRow(map));
+            }
+        }
+        return sorter.iterator(getAliasHeader());
+    }
+
+    private List<CnATreeElement> init(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf) {
         this.veriniceDataGraph = veriniceGraph;
         this.vqlAst = new VqlAst(conf);
 
@@ -108,11 +167,7 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         String typeId = root.getPath();
 
         storeColumnHeaderOrderAndAlias(conf);
-        Set<CnATreeElement> roots = getRootNodes(typeId);
-
-        List<Map<String, String>> table = doCreateTable(roots);
-
-        return convertToTable(table);
+        return new ArrayList<>(getRootNodes(typeId));
     }
 
     private Set<CnATreeElement> getRootNodes(final String typeId) {
@@ -124,10 +179,38 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         });
     }
 
-    private List<Map<String, String>> doCreateTable(Set<CnATreeElement> roots) {
-        List<Map<String, String>> table = new ArrayList<>();
+    private List<Map<String, String>> doCreateTable(List<CnATreeElement> roots) {
         RiskConfigurationCache riskConfigurationCache = new RiskConfigurationCache();
-        for (CnATreeElement potentialRoot : roots) {
+        if (roots.size() < MIN_ROOTS_FOR_PARALLEL_SCAN || isRiskValueQuery()) {
+            return scanVeriniceGraph(roots, 0, roots.size(), riskConfigurationCache);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Scanning " + roots.size() + " starting points in parallel...");
+        }
+        return SCAN_POOL.invoke(new ScanTask(roots, 0, roots.size(), riskConfigurationCache,
+                VeriniceContext.getState()));
+    }
+
+    /**
+     * Returns true if a risk value of a threat is a column of the table. These
+     * values are computed with the risk configuration of the scope which is
+     * loaded by a command.
+     */
+    private boolean isRiskValueQuery() {
+        for (VqlNode node : vqlAst.getVqlGraph().vertexSet()) {
+            for (String propertyType : node.getPropertyTypes()) {
+                if (BpRiskValuePropertyAdapter.riskPropertiesThreat.contains(propertyType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<Map<String, String>> scanVeriniceGraph(List<CnATreeElement> roots, int from,
+            int to, RiskConfigurationCache riskConfigurationCache) {
+        List<Map<String, String>> table = new ArrayList<>();
+        for (CnATreeElement potentialRoot : roots.subList(from, to)) {
             VeriniceGraphResult scanVeriniceGraph = scanVeriniceGraph(potentialRoot,
                     riskConfigurationCache);
             table.addAll(scanVeriniceGraph.getResult());
@@ -139,9 +222,10 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
             RiskConfigurationCache riskConfigurationCache) {
 
         VqlContext vqlNavigator = new VqlContext(vqlAst);
-        filter = new LtrTraversalFilter(vqlNavigator);
+        LtrTraversalFilter filter = new LtrTraversalFilter(vqlNavigator);
         VeriniceGraphResult result = new VeriniceGraphResult(riskConfigurationCache);
-        traversalListener = new LtrPrintRowsTraversalListener(vqlNavigator, filter, veriniceDataGraph, result);
+        LtrPrintRowsTraversalListener traversalListener = new LtrPrintRowsTraversalListener(
+                vqlNavigator, filter, veriniceDataGraph, result);
 
         traverse(veriniceDataGraph, potentialRoot, filter, traversalListener);
         return traversalListener.getResult();
@@ -149,27 +233,34 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
 
     private List<List<String>> convertToTable(List<Map<String, String>> table) {
 
-        List<List<String>> stringTable = new LinkedList<>();
+        List<SortableRow> rows = new ArrayList<>(table.size());
 
         for (Map<String, String> map : table) {
+            rows.add(new SortableRow(createRow(map)));
+        }
 
-            String[] row = new String[columnPath2TablePosition.size()];
-
-            for(Entry<String, Integer> pos : columnPath2TablePosition.entrySet()){
-                row[pos.getValue()] = map.containsKey(pos.getKey()) ? map.get(pos.getKey()) : "";
-            }
+        // the sort is stable, rows with equal keys keep the order of the scan
+        rows.sort(SortableRow::compare);
 
+        List<List<String>> stringTable = new ArrayList<>(rows.size() + 1);
+        stringTable.add(getAliasHeader());
+        for (SortableRow row : rows) {
+            stringTable.add(row.asList());
+        }
+        return stringTable;
+    }
 
-            stringTable.add(Arrays.asList(row));
+    private String[] createRow(Map<String, String> map) {
+        String[] row = new String[columnPath2TablePosition.size()];
 
-            if(LOG.isDebugEnabled()) {
-                LOG.debug("Add row to link table: [" + StringUtils.join(row, ", ") + "]");
-            }
+        for(Entry<String, Integer> pos : columnPath2TablePosition.entrySet()){
+            row[pos.getValue()] = map.containsKey(pos.getKey()) ? map.get(pos.getKey()) : "";
         }
 
-        Collections.sort(stringTable, new RowComparator());
-        stringTable.add(0, getAliasHeader());
-        return stringTable;
+        if(LOG.isDebugEnabled()) {
+            LOG.debug("Add row to link table: [" + StringUtils.join(row, ", ") + "]");
+        }
+        return row;
     }
 
     private void storeColumnHeaderOrderAndAlias(ILinkTableConfiguration conf) {
@@ -198,4 +289,49 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         return Arrays.asList(aliasHeader);
     }
 
+    /**
+     * Scans a range of starting points. Ranges are split until they contain
+     * {@link GraphLinkedTableCreator#ROOTS_PER_TASK} starting points. The
+     * result contains the rows in the order of the starting points.
+     */
+    private final class ScanTask extends RecursiveTask<List<Map<String, String>>> {
+
+        private static final long serialVersionUID = -3946417396187440913L;
+
+        private final List<CnATreeElement> roots;
+        private final int from;
+        private final int to;
+        private final RiskConfigurationCache riskConfigurationCache;
+        private final VeriniceContext.State contextState;
+
+        private ScanTask(List<CnATreeElement> roots, int from, int to,
+                RiskConfigurationCache riskConfigurationCache,
+                VeriniceContext.State contextState) {
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+            this.riskConfigurationCache = riskConfigurationCache;
+            this.contextState = contextState;
+        }
+
+        @Override
+        protected List<Map<String, String>> compute() {
+            if (to - from <= ROOTS_PER_TASK) {
+                // the context is a thread local, worker threads do not have it
+                VeriniceContext.setState(contextState);
+                return scanVeriniceGraph(roots, from, to, riskConfigurationCache);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(roots, from, middle, riskConfigurationCache,
+                    contextState);
+            ScanTask right = new ScanTask(roots, middle, to, riskConfigurationCache,
+                    contextState);
+            left.fork();
+            List<Map<String, String>> rightResult = right.compute();
+            List<Map<String, String>> result = left.join();
+            result.addAll(rightResult);
+            return result;
+        }
+    }
+
 }
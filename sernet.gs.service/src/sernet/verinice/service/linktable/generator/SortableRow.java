@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable.generator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import sernet.verinice.service.linktable.RowComparator;
+
+/**
+ * A row of a link table with the sort keys of its cells. The keys are created
+ * only once before sorting.
+ */
+final class SortableRow {
+
+    private final String[] cells;
+    private final String[] keys;
+
+    SortableRow(String[] cells) {
+        this.cells = cells;
+        this.keys = RowComparator.createSortKeys(cells);
+    }
+
+    String[] getCells() {
+        return cells;
+    }
+
+    List<String> asList() {
+        return Arrays.asList(cells);
+    }
+
+    static int compare(SortableRow row1, SortableRow row2) {
+        return RowComparator.compareSortKeys(row1.keys, row2.keys);
+    }
+}
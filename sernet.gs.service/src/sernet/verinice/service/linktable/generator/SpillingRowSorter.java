@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import sernet.verinice.service.linktable.ILinkTableRowIterator;
+import sernet.verinice.service.linktable.LinkTableException;
+
+/**
+ * Sorts the rows of a link table with an external merge sort. Rows are
+ * collected in memory until {@link #getMaxRowsInMemory()} is reached. Then
+ * the rows are sorted and written to a temporary file (a run). The iterator
+ * returned by {@link #iterator(List)} merges all runs.
+ *
+ * The order of the rows is the same as the order of a stable in-memory sort
+ * with the {@link sernet.verinice.service.linktable.RowComparator}: rows with
+ * equal keys are returned in the order they were added.
+ */
+final class SpillingRowSorter {
+
+    private static final Logger LOG = Logger.getLogger(SpillingRowSorter.class);
+
+    static final int DEFAULT_MAX_ROWS_IN_MEMORY = 100000;
+
+    private static final int NULL_CELL = -1;
+
+    private final int maxRowsInMemory;
+
+    private List<SortableRow> buffer = new ArrayList<>();
+
+    private final List<Run> runs = new ArrayList<>();
+
+    SpillingRowSorter() {
+        this(DEFAULT_MAX_ROWS_IN_MEMORY);
+    }
+
+    SpillingRowSorter(int maxRowsInMemory) {
+        this.maxRowsInMemory = maxRowsInMemory;
+    }
+
+    void add(String[] row) {
+        buffer.add(new SortableRow(row));
+        if (buffer.size() >= maxRowsInMemory) {
+            spill();
+        }
+    }
+
+    /**
+     * Returns an iterator over the header and all sorted rows. Close the
+     * iterator to delete the temporary files.
+     */
+    ILinkTableRowIterator iterator(List<String> header) {
+        if (runs.isEmpty()) {
+            buffer.sort(SortableRow::compare);
+            Iterator<SortableRow> rows = buffer.iterator();
+            buffer = new ArrayList<>();
+            return new MemoryRowIterator(header, rows);
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        return new MergingRowIterator(header, runs);
+    }
+
+    private void spill() {
+        buffer.sort(SortableRow::compare);
+        File file = null;
+        try {
+            file = File.createTempFile("verinice-linktable-", ".run");
+            file.deleteOnExit();
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file)))) {
+                for (SortableRow row : buffer) {
+                    writeRow(out, row.getCells());
+                }
+            }
+        } catch (IOException e) {
+            deleteRuns(runs);
+            if (file != null) {
+                deleteFile(file);
+            }
+            throw new LinkTableException("Error while writing link table rows to a file", e);
+        }
+        runs.add(new Run(runs.size(), file, buffer.size()));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(buffer.size() + " rows written to file: " + file.getPath());
+        }
+        buffer = new ArrayList<>();
+    }
+
+    int getMaxRowsInMemory() {
+        return maxRowsInMemory;
+    }
+
+    private static void writeRow(DataOutputStream out, String[] cells) throws IOException {
+        out.writeInt(cells.length);
+        for (String cell : cells) {
+            if (cell == null) {
+                out.writeInt(NULL_CELL);
+            } else {
+                byte[] bytes = cell.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String[] readRow(DataInputStream in) throws IOException {
+        String[] cells = new String[in.readInt()];
+        for (int i = 0; i < cells.length; i++) {
+            int length = in.readInt();
+            if (length != NULL_CELL) {
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                cells[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return cells;
+    }
+
+    private static void deleteRuns(List<Run> runs) {
+        for (Run run : runs) {
+            run.close();
+            deleteFile(run.file);
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("Can not delete temporary file: " + file.getPath());
+        }
+    }
+
+    /**
+     * A sorted file of rows.
+     */
+    private static final class Run {
+
+        private final int index;
+        private final File file;
+        private int remaining;
+        private DataInputStream in;
+        private SortableRow current;
+
+        private Run(int index, File file, int size) {
+            this.index = index;
+            this.file = file;
+            this.remaining = size;
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                close();
+                return false;
+            }
+            if (in == null) {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            }
+            current = new SortableRow(readRow(in));
+            remaining--;
+            return true;
+        }
+
+        private void close() {
+            IOUtils.closeQuietly(in);
+            in = null;
+        }
+
+        private static int compare(Run run1, Run run2) {
+            int value = SortableRow.compare(run1.current, run2.current);
+            return (value != 0) ? value : Integer.compare(run1.index, run2.index);
+        }
+    }
+
+    private static final class MemoryRowIterator implements ILinkTableRowIterator {
+
+        private List<String> header;
+        private final Iterator<SortableRow> rows;
+
+        private MemoryRowIterator(List<String> header, Iterator<SortableRow> rows) {
+            this.header = header;
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return header != null || rows.hasNext();
+        }
+
+        @Override
+        public List<String> next() {
+            if (header != null) {
+                List<String> next = header;
+                header = null;
+                return next;
+            }
+            return rows.next().asList();
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+
+    private static final class MergingRowIterator implements ILinkTableRowIterator {
+
+        private List<String> header;
+        private final List<Run> runs;
+        private final PriorityQueue<Run> queue;
+
+        private MergingRowIterator(List<String> header, List<Run> runs) {
+            this.header = header;
+            this.runs = new ArrayList<>(runs);
+            this.queue = new PriorityQueue<>(runs.size(), Run::compare);
+            try {
+                for (Run run : runs) {
+                    if (run.advance()) {
+                        queue.add(run);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new LinkTableException("Error while reading link table rows", e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return header != null || !queue.isEmpty();
+        }
+
+        @Override
+        public List<String> next() {
+            if (header != null) {
+                List<String> next = header;
+                header = null;
+                return next;
+            }
+            Run run = queue.poll();
+            if (run == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> row = run.current.asList();
+            try {
+                if (run.advance()) {
+                    queue.add(run);
+                } else if (queue.isEmpty()) {
+                    close();
+                }
+            } catch (IOException e) {
+                close();
+                throw new LinkTableException("Error while reading link table rows", e);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() {
+            queue.clear();
+            deleteRuns(runs);
+        }
+    }
+}
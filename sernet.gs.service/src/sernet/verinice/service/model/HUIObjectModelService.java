@@ -202,8 +202,8 @@ public class HUIObjectModelService implements IObjectModelService {
                 || getHuiTypeFactory().getEntityType(toEntityTypeID) == null) {
             return new HashSet<>();
         }
-        Set<HuiRelation> relations = getHuiTypeFactory().getPossibleRelations(fromEntityTypeID,
-                toEntityTypeID);
+        Set<HuiRelation> relations = new HashSet<>(
+                getHuiTypeFactory().getPossibleRelations(fromEntityTypeID, toEntityTypeID));
         relations
                 .addAll(getHuiTypeFactory().getPossibleRelations(toEntityTypeID, fromEntityTypeID));
         HashSet<String> relationIds = new HashSet<>();
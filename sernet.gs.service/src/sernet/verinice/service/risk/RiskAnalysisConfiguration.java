@@ -33,6 +33,8 @@ public class RiskAnalysisConfiguration implements Serializable {
     
     private Integer[] organizationDbIds;
 
+    private Integer[] changedElementDbIds;
+
     public RiskAnalysisConfiguration(Integer... organizationDbIds) {
         super();
         this.organizationDbIds = organizationDbIds;
@@ -50,5 +52,24 @@ public class RiskAnalysisConfiguration implements Serializable {
     public void setOrganizationDbIds(Integer[] organizationDbIds) {
         this.organizationDbIds = organizationDbIds;
     }
-    
+
+    public Integer[] getChangedElementDbIds() {
+        return changedElementDbIds;
+    }
+
+    /**
+     * Database ids of changed controls, threats, vulnerabilities, scenarios
+     * or assets. If ids are set, only the scenarios and assets which depend
+     * on these elements are analyzed. Null runs a complete analysis.
+     * 
+     * @param changedElementDbIds Database ids of changed elements
+     */
+    public void setChangedElementDbIds(Integer... changedElementDbIds) {
+        this.changedElementDbIds = changedElementDbIds;
+    }
+
+    public boolean isIncremental() {
+        return changedElementDbIds != null;
+    }
+
 }
@@ -20,11 +20,15 @@
 package sernet.verinice.service.risk;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
 
-import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.graph.Edge;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
@@ -44,6 +48,14 @@ import sernet.verinice.model.iso27k.Vulnerability;
  * RiskAnalysisServiceImpl is configured as a singleton. In contrast to this a
  * new instance of RiskAnalysisJob is created for every execution of a risk
  * analysis.
+ * 
+ * The numeric properties of the analyzed elements are read once and cached in
+ * int arrays during the analysis. Only the values which were changed by the
+ * analysis are written back to the elements. Links are only saved if their
+ * risk values were changed.
+ * 
+ * {@link #runRiskAnalysis(Collection)} analyzes only the scenarios and assets
+ * which depend on a set of changed elements.
  *
  * @author Daniel Murygin <dm{a}sernet{dot}de>
  */
@@ -53,6 +65,12 @@ public class RiskAnalysisJob {
 
     private static final RiskCalculator RISK_CALCULATOR_DEFAULT = new RiskAdder();
 
+    // Index of the dimensions confidentiality, integrity and availability
+    private static final int C = 0;
+    private static final int I = 1;
+    private static final int A = 2;
+    private static final int[] DIMENSIONS = { C, I, A };
+
     /**
      * A verinice graph with all elements which are analyzed
      */
@@ -62,6 +80,10 @@ public class RiskAnalysisJob {
 
     private IBaseDao<CnALink, Serializable> cnaLinkDao;
 
+    private final Map<CnATreeElement, ScenarioValues> scenarioValues = new HashMap<>();
+
+    private final Map<CnATreeElement, ControlValues> controlValues = new HashMap<>();
+
     public RiskAnalysisJob(VeriniceGraph graph, IBaseDao<CnALink, Serializable> cnaLinkDao) {
         super();
         this.graph = graph;
@@ -69,136 +91,168 @@ public class RiskAnalysisJob {
     }
 
     /**
-     * Runs a risk analysis by analyzing the risk of scenarios and assets.
+     * Runs a risk analysis by analyzing the risk of all scenarios and assets.
      */
     public void runRiskAnalysis() {
-        resetRiskValuesOfAssets();
-        setProbabilityOfScenarios();
-        reduceRiskOfScenarios();
-        analyseRiskOfAssets();
-    }
-
-    /**
-     * Resets the risk values of all assets.
-     */
-    private void resetRiskValuesOfAssets() {
+        Set<CnATreeElement> scenarios = graph.getElements(IncidentScenario.TYPE_ID);
         Set<CnATreeElement> assets = graph.getElements(Asset.TYPE_ID);
         if (LOG.isInfoEnabled()) {
             LOG.info("Number of assets: " + assets.size());
+            LOG.info("Number of scenarios: " + scenarios.size());
         }
-        for (CnATreeElement asset : assets) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Resetting Risk for Asset: " + asset.getTitle());
-            }
-            resetRisks((Asset) asset);
-        }
+        runRiskAnalysis(scenarios, assets);
     }
 
     /**
-     * Sets the probability of all incident scenarios.
+     * Runs an incremental risk analysis. Only the scenarios and assets which
+     * depend on the given changed elements are analyzed:
+     * 
+     * <ul>
+     * <li>A changed control changes the linked scenarios and assets.</li>
+     * <li>A changed threat or vulnerability changes the linked scenarios.</li>
+     * <li>A changed scenario changes the linked assets.</li>
+     * </ul>
+     * 
+     * The values of all other scenarios are read from the elements.
+     * 
+     * @param changedElements
+     *            Changed controls, threats, vulnerabilities, scenarios or
+     *            assets of the graph
      */
-    private void setProbabilityOfScenarios() {
-        Set<CnATreeElement> scenarios = graph.getElements(IncidentScenario.TYPE_ID);
+    public void runRiskAnalysis(Collection<CnATreeElement> changedElements) {
+        Set<CnATreeElement> scenarios = new LinkedHashSet<>();
+        Set<CnATreeElement> assets = new LinkedHashSet<>();
+        for (CnATreeElement element : changedElements) {
+            String typeId = element.getTypeId();
+            if (Control.TYPE_ID.equals(typeId)) {
+                scenarios.addAll(
+                        graph.getLinkTargetsByElementType(element, IncidentScenario.TYPE_ID));
+                assets.addAll(graph.getLinkTargetsByElementType(element, Asset.TYPE_ID));
+            } else if (Threat.TYPE_ID.equals(typeId) || Vulnerability.TYPE_ID.equals(typeId)) {
+                scenarios.addAll(
+                        graph.getLinkTargetsByElementType(element, IncidentScenario.TYPE_ID));
+            } else if (IncidentScenario.TYPE_ID.equals(typeId)) {
+                scenarios.add(element);
+            } else if (Asset.TYPE_ID.equals(typeId)) {
+                assets.add(element);
+            }
+        }
+        for (CnATreeElement scenario : scenarios) {
+            assets.addAll(graph.getLinkTargetsByElementType(scenario, Asset.TYPE_ID));
+        }
         if (LOG.isInfoEnabled()) {
-            LOG.info("Number of scenarios: " + scenarios.size());
+            LOG.info("Changed elements: " + changedElements.size() + ", affected scenarios: "
+                    + scenarios.size() + ", affected assets: " + assets.size());
         }
+        runRiskAnalysis(scenarios, assets);
+    }
+
+    private void runRiskAnalysis(Set<CnATreeElement> scenarios, Set<CnATreeElement> assets) {
         for (CnATreeElement scenario : scenarios) {
             setProbabilityOfScenario((IncidentScenario) scenario);
         }
+        long time = RiskAnalysisServiceImpl.initRuntime();
+        int changedLinks = 0;
+        for (CnATreeElement asset : assets) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Determine Risk for Asset: " + asset.getTitle());
+            }
+            changedLinks += analyseRiskOfAsset((Asset) asset);
+        }
+        RiskAnalysisServiceImpl.logRuntime("Analysing assets and updating links runtime : ",
+                time);
+        int changedScenarios = 0;
+        for (CnATreeElement scenario : scenarios) {
+            changedScenarios += getScenarioValues(scenario).writeBack();
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Changed links: " + changedLinks + ", changed scenario values: "
+                    + changedScenarios);
+        }
     }
 
     /**
      * Sets the probability of an incident scenario.
      * 
      * The probability of the scenario is set by addition of the probability of
-     * the threat and the vulnerability which are linked to the scenario.
+     * the threat and the vulnerability which are linked to the scenario. The
+     * probability is reduced by subtracting the effect of all linked and
+     * implemented controls.
      * 
      * @param scenario
      *            A single incident scenario which is analyzed
      */
     private void setProbabilityOfScenario(IncidentScenario scenario) {
+        ScenarioValues values = getScenarioValues(scenario);
         // get values from linked threat & vulnerabilities, only if automatic
         // mode is activated:
-        if (scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_METHOD) == 1) {
-            getProbabilityFromThreatAndVulnerability(graph, scenario);
+        if (values.get(ScenarioValues.METHOD) == 1) {
+            getProbabilityFromThreatAndVulnerability(scenario, values);
         }
 
         // calculate probability:
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY, 0);
-        int myThreat = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_THREAT_PROBABILITY);
-        int myVuln = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_VULN_PROBABILITY);
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY, myThreat + myVuln);
+        int probability = values.get(ScenarioValues.THREAT_PROBABILITY)
+                + values.get(ScenarioValues.VULN_PROBABILITY);
+        values.set(ScenarioValues.PROBABILITY, probability);
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Scenario: " + scenario.getTitle() + ", probability set: "
-                    + scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
+            LOG.debug("Scenario: " + scenario.getTitle() + ", probability set: " + probability);
         }
-    }
 
-    /**
-     * Reduces the probability of all incident scenarios by subtracting the
-     * effect of all linked and implemented controls.
-     */
-    private void reduceRiskOfScenarios() {
-        Set<CnATreeElement> scenarios = graph.getElements(IncidentScenario.TYPE_ID);
-        for (CnATreeElement scenario : scenarios) {
-            reduceRiskOfSzenario((IncidentScenario) scenario);
-        }
-    }
-
-    /**
-     * Reduces the probability of a scenario by subtracting the effect of all
-     * linked and implemented controls.
-     *
-     * @param scenario
-     *            A single incident scenario
-     */
-    private void reduceRiskOfSzenario(IncidentScenario scenario) {
         // init probability values to value without controls:
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS,
-                scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
-        scenario.setNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS,
-                scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS,
-                scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
-
-        Set<CnATreeElement> controlSet = graph.getLinkTargetsByElementType(scenario,
-                Control.TYPE_ID);
+        int probabilityWithControls = probability;
+        int probabilityWithPlannedControls = probability;
+        int probabilityWithoutNaControls = probability;
         // deduct controls from probability:
-        for (CnATreeElement control : controlSet) {
-            reduceRiskOfSzenarioWithControl(scenario, control);
+        for (CnATreeElement control : graph.getLinkTargetsByElementType(scenario,
+                Control.TYPE_ID)) {
+            ControlValues controlValue = getControlValues(control);
+            // Risk with all controls
+            probabilityWithPlannedControls = positiveOrZero(
+                    probabilityWithPlannedControls - controlValue.effectOnProbability);
+            // Risk with implemented controls
+            if (controlValue.implemented) {
+                probabilityWithControls = positiveOrZero(
+                        probabilityWithControls - controlValue.effectOnProbability);
+            }
+            // Risk with planned implemented controls
+            if (controlValue.planned) {
+                probabilityWithoutNaControls = positiveOrZero(
+                        probabilityWithoutNaControls - controlValue.effectOnProbability);
+            }
         }
+        values.set(ScenarioValues.PROBABILITY_WITH_CONTROLS, probabilityWithControls);
+        values.set(ScenarioValues.PROBABILITY_WITH_PLANNED_CONTROLS,
+                probabilityWithPlannedControls);
+        values.set(ScenarioValues.PROBABILITY_WITHOUT_NA_CONTROLS, probabilityWithoutNaControls);
     }
 
-    private void reduceRiskOfSzenarioWithControl(IncidentScenario scenario,
-            CnATreeElement control) {
-        int controlEffect = control.getNumericProperty(Control.PROP_CONTROL_EFFECT_P);
-        int probAfterControl;
-
-        // Risk with all controls
-        probAfterControl = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS) - controlEffect;
-        scenario.setNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS,
-                positiveOrZero(probAfterControl));
-
-        // Risk with implemented controls
-        if (Control.isImplemented(control.getEntity())) {
-
-            probAfterControl = scenario.getNumericProperty(
-                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS) - controlEffect;
-            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS,
-                    positiveOrZero(probAfterControl));
-        }
+    private void getProbabilityFromThreatAndVulnerability(IncidentScenario scenario,
+            ScenarioValues values) {
+        // only calculate if threat AND vulnerability is linked to scenario:
+        Set<CnATreeElement> threatSet = graph.getLinkTargetsByElementType(scenario, Threat.TYPE_ID);
+        Set<CnATreeElement> vulnerabilitySet = graph.getLinkTargetsByElementType(scenario,
+                Vulnerability.TYPE_ID);
 
-        // Risk with planned implemented controls
-        if (Control.isPlanned(control.getEntity())) {
-            probAfterControl = scenario.getNumericProperty(
-                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS) - controlEffect;
-            scenario.setNumericProperty(
-                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS,
-                    positiveOrZero(probAfterControl));
+        if (!threatSet.isEmpty() && !vulnerabilitySet.isEmpty()) {
+            int threatImpact = 0;
+            for (CnATreeElement threat : threatSet) {
+                // use higher value of likelihood or impact:
+                int level1 = threat.getNumericProperty(Threat.PROP_THREAT_LIKELIHOOD);
+                int level2 = threat.getNumericProperty(Threat.PROP_THREAT_IMPACT);
+                int level = (level1 > level2) ? level1 : level2;
+                threatImpact = (level > threatImpact) ? level : threatImpact;
+            }
+
+            int exploitability = 0;
+            for (CnATreeElement vuln : vulnerabilitySet) {
+                int level = vuln
+                        .getNumericProperty(Vulnerability.PROP_VULNERABILITY_EXPLOITABILITY);
+                exploitability = (level > exploitability) ? level : exploitability;
+            }
+
+            // set values to highest found:
+            values.set(ScenarioValues.THREAT_PROBABILITY, threatImpact);
+            values.set(ScenarioValues.VULN_PROBABILITY, exploitability);
         }
     }
 
@@ -218,377 +272,126 @@ public class RiskAnalysisJob {
     }
 
     /**
-     * Analyses the risk of all assets which are linked to incident scenarios in
-     * a given verinice graph.
+     * Analyses the risk of an asset which is linked to incident scenarios and
+     * updates the links from the scenarios to the asset.
      * 
-     * @throws CommandException
+     * @param asset
+     *            An asset
+     * @return The number of saved links
      */
-    private void analyseRiskOfAssets() {
-        Set<CnATreeElement> scenarios = graph.getElements(IncidentScenario.TYPE_ID);
-        // determine risk originating from scenarios for all linked assets:
-        for (CnATreeElement scenario : scenarios) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Determine Risk for Scenario: " + scenario.getTitle());
+    private int analyseRiskOfAsset(Asset asset) {
+        AssetValues values = new AssetValues(asset);
+        // Reset risk values to prevent summation when running risk analysis
+        // multiple times
+        values.resetRisks();
+        int[][] reducedBusinessImpact = reduceCIAValues(asset, values);
+
+        int savedLinks = 0;
+        for (Edge edgeToAsset : graph.getEdgesByElementType(asset, IncidentScenario.TYPE_ID)) {
+            CnATreeElement scenario = edgeToAsset.getSource().equals(asset)
+                    ? edgeToAsset.getTarget()
+                    : edgeToAsset.getSource();
+            ScenarioValues scenarioValue = getScenarioValues(scenario);
+            Integer[] oldEdgeRisks = getRisks(edgeToAsset);
+            resetRisks(edgeToAsset);
+            for (int dimension : DIMENSIONS) {
+                if (scenarioValue.affects(dimension)) {
+                    analyseRiskOfAsset(scenarioValue, edgeToAsset, values, reducedBusinessImpact,
+                            dimension);
+                }
+            }
+            if (!Arrays.equals(oldEdgeRisks, getRisks(edgeToAsset))) {
+                saveLink(edgeToAsset);
+                savedLinks++;
             }
-            analyseRiskOfAssets((IncidentScenario) scenario);
-        }
-    }
-
-    /**
-     * Analyses the risk of all assets which are linked to a given incident
-     * scenario.
-     *
-     * @param graph
-     *            A verinice graph with all elements which are analyzed
-     * @param scenario
-     *            A single incident scenario
-     * @throws CommandException
-     */
-    private void analyseRiskOfAssets(IncidentScenario scenario) {
-        Set<Edge> edgesToAsset = graph.getEdgesByElementType(scenario, Asset.TYPE_ID);
-
-        for (Edge edge : edgesToAsset) {
-            analyseRiskOfAsset(graph, scenario, edge);
-        }
-        if (LOG.isInfoEnabled()) {
-            LOG.info("Number of links from scenario to assets: " + edgesToAsset.size());
-        }
-        long time = RiskAnalysisServiceImpl.initRuntime();
-        // Update cnalinks
-        for (Edge edge : edgesToAsset) {
-            saveLink(edge);
-        }
-        RiskAnalysisServiceImpl.logRuntime("Updating links from scenarios to assets runtime : ",
-                time);
-    }
-
-    /**
-     * Analyses the risk of a single asset which is linked to an incident
-     * scenario.
-     * 
-     * @param scenario
-     *            An incident scenario
-     * @param edgeToAsset
-     *            An edge that connects an incident scenario with an asset
-     */
-    private void analyseRiskOfAsset(VeriniceGraph graph, IncidentScenario scenario,
-            Edge edgeToAsset) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-        Asset assetWithReducedCIAValues = reduceCIAValues(graph, asset);
-
-        resetRisks(edgeToAsset);
-
-        if (scenarioAffectsConfidentiality(scenario)) {
-            analyseRiskCOfAsset(scenario, edgeToAsset, assetWithReducedCIAValues);
-        }
-
-        if (scenarioAffectsIntegrity(scenario)) {
-            analyseRiskIOfAsset(scenario, edgeToAsset, assetWithReducedCIAValues);
-        }
-
-        if (scenarioAffectsAvailability(scenario)) {
-            analyseRiskAOfAsset(scenario, edgeToAsset, assetWithReducedCIAValues);
         }
+        values.writeBack();
+        return savedLinks;
     }
 
     /**
-     * Abbreviations used in this method to shorten in names of variables: -
-     * business impact: bi - confidentiality: C
-     * 
-     * @param scenario
-     * @param edgeToAsset
-     * @param assetWithReducedCIAValues
+     * Analyses the risk of one dimension (C, I or A) of an asset which is
+     * linked to an incident scenario. Abbreviations used in this method to
+     * shorten in names of variables: - business impact: bi
      */
-    private void analyseRiskCOfAsset(IncidentScenario scenario, Edge edgeToAsset,
-            Asset assetWithReducedCIAValues) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-
+    private void analyseRiskOfAsset(ScenarioValues scenario, Edge edgeToAsset,
+            AssetValues asset, int[][] reducedBusinessImpact, int dimension) {
         // Without controls:
-        int biC = asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY);
-        int probability = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY);
-        int riskC = calculateRisk(biC, probability);
-        asset.setNumericProperty(Asset.ASSET_RISK_C,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_RISK_C) + riskC));
-        edgeToAsset.setRiskConfidentiality(positiveOrZero(riskC));
+        int bi = asset.get(AssetValues.VALUE, dimension);
+        int risk = calculateRisk(bi, scenario.get(ScenarioValues.PROBABILITY));
+        asset.add(AssetValues.RISK, dimension, risk);
+        setRisk(edgeToAsset, dimension, positiveOrZero(risk));
 
         // With implemented controls
-        int biWithImplementedControlsC = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_CONTROLRISK_C);
-        int probabilityWithImplementedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS);
-        int riskWithImplementedControlsC = calculateRisk(biWithImplementedControlsC,
-                probabilityWithImplementedControls);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_IMPLEMENTED_CONTROLS,
-                biWithImplementedControlsC);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_C,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_CONTROLRISK_C)
-                        + riskWithImplementedControlsC));
-        edgeToAsset
-                .setRiskConfidentialityWithControls(positiveOrZero(riskWithImplementedControlsC));
+        int biWithImplementedControls = reducedBusinessImpact[AssetValues.CONTROLRISK][dimension];
+        int riskWithImplementedControls = calculateRisk(biWithImplementedControls,
+                scenario.get(ScenarioValues.PROBABILITY_WITH_CONTROLS));
+        asset.set(AssetValues.WITH_IMPLEMENTED_CONTROLS, dimension, biWithImplementedControls);
+        asset.add(AssetValues.CONTROLRISK, dimension, riskWithImplementedControls);
+        setRiskWithControls(edgeToAsset, dimension, positiveOrZero(riskWithImplementedControls));
 
         // With all controls
-        int biWithAllControlsC = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_PLANCONTROLRISK_C);
-        int probabilityWithAllControls = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS);
-        int riskWithAllControlsC = calculateRisk(biWithAllControlsC, probabilityWithAllControls);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS, biWithAllControlsC);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_C) + riskWithAllControlsC));
+        int biWithAllControls = reducedBusinessImpact[AssetValues.PLANCONTROLRISK][dimension];
+        int riskWithAllControls = calculateRisk(biWithAllControls,
+                scenario.get(ScenarioValues.PROBABILITY_WITH_PLANNED_CONTROLS));
+        asset.set(AssetValues.WITH_CONTROLS, dimension, biWithAllControls);
+        asset.add(AssetValues.PLANCONTROLRISK, dimension, riskWithAllControls);
 
         // With planned controls
-        int biWithPlannedControlsC = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C);
-        int probabilityWithPlannedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS);
-        int riskWithPlannedControlsC = calculateRisk(biWithPlannedControlsC,
-                probabilityWithPlannedControls);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_PLANNED_CONTROLS,
-                biWithPlannedControlsC);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C)
-                        + riskWithPlannedControlsC));
-    }
-
-    /**
-     * Abbreviations used in this method to shorten in names of variables: -
-     * Business impact: bi - Integrity: I
-     * 
-     * @param scenario
-     * @param edgeToAsset
-     * @param assetWithReducedCIAValues
-     */
-    private void analyseRiskIOfAsset(IncidentScenario scenario, Edge edgeToAsset,
-            Asset assetWithReducedCIAValues) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-
-        // Without controls:
-        int biI = asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY);
-        int probability = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY);
-        int riskI = calculateRisk(biI, probability);
-        asset.setNumericProperty(Asset.ASSET_RISK_I,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_RISK_I) + riskI));
-        edgeToAsset.setRiskIntegrity(positiveOrZero(riskI));
-
-        // With implemented controls
-        int biWithImplementedControlsI = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_CONTROLRISK_I);
-        int probabilityWithImplementedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS);
-        int riskWithImplementedControlsI = calculateRisk(biWithImplementedControlsI,
-                probabilityWithImplementedControls);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_IMPLEMENTED_CONTROLS,
-                biWithImplementedControlsI);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_I,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_CONTROLRISK_I)
-                        + riskWithImplementedControlsI));
-        edgeToAsset.setRiskIntegrityWithControls(positiveOrZero(riskWithImplementedControlsI));
-
-        // With all controls
-        int biWithAllControlsI = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_PLANCONTROLRISK_I);
-        int probabilityWithAllControls = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS);
-        int riskWithAllControlsI = calculateRisk(biWithAllControlsI, probabilityWithAllControls);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_CONTROLS, biWithAllControlsI);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_I) + riskWithAllControlsI));
-
-        // With planned controls
-        int biWithPlannedControlsI = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I);
-        int probabilityWithPlannedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS);
-        int riskWithPlannedControlsI = calculateRisk(biWithPlannedControlsI,
-                probabilityWithPlannedControls);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_PLANNED_CONTROLS,
-                biWithPlannedControlsI);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I)
-                        + riskWithPlannedControlsI));
-    }
-
-    /**
-     * Abbreviations used in this method to shorten in names of variables: -
-     * Business impact: bi - Availability: A
-     * 
-     * @param scenario
-     * @param edgeToAsset
-     * @param assetWithReducedCIAValues
-     */
-    private void analyseRiskAOfAsset(IncidentScenario scenario, Edge edgeToAsset,
-            Asset assetWithReducedCIAValues) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-
-        // Without controls:
-        int biA = asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY);
-        int probability = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY);
-        int riskA = calculateRisk(biA, probability);
-        asset.setNumericProperty(Asset.ASSET_RISK_A,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_RISK_A) + riskA));
-        edgeToAsset.setRiskAvailability(positiveOrZero(riskA));
-
-        // With implemented controls
-        int biWithImplementedControlsA = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_CONTROLRISK_A);
-        int probabilityWithImplementedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS);
-        int riskWithImplementedControlsA = calculateRisk(biWithImplementedControlsA,
-                probabilityWithImplementedControls);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_IMPLEMENTED_CONTROLS,
-                biWithImplementedControlsA);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_A,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_CONTROLRISK_A)
-                        + riskWithImplementedControlsA));
-        edgeToAsset.setRiskAvailabilityWithControls(positiveOrZero(riskWithImplementedControlsA));
-
-        // With all controls
-        int biWithAllControlsA = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_PLANCONTROLRISK_A);
-        int probabilityWithAllControls = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS);
-        int riskWithAllControlsA = calculateRisk(biWithAllControlsA, probabilityWithAllControls);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_CONTROLS, biWithAllControlsA);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_A) + riskWithAllControlsA));
-
-        // With planned controls
-        int biWithPlannedControlsA = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A);
-        int probabilityWithPlannedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS);
-        int riskWithPlannedControlsA = calculateRisk(biWithPlannedControlsA,
-                probabilityWithPlannedControls);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_PLANNED_CONTROLS,
-                biWithPlannedControlsA);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A)
-                        + riskWithPlannedControlsA));
+        int biWithPlannedControls = reducedBusinessImpact[AssetValues.WITHOUT_NA_PLANCONTROLRISK]
+                [dimension];
+        int riskWithPlannedControls = calculateRisk(biWithPlannedControls,
+                scenario.get(ScenarioValues.PROBABILITY_WITHOUT_NA_CONTROLS));
+        asset.set(AssetValues.WITH_PLANNED_CONTROLS, dimension, biWithPlannedControls);
+        asset.add(AssetValues.WITHOUT_NA_PLANCONTROLRISK, dimension, riskWithPlannedControls);
     }
 
     /**
      * Reduce the CIA values of an given asset with the effect of all controls
-     * which are linked to this asset. Returns a copy of the given asset with
-     * reduced values.
+     * which are linked to this asset.
      * 
-     * @param graph
-     *            A verinice graph with all elements which are analyzed
      * @param asset
      *            An asset with CIA values
-     * @return A copy of the given asset with reduced CIA values.
+     * @return The reduced CIA values indexed by {@link AssetValues#CONTROLRISK},
+     *         {@link AssetValues#PLANCONTROLRISK} and
+     *         {@link AssetValues#WITHOUT_NA_PLANCONTROLRISK} and the dimension
      */
-    private Asset reduceCIAValues(VeriniceGraph graph, Asset asset) {
-        Asset assetWithReducedCIAValues = new Asset();
-        assetWithReducedCIAValues.getEntity().copyEntity(asset.getEntity());
-
-        // Reset risk values to prevent summation when running risk analysis
-        // multiple times
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C,
-                asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I,
-                asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A,
-                asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY));
-
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
-                asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
-                asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A,
-                asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY));
-
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_CONTROLRISK_C,
-                asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_CONTROLRISK_I,
-                asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_CONTROLRISK_A,
-                asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY));
-
-        Set<CnATreeElement> linkedControls = graph.getLinkTargetsByElementType(asset,
-                Control.TYPE_ID);
-        for (CnATreeElement control : linkedControls) {
-            reduceCIAValues(assetWithReducedCIAValues, control);
+    private int[][] reduceCIAValues(Asset asset, AssetValues values) {
+        int[][] reduced = new int[AssetValues.WITHOUT_NA_PLANCONTROLRISK + 1][];
+        int[] businessImpact = { values.get(AssetValues.VALUE, C),
+                values.get(AssetValues.VALUE, I), values.get(AssetValues.VALUE, A) };
+        reduced[AssetValues.CONTROLRISK] = businessImpact.clone();
+        reduced[AssetValues.PLANCONTROLRISK] = businessImpact.clone();
+        reduced[AssetValues.WITHOUT_NA_PLANCONTROLRISK] = businessImpact.clone();
+
+        for (CnATreeElement control : graph.getLinkTargetsByElementType(asset,
+                Control.TYPE_ID)) {
+            ControlValues controlValue = getControlValues(control);
+            for (int dimension : DIMENSIONS) {
+                int effect = controlValue.effectiveness[dimension];
+                // Reduce regardless of implementation status
+                reduce(reduced[AssetValues.PLANCONTROLRISK], dimension, effect);
+                // Reduce if implementation status is "planned"
+                if (controlValue.planned) {
+                    reduce(reduced[AssetValues.WITHOUT_NA_PLANCONTROLRISK], dimension, effect);
+                }
+                // Reduce if implementation status is "implemented"
+                if (controlValue.implemented) {
+                    reduce(reduced[AssetValues.CONTROLRISK], dimension, effect);
+                }
+            }
         }
-        return assetWithReducedCIAValues;
+        return reduced;
     }
 
-    /**
-     * Reduce the CIA values of a given asset with the effect of a given
-     * control.
-     * 
-     * @param asset
-     *            An asset with CIA values
-     * @param control
-     *            A control which reduces the CIA values
-     */
-    private void reduceCIAValues(Asset asset, CnATreeElement control) {
-        int controlEffectC = control.getNumericProperty(Control.PROP_EFFECTIVENESS_CONFIDENTIALITY);
-        int controlEffectI = control.getNumericProperty(Control.PROP_EFFECTIVENESS_INTEGRITY);
-        int controlEffectA = control.getNumericProperty(Control.PROP_EFFECTIVENESS_AVAILABILITY);
-
-        // Reduce regardless of implementation status
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_C) - controlEffectC));
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_I) - controlEffectI));
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_A) - controlEffectA));
-
-        // Reduce if implementation status is "planned"
-        if (Control.isPlanned(control.getEntity())) {
-            asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
-                    positiveOrZero(
-                            asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C)
-                                    - controlEffectC));
-            asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
-                    positiveOrZero(
-                            asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I)
-                                    - controlEffectI));
-            asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A,
-                    positiveOrZero(
-                            asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A)
-                                    - controlEffectA));
-        }
-
-        // Reduce if implementation status is "implemented"
-        if (Control.isImplemented(control.getEntity())) {
-            asset.setNumericProperty(Asset.ASSET_CONTROLRISK_C, positiveOrZero(
-                    asset.getNumericProperty(Asset.ASSET_CONTROLRISK_C) - controlEffectC));
-            asset.setNumericProperty(Asset.ASSET_CONTROLRISK_I, positiveOrZero(
-                    asset.getNumericProperty(Asset.ASSET_CONTROLRISK_I) - controlEffectI));
-            asset.setNumericProperty(Asset.ASSET_CONTROLRISK_A, positiveOrZero(
-                    asset.getNumericProperty(Asset.ASSET_CONTROLRISK_A) - controlEffectA));
-        }
-
+    private void reduce(int[] values, int dimension, int effect) {
+        values[dimension] = positiveOrZero(values[dimension] - effect);
     }
 
-    /**
-     * Reset risk calculation, remove all calculated risk values in an asset.
-     * 
-     * @param asset
-     */
-    private void resetRisks(Asset asset) {
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_PLANNED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_PLANNED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_PLANNED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_IMPLEMENTED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_IMPLEMENTED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_IMPLEMENTED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_RISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_RISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_RISK_A, 0);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_A, 0);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A, 0);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A, 0);
+    private static Integer[] getRisks(Edge edge) {
+        return new Integer[] { edge.getRiskConfidentiality(), edge.getRiskIntegrity(),
+                edge.getRiskAvailability(), edge.getRiskConfidentialityWithControls(),
+                edge.getRiskIntegrityWithControls(), edge.getRiskAvailabilityWithControls() };
     }
 
     private void resetRisks(Edge edgeToAsset) {
@@ -602,48 +405,40 @@ public class RiskAnalysisJob {
         edgeToAsset.setRiskAvailabilityWithControls(0);
     }
 
-    private void getProbabilityFromThreatAndVulnerability(VeriniceGraph graph,
-            IncidentScenario scenario) {
-        // only calculate if threat AND vulnerability is linked to scenario:
-        Set<CnATreeElement> threatSet = graph.getLinkTargetsByElementType(scenario, Threat.TYPE_ID);
-        Set<CnATreeElement> vulnerabilitySet = graph.getLinkTargetsByElementType(scenario,
-                Vulnerability.TYPE_ID);
-
-        if (!threatSet.isEmpty() && !vulnerabilitySet.isEmpty()) {
-            int threatImpact = 0;
-            for (CnATreeElement threat : threatSet) {
-                // use higher value of likelihood or impact:
-                int level1 = threat.getNumericProperty(Threat.PROP_THREAT_LIKELIHOOD);
-                int level2 = threat.getNumericProperty(Threat.PROP_THREAT_IMPACT);
-                int level = (level1 > level2) ? level1 : level2;
-                threatImpact = (level > threatImpact) ? level : threatImpact;
-            }
-
-            int exploitability = 0;
-            for (CnATreeElement vuln : vulnerabilitySet) {
-                int level = vuln
-                        .getNumericProperty(Vulnerability.PROP_VULNERABILITY_EXPLOITABILITY);
-                exploitability = (level > exploitability) ? level : exploitability;
-            }
-
-            // set values to highest found:
-            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_THREAT_PROBABILITY,
-                    threatImpact);
-            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_VULN_PROBABILITY,
-                    exploitability);
+    private static void setRisk(Edge edge, int dimension, int risk) {
+        switch (dimension) {
+        case C:
+            edge.setRiskConfidentiality(risk);
+            break;
+        case I:
+            edge.setRiskIntegrity(risk);
+            break;
+        default:
+            edge.setRiskAvailability(risk);
+            break;
         }
     }
 
-    private boolean scenarioAffectsConfidentiality(IncidentScenario scenario) {
-        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_C) == 1;
+    private static void setRiskWithControls(Edge edge, int dimension, int risk) {
+        switch (dimension) {
+        case C:
+            edge.setRiskConfidentialityWithControls(risk);
+            break;
+        case I:
+            edge.setRiskIntegrityWithControls(risk);
+            break;
+        default:
+            edge.setRiskAvailabilityWithControls(risk);
+            break;
+        }
     }
 
-    private boolean scenarioAffectsIntegrity(IncidentScenario scenario) {
-        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_I) == 1;
+    private ScenarioValues getScenarioValues(CnATreeElement scenario) {
+        return scenarioValues.computeIfAbsent(scenario, ScenarioValues::new);
     }
 
-    private boolean scenarioAffectsAvailability(IncidentScenario scenario) {
-        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_A) == 1;
+    private ControlValues getControlValues(CnATreeElement control) {
+        return controlValues.computeIfAbsent(control, ControlValues::new);
     }
 
     /**
@@ -651,7 +446,7 @@ public class RiskAnalysisJob {
      *            A positive or negative number
      * @return The given number if n is positive or 0 if n is 0 or negative
      */
-    private int positiveOrZero(int n) {
+    private static int positiveOrZero(int n) {
         return n < 0 ? 0 : n;
     }
 
@@ -687,4 +482,155 @@ public class RiskAnalysisJob {
     public void setCnaLinkDao(IBaseDao<CnALink, Serializable> cnaLinkDao) {
         this.cnaLinkDao = cnaLinkDao;
     }
+
+    /**
+     * Numeric properties of an element which are read once and written back
+     * only if they were changed.
+     */
+    private static class NumericProperties {
+
+        private final CnATreeElement element;
+        private final String[] propertyIds;
+        private final int[] storedValues;
+        private final int[] values;
+
+        NumericProperties(CnATreeElement element, String... propertyIds) {
+            this.element = element;
+            this.propertyIds = propertyIds;
+            this.storedValues = new int[propertyIds.length];
+            for (int i = 0; i < propertyIds.length; i++) {
+                storedValues[i] = element.getNumericProperty(propertyIds[i]);
+            }
+            this.values = storedValues.clone();
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        /**
+         * @return The number of changed values
+         */
+        int writeBack() {
+            int changed = 0;
+            for (int i = 0; i < propertyIds.length; i++) {
+                if (values[i] != storedValues[i]) {
+                    element.setNumericProperty(propertyIds[i], values[i]);
+                    storedValues[i] = values[i];
+                    changed++;
+                }
+            }
+            return changed;
+        }
+    }
+
+    private static final class ScenarioValues extends NumericProperties {
+
+        static final int METHOD = 0;
+        static final int THREAT_PROBABILITY = 1;
+        static final int VULN_PROBABILITY = 2;
+        static final int PROBABILITY = 3;
+        static final int PROBABILITY_WITH_CONTROLS = 4;
+        static final int PROBABILITY_WITH_PLANNED_CONTROLS = 5;
+        static final int PROBABILITY_WITHOUT_NA_CONTROLS = 6;
+        private static final int AFFECTS = 7;
+
+        ScenarioValues(CnATreeElement scenario) {
+            super(scenario, IncidentScenario.PROP_SCENARIO_METHOD,
+                    IncidentScenario.PROP_SCENARIO_THREAT_PROBABILITY,
+                    IncidentScenario.PROP_SCENARIO_VULN_PROBABILITY,
+                    IncidentScenario.PROP_SCENARIO_PROBABILITY,
+                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS,
+                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS,
+                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS,
+                    IncidentScenario.PROP_SCENARIO_AFFECTS_C,
+                    IncidentScenario.PROP_SCENARIO_AFFECTS_I,
+                    IncidentScenario.PROP_SCENARIO_AFFECTS_A);
+        }
+
+        boolean affects(int dimension) {
+            return get(AFFECTS + dimension) == 1;
+        }
+    }
+
+    /**
+     * The values of an asset, {@link #get(int, int)} and
+     * {@link #set(int, int, int)} take the kind of value and the dimension.
+     */
+    private static final class AssetValues extends NumericProperties {
+
+        static final int CONTROLRISK = 0;
+        static final int PLANCONTROLRISK = 1;
+        static final int WITHOUT_NA_PLANCONTROLRISK = 2;
+        static final int RISK = 3;
+        static final int WITH_CONTROLS = 4;
+        static final int WITH_PLANNED_CONTROLS = 5;
+        static final int WITH_IMPLEMENTED_CONTROLS = 6;
+        static final int VALUE = 7;
+
+        AssetValues(CnATreeElement asset) {
+            super(asset, Asset.ASSET_CONTROLRISK_C, Asset.ASSET_CONTROLRISK_I,
+                    Asset.ASSET_CONTROLRISK_A, Asset.ASSET_PLANCONTROLRISK_C,
+                    Asset.ASSET_PLANCONTROLRISK_I, Asset.ASSET_PLANCONTROLRISK_A,
+                    Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
+                    Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
+                    Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A, Asset.ASSET_RISK_C,
+                    Asset.ASSET_RISK_I, Asset.ASSET_RISK_A,
+                    Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS, Asset.ASSET_INTEGRITY_WITH_CONTROLS,
+                    Asset.ASSET_AVAILABILITY_WITH_CONTROLS,
+                    Asset.ASSET_CONFIDENTIALITY_WITH_PLANNED_CONTROLS,
+                    Asset.ASSET_INTEGRITY_WITH_PLANNED_CONTROLS,
+                    Asset.ASSET_AVAILABILITY_WITH_PLANNED_CONTROLS,
+                    Asset.ASSET_CONFIDENTIALITY_WITH_IMPLEMENTED_CONTROLS,
+                    Asset.ASSET_INTEGRITY_WITH_IMPLEMENTED_CONTROLS,
+                    Asset.ASSET_AVAILABILITY_WITH_IMPLEMENTED_CONTROLS,
+                    Asset.ASSET_VALUE_CONFIDENTIALITY, Asset.ASSET_VALUE_INTEGRITY,
+                    Asset.ASSET_VALUE_AVAILABILITY);
+        }
+
+        int get(int kind, int dimension) {
+            return get(kind * DIMENSIONS.length + dimension);
+        }
+
+        void set(int kind, int dimension, int value) {
+            set(kind * DIMENSIONS.length + dimension, value);
+        }
+
+        void add(int kind, int dimension, int risk) {
+            set(kind, dimension, positiveOrZero(get(kind, dimension) + risk));
+        }
+
+        /**
+         * Reset risk calculation, remove all calculated risk values.
+         */
+        void resetRisks() {
+            for (int kind = 0; kind < VALUE; kind++) {
+                for (int dimension : DIMENSIONS) {
+                    set(kind, dimension, 0);
+                }
+            }
+        }
+    }
+
+    private static final class ControlValues {
+
+        private final int effectOnProbability;
+        private final int[] effectiveness;
+        private final boolean implemented;
+        private final boolean planned;
+
+        ControlValues(CnATreeElement control) {
+            effectOnProbability = control.getNumericProperty(Control.PROP_CONTROL_EFFECT_P);
+            effectiveness = new int[] {
+                    control.getNumericProperty(Control.PROP_EFFECTIVENESS_CONFIDENTIALITY),
+                    control.getNumericProperty(Control.PROP_EFFECTIVENESS_INTEGRITY),
+                    control.getNumericProperty(Control.PROP_EFFECTIVENESS_AVAILABILITY) };
+            implemented = Control.isImplemented(control.getEntity());
+            planned = Control.isPlanned(control.getEntity());
+        }
+    }
 }
@@ -78,9 +78,21 @@ public interface RiskAnalysisService {
      * When null or an empty array of organization ids is passed, 
      * the risk analysis is run on all organizations in the database. 
      * Running a risk analysis on all organizations might be a performance issue.
+     * If the configuration contains changed elements, only the scenarios and
+     * assets which depend on these elements are analyzed.
      * 
      * @param configuration Configuration details for the execution of a risk analysis.
      */
     void runRiskAnalysis(RiskAnalysisConfiguration configuration);
 
+    /**
+     * Runs an incremental risk analysis on an organization after elements
+     * were changed. Only the scenarios and assets which depend on the changed
+     * controls, threats, vulnerabilities, scenarios or assets are analyzed.
+     * 
+     * @param organizationDbId Database id of the organization of the changed elements
+     * @param changedElementDbIds Database ids of the changed elements
+     */
+    void runRiskAnalysis(Integer organizationDbId, Integer... changedElementDbIds);
+
 }
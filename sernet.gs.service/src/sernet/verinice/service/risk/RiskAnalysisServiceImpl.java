@@ -20,8 +20,10 @@
 package sernet.verinice.service.risk;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 
@@ -32,6 +34,7 @@ import sernet.verinice.interfaces.graph.IGraphElementLoader;
 import sernet.verinice.interfaces.graph.IGraphService;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
 import sernet.verinice.model.common.CnALink;
+import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.iso27k.Asset;
 import sernet.verinice.model.iso27k.Control;
 import sernet.verinice.model.iso27k.IncidentScenario;
@@ -109,11 +112,43 @@ public class RiskAnalysisServiceImpl implements RiskAnalysisService {
 
         RiskAnalysisJob job = new RiskAnalysisJob(graph, getCnaLinkDao());
         configureRiskCalculator(job);
-        job.runRiskAnalysis();
+        if (configuration.isIncremental()) {
+            job.runRiskAnalysis(getChangedElements(graph, configuration.getChangedElementDbIds()));
+        } else {
+            job.runRiskAnalysis();
+        }
 
         logRuntime("runRiskAnalysis() runtime : ", time);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * sernet.verinice.service.risk.RiskAnalysisService#runRiskAnalysis(java.
+     * lang.Integer, java.lang.Integer[])
+     */
+    @Override
+    public void runRiskAnalysis(Integer organizationDbId, Integer... changedElementDbIds) {
+        RiskAnalysisConfiguration configuration = new RiskAnalysisConfiguration(
+                organizationDbId);
+        configuration.setChangedElementDbIds(changedElementDbIds);
+        runRiskAnalysis(configuration);
+    }
+
+    private List<CnATreeElement> getChangedElements(VeriniceGraph graph, Integer[] dbIds) {
+        List<CnATreeElement> changedElements = new ArrayList<>(dbIds.length);
+        for (Integer dbId : dbIds) {
+            CnATreeElement element = graph.getElement(dbId);
+            if (element != null) {
+                changedElements.add(element);
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debug("Changed element is not part of the risk analysis, db id: " + dbId);
+            }
+        }
+        return changedElements;
+    }
+
     private void configureRiskCalculator(RiskAnalysisJob job) {
         if (LOG.isInfoEnabled()) {
             LOG.info("Risk calculation method is: " + riskCalculationMethod);
@@ -141,7 +176,9 @@ public class RiskAnalysisServiceImpl implements RiskAnalysisService {
         }
         loader.setTypeIds(new String[] { Asset.TYPE_ID, IncidentScenario.TYPE_ID, Control.TYPE_ID,
                 Threat.TYPE_ID, Vulnerability.TYPE_ID });
-        return getGraphService().create(Collections.singletonList(loader));
+        // Elements are loaded when the job reads them
+        return getGraphService().createCompactGraph(Collections.singletonList(loader), null, true,
+                false);
     }
 
     public RiskCalculationMethod getRiskCalculationMethod() {
@@ -50,6 +50,12 @@ public interface IVeriniceArchive extends VnaSchemaChecker {
 
     void setSyncData(SyncData syncData);
 
+    /**
+     * Returns a reader to stream the sync data of the archive or null if the
+     * sync data is not read from XML.
+     */
+    SyncDataReader getSyncDataReader();
+
     String getTempDirName();
 
     InputStream getFileData(String fileName);
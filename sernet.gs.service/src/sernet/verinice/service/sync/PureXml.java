@@ -22,11 +22,11 @@ package sernet.verinice.service.sync;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Set;
 
-import javax.xml.bind.JAXB;
-
-import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 import de.sernet.sync.data.SyncData;
@@ -46,6 +46,8 @@ public class PureXml implements IVeriniceArchive {
 
     private byte[] veriniceXml;
 
+    private Path veriniceXmlFile;
+
     private String sourceId;
 
     private SyncData syncData;
@@ -60,8 +62,13 @@ public class PureXml implements IVeriniceArchive {
 
     private Exception error;
 
+    /**
+     * Copies the XML to a temporary file, which is deleted by
+     * {@link #clear()}.
+     */
     public PureXml(InputStream is) throws IOException {
-        veriniceXml = IOUtils.toByteArray(is);
+        veriniceXmlFile = Files.createTempFile("verinice-import", ".xml");
+        Files.copy(is, veriniceXmlFile, StandardCopyOption.REPLACE_EXISTING);
     }
 
     public PureXml() {
@@ -72,7 +79,22 @@ public class PureXml implements IVeriniceArchive {
      */
     @Override
     public InputStream getVeriniceXml() {
-        return new ByteArrayInputStream(veriniceXml);
+        if (veriniceXmlFile != null) {
+            try {
+                return Files.newInputStream(veriniceXmlFile);
+            } catch (IOException e) {
+                throw new VeriniceArchiveNotValidException(e);
+            }
+        }
+        return (veriniceXml != null) ? new ByteArrayInputStream(veriniceXml) : null;
+    }
+
+    /**
+     * Returns true if this instance was created from XML and not from an
+     * already unmarshalled {@link SyncRequest}.
+     */
+    protected boolean hasVeriniceXml() {
+        return veriniceXmlFile != null || veriniceXml != null;
     }
 
     public void setVeriniceXml(byte[] veriniceXml) {
@@ -94,8 +116,8 @@ public class PureXml implements IVeriniceArchive {
 
     @Override
     public SyncData getSyncData() {
-        if (syncData == null) {
-            unmarshal();
+        if (syncData == null && hasVeriniceXml()) {
+            syncData = createSyncDataReader().readSyncData();
         }
         return syncData;
     }
@@ -118,10 +140,27 @@ public class PureXml implements IVeriniceArchive {
         this.syncMapping = syncMapping;
     }
 
+    /*
+     * @see sernet.verinice.service.sync.IVeriniceArchive#getSyncDataReader()
+     */
+    @Override
+    public SyncDataReader getSyncDataReader() {
+        if (syncData != null || !hasVeriniceXml()) {
+            return null;
+        }
+        return createSyncDataReader();
+    }
+
+    private SyncDataReader createSyncDataReader() {
+        return new SyncDataReader(this::getVeriniceXml);
+    }
+
     private void unmarshal() {
-        syncRequest = JAXB.unmarshal(getVeriniceXml(), SyncRequest.class);
+        if (!hasVeriniceXml()) {
+            return;
+        }
+        syncRequest = createSyncDataReader().readHeader();
         sourceId = syncRequest.getSourceId();
-        syncData = syncRequest.getSyncData();
         syncMapping = syncRequest.getSyncMapping();
     }
 
@@ -139,8 +178,13 @@ public class PureXml implements IVeriniceArchive {
      */
     @Override
     public void clear() {
-        // TODO Auto-generated method stub
-
+        if (veriniceXmlFile != null) {
+            try {
+                Files.deleteIfExists(veriniceXmlFile);
+            } catch (IOException e) {
+                LOG.error("Error while deleting temporary XML file.", e);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.sync;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.log4j.Logger;
+
+import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.sync.SyncRequest;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+
+/**
+ * Reads the content of a verinice.xml file with a StAX parser.
+ *
+ * Unmarshalling the whole file with JAXB needs memory for the complete object
+ * tree of the file. This reader unmarshals one top-level
+ * <code>syncObject</code> or <code>syncLink</code> at a time. Every read
+ * method opens a new stream from the stream supplier and parses the file
+ * again.
+ */
+public class SyncDataReader {
+
+    private static final Logger LOG = Logger.getLogger(SyncDataReader.class);
+
+    private static final String SYNC_DATA = "syncData";
+    private static final String SYNC_MAPPING = "syncMapping";
+    private static final String SYNC_VNA_SCHEMA_VERSION = "syncVnaSchemaVersion";
+    private static final String SYNC_OBJECT = "syncObject";
+    private static final String SYNC_LINK = "syncLink";
+    private static final String SOURCE_ID = "sourceId";
+    private static final String INSERT = "insert";
+    private static final String UPDATE = "update";
+    private static final String DELETE = "delete";
+
+    /**
+     * Depth of the elements below syncRequest, e.g. syncData
+     */
+    private static final int REQUEST_CHILD_DEPTH = 2;
+
+    /**
+     * Depth of the elements below syncData, e.g. syncObject
+     */
+    private static final int DATA_CHILD_DEPTH = 3;
+
+    private static JAXBContext context;
+
+    private final Supplier<InputStream> xmlSupplier;
+
+    /**
+     * @param xmlSupplier
+     *            Returns a new stream of the verinice.xml file every time it
+     *            is called
+     */
+    public SyncDataReader(Supplier<InputStream> xmlSupplier) {
+        this.xmlSupplier = xmlSupplier;
+    }
+
+    /**
+     * Reads the attributes of the syncRequest, the syncMapping and the
+     * syncVnaSchemaVersion. The content of syncData is skipped,
+     * {@link SyncRequest#getSyncData()} of the returned request is null.
+     */
+    public SyncRequest readHeader() {
+        SyncRequest syncRequest = new SyncRequest();
+        try (InputStream is = xmlSupplier.get()) {
+            XMLStreamReader reader = createXmlStreamReader(is);
+            try {
+                Unmarshaller unmarshaller = getContext().createUnmarshaller();
+                int depth = 0;
+                while (reader.hasNext()) {
+                    int event = reader.getEventType();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        String name = reader.getLocalName();
+                        if (depth == 1) {
+                            readRequestAttributes(reader, syncRequest);
+                        } else if (depth == REQUEST_CHILD_DEPTH && SYNC_MAPPING.equals(name)) {
+                            syncRequest.setSyncMapping(
+                                    unmarshaller.unmarshal(reader, SyncMapping.class).getValue());
+                            depth--;
+                            continue;
+                        } else if (depth == REQUEST_CHILD_DEPTH
+                                && SYNC_VNA_SCHEMA_VERSION.equals(name)) {
+                            syncRequest.setSyncVnaSchemaVersion(unmarshaller
+                                    .unmarshal(reader, SyncVnaSchemaVersion.class).getValue());
+                            depth--;
+                            continue;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    }
+                    reader.next();
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException | JAXBException e) {
+            throw new VeriniceArchiveNotValidException(e);
+        }
+        return syncRequest;
+    }
+
+    /**
+     * Returns an iterator over the top-level syncObjects of the syncData
+     * element. The children of a syncObject are returned with their parent.
+     * The iterator must be closed after use.
+     */
+    public SyncElementIterator<SyncObject> readSyncObjects() {
+        return new SyncElementIterator<>(SYNC_OBJECT, SyncObject.class);
+    }
+
+    /**
+     * Returns an iterator over the syncLinks of the syncData element. The
+     * iterator must be closed after use.
+     */
+    public SyncElementIterator<SyncLink> readSyncLinks() {
+        return new SyncElementIterator<>(SYNC_LINK, SyncLink.class);
+    }
+
+    /**
+     * Returns the external ids of all dependants and dependencies of the
+     * syncLinks.
+     */
+    public Set<String> readLinkedExtIds() {
+        Set<String> extIds = new HashSet<>();
+        try (SyncElementIterator<SyncLink> links = readSyncLinks()) {
+            while (links.hasNext()) {
+                SyncLink link = links.next();
+                extIds.add(link.getDependant());
+                extIds.add(link.getDependency());
+            }
+        }
+        return extIds;
+    }
+
+    /**
+     * Reads the complete syncData element. This needs as much memory as
+     * unmarshalling the whole file, use the iterators if possible.
+     */
+    public SyncData readSyncData() {
+        SyncData syncData = new SyncData();
+        try (SyncElementIterator<SyncObject> objects = readSyncObjects()) {
+            objects.forEachRemaining(syncData.getSyncObject()::add);
+        }
+        try (SyncElementIterator<SyncLink> links = readSyncLinks()) {
+            links.forEachRemaining(syncData.getSyncLink()::add);
+        }
+        return syncData;
+    }
+
+    private static void readRequestAttributes(XMLStreamReader reader, SyncRequest syncRequest) {
+        syncRequest.setSourceId(reader.getAttributeValue(null, SOURCE_ID));
+        syncRequest.setInsert(readBoolean(reader, INSERT));
+        syncRequest.setUpdate(readBoolean(reader, UPDATE));
+        syncRequest.setDelete(readBoolean(reader, DELETE));
+    }
+
+    private static Boolean readBoolean(XMLStreamReader reader, String attribute) {
+        String value = reader.getAttributeValue(null, attribute);
+        return (value != null) ? Boolean.valueOf(value.trim()) : null;
+    }
+
+    private static XMLStreamReader createXmlStreamReader(InputStream is)
+            throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(is);
+    }
+
+    private static synchronized JAXBContext getContext() throws JAXBException {
+        if (context == null) {
+            context = JAXBContext.newInstance(SyncRequest.class);
+        }
+        return context;
+    }
+
+    /**
+     * Iterates over the child elements of syncData with a given name.
+     * Parsing stops at the end of the syncData element.
+     */
+    public final class SyncElementIterator<T> implements Iterator<T>, Closeable {
+
+        private final String elementName;
+        private final Class<T> type;
+        private final InputStream is;
+        private final XMLStreamReader reader;
+        private final Unmarshaller unmarshaller;
+        private int depth = 0;
+        private boolean inSyncData = false;
+        private boolean finished = false;
+        private T next;
+
+        private SyncElementIterator(String elementName, Class<T> type) {
+            this.elementName = elementName;
+            this.type = type;
+            this.is = xmlSupplier.get();
+            try {
+                this.reader = createXmlStreamReader(is);
+                this.unmarshaller = getContext().createUnmarshaller();
+            } catch (XMLStreamException | JAXBException e) {
+                close();
+                throw new VeriniceArchiveNotValidException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = readNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T current = next;
+            next = null;
+            return current;
+        }
+
+        private T readNext() {
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.getEventType();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (depth == REQUEST_CHILD_DEPTH) {
+                            inSyncData = SYNC_DATA.equals(reader.getLocalName());
+                        } else if (inSyncData && depth == DATA_CHILD_DEPTH
+                                && elementName.equals(reader.getLocalName())) {
+                            // the unmarshaller moves the reader behind the
+                            // end of the element
+                            depth--;
+                            return unmarshaller.unmarshal(reader, type).getValue();
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (inSyncData && depth == REQUEST_CHILD_DEPTH) {
+                            break;
+                        }
+                        depth--;
+                    }
+                    reader.next();
+                }
+            } catch (XMLStreamException | JAXBException e) {
+                throw new VeriniceArchiveNotValidException(e);
+            }
+            finished = true;
+            return null;
+        }
+
+        @Override
+        public void close() {
+            finished = true;
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                LOG.warn("Error while closing XML reader", e);
+            }
+            try {
+                is.close();
+            } catch (IOException e) {
+                LOG.warn("Error while closing XML stream", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.sync;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import de.sernet.sync.data.SyncAttribute;
+import de.sernet.sync.data.SyncFile;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.sync.SyncRequest;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.gs.service.VeriniceCharset;
+
+/**
+ * Writes a verinice.xml file with a StAX writer.
+ *
+ * The syncObjects and syncLinks are marshalled one at a time, so there is no
+ * need to create the complete {@link SyncRequest} in memory. Call
+ * {@link #writeStart(String)} first, then write the objects and links and
+ * finish the document with {@link #writeEnd(SyncMapping, SyncVnaSchemaVersion)}.
+ * Closing the writer does not close the output stream.
+ *
+ * An object can be written without its children by
+ * {@link #startSyncObject(SyncObject)} and {@link #endSyncObject(SyncObject)}.
+ * Objects started in between are written as children of the object.
+ */
+public class SyncDataWriter implements Closeable {
+
+    public static final String NAMESPACE_DATA = "http://www.sernet.de/sync/data";
+    public static final String NAMESPACE_MAPPING = "http://www.sernet.de/sync/mapping";
+    public static final String NAMESPACE_SYNC = "http://www.sernet.de/sync/sync";
+
+    private static final QName SYNC_OBJECT = new QName(NAMESPACE_DATA, "syncObject");
+    private static final QName CHILDREN = new QName(NAMESPACE_DATA, "children");
+    private static final QName SYNC_ATTRIBUTE = new QName(NAMESPACE_DATA, "syncAttribute");
+    private static final QName FILE = new QName(NAMESPACE_DATA, "file");
+    private static final QName SYNC_LINK = new QName(NAMESPACE_DATA, "syncLink");
+    private static final QName SYNC_MAPPING = new QName(NAMESPACE_MAPPING, "syncMapping");
+    private static final QName SYNC_VNA_SCHEMA_VERSION = new QName(NAMESPACE_SYNC,
+            "syncVnaSchemaVersion");
+
+    private static JAXBContext context;
+
+    private final XMLStreamWriter writer;
+
+    private final Marshaller marshaller;
+
+    private int depth = 0;
+
+    public SyncDataWriter(OutputStream out) {
+        try {
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out,
+                    VeriniceCharset.CHARSET_UTF_8.name());
+            marshaller = getContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        } catch (XMLStreamException | JAXBException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    /**
+     * Writes the start of the document up to the opening syncData element.
+     */
+    public void writeStart(String sourceId) {
+        try {
+            writer.writeStartDocument(VeriniceCharset.CHARSET_UTF_8.name(), "1.0");
+            writer.setDefaultNamespace(NAMESPACE_DATA);
+            writer.setPrefix("ns2", NAMESPACE_MAPPING);
+            writer.setPrefix("ns3", NAMESPACE_SYNC);
+            writer.writeStartElement(NAMESPACE_SYNC, "syncRequest");
+            writer.writeDefaultNamespace(NAMESPACE_DATA);
+            writer.writeNamespace("ns2", NAMESPACE_MAPPING);
+            writer.writeNamespace("ns3", NAMESPACE_SYNC);
+            writer.writeAttribute("sourceId", sourceId);
+            writer.writeStartElement(NAMESPACE_DATA, "syncData");
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    /**
+     * Writes a syncObject with all its children.
+     */
+    public void writeSyncObject(SyncObject syncObject) {
+        marshal(new JAXBElement<>(getSyncObjectName(), SyncObject.class, syncObject));
+    }
+
+    /**
+     * Writes the start tag and the attributes of a syncObject, but not its
+     * children and files.
+     */
+    public void startSyncObject(SyncObject syncObject) {
+        try {
+            QName name = getSyncObjectName();
+            writer.writeStartElement(name.getNamespaceURI(), name.getLocalPart());
+            depth++;
+            for (SyncAttribute syncAttribute : syncObject.getSyncAttribute()) {
+                marshal(new JAXBElement<>(SYNC_ATTRIBUTE, SyncAttribute.class, syncAttribute));
+            }
+            writeTextElement("extId", syncObject.getExtId());
+            writeTextElement("extObjectType", syncObject.getExtObjectType());
+            writeTextElement("icon", syncObject.getIcon());
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    /**
+     * Writes the children and the files of a syncObject and the end tag. Call
+     * this after all children were written.
+     */
+    public void endSyncObject(SyncObject syncObject) {
+        try {
+            for (SyncObject child : syncObject.getChildren()) {
+                marshal(new JAXBElement<>(CHILDREN, SyncObject.class, child));
+            }
+            for (SyncFile file : syncObject.getFile()) {
+                marshal(new JAXBElement<>(FILE, SyncFile.class, file));
+            }
+            depth--;
+            writer.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    private QName getSyncObjectName() {
+        return (depth == 0) ? SYNC_OBJECT : CHILDREN;
+    }
+
+    private void writeTextElement(String localName, String text) throws XMLStreamException {
+        if (text != null) {
+            writer.writeStartElement(NAMESPACE_DATA, localName);
+            writer.writeCharacters(text);
+            writer.writeEndElement();
+        }
+    }
+
+    public void writeSyncLink(SyncLink syncLink) {
+        marshal(new JAXBElement<>(SYNC_LINK, SyncLink.class, syncLink));
+    }
+
+    /**
+     * Closes the syncData element, writes the mapping and the schema version
+     * and ends the document.
+     */
+    public void writeEnd(SyncMapping syncMapping, SyncVnaSchemaVersion schemaVersion) {
+        try {
+            writer.writeEndElement();
+            marshal(new JAXBElement<>(SYNC_MAPPING, SyncMapping.class, syncMapping));
+            marshal(new JAXBElement<>(SYNC_VNA_SCHEMA_VERSION, SyncVnaSchemaVersion.class,
+                    schemaVersion));
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    private void marshal(JAXBElement<?> element) {
+        try {
+            marshaller.marshal(element, writer);
+        } catch (JAXBException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    private static synchronized JAXBContext getContext() throws JAXBException {
+        if (context == null) {
+            context = JAXBContext.newInstance(SyncRequest.class);
+        }
+        return context;
+    }
+}
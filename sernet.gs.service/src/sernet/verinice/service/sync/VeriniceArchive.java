@@ -186,6 +186,14 @@ public class VeriniceArchive extends PureXml implements IVeriniceArchive {
         return getFileData(VERINICE_XML);
     }
 
+    /*
+     * @see sernet.verinice.service.sync.PureXml#hasVeriniceXml()
+     */
+    @Override
+    protected boolean hasVeriniceXml() {
+        return Files.exists(getFullPath(VERINICE_XML));
+    }
+
     /*
      * @see sernet.verinice.service.sync.IVeriniceArchive#getRiskAnalysisXml()
      */
@@ -29,6 +29,7 @@ import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
 import net.sf.ehcache.Statistics;
 import net.sf.ehcache.Status;
+import sernet.gs.service.Retriever;
 import sernet.verinice.model.common.CnATreeElement;
 
 /**
@@ -186,16 +187,22 @@ public class ElementCache {
             CacheObject cacheObjectParent = getCachedObject(oldParent);
             if(cacheObjectParent!=null) {
                 oldParent = cacheObjectParent.getElement();
-                boolean exists = oldParent.getChildren().remove(element);
-                if (exists && LOG.isDebugEnabled()) {
-                    LOG.debug("Element removed from parent child set in cache...");
-                }              
+                if(Retriever.areChildrenInitialized(oldParent)) {
+                    boolean exists = oldParent.getChildren().remove(element);
+                    if (exists && LOG.isDebugEnabled()) {
+                        LOG.debug("Element removed from parent child set in cache...");
+                    }
+                    // update children flag of the parent
+                    addObject(new CacheObject(oldParent, cacheObjectParent.isChildrenPropertiesLoaded()));
+                }
             }
         } else {            
             List<String> keys = getCache().getKeys();
             for (String key : keys) {
                 cacheObject = (CacheObject) getCache().get(key).getObjectValue();
-                cacheObject.getElement().getChildren().remove(element);
+                if(Retriever.areChildrenInitialized(cacheObject.getElement())) {
+                    cacheObject.getElement().getChildren().remove(element);
+                }
             }
         }
     }
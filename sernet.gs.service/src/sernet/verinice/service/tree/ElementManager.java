@@ -27,6 +27,7 @@ import java.util.Set;
 import org.apache.log4j.Logger;
 
 import sernet.gs.service.RetrieveInfo;
+import sernet.gs.service.Retriever;
 import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.ICommandService;
@@ -284,6 +285,12 @@ public class ElementManager {
         CacheObject cachObjectParent = cache.getCachedObject(element.getParent());
         if (cachObjectParent != null) {
             CnATreeElement parentFromCache = cachObjectParent.getElement();
+            if (!Retriever.areChildrenInitialized(parentFromCache)) {
+                // children are loaded when the parent is expanded, only the
+                // children flag of the parent is updated
+                cache.addObject(new CacheObject(parentFromCache, false, ChildrenExist.YES));
+                return;
+            }
             boolean exists = parentFromCache.getChildren().remove(element);
             if (exists && LOG.isDebugEnabled()) {
                 LOG.debug("Old element removed from parent child set in cache...");
@@ -309,9 +316,11 @@ public class ElementManager {
      * <li>Entity and properties</li>
      * <li>Children</li>
      * <li>Children-entity and children-properties</li>
-     * <li>Grandchildren (children of the children)</li>
      * </ul>
      * 
+     * Grandchildren are not loaded, {@link LoadTreeItem} determines which
+     * children have children.
+     * 
      * @param element
      *            A CnATreeElement
      * @return Element with initialized children and children properties
@@ -320,7 +329,7 @@ public class ElementManager {
      */
     public CnATreeElement loadElementWithChildren(CnATreeElement element) throws CommandException {
         RetrieveInfo ri = new RetrieveInfo();
-        ri.setChildren(true).setChildrenProperties(true).setGrandchildren(true);
+        ri.setChildren(true).setChildrenProperties(true);
         if (cache.getCachedObject(element) == null) {
             // no element found in cache, load properties AND children
             ri.setProperties(true);
@@ -15,42 +15,79 @@
  * Contributors:
  *     Alexander Koderman <ak[at]sernet[dot]de> - initial API and implementation
  *     Robert Schuster <r.schuster@tarent.de> - do not execute when internal server is used
+ *     SerNet Service Network GmbH - wait for changes pushed by the server
  ******************************************************************************/
 package sernet.gs.ui.rcp.main.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.springframework.remoting.RemoteAccessException;
 
 import sernet.gs.ui.rcp.main.Activator;
 import sernet.gs.ui.rcp.main.common.model.CnAElementFactory;
+import sernet.springclient.HttpStatusException;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IChangeNotificationService;
 import sernet.verinice.interfaces.ICommandService;
+import sernet.verinice.model.common.ChangeEvent;
+import sernet.verinice.model.common.ChangeEvents;
 import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.rcp.Preferences;
 import sernet.verinice.service.commands.task.GetChangesSince;
+import sernet.verinice.service.commands.task.LoadChangedElements;
 
 /**
- * Check transaction log on server for changes and notify listeners. Should be
- * called by a timer or by an event pushed from server.
+ * Waits for changes pushed by the server and notifies listeners. Should be
+ * called repeatedly by a timer, each call waits on the server until changes
+ * happen or the server side timeout expires.
+ * 
+ * Only changes of the scopes loaded in the models of the client are pushed.
+ * If the server does not provide the {@link IChangeNotificationService} the
+ * transaction log is polled with {@link GetChangesSince}. If waiting for
+ * changes fails for other reasons, it is retried with an increasing delay.
  * 
  * @author koderman[at]sernet[dot]de
  * @version $Rev$ $LastChangedDate$ $LastChangedBy$
  * 
  */
-// TODO server: implement server-side push of events (beacon service)
 public class TransactionLogWatcher {
 
     private final Logger log = Logger.getLogger(TransactionLogWatcher.class);
 
+    private static final long DEFAULT_POLL_INTERVAL = 15000;
+
+    private static final long MIN_RETRY_DELAY = 1000;
+
+    private static final long MAX_RETRY_DELAY = 5 * 60 * 1000L;
+
     private Date lastChecked = null;
 
+    private long lastEventId = ChangeEvents.NO_EVENT;
+
+    private boolean pushAvailable = true;
+
+    private long lastPoll = 0;
+
+    private long retryDelay = 0;
+
+    private long nextPushAttempt = 0;
+
     /** ICommandService instance is injected by Spring. */
     private ICommandService commandService;
 
+    /** IChangeNotificationService instance is injected by Spring. */
+    private IChangeNotificationService changeNotificationService;
+
+    private long pollInterval = DEFAULT_POLL_INTERVAL;
+
     public void checkLog() {
         Activator.inheritVeriniceContextState();
 
@@ -64,6 +101,78 @@ public class TransactionLogWatcher {
             return;
         }
 
+        if (changeNotificationService != null && pushAvailable) {
+            if (System.currentTimeMillis() >= nextPushAttempt) {
+                waitForChanges();
+            }
+        } else {
+            long now = System.currentTimeMillis();
+            if (now - lastPoll >= pollInterval) {
+                lastPoll = now;
+                pollLog();
+            }
+        }
+    }
+
+    private void waitForChanges() {
+        try {
+            ChangeEvents result = changeNotificationService.waitForChanges(lastEventId,
+                    ChangeLogEntry.STATION_ID, getOpenScopeIds());
+            lastEventId = result.getLastEventId();
+            retryDelay = 0;
+            if (!result.isComplete()) {
+                log.warn("Change events are no longer available on the server, reloading models.");
+                CnAElementFactory.getInstance().reloadAllModelsFromDatabase();
+                return;
+            }
+            List<ChangeEvent> events = result.getEvents();
+            if (events.isEmpty()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("No changes");
+                }
+            } else {
+                process(events);
+            }
+        } catch (RemoteAccessException e) {
+            if (HttpStatusException.isNotFound(e)) {
+                log.warn("Server does not push changes, polling the transaction log from now on.",
+                        e);
+                pushAvailable = false;
+            } else {
+                retryDelay = Math.min(Math.max(MIN_RETRY_DELAY, retryDelay * 2), MAX_RETRY_DELAY);
+                nextPushAttempt = System.currentTimeMillis() + retryDelay;
+                log.warn("Error while waiting for changes, retrying in " + retryDelay + " ms.", e);
+            }
+        } catch (CommandException e) {
+            log.error("Error while loading changed elements.", e);
+        }
+    }
+
+    private void process(List<ChangeEvent> events) throws CommandException {
+        Set<Integer> dbIds = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.getElementId() != null && event.getChange() != ChangeLogEntry.TYPE_DELETE) {
+                dbIds.add(event.getElementId());
+            }
+        }
+        Map<Integer, CnATreeElement> changedElements = Collections.emptyMap();
+        if (!dbIds.isEmpty()) {
+            LoadChangedElements command = new LoadChangedElements(dbIds);
+            command = commandService.executeCommand(command);
+            changedElements = command.getChangedElements();
+        }
+        Set<Integer> permissionChanges = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.getChange() == ChangeLogEntry.TYPE_PERMISSION
+                    && !permissionChanges.add(event.getElementId())) {
+                // subtree is already invalidated
+                continue;
+            }
+            process(event.toChangeLogEntry(), changedElements.get(event.getElementId()));
+        }
+    }
+
+    private void pollLog() {
         try {
             GetChangesSince command = new GetChangesSince(lastChecked, ChangeLogEntry.STATION_ID);
             command = commandService.executeCommand(command);
@@ -79,7 +188,13 @@ public class TransactionLogWatcher {
                 for (ChangeLogEntry changeLogEntry : entries) {
                     Integer elementId = changeLogEntry.getElementId();
                     CnATreeElement changedElement = command.getChangedElements().get(elementId);
-                    process(changeLogEntry, changedElement);
+                    if (changeLogEntry.getChange() == ChangeLogEntry.TYPE_PERMISSION) {
+                        // elements loaded by GetChangesSince are not access
+                        // controlled
+                        CnAElementFactory.getInstance().reloadAllModelsFromDatabase();
+                    } else {
+                        process(changeLogEntry, changedElement);
+                    }
                 }
             }
 
@@ -88,6 +203,43 @@ public class TransactionLogWatcher {
         }
     }
 
+    /**
+     * Returns the database ids of the scopes of the loaded models or null if
+     * the models contain import groups. The scopes in import groups are not
+     * loaded, changes of all scopes are returned in this case.
+     */
+    private Set<Integer> getOpenScopeIds() {
+        List<CnATreeElement> models = new ArrayList<>(3);
+        if (CnAElementFactory.isModelLoaded()) {
+            models.add(CnAElementFactory.getLoadedModel());
+        }
+        if (CnAElementFactory.isIsoModelLoaded()) {
+            models.add(CnAElementFactory.getInstance().getISO27kModel());
+        }
+        if (CnAElementFactory.isBpModelLoaded()) {
+            models.add(CnAElementFactory.getInstance().getBpModel());
+        }
+        Set<Integer> scopeIds = new HashSet<>();
+        for (CnATreeElement model : models) {
+            for (CnATreeElement child : model.getChildren()) {
+                if (!child.isScope()) {
+                    return null;
+                }
+                scopeIds.add(child.getDbId());
+            }
+        }
+        if (CnAElementFactory.isModernizedBpCatalogLoaded()) {
+            for (CnATreeElement child : CnAElementFactory.getInstance().getCatalogModel()
+                    .getChildren()) {
+                scopeIds.add(child.getDbId());
+                if (child.getScopeId() != null) {
+                    scopeIds.add(child.getScopeId());
+                }
+            }
+        }
+        return scopeIds;
+    }
+
     /**
      * @param changeLogEntry
      * @param changedElement
@@ -104,7 +256,9 @@ public class TransactionLogWatcher {
 
         switch (changetype) {
         case ChangeLogEntry.TYPE_UPDATE:
-            CnAElementFactory.getModel(changedElement).databaseChildChanged(changedElement);
+            if (changedElement != null) {
+                CnAElementFactory.getModel(changedElement).databaseChildChanged(changedElement);
+            }
             break;
 
         case ChangeLogEntry.TYPE_INSERT:
@@ -128,9 +282,16 @@ public class TransactionLogWatcher {
             break;
         case ChangeLogEntry.TYPE_PERMISSION:
             // Changes to the permissions are potentially disruptive (items may
-            // be invisible now etc). As such reload everything.
-
-            CnAElementFactory.getInstance().reloadAllModelsFromDatabase();
+            // be invisible now etc). The element is removed and added again,
+            // the children of its subtree are reloaded when they are shown.
+            if (changedElement == null) {
+                // element is no longer readable
+                CnAElementFactory.databaseChildRemoved(changeLogEntry);
+            } else {
+                CnATreeElement model = CnAElementFactory.getModel(changedElement);
+                model.databaseChildRemoved(changedElement);
+                model.childAdded(changedElement.getParent(), changedElement);
+            }
             break;
         default:
             // ignore (but debug) other change types
@@ -150,4 +311,21 @@ public class TransactionLogWatcher {
         return commandService;
     }
 
+    public void setChangeNotificationService(
+            IChangeNotificationService changeNotificationService) {
+        this.changeNotificationService = changeNotificationService;
+    }
+
+    public IChangeNotificationService getChangeNotificationService() {
+        return changeNotificationService;
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
 }
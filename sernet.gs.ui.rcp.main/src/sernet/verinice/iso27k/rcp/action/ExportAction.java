@@ -18,7 +18,10 @@
 
 package sernet.verinice.iso27k.rcp.action;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -61,6 +64,7 @@ import sernet.verinice.iso27k.rcp.Mutex;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.rcp.RightsEnabledActionDelegate;
 import sernet.verinice.service.commands.ExportCommand;
+import sernet.verinice.service.commands.LoadExportResult;
 
 /**
  * Eclipse ActionDelegate which is called to import XML or VNA data. Rights
@@ -177,8 +181,16 @@ public class ExportAction extends RightsEnabledActionDelegate implements IViewAc
                 boolean exportRiskAnalysis = Activator.getDefault().getPreferenceStore()
                         .getBoolean(PreferenceConstants.EXPORT_RISK_ANALYSIS);
                 exportCommand.setExportRiskAnalysis(exportRiskAnalysis);
+                // the encryption needs the complete file in memory
+                exportCommand.setKeepResultOnServer(!isEncryption());
                 exportCommand = ServiceFactory.lookupCommandService().executeCommand(exportCommand);
-                if (exportCommand.getResult() != null) {
+                if (exportCommand.getResultId() != null) {
+                    try (OutputStream out = new BufferedOutputStream(
+                            new FileOutputStream(filePath))) {
+                        LoadExportResult.download(ServiceFactory.lookupCommandService(),
+                                exportCommand.getResultId(), out);
+                    }
+                } else if (exportCommand.getResult() != null) {
                     if (isEncryption()) {
                         String salt = RandomStringUtils
                                 .random(IEncryptionService.CRYPTO_SALT_DEFAULT_LENGTH, true, true);
@@ -19,14 +19,16 @@
  ******************************************************************************/
 package sernet.verinice.rcp;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -51,6 +53,7 @@ import sernet.verinice.iso27k.rcp.JobScheduler;
 import sernet.verinice.iso27k.rcp.Mutex;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.commands.ExportCommand;
+import sernet.verinice.service.commands.LoadExportResult;
 import sernet.verinice.service.commands.SyncParameter;
 import sernet.verinice.service.sync.VeriniceArchive;
 
@@ -149,8 +152,13 @@ public class ServerConnectionToggleAction extends RightsEnabledAction {
         }
         Activator.inheritVeriniceContextState();
         ExportCommand exportCommand = new ExportCommand(elementList, sourceId, true, SyncParameter.EXPORT_FORMAT_VERINICE_ARCHIV);
+        exportCommand.setKeepResultOnServer(true);
         exportCommand = ServiceFactory.lookupCommandService().executeCommand(exportCommand);
-        FileUtils.writeByteArrayToFile(new File(createFilePath(i)), exportCommand.getResult());      
+        try (OutputStream out = new BufferedOutputStream(
+                new FileOutputStream(createFilePath(i)))) {
+            LoadExportResult.download(ServiceFactory.lookupCommandService(),
+                    exportCommand.getResultId(), out);
+        }
     }
 
     /**
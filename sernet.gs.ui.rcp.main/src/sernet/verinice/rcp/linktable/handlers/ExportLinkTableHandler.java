@@ -22,8 +22,6 @@ package sernet.verinice.rcp.linktable.handlers;
 import static sernet.verinice.rcp.linktable.LinkTableUtil.createCsvFilePath;
 import static sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO.createLinkTableConfiguration;
 
-import java.util.List;
-
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.jface.dialogs.MessageDialog;
@@ -44,6 +42,7 @@ import sernet.verinice.rcp.linktable.Messages;
 import sernet.verinice.service.csv.CsvExport;
 import sernet.verinice.service.csv.ICsvExport;
 import sernet.verinice.service.linktable.ILinkTableConfiguration;
+import sernet.verinice.service.linktable.ILinkTableRowIterator;
 import sernet.verinice.service.linktable.LinkTableService;
 import sernet.verinice.service.linktable.LinkedTableCreator;
 import sernet.verinice.service.linktable.generator.GraphLinkedTableCreator;
@@ -145,10 +144,11 @@ public class ExportLinkTableHandler extends RightsEnabledHandler {
 
                         ILinkTableConfiguration conf = createLinkTableConfiguration(
                                 veriniceLinkTable);
-                        List<List<String>> table = linkTableService.createTable(conf);
-
                         csvExportHandler.setFilePath(csvFilePath);
-                        csvExportHandler.exportToFile(csvExportHandler.convert(table));
+                        try (ILinkTableRowIterator rows = linkTableService
+                                .createRowIterator(conf)) {
+                            csvExportHandler.exportToFile(rows);
+                        }
                     }
                 }
             };
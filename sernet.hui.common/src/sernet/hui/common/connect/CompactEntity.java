@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *     This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *     You should have received a copy of the GNU Lesser General Public
+ * License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import sernet.hui.common.multiselectionlist.IMLPropertyOption;
+
+/**
+ * A read-only view of the property values of an entity for bulk read paths,
+ * e.g. reports which read the values of all elements of a type.
+ *
+ * In contrast to {@link Entity} there are no property lists and property
+ * objects. The values are stored in arrays which are indexed by the index of
+ * the property type in the entity type, see
+ * {@link EntityType#getPropertyTypeIndex(String)}. Values of option and date
+ * properties are decoded once when the view is created. Values of reference
+ * properties are resolved on first access.
+ *
+ * Values of properties which are not defined in SNCA.xml are ignored.
+ *
+ * Use {@link Builder} to create an instance.
+ */
+public final class CompactEntity implements IEntityValues, Serializable {
+
+    private static final long serialVersionUID = 8384736519625361472L;
+
+    private static final String SEPARATOR = ", ";
+
+    private static final String RAW_SEPARATOR = ",";
+
+    private final Integer dbId;
+
+    private final String entityTypeId;
+
+    // raw values by property type index, null if there is no value
+    private final String[][] rawValues;
+
+    // decoded values by property type index, null if there is no value or
+    // if the value of a reference property is not resolved yet
+    private final String[] values;
+
+    private transient EntityType entityType;
+
+    private CompactEntity(Integer dbId, EntityType entityType, String[][] rawValues) {
+        this.dbId = dbId;
+        this.entityTypeId = entityType.getId();
+        this.entityType = entityType;
+        this.rawValues = rawValues;
+        this.values = new String[rawValues.length];
+        for (int i = 0; i < rawValues.length; i++) {
+            PropertyType type = entityType.getPropertyType(i);
+            if (rawValues[i] != null && !type.isReference()) {
+                values[i] = decode(type, rawValues[i]);
+            }
+        }
+    }
+
+    /**
+     * @return The database id of the element of this entity
+     */
+    public Integer getDbId() {
+        return dbId;
+    }
+
+    @Override
+    public String getEntityType() {
+        return entityTypeId;
+    }
+
+    /**
+     * Returns the value of a property with the same formatting as
+     * {@link Entity#getPropertyValue(String)}.
+     */
+    @Override
+    public String getPropertyValue(String propertyTypeId) {
+        int index = getIndex(propertyTypeId);
+        if (index < 0 || rawValues[index] == null) {
+            return "";
+        }
+        String value = values[index];
+        if (value == null) {
+            value = resolveReferences(getType().getPropertyType(index), rawValues[index]);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * @see Entity#getRawPropertyValue(String)
+     */
+    @Override
+    public String getRawPropertyValue(String propertyTypeId) {
+        int index = getIndex(propertyTypeId);
+        if (index < 0 || rawValues[index] == null) {
+            return null;
+        }
+        String[] raw = rawValues[index];
+        if (raw.length == 1) {
+            return raw[0] != null ? raw[0] : "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < raw.length; i++) {
+            if (i > 0) {
+                sb.append(RAW_SEPARATOR);
+            }
+            if (raw[i] != null) {
+                sb.append(raw[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @see Entity#getNumericValue(String)
+     */
+    @Override
+    public Integer getNumericValue(String propertyTypeId) {
+        try {
+            return Integer.valueOf(getPropertyValue(propertyTypeId));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @see Entity#getInt(String)
+     */
+    @Override
+    public int getInt(String propertyTypeId) {
+        int index = getIndex(propertyTypeId);
+        if (index < 0 || rawValues[index] == null
+                || !getType().getPropertyType(index).isNumericSelect()) {
+            return Property.UNDEF;
+        }
+        try {
+            return Integer.parseInt(rawValues[index][0]);
+        } catch (NumberFormatException e) {
+            return Property.UNDEF;
+        }
+    }
+
+    private int getIndex(String propertyTypeId) {
+        return getType().getPropertyTypeIndex(propertyTypeId);
+    }
+
+    private EntityType getType() {
+        if (entityType == null) {
+            entityType = HUITypeFactory.getInstance().getEntityType(entityTypeId);
+        }
+        return entityType;
+    }
+
+    private static String decode(PropertyType type, String[] raw) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < raw.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            String value;
+            if (type.isSingleSelect() || type.isMultiselect()) {
+                PropertyOption option = type.getOption(raw[i]);
+                value = (option != null) ? option.getName() : "";
+            } else if (type.isDate()) {
+                value = Entity.formatDate(raw[i]);
+            } else {
+                value = raw[i];
+            }
+            if (value != null) {
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String resolveReferences(PropertyType type, String[] raw) {
+        List<Property> references = new ArrayList<>(raw.length);
+        for (String value : raw) {
+            Property property = new Property(null);
+            property.setPropertyType(type.getId());
+            property.setPropertyValue(value, false);
+            references.add(property);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (IMLPropertyOption referencedEntity : type.getReferencedEntities(references)) {
+            if (sb.length() > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(referencedEntity.getName());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Collects the property values of an entity and creates the
+     * {@link CompactEntity}. Values of a property must be added in the order
+     * of the property list.
+     */
+    public static final class Builder {
+
+        private final Integer dbId;
+
+        private final EntityType entityType;
+
+        private final String[][] rawValues;
+
+        /**
+         * @param dbId
+         *            The database id of the element
+         * @param entityType
+         *            The type of the entity
+         */
+        public Builder(Integer dbId, EntityType entityType) {
+            this.dbId = dbId;
+            this.entityType = entityType;
+            this.rawValues = new String[entityType.getNumberOfPropertyTypes()][];
+        }
+
+        /**
+         * Adds a value of a property. Values of property types which are not
+         * defined in the entity type are ignored.
+         */
+        public Builder add(String propertyTypeId, String value) {
+            int index = entityType.getPropertyTypeIndex(propertyTypeId);
+            if (index >= 0) {
+                String[] values = rawValues[index];
+                values = (values == null) ? new String[1]
+                        : Arrays.copyOf(values, values.length + 1);
+                values[values.length - 1] = Property.nfcNormalize(value);
+                rawValues[index] = values;
+            }
+            return this;
+        }
+
+        /**
+         * Creates the view with a copy of the values added so far. Values
+         * added to the builder afterwards do not change the view.
+         */
+        public CompactEntity build() {
+            return new CompactEntity(dbId, entityType, rawValues.clone());
+        }
+    }
+
+}
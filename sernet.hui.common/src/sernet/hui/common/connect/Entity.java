@@ -63,7 +63,7 @@ import sernet.snutils.Tester;
  * @author Daniel Murygin <dm[at]sernet[dot]d> Refactoring
  */
 @SuppressWarnings("serial")
-public class Entity implements ISelectOptionHandler, ITypedElement, Serializable {
+public class Entity implements ISelectOptionHandler, ITypedElement, IEntityValues, Serializable {
 
     public static final String TITLE = "ENTITY_";
     public static final String TYPE_ID = "huientity";
@@ -219,7 +219,6 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
                 propertyTypeId);
         PropertyList propertyList = typedPropertyLists.get(propertyTypeId);
         if (propertyType.isReference() || propertyType.isMultiselect()) {
-            typedPropertyLists.put(propertyTypeId, null);
             setMultiselectProperty(propertyTypeId, value);
         } else {
             if (propertyList != null) {
@@ -290,11 +289,25 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
         return (option != null) ? option.getName() : "";
     }
 
+    /**
+     * Sets the values of a multiselect or reference property. An existing
+     * property list is updated in place to avoid that all its rows are deleted
+     * and inserted again, see {@link PropertyList#replaceProperties(List)}.
+     */
     private void setMultiselectProperty(String propertyTypeId, String value) {
         String[] propertyOptions = value.split(",");
+        List<Property> properties = new ArrayList<>(propertyOptions.length);
         for (String propertyOptionValue : propertyOptions) {
             if (StringUtils.isNotEmpty(propertyOptionValue)) {
-                createNewProperty(propertyTypeId, propertyOptionValue);
+                properties.add(PropertyFactory.create(propertyTypeId, propertyOptionValue, this));
+            }
+        }
+        PropertyList propertyList = typedPropertyLists.get(propertyTypeId);
+        if (propertyList != null) {
+            propertyList.replaceProperties(properties);
+        } else {
+            for (Property property : properties) {
+                addProperty(property);
             }
         }
     }
@@ -314,17 +327,25 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
     }
 
     private String getValueOfDateProperty(Property property) {
+        return formatDate(property.getPropertyValue());
+    }
+
+    /**
+     * Formats the raw value of a date property.
+     *
+     * @return The formatted date or null if the value is empty or not a date
+     */
+    static String formatDate(String propertyValue) {
         String date = null;
-        String propertyValue = property.getPropertyValue();
         if (propertyValue == null) {
             return date;
         }
-        propertyValue = propertyValue.trim();
-        if (propertyValue.isEmpty()) {
+        String value = propertyValue.trim();
+        if (value.isEmpty()) {
             return date;
         }
         try {
-            date = FormInputParser.dateToString(new java.sql.Date(Long.parseLong(propertyValue)));
+            date = FormInputParser.dateToString(new java.sql.Date(Long.parseLong(value)));
         } catch (NumberFormatException | AssertException e) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Exception while getting the value of a date property", e);
@@ -603,17 +624,26 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
      * Copy all property values from given entity to this one. Properties with
      * ids from list propertyTypeBlacklist will be ignored.
      *
+     * Existing property lists of this entity are updated in place, see
+     * {@link PropertyList#replaceProperties(List)}.
+     *
      * @param source
      *            The source entity for copying
      * @param propertyTypeBlacklist
      *            A list with property ids which will not be copied
      */
     public void copyEntity(Entity source, List<String> propertyTypeBlacklist) {
-        typedPropertyLists.putAll(source.getTypedPropertyLists().entrySet().stream()
+        source.getTypedPropertyLists().entrySet().stream()
                 .filter(e -> !propertyTypeBlacklist.contains(e.getKey()))
                 .filter(e -> !e.getValue().isEmpty()).map(this::copyPropertyList)
-                .filter(e -> !e.getValue().isEmpty())
-                .collect(Collectors.toMap(Entry::getKey, Entry::getValue)));
+                .filter(e -> !e.getValue().isEmpty()).forEach(e -> {
+                    PropertyList propertyList = typedPropertyLists.get(e.getKey());
+                    if (propertyList != null) {
+                        propertyList.replaceProperties(e.getValue().getProperties());
+                    } else {
+                        typedPropertyLists.put(e.getKey(), e.getValue());
+                    }
+                });
     }
 
     private Entry<String, PropertyList> copyPropertyList(
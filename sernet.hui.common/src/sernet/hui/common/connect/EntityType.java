@@ -19,12 +19,12 @@ package sernet.hui.common.connect;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 /**
@@ -51,9 +51,23 @@ public class EntityType {
     // All properties of all entity types, Map of property ID : PropertyType
     private Map<String, PropertyType> allPropertyTypes = new LinkedHashMap<>();
 
-    // map of target EntityType ID : set of HuiRelations (links to EntityTypes)
+    // Index of all property types, Map of property ID : position in
+    // indexedPropertyTypes
+    private Map<String, Integer> propertyTypeIndex = new HashMap<>();
+
+    private List<PropertyType> indexedPropertyTypes = new ArrayList<>();
+
+    // map of target EntityType ID : unmodifiable set of HuiRelations (links to
+    // EntityTypes)
     private Map<String, Set<HuiRelation>> relations = new HashMap<>();
 
+    // All relations of this entity type, Map of relation ID : HuiRelation
+    private Map<String, HuiRelation> relationsById = new HashMap<>();
+
+    private Set<HuiRelation> allRelations = new HashSet<>();
+
+    private Set<HuiRelation> allRelationsView = Collections.unmodifiableSet(allRelations);
+
     /**
      * A list with all property types of this entity type.
      *
@@ -97,7 +111,7 @@ public class EntityType {
     }
 
     public boolean hasPropertyType(String id) {
-        return getAllPropertyTypes().stream().anyMatch(p -> p.getId().equals(id));
+        return allPropertyTypes.containsKey(id);
     }
 
     /**
@@ -133,6 +147,39 @@ public class EntityType {
         return allPropertyTypes.get(id);
     }
 
+    /**
+     * Returns the index of a property type of this entity type including the
+     * types which are contained in property groups. The indexes of the
+     * property types are 0 to {@link #getNumberOfPropertyTypes()} - 1.
+     *
+     * @param id
+     *            The ID of a property type.
+     * @return The index of the property type or -1 if no property type with
+     *         the given ID exists
+     */
+    public int getPropertyTypeIndex(String id) {
+        Integer index = propertyTypeIndex.get(id);
+        return (index != null) ? index : -1;
+    }
+
+    /**
+     * @param index
+     *            The index of a property type, see
+     *            {@link #getPropertyTypeIndex(String)}
+     * @return The property type with the given index
+     */
+    public PropertyType getPropertyType(int index) {
+        return indexedPropertyTypes.get(index);
+    }
+
+    /**
+     * @return The number of property types of this entity type including the
+     *         types which are contained in property groups.
+     */
+    public int getNumberOfPropertyTypes() {
+        return indexedPropertyTypes.size();
+    }
+
     /**
      * @return An array with all property type ID of this entity type including
      *         the types which are contained in property groups.
@@ -175,11 +222,11 @@ public class EntityType {
      *
      * @param entityTypeId
      *            The ID of an entity type
-     * @return All links from this entity type to another entity type with the
-     *         given ID.
+     * @return An unmodifiable set with all links from this entity type to
+     *         another entity type with the given ID.
      */
     public Set<HuiRelation> getPossibleRelations(String entityTypeId) {
-        return relations.get(entityTypeId) != null ? relations.get(entityTypeId) : new HashSet<>(0);
+        return relations.getOrDefault(entityTypeId, Collections.emptySet());
     }
 
     /**
@@ -191,26 +238,24 @@ public class EntityType {
      *            type
      */
     public void addRelation(HuiRelation relation) {
-        if (relations.get(relation.getTo()) == null) {
-            this.relations.put(relation.getTo(), new HashSet<>());
-        }
-        this.relations.get(relation.getTo()).add(relation);
+        // relations are added while the SNCA is loaded only, the set is
+        // copied to keep the stored view unmodifiable
+        Set<HuiRelation> relationsToType = new HashSet<>(
+                relations.getOrDefault(relation.getTo(), Collections.emptySet()));
+        relationsToType.add(relation);
+        this.relations.put(relation.getTo(), Collections.unmodifiableSet(relationsToType));
+        this.relationsById.putIfAbsent(relation.getId(), relation);
+        this.allRelations.add(relation);
     }
 
     /**
      * Returns a set with all HuiRelations of this entity type. A HuiRelation is
      * a link (relation) from this entity type to another entity type.
      *
-     * @return A set with all HuiRelations of this entity type
+     * @return An unmodifiable set with all HuiRelations of this entity type
      */
     public Set<HuiRelation> getPossibleRelations() {
-        HashSet<HuiRelation> allRelations = new HashSet<>();
-        Set<Entry<String, Set<HuiRelation>>> entrySet = relations.entrySet();
-        for (Entry<String, Set<HuiRelation>> entry : entrySet) {
-            Set<HuiRelation> relationsToOneOtherType = entry.getValue();
-            allRelations.addAll(relationsToOneOtherType);
-        }
-        return allRelations;
+        return allRelationsView;
     }
 
     /**
@@ -222,16 +267,7 @@ public class EntityType {
      * @return The HuiRelation with the given ID or null
      */
     public HuiRelation getPossibleRelation(String relationTypeId) {
-        Set<Entry<String, Set<HuiRelation>>> entrySet = relations.entrySet();
-        for (Entry<String, Set<HuiRelation>> entry : entrySet) {
-            Set<HuiRelation> value = entry.getValue();
-            for (HuiRelation huiRelation : value) {
-                if (huiRelation.getId().equals(relationTypeId)) {
-                    return huiRelation;
-                }
-            }
-        }
-        return null;
+        return relationsById.get(relationTypeId);
     }
 
     public List<PropertyType> getObjectBrowserPropertyTypes() {
@@ -247,16 +283,27 @@ public class EntityType {
 
     public void addPropertyType(PropertyType prop) {
         propertyTypes.put(prop.getId(), prop);
-        allPropertyTypes.put(prop.getId(), prop);
+        addToAllPropertyTypes(prop);
         elements.add(prop);
     }
 
     public void addPropertyGroup(PropertyGroup group) {
         propertyGroups.add(group);
-        group.getPropertyTypes().forEach(type -> allPropertyTypes.put(type.getId(), type));
+        group.getPropertyTypes().forEach(this::addToAllPropertyTypes);
         elements.add(group);
     }
 
+    private void addToAllPropertyTypes(PropertyType type) {
+        allPropertyTypes.put(type.getId(), type);
+        Integer index = propertyTypeIndex.get(type.getId());
+        if (index != null) {
+            indexedPropertyTypes.set(index, type);
+        } else {
+            propertyTypeIndex.put(type.getId(), indexedPropertyTypes.size());
+            indexedPropertyTypes.add(type);
+        }
+    }
+
     public List<IEntityElement> getElements() {
         return elements;
     }
@@ -17,7 +17,7 @@
  ******************************************************************************/
 package sernet.hui.common.connect;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -25,6 +25,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -81,6 +82,11 @@ public class HUITypeFactory {
 
     private Map<String, EntityType> allEntities = null;
 
+    // indexes of all relations, created after all entities are read
+    private Map<String, HuiRelation> relationsById = Collections.emptyMap();
+
+    private Map<String, Set<HuiRelation>> relationsByTarget = Collections.emptyMap();
+
     private Map<String, String> defaultMessages = new HashMap<>();
 
     // loads translated messages for HUI entities from resource bundles
@@ -127,6 +133,42 @@ public class HUITypeFactory {
                     + messages.getString("role"));
         }
 
+        try {
+            byte[] content;
+            LOG.debug("Getting XML property definition from " + xmlFile);
+            try (InputStream is = xmlFile.openStream()) {
+                content = is.readAllBytes();
+            }
+            String checksum = SncaSnapshot.checksum(content, readSchema());
+            doc = SncaSnapshot.load(checksum);
+            if (doc == null) {
+                doc = parse(content);
+                SncaSnapshot.save(doc, checksum);
+            }
+            readAllEntities();
+
+        } catch (IOException ie) {
+            LOG.error(ie);
+            throw new DBException(
+                    "Die XML-Datei mit der Definition der Formularfelder konnte nicht geladen werden! Bitte Pfad und Erreichbarkeit laut Konfigurationsfile überprüfen.",
+                    ie);
+        } catch (SAXException e) {
+            throw new DBException("Die XML-Datei mit der Definition der Formularfelder ist defekt!",
+                    e);
+        }
+    }
+
+    private byte[] readSchema() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream("/hitro.xsd")) {
+            return is.readAllBytes();
+        }
+    }
+
+    /**
+     * Parses the content of a SNCA.xml file with a validating parser with
+     * schema support.
+     */
+    private Document parse(byte[] content) throws IOException, SAXException {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
         factory.setValidating(true);
@@ -149,39 +191,24 @@ public class HUITypeFactory {
             throw new RuntimeException(e);
         }
 
-        try {
-            LOG.debug("Getting XML property definition from " + xmlFile);
-            parser.setErrorHandler(new ErrorHandler() {
-                @Override
-                public void error(SAXParseException exception) throws SAXException {
-                    throw new RuntimeException(exception);
-                }
-
-                @Override
-                public void fatalError(SAXParseException exception) throws SAXException {
-                    throw new RuntimeException(exception);
-                }
+        parser.setErrorHandler(new ErrorHandler() {
+            @Override
+            public void error(SAXParseException exception) throws SAXException {
+                throw new RuntimeException(exception);
+            }
 
-                @Override
-                public void warning(SAXParseException exception) throws SAXException {
-                    Logger.getLogger(this.getClass())
-                            .debug("Parser warning: " + exception.getLocalizedMessage());
-                }
-            });
-            try (InputStream is = new BufferedInputStream(xmlFile.openStream())) {
-                doc = parser.parse(is);
+            @Override
+            public void fatalError(SAXParseException exception) throws SAXException {
+                throw new RuntimeException(exception);
             }
-            readAllEntities();
 
-        } catch (IOException ie) {
-            LOG.error(ie);
-            throw new DBException(
-                    "Die XML-Datei mit der Definition der Formularfelder konnte nicht geladen werden! Bitte Pfad und Erreichbarkeit laut Konfigurationsfile überprüfen.",
-                    ie);
-        } catch (SAXException e) {
-            throw new DBException("Die XML-Datei mit der Definition der Formularfelder ist defekt!",
-                    e);
-        }
+            @Override
+            public void warning(SAXParseException exception) throws SAXException {
+                Logger.getLogger(this.getClass())
+                        .debug("Parser warning: " + exception.getLocalizedMessage());
+            }
+        });
+        return parser.parse(new ByteArrayInputStream(content));
     }
 
     public static HUITypeFactory createInstance(URL xmlUrl) throws DBException {
@@ -212,7 +239,21 @@ public class HUITypeFactory {
 
             readChildElements(entityObj, null);
         }
+        indexRelations();
+    }
 
+    private void indexRelations() {
+        Map<String, HuiRelation> byId = new HashMap<>();
+        Map<String, Set<HuiRelation>> byTarget = new HashMap<>();
+        for (EntityType entityType : allEntities.values()) {
+            for (HuiRelation relation : entityType.getPossibleRelations()) {
+                byId.putIfAbsent(relation.getId(), relation);
+                byTarget.computeIfAbsent(relation.getTo(), to -> new HashSet<>()).add(relation);
+            }
+        }
+        byTarget.replaceAll((to, relations) -> Collections.unmodifiableSet(relations));
+        relationsById = byId;
+        relationsByTarget = byTarget;
     }
 
     public Set<String> getAllTypeIds() {
@@ -555,7 +596,7 @@ public class HUITypeFactory {
      * server: documentation - to requirement: contract
      * 
      * @param fromEntityTypeID
-     * @return
+     * @return An unmodifiable set of relations
      */
     public Set<HuiRelation> getPossibleRelationsFrom(String fromEntityTypeID) {
 
@@ -573,21 +614,11 @@ public class HUITypeFactory {
      * person: responsible - from control: implementation
      * 
      * @param toEntityTypeID
-     * @return
+     * @return An unmodifiable set of relations
      */
     public Set<HuiRelation> getPossibleRelationsTo(String toEntityTypeID) {
-        // for this reverse request we have to iterate through all entitytypes
-        // and search:
-        Set<HuiRelation> allRelations = new HashSet<>();
-        Set<Entry<String, EntityType>> entrySet = allEntities.entrySet();
-        for (Entry<String, EntityType> entry : entrySet) {
-            EntityType entityType = entry.getValue();
-            Set<HuiRelation> theseRelations = entityType.getPossibleRelations(toEntityTypeID);
-            if (theseRelations != null && !theseRelations.isEmpty()) {
-                allRelations.addAll(theseRelations);
-            }
-        }
-        return allRelations;
+        Set<HuiRelation> relations = relationsByTarget.get(toEntityTypeID);
+        return relations != null ? relations : Collections.emptySet();
     }
 
     /**
@@ -603,15 +634,7 @@ public class HUITypeFactory {
             return null;
         }
 
-        Set<Entry<String, EntityType>> entrySet = allEntities.entrySet();
-        for (Entry<String, EntityType> entry : entrySet) {
-            EntityType entityType = entry.getValue();
-            HuiRelation possibleRelation = entityType.getPossibleRelation(huiRelationId);
-            if (possibleRelation != null) {
-                return possibleRelation;
-            }
-        }
-        return null;
+        return relationsById.get(huiRelationId);
     }
 
     /**
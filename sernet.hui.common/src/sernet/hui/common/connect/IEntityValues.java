@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *     This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *     You should have received a copy of the GNU Lesser General Public
+ * License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+/**
+ * Read access to the property values of an entity. Implemented by
+ * {@link Entity} and by the read-only {@link CompactEntity}.
+ */
+public interface IEntityValues {
+
+    /**
+     * @return The id of the entity type
+     */
+    String getEntityType();
+
+    /**
+     * @see Entity#getPropertyValue(String)
+     */
+    String getPropertyValue(String propertyTypeId);
+
+    /**
+     * @see Entity#getRawPropertyValue(String)
+     */
+    String getRawPropertyValue(String propertyTypeId);
+
+    /**
+     * @see Entity#getNumericValue(String)
+     */
+    Integer getNumericValue(String propertyTypeId);
+
+    /**
+     * @see Entity#getInt(String)
+     */
+    int getInt(String propertyTypeId);
+
+}
@@ -20,6 +20,7 @@ package sernet.hui.common.connect;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 
@@ -86,6 +87,45 @@ public class PropertyList implements Serializable, ITypedElement  {
 		this.properties = properties;
 	}
 
+	/**
+	 * Replaces the properties of this list by the given properties.
+	 * 
+	 * The list is modified in place: Properties with unchanged values are kept,
+	 * changed properties are replaced at their index, surplus properties are
+	 * removed from the end. That way Hibernate only updates, inserts or deletes
+	 * the rows of the changed properties instead of deleting and inserting the
+	 * whole list, which happens if {@link #setProperties(List)} is called with a
+	 * new list.
+	 * 
+	 * @param newProperties The new properties of this list
+	 */
+	public void replaceProperties(List<Property> newProperties) {
+		if (properties == null) {
+			properties = new ArrayList<Property>(newProperties);
+			return;
+		}
+		int commonSize = Math.min(properties.size(), newProperties.size());
+		for (int i = 0; i < commonSize; i++) {
+			Property newProperty = newProperties.get(i);
+			if (!hasSameValues(properties.get(i), newProperty)) {
+				properties.set(i, newProperty);
+			}
+		}
+		for (int i = properties.size() - 1; i >= newProperties.size(); i--) {
+			properties.remove(i);
+		}
+		for (int i = commonSize; i < newProperties.size(); i++) {
+			properties.add(newProperties.get(i));
+		}
+	}
+
+	private static boolean hasSameValues(Property property, Property other) {
+		return Objects.equals(property.getPropertyType(), other.getPropertyType())
+				&& Objects.equals(property.getPropertyValue(), other.getPropertyValue())
+				&& Objects.equals(property.isLimitedLicense(), other.isLimitedLicense())
+				&& Objects.equals(property.getLicenseContentId(), other.getLicenseContentId());
+	}
+
 	public void add(Property prop) {
 		properties.add(prop);
 	}
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *     This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *     You should have received a copy of the GNU Lesser General Public
+ * License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.log4j.Logger;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
+
+/**
+ * Binary snapshot of the validated DOM of the SNCA.xml file.
+ *
+ * Parsing SNCA.xml with schema validation takes a considerable part of the
+ * start time of server and client. After the first validating parse the
+ * document is saved as a snapshot which contains elements, attributes
+ * (including the default values added by the schema), text and the ID
+ * attributes. The next start builds the DOM from the snapshot without parsing
+ * and validating the XML.
+ *
+ * A snapshot is identified by a checksum of the SNCA.xml content and the
+ * schema and by the format version. If SNCA.xml changes, a new snapshot is created. Messages
+ * are not part of the snapshot, they are still resolved from the resource
+ * bundles by {@link HUITypeFactory}.
+ *
+ * The snapshots are stored in the directory set by system property
+ * {@value #SNAPSHOT_DIR_PROPERTY}, default is directory
+ * {@value #DEFAULT_SNAPSHOT_DIR} in the home directory of the user. Set the
+ * property to "none" to disable snapshots. Snapshots of other versions of
+ * SNCA.xml are deleted when a new snapshot is saved.
+ */
+final class SncaSnapshot {
+
+    private static final Logger LOG = Logger.getLogger(SncaSnapshot.class);
+
+    public static final String SNAPSHOT_DIR_PROPERTY = "verinice.snca.snapshot.dir";
+
+    private static final String SNAPSHOT_DISABLED = "none";
+
+    private static final String DEFAULT_SNAPSHOT_DIR = "verinice/snca";
+
+    private static final String FILE_PREFIX = "verinice-snca-";
+
+    private static final String FILE_SUFFIX = ".bin";
+
+    /**
+     * Limits for values read from a snapshot. A corrupt snapshot must not
+     * allocate more memory than its content needs.
+     */
+    private static final int MAX_STRING_LENGTH = 1 << 20;
+    private static final int MAX_ATTRIBUTES = 1 << 10;
+    private static final int MAX_DEPTH = 64;
+
+    private static final int MAGIC = 0x534E4341;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte NODE_ELEMENT = 1;
+    private static final byte NODE_TEXT = 2;
+    private static final byte NODE_END = 0;
+
+    private SncaSnapshot() {
+        // do not instantiate this class, use public static methods
+    }
+
+    /**
+     * Returns the CRC-32 checksum and the length of the content of a SNCA.xml
+     * file and the schema. The checksum identifies a snapshot, it is no
+     * protection against manipulation. A cryptographic hash takes longer to
+     * compute at startup than loading the snapshot.
+     *
+     * @return The checksum and the length of the content as a string
+     */
+    static String checksum(byte[] content, byte[] schema) {
+        CRC32 checksum = new CRC32();
+        checksum.update(content);
+        checksum.update(schema);
+        return Long.toHexString(checksum.getValue()) + "-"
+                + Integer.toHexString(content.length + schema.length);
+    }
+
+    /**
+     * Loads the snapshot of a SNCA.xml file.
+     *
+     * @param checksum
+     *            The checksum of SNCA.xml and the schema, see {@link #checksum(byte[], byte[])}
+     * @return The document or null if there is no valid snapshot for the
+     *         checksum
+     */
+    static Document load(String checksum) {
+        File file = getSnapshotFile(checksum);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || !checksum.equals(readString(in))) {
+                LOG.warn("Ignoring invalid SNCA snapshot: " + file);
+                return null;
+            }
+            Document doc = new SnapshotReader(in).read();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("SNCA snapshot " + file + " loaded in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+            return doc;
+        } catch (IOException | RuntimeException | ParserConfigurationException e) {
+            LOG.warn("Error while loading SNCA snapshot: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the snapshot of a validated SNCA.xml document. Errors are logged
+     * and ignored, without a snapshot the XML file is parsed on every start.
+     *
+     * @param doc
+     *            The validated document
+     * @param checksum
+     *            The checksum of SNCA.xml and the schema, see {@link #checksum(byte[], byte[])}
+     */
+    static void save(Document doc, String checksum) {
+        File file = getSnapshotFile(checksum);
+        if (file == null) {
+            return;
+        }
+        Path tempFile = null;
+        try {
+            createDirectory(file.getParentFile().toPath());
+            tempFile = Files.createTempFile(file.getParentFile().toPath(), "snca", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+                dataOut.writeInt(MAGIC);
+                dataOut.writeInt(FORMAT_VERSION);
+                writeString(dataOut, checksum);
+                new SnapshotWriter(dataOut).write(doc.getDocumentElement());
+                dataOut.flush();
+            }
+            Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (LOG.isInfoEnabled()) {
+                LOG.info("SNCA snapshot saved: " + file);
+            }
+            deleteStaleSnapshots(file);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Error while saving SNCA snapshot: " + file, e);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static File getSnapshotFile(String checksum) {
+        String dir = System.getProperty(SNAPSHOT_DIR_PROPERTY);
+        if (dir == null) {
+            String userHome = System.getProperty("user.home");
+            if (userHome == null) {
+                return null;
+            }
+            dir = new File(userHome, DEFAULT_SNAPSHOT_DIR).getPath();
+        }
+        if (SNAPSHOT_DISABLED.equals(dir)) {
+            return null;
+        }
+        return new File(dir, FILE_PREFIX + FORMAT_VERSION + "-" + checksum + FILE_SUFFIX);
+    }
+
+    /**
+     * Creates the snapshot directory, readable and writable only by the owner
+     * if the file system supports POSIX permissions.
+     */
+    private static void createDirectory(Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            return;
+        }
+        if (dir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(dir, PosixFilePermissions
+                    .asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(dir);
+        }
+    }
+
+    private static void deleteStaleSnapshots(File current) {
+        try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(
+                current.getParentFile().toPath(), FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path snapshot : snapshots) {
+                if (!snapshot.getFileName().toString().equals(current.getName())) {
+                    Files.deleteIfExists(snapshot);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Stale SNCA snapshot deleted: " + snapshot);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Error while deleting stale SNCA snapshots", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("Could not delete temporary file: " + file, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Invalid string length in snapshot: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes elements depth first. Names and namespaces are written once and
+     * referenced by their index afterwards.
+     */
+    private static final class SnapshotWriter {
+
+        private final DataOutputStream out;
+
+        private final Map<String, Integer> names = new HashMap<>();
+
+        SnapshotWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void write(Element element) throws IOException {
+            out.writeByte(NODE_ELEMENT);
+            writeName(element.getNamespaceURI());
+            writeName(element.getNodeName());
+            NamedNodeMap attributes = element.getAttributes();
+            out.writeInt(attributes.getLength());
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Attr attribute = (Attr) attributes.item(i);
+                writeName(attribute.getNamespaceURI());
+                writeName(attribute.getName());
+                writeString(out, attribute.getValue());
+                out.writeBoolean(attribute.isId());
+            }
+            NodeList children = element.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    write((Element) child);
+                } else if (isText(child)) {
+                    out.writeByte(NODE_TEXT);
+                    writeString(out, child.getNodeValue());
+                }
+            }
+            out.writeByte(NODE_END);
+        }
+
+        /**
+         * @return true if a node is text, but not whitespace which the schema
+         *         marks as ignorable
+         */
+        private static boolean isText(Node node) {
+            return (node.getNodeType() == Node.TEXT_NODE
+                    || node.getNodeType() == Node.CDATA_SECTION_NODE)
+                    && !((Text) node).isElementContentWhitespace();
+        }
+
+        private void writeName(String name) throws IOException {
+            if (name == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = names.get(name);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                out.writeInt(names.size());
+                names.put(name, names.size());
+                writeString(out, name);
+            }
+        }
+    }
+
+    private static final class SnapshotReader {
+
+        private final DataInputStream in;
+
+        private final List<String> names = new ArrayList<>();
+
+        private Document doc;
+
+        SnapshotReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        Document read() throws IOException, ParserConfigurationException {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            doc = factory.newDocumentBuilder().newDocument();
+            // names were checked by the parser which created the snapshot
+            doc.setStrictErrorChecking(false);
+            if (in.readByte() != NODE_ELEMENT) {
+                throw new IOException("Snapshot does not start with an element");
+            }
+            doc.appendChild(readElement(0));
+            return doc;
+        }
+
+        private Element readElement(int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new IOException("Elements in snapshot are nested too deep");
+            }
+            Element element = doc.createElementNS(readName(), readName());
+            int numberOfAttributes = in.readInt();
+            if (numberOfAttributes < 0 || numberOfAttributes > MAX_ATTRIBUTES) {
+                throw new IOException(
+                        "Invalid number of attributes in snapshot: " + numberOfAttributes);
+            }
+            for (int i = 0; i < numberOfAttributes; i++) {
+                Attr attribute = doc.createAttributeNS(readName(), readName());
+                attribute.setValue(readString(in));
+                element.setAttributeNodeNS(attribute);
+                if (in.readBoolean()) {
+                    element.setIdAttributeNode(attribute, true);
+                }
+            }
+            byte type = in.readByte();
+            while (type != NODE_END) {
+                if (type == NODE_ELEMENT) {
+                    element.appendChild(readElement(depth + 1));
+                } else if (type == NODE_TEXT) {
+                    element.appendChild(doc.createTextNode(readString(in)));
+                } else {
+                    throw new IOException("Unknown node type in snapshot: " + type);
+                }
+                type = in.readByte();
+            }
+            return element;
+        }
+
+        private String readName() throws IOException {
+            int index = in.readInt();
+            if (index < 0) {
+                return null;
+            }
+            if (index < names.size()) {
+                return names.get(index);
+            }
+            if (index > names.size()) {
+                throw new IOException("Invalid name index in snapshot: " + index);
+            }
+            String name = readString(in);
+            names.add(name);
+            return name;
+        }
+    }
+
+}
@@ -1,13 +1,27 @@
 package sernet.springclient;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.methods.ByteArrayRequestEntity;
+import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.log4j.Logger;
 import org.springframework.remoting.httpinvoker.CommonsHttpInvokerRequestExecutor;
+import org.springframework.remoting.httpinvoker.HttpInvokerClientConfiguration;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
 
+import sernet.gs.service.DeduplicatingObjectOutputStream;
+import sernet.gs.service.HttpInvokerCompression;
 import sernet.verinice.interfaces.IVeriniceConstants;
 import sernet.verinice.service.auth.KerberosStatusService;
 
@@ -24,6 +38,14 @@ public abstract class AbstractExecuter extends CommonsHttpInvokerRequestExecutor
 
     private static final Logger LOG = Logger.getLogger(AbstractExecuter.class);
 
+    /**
+     * True after the server announced that it accepts compressed requests,
+     * see {@link HttpInvokerCompression}.
+     */
+    private volatile boolean compressRequests = false;
+
+    private final ThreadLocal<String> invocationName = new ThreadLocal<>();
+
     public AbstractExecuter() {
         super();
         configureConnectionManager();
@@ -95,6 +117,90 @@ public abstract class AbstractExecuter extends CommonsHttpInvokerRequestExecutor
         }
     }
 
+    /**
+     * Serializes the invocation with a {@link DeduplicatingObjectOutputStream},
+     * equal strings are written only once.
+     */
+    @Override
+    protected void writeRemoteInvocation(RemoteInvocation invocation, OutputStream os)
+            throws IOException {
+        invocationName.set(HttpInvokerCompression.getInvocationName(invocation.getMethodName(),
+                invocation.getArguments()));
+        try (ObjectOutputStream oos = new DeduplicatingObjectOutputStream(
+                decorateOutputStream(os))) {
+            doWriteRemoteInvocation(invocation, oos);
+            oos.flush();
+        }
+    }
+
+    @Override
+    protected RemoteInvocationResult doExecuteRequest(HttpInvokerClientConfiguration config,
+            ByteArrayOutputStream baos) throws IOException, ClassNotFoundException {
+        long start = System.currentTimeMillis();
+        try {
+            return super.doExecuteRequest(config, baos);
+        } finally {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(invocationName.get() + ", request: " + baos.size() + " bytes, "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+            invocationName.remove();
+        }
+    }
+
+    /**
+     * Compresses the request body if the server accepts compressed requests.
+     */
+    @Override
+    protected void setRequestBody(HttpInvokerClientConfiguration config, PostMethod postMethod,
+            ByteArrayOutputStream baos) throws IOException {
+        if (compressRequests && baos.size() >= HttpInvokerCompression.MIN_COMPRESSION_SIZE) {
+            byte[] compressed = HttpInvokerCompression.gzip(baos);
+            postMethod.setRequestHeader(HttpInvokerCompression.HEADER_CONTENT_ENCODING,
+                    HttpInvokerCompression.ENCODING_GZIP);
+            postMethod.setRequestEntity(new ByteArrayRequestEntity(compressed, getContentType()));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Request compressed from " + baos.size() + " to " + compressed.length
+                        + " bytes");
+            }
+        } else {
+            super.setRequestBody(config, postMethod, baos);
+        }
+    }
+
+    @Override
+    protected InputStream getResponseBody(HttpInvokerClientConfiguration config,
+            PostMethod postMethod) throws IOException {
+        Header acceptEncoding = postMethod
+                .getResponseHeader(HttpInvokerCompression.HEADER_ACCEPT_ENCODING);
+        if (!compressRequests && acceptEncoding != null
+                && HttpInvokerCompression.isGzip(acceptEncoding.getValue())) {
+            compressRequests = true;
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Server accepts compressed requests, requests are compressed now.");
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(invocationName.get() + ", response: "
+                    + postMethod.getResponseContentLength() + " bytes, compressed: "
+                    + isGzipResponse(postMethod));
+        }
+        return super.getResponseBody(config, postMethod);
+    }
+
+    /**
+     * Throws a {@link HttpStatusException} if the response status is not
+     * successful.
+     */
+    @Override
+    protected void validateResponse(HttpInvokerClientConfiguration config,
+            PostMethod postMethod) throws IOException {
+        if (postMethod.getStatusCode() >= 300) {
+            throw new HttpStatusException(postMethod.getStatusCode(),
+                    postMethod.getStatusText());
+        }
+    }
+
     public int getReadTimeout() {
         return readTimeout;
     }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.springclient;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the {@link AbstractExecuter} if the server does not answer a
+ * request with a successful HTTP status. Clients find this exception as cause
+ * of the RemoteAccessException thrown by the service proxy.
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 6314861620839120544L;
+
+    public static final int NOT_FOUND = 404;
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode, String statusText) {
+        super("Did not receive successful HTTP response: status code = " + statusCode
+                + ", status message = [" + statusText + "]");
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns true if a throwable is caused by an HTTP response with status
+     * 404, the service does not exist on the server.
+     */
+    public static boolean isNotFound(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusException) {
+                return ((HttpStatusException) cause).getStatusCode() == NOT_FOUND;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package sernet.verinice.oda.driver.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import bsh.EvalError;
+import bsh.Interpreter;
+
+public class ScriptCacheTest {
+
+    private static final String[] SCRIPTS = { "1 + 2", "s = \"a\"; s + \"b\"",
+            "sum = 0; for (i = 0; i < 5; i++) { sum += i; } sum",
+            "if (3 > 2) { \"yes\"; } else { \"no\"; }", "x = 4;", "return 7;",
+            "java.util.Arrays.asList(new String[] {\"a\", \"b\"})" };
+
+    @Test
+    public void cachedScriptHasSameValueAsInterpreter() throws EvalError {
+        for (String script : SCRIPTS) {
+            Object expected = new Interpreter().eval(script);
+            // the second call evaluates the cached script
+            assertEquals(script, expected, ScriptCache.eval(new Interpreter(), script));
+            assertEquals(script, expected, ScriptCache.eval(new Interpreter(), script));
+        }
+    }
+
+    @Test
+    public void cachedScriptUsesVariablesOfInterpreter() throws EvalError {
+        Interpreter first = new Interpreter();
+        first.set("value", 1);
+        Interpreter second = new Interpreter();
+        second.set("value", 5);
+
+        assertEquals(2, ScriptCache.eval(first, "value + 1"));
+        assertEquals(6, ScriptCache.eval(second, "value + 1"));
+    }
+
+    @Test
+    public void methodIsDefinedInInterpreterOnly() throws EvalError {
+        String definition = "twice(a) { return a * 2; }";
+        Interpreter first = new Interpreter();
+        ScriptCache.eval(first, definition);
+        Interpreter second = new Interpreter();
+        ScriptCache.eval(second, definition);
+
+        assertEquals(6, ScriptCache.eval(first, "twice(3)"));
+        assertEquals(8, ScriptCache.eval(second, "twice(4)"));
+        assertEquals(Arrays.asList("twice"), Arrays.asList(first.getNameSpace().getMethodNames()));
+    }
+
+    @Test
+    public void assignmentIsVisibleInInterpreter() throws EvalError {
+        Interpreter interpreter = new Interpreter();
+        ScriptCache.eval(interpreter, "columns = new String[] { \"a\", \"b\" };");
+
+        assertEquals(Arrays.asList("a", "b"),
+                Arrays.asList((String[]) interpreter.get("columns")));
+        assertNull(new Interpreter().get("columns"));
+    }
+
+    @Test(expected = EvalError.class)
+    public void invalidScriptIsRejected() throws EvalError {
+        ScriptCache.eval(new Interpreter(), "x = ;");
+    }
+
+}
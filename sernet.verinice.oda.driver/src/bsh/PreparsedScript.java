@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ *     This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *     You should have received a copy of the GNU Lesser General Public 
+ * License along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package bsh;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A BeanShell script which is parsed once and can be evaluated many times by
+ * different interpreters.
+ *
+ * BeanShell 2.0b4 has no public API to evaluate a parsed script, the syntax
+ * tree nodes are package private. That is why this class is located in package
+ * bsh. It is loaded by the class loader of the ODA driver bundle which also
+ * loads lib/bsh.jar. {@link #eval(Interpreter)} does the same as
+ * {@link Interpreter#eval(String)} except parsing the script.
+ */
+public final class PreparsedScript {
+
+    private final List<SimpleNode> statements;
+
+    private final String sourceFileInfo;
+
+    private PreparsedScript(List<SimpleNode> statements, String sourceFileInfo) {
+        this.statements = statements;
+        this.sourceFileInfo = sourceFileInfo;
+    }
+
+    /**
+     * Parses a script.
+     *
+     * @param script
+     *            The text of a BeanShell script
+     * @return The parsed script
+     * @throws EvalError
+     *             If the script is not valid
+     */
+    public static PreparsedScript parse(String script) throws EvalError {
+        String statements = script.endsWith(";") ? script : script + ";";
+        String sourceFileInfo = "inline evaluation of: ``" + abbreviate(statements) + "''";
+        Parser parser = new Parser(new StringReader(statements));
+        List<SimpleNode> nodes = new ArrayList<>();
+        try {
+            boolean eof = false;
+            while (!eof) {
+                eof = parser.Line();
+                if (parser.jjtree.nodeArity() > 0) {
+                    SimpleNode node = (SimpleNode) parser.jjtree.rootNode();
+                    node.setSourceFile(sourceFileInfo);
+                    nodes.add(node);
+                }
+                parser.jjtree.reset();
+            }
+        } catch (ParseException e) {
+            e.setErrorSourceFile(sourceFileInfo);
+            throw e;
+        } catch (TokenMgrError e) {
+            throw new EvalError("Sourced file: " + sourceFileInfo + " Token Parsing Error: "
+                    + e.getMessage(), null, null);
+        }
+        return new PreparsedScript(Collections.unmodifiableList(nodes), sourceFileInfo);
+    }
+
+    /**
+     * Evaluates the script in the global namespace of an interpreter.
+     *
+     * @param interpreter
+     *            A BeanShell interpreter
+     * @return The value of the script, the value of the return statement or
+     *         of the last statement
+     * @throws EvalError
+     *             If an error occurs while evaluating the script
+     */
+    public Object eval(Interpreter interpreter) throws EvalError {
+        NameSpace nameSpace = interpreter.getNameSpace();
+        CallStack callstack = new CallStack(nameSpace);
+        Object result = null;
+        for (SimpleNode node : statements) {
+            try {
+                result = node.eval(callstack, interpreter);
+                if (callstack.depth() > 1) {
+                    throw new InterpreterError("Callstack growing: " + callstack);
+                }
+                if (result instanceof ReturnControl) {
+                    result = ((ReturnControl) result).value;
+                    break;
+                }
+            } catch (InterpreterError e) {
+                throw new EvalError("Sourced file: " + sourceFileInfo + " internal Error: "
+                        + e.getMessage(), node, callstack);
+            } catch (TargetError e) {
+                if (e.getNode() == null) {
+                    e.setNode(node);
+                }
+                e.reThrow("Sourced file: " + sourceFileInfo);
+            } catch (EvalError e) {
+                if (e.getNode() == null) {
+                    e.setNode(node);
+                }
+                e.reThrow("Sourced file: " + sourceFileInfo);
+            } catch (RuntimeException e) {
+                throw new EvalError("Sourced file: " + sourceFileInfo + " unknown error: "
+                        + e.getMessage(), node, callstack);
+            } finally {
+                if (callstack.depth() > 1) {
+                    callstack.clear();
+                    callstack.push(nameSpace);
+                }
+            }
+        }
+        return Primitive.unwrap(result);
+    }
+
+    private static String abbreviate(String statements) {
+        String text = statements.trim().replace('\n', ' ').replace('\r', ' ');
+        if (text.length() > 80) {
+            text = text.substring(0, 80) + " . . . ";
+        }
+        return text;
+    }
+
+}
@@ -17,22 +17,25 @@
  ******************************************************************************/
 package sernet.verinice.oda.driver.impl;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-import sernet.hui.common.connect.Entity;
+import sernet.gs.service.RuntimeCommandException;
+import sernet.hui.common.connect.CompactEntity;
 import sernet.hui.common.connect.HUITypeFactory;
+import sernet.hui.common.connect.IEntityValues;
 import sernet.hui.common.connect.PropertyType;
+import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
-import sernet.verinice.interfaces.IBaseDao;
-import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.commands.LoadCompactEntities;
 
 /**
  * Generic command to retrieve arbitrary cna tree elements and their property values.
  * 
  * <p>The command is to be used by reports who wish to access elements and their property values.</p>
  * 
+ * <p>The values are loaded by {@link LoadCompactEntities} without loading the elements into the Hibernate session.</p>
+ * 
  * @author Robert Schuster
  *
  * @param <T>
@@ -58,15 +61,17 @@ public class LoadEntityValues extends GenericCommand {
 	
 	
     @Override
-    @SuppressWarnings("unchecked")
 	public void execute() {
-		IBaseDao<CnATreeElement, Serializable> dao = (IBaseDao<CnATreeElement, Serializable>) getDaoFactory().getDAO(typeId);
-		List<CnATreeElement> elements = dao.findAll();
+		List<CompactEntity> entities;
+		try {
+			entities = getCommandService().executeCommand(new LoadCompactEntities(typeId)).getResult();
+		} catch (CommandException e) {
+			throw new RuntimeCommandException(e);
+		}
 		
-		result = new ArrayList<List<Object>>(elements.size());
-		for (CnATreeElement element : elements)
+		result = new ArrayList<List<Object>>(entities.size());
+		for (CompactEntity e : entities)
 		{
-			Entity e = element.getEntity();
 			result.add(retrievePropertyValues(e, propertyTypes, classes, false));
 		}
 	}
@@ -76,12 +81,12 @@ public class LoadEntityValues extends GenericCommand {
 	 * 
 	 * <p>Note: The method is purposely written in a way that it can be reused from other parts of the application.</p>
 	 */
-	public static List<Object> retrievePropertyValues(Entity e, String[] propertyTypes, Class<?>[] classes)
+	public static List<Object> retrievePropertyValues(IEntityValues e, String[] propertyTypes, Class<?>[] classes)
 	{
 		return retrievePropertyValues(e, propertyTypes, classes, false);
 	}
 	
-	public static List<Object> convertValuesToList(Entity entity, String[] propertyTypes) {
+	public static List<Object> convertValuesToList(IEntityValues entity, String[] propertyTypes) {
 	    ArrayList<Object> values = new ArrayList<Object>(propertyTypes.length);       
 	    for (String propertyTypeId : propertyTypes) {
 	        PropertyType pType = HUITypeFactory.getInstance().getPropertyType(entity.getEntityType(), propertyTypeId);
@@ -89,13 +94,13 @@ public class LoadEntityValues extends GenericCommand {
             {
                 values.add(entity.getNumericValue(propertyTypeId));
             } else {
-                values.add(entity.getSimpleValue(propertyTypeId));
+                values.add(entity.getPropertyValue(propertyTypeId));
             }
 	    }       
 	    return values;
 	}
 	
-	public static List<Object> retrievePropertyValues(Entity entity, String[] propertyTypes, Class<?>[] classes, boolean mapNumericalOptionValues){
+	public static List<Object> retrievePropertyValues(IEntityValues entity, String[] propertyTypes, Class<?>[] classes, boolean mapNumericalOptionValues){
         ArrayList<Object> values = new ArrayList<Object>(propertyTypes.length);
         
         int i = 0;
@@ -112,10 +117,10 @@ public class LoadEntityValues extends GenericCommand {
                 {
                     values.add(entity.getNumericValue(name));
                 } else {
-                    values.add(entity.getSimpleValue(name));
+                    values.add(entity.getPropertyValue(name));
                 }
             } else if(pType.getInputName().equals("numericoption") && mapNumericalOptionValues){
-                values.add(pType.getNameForValue(Integer.parseInt(entity.getValue(name))));
+                values.add(pType.getNameForValue(Integer.parseInt(entity.getRawPropertyValue(name))));
             } else if (c == Integer.class){
                 values.add(String.valueOf(entity.getInt(name)));
             } else {
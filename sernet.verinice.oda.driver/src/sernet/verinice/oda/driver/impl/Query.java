@@ -76,6 +76,8 @@ public class Query implements IQuery {
 
     private Object result;
 
+    private String evaluatedSetupQueryText;
+
     private String[] columns, inParameters;
 
     public static final String PROP_SETUP_QUERY_TEXT = "setupQueryText";
@@ -107,10 +109,10 @@ public class Query implements IQuery {
             setupInterpreter.setClassLoader(securedClassLoader);
 
             setupInterpreter.set("__columns", null);
-            setupInterpreter.eval("columns(c) { __columns = c; }");
+            ScriptCache.eval(setupInterpreter, "columns(c) { __columns = c; }");
 
             setupInterpreter.set("__inParameters", null);
-            setupInterpreter.eval("inParameters(ip) { __inParameters = ip; }");
+            ScriptCache.eval(setupInterpreter, "inParameters(ip) { __inParameters = ip; }");
             setupInterpreter.set("helper", new Helper());
 
             // BSH environment:
@@ -118,16 +120,17 @@ public class Query implements IQuery {
             interpreter.setClassLoader(securedClassLoader);
 
             interpreter.set("_inpv", inParameterValues);
-            interpreter.eval("inpv(s) {" + " v = _inpv.get(s);"
+            ScriptCache.eval(interpreter, "inpv(s) {" + " v = _inpv.get(s);"
                     + " return (v == null) ? \"input parameter value \" + s + \" does not exist.\" : v;"
                     + "}");
 
             interpreter.set("_vars", odaDriver.getScriptVariables());
-            interpreter.eval("vars(s) {" + " v = _vars.get(s);"
+            ScriptCache.eval(interpreter, "vars(s) {" + " v = _vars.get(s);"
                     + " return (v == null) ? s + \" does not exist.\" : v;" + "}");
 
             interpreter.set("helper", new Helper());
-            interpreter.eval("gpt(entityType) { return helper.getAllPropertyTypes(entityType); }");
+            ScriptCache.eval(interpreter,
+                    "gpt(entityType) { return helper.getAllPropertyTypes(entityType); }");
             interpreter.set("properties", properties);
 
         } catch (EvalError e) {
@@ -397,10 +400,11 @@ public class Query implements IQuery {
 
     private void doRunSetupQuery() throws EvalError {
         String setupQueryText = properties.get(PROP_SETUP_QUERY_TEXT);
-        if (setupQueryText == null) {
+        if (setupQueryText == null || setupQueryText.equals(evaluatedSetupQueryText)) {
+            // columns and in parameters of this script are already known
             return;
         }
-        setupInterpreter.eval(setupQueryText);
+        ScriptCache.eval(setupInterpreter, setupQueryText);
         Object cols = setupInterpreter.get("__columns");
         if (cols instanceof String[]) {
             columns = (String[]) cols;
@@ -413,6 +417,7 @@ public class Query implements IQuery {
         } else {
             inParameters = null;
         }
+        evaluatedSetupQueryText = setupQueryText;
     }
 
     private Object runQuery() throws OdaException {
@@ -424,7 +429,7 @@ public class Query implements IQuery {
     }
 
     private Object doRunQuery() throws EvalError {
-        result = interpreter.eval(queryText);
+        result = ScriptCache.eval(interpreter, queryText);
         return result;
     }
 
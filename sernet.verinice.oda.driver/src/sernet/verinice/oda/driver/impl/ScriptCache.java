@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ *     This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *     You should have received a copy of the GNU Lesser General Public 
+ * License along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.oda.driver.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import bsh.EvalError;
+import bsh.Interpreter;
+import bsh.PreparsedScript;
+
+/**
+ * Cache for parsed BeanShell scripts of ODA queries. The scripts are keyed by
+ * their text. Reports run the same scripts of their data sets again and again,
+ * with the cache every script is only parsed once.
+ *
+ * The least recently used scripts are removed if the cache contains more than
+ * {@link #MAX_SIZE} scripts.
+ */
+final class ScriptCache {
+
+    private static final Logger log = Logger.getLogger(ScriptCache.class);
+
+    private static final int MAX_SIZE = 500;
+
+    private static final Map<String, PreparsedScript> SCRIPTS;
+
+    static {
+        SCRIPTS = new LinkedHashMap<String, PreparsedScript>(MAX_SIZE, 0.75f, true) {
+            private static final long serialVersionUID = -3094271560741238137L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparsedScript> eldest) {
+                return size() > MAX_SIZE;
+            }
+        };
+    }
+
+    private ScriptCache() {
+        // do not instantiate this class, use public static methods
+    }
+
+    /**
+     * Evaluates a script with an interpreter. The script is parsed only if it
+     * is not in the cache.
+     *
+     * @param interpreter
+     *            A BeanShell interpreter
+     * @param script
+     *            The text of a BeanShell script
+     * @return The value of the script
+     * @throws EvalError
+     *             If the script is not valid or if an error occurs while
+     *             evaluating the script
+     */
+    static Object eval(Interpreter interpreter, String script) throws EvalError {
+        return getScript(script).eval(interpreter);
+    }
+
+    private static PreparsedScript getScript(String script) throws EvalError {
+        PreparsedScript parsedScript;
+        synchronized (SCRIPTS) {
+            parsedScript = SCRIPTS.get(script);
+        }
+        if (parsedScript == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Parsing script: " + script);
+            }
+            parsedScript = PreparsedScript.parse(script);
+            synchronized (SCRIPTS) {
+                SCRIPTS.put(script, parsedScript);
+            }
+        }
+        return parsedScript;
+    }
+
+}
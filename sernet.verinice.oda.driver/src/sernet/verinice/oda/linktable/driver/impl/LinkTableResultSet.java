@@ -32,6 +32,8 @@ import org.eclipse.datatools.connectivity.oda.IResultSet;
 import org.eclipse.datatools.connectivity.oda.IResultSetMetaData;
 import org.eclipse.datatools.connectivity.oda.OdaException;
 
+import sernet.verinice.service.linktable.ILinkTableRowIterator;
+
 /**
  * A BIRT ODA result set for a link table 
  *
@@ -48,6 +50,10 @@ public class LinkTableResultSet implements IResultSet {
     private List<List<String>> linkTable;
     private IResultSetMetaData metaData;
 
+    // Rows of a streamed link table, null if the table is in memory
+    private ILinkTableRowIterator rows;
+    private List<String> currentRow;
+
     public LinkTableResultSet(List<List<String>> linkTable, IResultSetMetaData metaData) {
         this.linkTable = linkTable;
         this.metaData = metaData;
@@ -56,6 +62,17 @@ public class LinkTableResultSet implements IResultSet {
         }
     }
 
+    /**
+     * Creates a result set for a streamed link table. The rows are read from
+     * the iterator while BIRT fetches them. The result set can be read only
+     * once, closing it closes the iterator.
+     */
+    public LinkTableResultSet(ILinkTableRowIterator rows, IResultSetMetaData metaData) {
+        this.rows = rows;
+        this.metaData = metaData;
+        this.maxRows = Integer.MAX_VALUE;
+    }
+
     /*
      * @see org.eclipse.datatools.connectivity.oda.IResultSet#getMetaData()
      */
@@ -87,6 +104,9 @@ public class LinkTableResultSet implements IResultSet {
      */
     @Override
     public boolean next() throws OdaException {
+        if (rows != null) {
+            return nextStreamedRow();
+        }
         if (currentRowId < maxRows) {
             currentRowId++;
             return true;
@@ -94,9 +114,23 @@ public class LinkTableResultSet implements IResultSet {
         return false;
     }
 
+    private boolean nextStreamedRow() {
+        if (currentRowId < maxRows && rows.hasNext()) {
+            currentRow = rows.next();
+            currentRowId++;
+            return true;
+        }
+        currentRow = null;
+        return false;
+    }
+
     @Override
     public void close() throws OdaException {
         currentRowId = 0; // reset row counter
+        if (rows != null) {
+            currentRow = null;
+            rows.close();
+        }
     }
 
     @Override
@@ -107,7 +141,8 @@ public class LinkTableResultSet implements IResultSet {
     @Override
     public Object getObject(int index) throws OdaException { 
         try {
-            return linkTable.get(currentRowId-1).get(index-1);
+            List<String> row = (rows != null) ? currentRow : linkTable.get(currentRowId-1);
+            return row.get(index-1);
         } catch (Exception e){
             LOG.error("No value found for row: " + currentRowId + " and column: " + index, e);
             return null;
@@ -25,6 +25,8 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,6 +44,7 @@ import org.springframework.remoting.RemoteConnectFailureException;
 
 import sernet.verinice.service.linktable.ColumnPathParser;
 import sernet.verinice.service.linktable.ILinkTableConfiguration;
+import sernet.verinice.service.linktable.ILinkTableRowIterator;
 import sernet.verinice.service.linktable.LinkTableService;
 import sernet.verinice.service.linktable.vlt.VeriniceLinkTable;
 import sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO;
@@ -59,6 +62,11 @@ public class Query implements IQuery {
 
     private static final int DEFAULT_MAX_ROWS = 1000;
 
+    /**
+     * Tables with more rows are not cached, they are streamed to BIRT.
+     */
+    private static final int MAX_CACHED_ROWS = 50000;
+
     private String vlt = null;
 
     private IResultSetMetaData resultSetMetaData;
@@ -108,7 +116,7 @@ public class Query implements IQuery {
     @Override
     public IResultSet executeQuery() throws OdaException {
         try {
-            return new LinkTableResultSet(createMappedTable(), resultSetMetaData);
+            return createResultSet();
         } catch (RemoteConnectFailureException remoteConnectFailureException) {
             log.error(Messages.query_connection_error_title, remoteConnectFailureException);
             throw new OdaException(Messages.query_connection_error_msg);
@@ -116,28 +124,51 @@ public class Query implements IQuery {
 
     }
 
-    private List<List<String>> createMappedTable() {
-        if (queryCache != null) {
-            return queryCache.computeIfAbsent(vlt, (k) -> createTable());
+    /**
+     * Returns a result set for the link table. Tables with up to
+     * {@link #MAX_CACHED_ROWS} rows are read into memory and cached for other
+     * data sets with the same VLT. Larger tables are streamed: the rows which
+     * are already read are returned first, then the remaining rows are read
+     * while BIRT fetches them.
+     */
+    private IResultSet createResultSet() {
+        if (queryCache != null && queryCache.containsKey(vlt)) {
+            return new LinkTableResultSet(queryCache.get(vlt), resultSetMetaData);
+        }
+        ILinkTableRowIterator rows = new LinkTableService()
+                .createRowIterator(createLinkTableConfiguration());
+        // Remove the heading line of the table
+        if (rows.hasNext()) {
+            rows.next();
+        }
+        List<List<String>> table = new ArrayList<>();
+        while (table.size() < MAX_CACHED_ROWS && rows.hasNext()) {
+            table.add(normalize(rows.next()));
         }
-        return createTable();
+        if (!rows.hasNext()) {
+            rows.close();
+            if (queryCache != null) {
+                queryCache.put(vlt, table);
+            }
+            return new LinkTableResultSet(table, resultSetMetaData);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Link table has more than " + MAX_CACHED_ROWS
+                    + " rows, table is streamed and not cached.");
+        }
+        return new LinkTableResultSet(new StreamedRows(table.iterator(), rows),
+                resultSetMetaData);
     }
 
-    private List<List<String>> createTable() {
-        LinkTableService linkTableService = new LinkTableService();
-        List<List<String>> table = linkTableService.createTable(createLinkTableConfiguration());
-        // Remove the heading line of the table
-        table.remove(0);
-        // VN-2495: NFC-normalize values
-        table.forEach(row -> {
-            for (int i = 0; i < row.size(); i++) {
-                String value = row.get(i);
-                if (value != null && !value.isEmpty()) {
-                    row.set(i, Normalizer.normalize(value, Form.NFC));
-                }
+    // VN-2495: NFC-normalize values
+    private static List<String> normalize(List<String> row) {
+        for (int i = 0; i < row.size(); i++) {
+            String value = row.get(i);
+            if (value != null && !value.isEmpty()) {
+                row.set(i, Normalizer.normalize(value, Form.NFC));
             }
-        });
-        return table;
+        }
+        return row;
     }
 
     public ILinkTableConfiguration createLinkTableConfiguration() {
@@ -357,4 +388,38 @@ public class Query implements IQuery {
     public void setTimestamp(int arg0, Timestamp arg1) throws OdaException {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Returns the rows which are already read and normalized, then reads and
+     * normalizes the remaining rows of the link table.
+     */
+    private static final class StreamedRows implements ILinkTableRowIterator {
+
+        private final Iterator<List<String>> readRows;
+        private final ILinkTableRowIterator remainingRows;
+
+        private StreamedRows(Iterator<List<String>> readRows,
+                ILinkTableRowIterator remainingRows) {
+            this.readRows = readRows;
+            this.remainingRows = remainingRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return readRows.hasNext() || remainingRows.hasNext();
+        }
+
+        @Override
+        public List<String> next() {
+            if (readRows.hasNext()) {
+                return readRows.next();
+            }
+            return normalize(remainingRows.next());
+        }
+
+        @Override
+        public void close() {
+            remainingRows.close();
+        }
+    }
 }
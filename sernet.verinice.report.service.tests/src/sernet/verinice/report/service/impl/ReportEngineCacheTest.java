@@ -0,0 +1,128 @@
+package sernet.verinice.report.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+
+import org.eclipse.birt.report.engine.api.EngineException;
+import org.eclipse.birt.report.engine.api.IReportEngine;
+import org.eclipse.birt.report.engine.api.IReportRunnable;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReportEngineCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private int destroyedEngines;
+
+    private int loadedDesigns;
+
+    @After
+    public void tearDown() {
+        ReportEngineCache.destroyEngine();
+    }
+
+    @Test
+    public void engineIsReusedForSameConfiguration() {
+        IReportEngine engine = ReportEngineCache.getEngine("a", this::createEngine);
+
+        assertSame(engine, ReportEngineCache.getEngine("a", this::createEngine));
+        assertEquals(0, destroyedEngines);
+    }
+
+    @Test
+    public void engineIsReplacedIfConfigurationChanges() {
+        IReportEngine engine = ReportEngineCache.getEngine("a", this::createEngine);
+
+        assertNotSame(engine, ReportEngineCache.getEngine("b", this::createEngine));
+        assertEquals(1, destroyedEngines);
+    }
+
+    @Test
+    public void designIsLoadedOnce() throws Exception {
+        IReportEngine engine = ReportEngineCache.getEngine("a", this::createEngine);
+        URL url = folder.newFile("test.rptdesign").toURI().toURL();
+
+        IReportRunnable design = ReportEngineCache.getDesign(engine, url, "", this::loadDesign);
+
+        assertSame(design, ReportEngineCache.getDesign(engine, url, "", this::loadDesign));
+        assertEquals(1, loadedDesigns);
+    }
+
+    @Test
+    public void designIsLoadedAgainIfFileIsModified() throws Exception {
+        IReportEngine engine = ReportEngineCache.getEngine("a", this::createEngine);
+        File file = folder.newFile("test.rptdesign");
+        URL url = file.toURI().toURL();
+        IReportRunnable design = ReportEngineCache.getDesign(engine, url, "", this::loadDesign);
+
+        file.setLastModified(file.lastModified() - 60000);
+
+        assertNotSame(design, ReportEngineCache.getDesign(engine, url, "", this::loadDesign));
+        assertEquals(2, loadedDesigns);
+    }
+
+    @Test
+    public void variantsAreCachedSeparately() throws Exception {
+        IReportEngine engine = ReportEngineCache.getEngine("a", this::createEngine);
+        URL url = folder.newFile("test.rptdesign").toURI().toURL();
+
+        IReportRunnable design = ReportEngineCache.getDesign(engine, url, "", this::loadDesign);
+        IReportRunnable classifiedDesign = ReportEngineCache.getDesign(engine, url,
+                "classification", this::loadDesign);
+
+        assertNotSame(design, classifiedDesign);
+        assertSame(classifiedDesign,
+                ReportEngineCache.getDesign(engine, url, "classification", this::loadDesign));
+        assertEquals(2, loadedDesigns);
+    }
+
+    @Test
+    public void designOfReplacedEngineIsNotUsed() throws Exception {
+        IReportEngine engine = ReportEngineCache.getEngine("a", this::createEngine);
+        URL url = folder.newFile("test.rptdesign").toURI().toURL();
+        IReportRunnable design = ReportEngineCache.getDesign(engine, url, "", this::loadDesign);
+
+        IReportEngine newEngine = ReportEngineCache.getEngine("b", this::createEngine);
+
+        assertNotSame(design, ReportEngineCache.getDesign(newEngine, url, "", this::loadDesign));
+        assertEquals(2, loadedDesigns);
+    }
+
+    @Test
+    public void designWithoutFileIsNotCached() throws Exception {
+        IReportEngine engine = ReportEngineCache.getEngine("a", this::createEngine);
+        URL url = new URL("http://localhost/test.rptdesign");
+
+        ReportEngineCache.getDesign(engine, url, "", this::loadDesign);
+        ReportEngineCache.getDesign(engine, url, "", this::loadDesign);
+
+        assertEquals(2, loadedDesigns);
+    }
+
+    private IReportEngine createEngine() {
+        return (IReportEngine) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { IReportEngine.class }, (proxy, method, args) -> {
+                    if ("destroy".equals(method.getName())) {
+                        destroyedEngines++;
+                    }
+                    return null;
+                });
+    }
+
+    private IReportRunnable loadDesign() throws EngineException, IOException {
+        loadedDesigns++;
+        return (IReportRunnable) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { IReportRunnable.class }, (proxy, method, args) -> null);
+    }
+
+}
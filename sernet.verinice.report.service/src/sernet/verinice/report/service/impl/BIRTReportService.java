@@ -19,6 +19,7 @@ package sernet.verinice.report.service.impl;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.Files;
@@ -85,6 +86,10 @@ public class BIRTReportService {
 
     private static final int MILLIS_PER_SECOND = 1000;
 
+    private static final String DESIGN_VARIANT_PLAIN = "plain";
+
+    private static final String DESIGN_VARIANT_CLASSIFIED = "classified";
+
     private ReportClassLoader secureClassLoader;
 
     public BIRTReportService() {
@@ -124,10 +129,15 @@ public class BIRTReportService {
             }
         }
 
-        IReportEngineFactory factory = (IReportEngineFactory) Platform
-                .createFactoryObject(IReportEngineFactory.EXTENSION_REPORT_ENGINE_FACTORY);
-
-        engine = factory.createReportEngine(config);
+        String engineConfiguration = odaDriver.isSandboxEnabled() + ";" + useReportLogging;
+        if (useReportLogging) {
+            engineConfiguration += ";" + odaDriver.getLogFile() + ";" + odaDriver.getLogLvl();
+        }
+        engine = ReportEngineCache.getEngine(engineConfiguration, () -> {
+            IReportEngineFactory factory = (IReportEngineFactory) Platform
+                    .createFactoryObject(IReportEngineFactory.EXTENSION_REPORT_ENGINE_FACTORY);
+            return factory.createReportEngine(config);
+        });
     }
 
     public IRunAndRenderTask createTask(URL rptDesignURL, IReportOptions options) {
@@ -136,17 +146,18 @@ public class BIRTReportService {
             log.debug("Locale:\t" + Locale.getDefault().toString());
         }
 
-        HashMap<String, Object> map = new HashMap<String, Object>();
-
-        map.put(ModuleOption.RESOURCE_LOCATOR_KEY, resourceLocator);
-
+        boolean classified = StringUtils.isNotBlank(options.getClassificationHint());
         IRunAndRenderTask task = null;
         try {
-            design = engine.openReportDesign(null, rptDesignURL.openStream(), map);
-            ReportDesignHandle designHandle = (ReportDesignHandle) design.getDesignHandle();
-            if(StringUtils.isNotBlank(options.getClassificationHint())) {
-                addClassificationHeader(designHandle);
-            }
+            design = ReportEngineCache.getDesign(engine, rptDesignURL,
+                    classified ? DESIGN_VARIANT_CLASSIFIED : DESIGN_VARIANT_PLAIN, () -> {
+                        IReportRunnable runnable = openReportDesign(rptDesignURL);
+                        if (classified) {
+                            addClassificationHeader(
+                                    (ReportDesignHandle) runnable.getDesignHandle());
+                        }
+                        return runnable;
+                    });
             task = engine.createRunAndRenderTask(design);
         } catch (EngineException e) {
             log.error(COULD_NOT_OPEN_DESIGN_ERR, e);
@@ -161,6 +172,15 @@ public class BIRTReportService {
         return task;
     }
 
+    private IReportRunnable openReportDesign(URL rptDesignURL)
+            throws EngineException, IOException {
+        HashMap<String, Object> map = new HashMap<String, Object>();
+        map.put(ModuleOption.RESOURCE_LOCATOR_KEY, resourceLocator);
+        try (InputStream designStream = rptDesignURL.openStream()) {
+            return engine.openReportDesign(null, designStream, map);
+        }
+    }
+
     private void addClassificationHeader(ReportDesignHandle designHandle) {
         ElementFactory elementFactory = designHandle.getElementFactory();
         try {
@@ -194,12 +214,10 @@ public class BIRTReportService {
             log.debug("ReportDesignURL:\t" + rptDesignURL.toString());
         }
 
-        HashMap<String, Object> map = new HashMap<String, Object>();
-        map.put(ModuleOption.RESOURCE_LOCATOR_KEY, resourceLocator);
-
         IRunTask task = null;
         try {
-            IReportRunnable design0 = engine.openReportDesign(null, rptDesignURL.openStream(), map);
+            IReportRunnable design0 = ReportEngineCache.getDesign(engine, rptDesignURL,
+                    DESIGN_VARIANT_PLAIN, () -> openReportDesign(rptDesignURL));
             task = engine.createRunTask(design0);
         } catch (EngineException e) {
             log.error("Could not open report design: ", e);
@@ -273,12 +291,6 @@ public class BIRTReportService {
         }
     }
 
-    private void destroyEngine() {
-        if (engine != null) {
-            engine.destroy();
-        }
-    }
-
     @SuppressWarnings("unchecked")
     public IRunAndRenderTask prepareTaskForRendering(IRunAndRenderTask task,
             IReportOptions options) {
@@ -310,33 +322,28 @@ public class BIRTReportService {
 
     public void performRenderTask(IRunAndRenderTask task,
             ReportSecurityManager secureReportExecutionManager) {
-        try {
-            long startTime = System.currentTimeMillis();
-
-            // Load class DataTypeUtil before the secureClassLoader is set
-            preloadClasses();
-
-            // report generation is handled by a thread here which is not for
-            // reasons of concurrency BUT for reasons of security (this enables
-            // setting specific classloader for executing the report since
-            // concurrency is explicitly not wanted here, we are using
-            // thread.run() instead of thread.start()
-            IVeriniceOdaDriver odaDriver = Activator.getDefault().getOdaDriver();
-            ReportExecutionThread reportExecutionThread = new ReportExecutionThread(task,
-                    secureReportExecutionManager, odaDriver.isSandboxEnabled());
-            if (odaDriver.isSandboxEnabled()) {
-                reportExecutionThread.setContextClassLoader(secureClassLoader);
-            }
+        long startTime = System.currentTimeMillis();
 
-            reportExecutionThread.run();
+        // Load class DataTypeUtil before the secureClassLoader is set
+        preloadClasses();
 
-            if (log.isDebugEnabled()) {
-                long duration = (System.currentTimeMillis() - startTime) / MILLIS_PER_SECOND;
-                log.debug("RunAndRenderTask lasts " + duration + " seconds");
-            }
-        } finally {
-            // ensure .log file is released again (.lck file will be removed)
-            destroyEngine();
+        // report generation is handled by a thread here which is not for
+        // reasons of concurrency BUT for reasons of security (this enables
+        // setting specific classloader for executing the report since
+        // concurrency is explicitly not wanted here, we are using
+        // thread.run() instead of thread.start()
+        IVeriniceOdaDriver odaDriver = Activator.getDefault().getOdaDriver();
+        ReportExecutionThread reportExecutionThread = new ReportExecutionThread(task,
+                secureReportExecutionManager, odaDriver.isSandboxEnabled());
+        if (odaDriver.isSandboxEnabled()) {
+            reportExecutionThread.setContextClassLoader(secureClassLoader);
+        }
+
+        reportExecutionThread.run();
+
+        if (log.isDebugEnabled()) {
+            long duration = (System.currentTimeMillis() - startTime) / MILLIS_PER_SECOND;
+            log.debug("RunAndRenderTask lasts " + duration + " seconds");
         }
     }
 
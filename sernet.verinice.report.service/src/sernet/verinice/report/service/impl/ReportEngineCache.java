@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ * This program is free software: you can redistribute it and/or 
+ * modify it under the terms of the GNU Lesser General Public License 
+ * as published by the Free Software Foundation, either version 3 
+ * of the License, or (at your option) any later version.
+ *     This program is distributed in the hope that it will be useful,    
+ * but WITHOUT ANY WARRANTY; without even the implied warranty 
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ *     You should have received a copy of the GNU Lesser General Public 
+ * License along with this program. 
+ * If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.eclipse.birt.report.engine.api.EngineException;
+import org.eclipse.birt.report.engine.api.IReportEngine;
+import org.eclipse.birt.report.engine.api.IReportRunnable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the BIRT report engine and the parsed report designs between report
+ * runs.
+ *
+ * The engine is created once per engine configuration (sandbox, logging). If
+ * the configuration changes the engine is destroyed and a new one is created.
+ * Parsed designs ({@link IReportRunnable}) belong to the engine that opened
+ * them, they are cached by URL and last modification time of the design file.
+ */
+public final class ReportEngineCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportEngineCache.class);
+
+    private static final int MAX_DESIGNS = 50;
+
+    private static IReportEngine engine;
+
+    private static String engineConfiguration;
+
+    private static final Map<String, CachedDesign> DESIGNS;
+
+    static {
+        DESIGNS = new LinkedHashMap<String, CachedDesign>(MAX_DESIGNS, 0.75f, true) {
+            private static final long serialVersionUID = 6034786130129742127L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDesign> eldest) {
+                return size() > MAX_DESIGNS;
+            }
+        };
+    }
+
+    private ReportEngineCache() {
+        // do not instantiate this class, use public static methods
+    }
+
+    /**
+     * Opens a parsed report design.
+     */
+    @FunctionalInterface
+    interface DesignLoader {
+        IReportRunnable load() throws EngineException, IOException;
+    }
+
+    /**
+     * Returns the engine for a configuration. If there is no engine for the
+     * configuration yet, the current engine is destroyed and a new one is
+     * created by the factory.
+     *
+     * @param configuration
+     *            A string which identifies the configuration of the engine
+     * @param factory
+     *            Creates a new engine
+     * @return The report engine
+     */
+    static synchronized IReportEngine getEngine(String configuration,
+            Supplier<IReportEngine> factory) {
+        if (engine == null || !configuration.equals(engineConfiguration)) {
+            destroyEngine();
+            engine = factory.get();
+            engineConfiguration = configuration;
+        }
+        return engine;
+    }
+
+    /**
+     * Returns a cached design or loads the design if it is not in the cache or
+     * if the file was modified after it was cached.
+     *
+     * @param reportEngine
+     *            The engine which opens the design
+     * @param designUrl
+     *            The URL of a .rptdesign file
+     * @param variant
+     *            Identifies changes made to the design after loading, e.g. an
+     *            added classification header
+     * @param loader
+     *            Opens the design
+     * @return The parsed report design
+     */
+    static IReportRunnable getDesign(IReportEngine reportEngine, URL designUrl, String variant,
+            DesignLoader loader) throws EngineException, IOException {
+        long lastModified = getLastModified(designUrl);
+        String key = designUrl.toExternalForm() + "#" + variant;
+        synchronized (ReportEngineCache.class) {
+            CachedDesign cached = DESIGNS.get(key);
+            if (cached != null && cached.engine == reportEngine
+                    && cached.lastModified == lastModified) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Using cached report design: " + key);
+                }
+                return cached.design;
+            }
+        }
+        long start = System.currentTimeMillis();
+        IReportRunnable design = loader.load();
+        if (log.isDebugEnabled()) {
+            log.debug("Report design " + key + " opened in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        if (lastModified > 0) {
+            synchronized (ReportEngineCache.class) {
+                if (reportEngine == engine) {
+                    DESIGNS.put(key, new CachedDesign(reportEngine, lastModified, design));
+                }
+            }
+        }
+        return design;
+    }
+
+    /**
+     * Destroys the report engine and removes all cached designs. Called when
+     * the bundle is stopped.
+     */
+    public static synchronized void destroyEngine() {
+        DESIGNS.clear();
+        if (engine != null) {
+            engine.destroy();
+            engine = null;
+            engineConfiguration = null;
+        }
+    }
+
+    /**
+     * Returns the last modification time of a design file or 0 if the URL is
+     * not a file URL. Designs with unknown modification time are not cached.
+     */
+    private static long getLastModified(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return 0;
+        }
+        try {
+            return new File(url.toURI()).lastModified();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return new File(url.getPath()).lastModified();
+        }
+    }
+
+    private static final class CachedDesign {
+        private final IReportEngine engine;
+        private final long lastModified;
+        private final IReportRunnable design;
+
+        private CachedDesign(IReportEngine engine, long lastModified, IReportRunnable design) {
+            this.engine = engine;
+            this.lastModified = lastModified;
+            this.design = design;
+        }
+    }
+
+}